@@ -1,8 +1,14 @@
 package nl.esn.groningen.groupmaker;
 
 import nl.esn.groningen.groupmaker.model.GroupingModel;
+import nl.esn.groningen.groupmaker.util.BatchSolver;
+import nl.esn.groningen.groupmaker.util.SettingsTuner;
+import nl.esn.groningen.groupmaker.util.SolverWorker;
 import nl.esn.groningen.groupmaker.view.MainFrame;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 /**
  * The {@code GroupMaker} class serves as the entry point for the GroupMaker application.
  * It initializes the application by creating a new instance of the main application frame
@@ -15,11 +21,34 @@ public class GroupMaker {
      *
      * <p>This method initializes the application by creating a new instance of
      * {@link MainFrame}, passing a newly created {@link GroupingModel} to it.
-     * This sets up the GUI and the underlying data model needed for the application to function.</p>
+     * This sets up the GUI and the underlying data model needed for the application to function.
+     * If a manifest of tracks is passed instead, the tracks are solved in batch mode by the
+     * {@link BatchSolver}, without starting the GUI; with {@code --workers}, the batch is solved on
+     * worker processes. If the first argument is {@code --tune}, the settings are tuned over the tracks
+     * of the manifest by the {@link SettingsTuner} instead, and with {@code --worker} the application
+     * runs as a {@link SolverWorker}.</p>
      *
-     * @param args command-line arguments passed to the application (not used)
+     * @param args command-line arguments: none for the GUI, the arguments of
+     *             {@link BatchSolver#main(String[])} for batch mode, {@code --tune} followed by the
+     *             arguments of {@link SettingsTuner#main(String[])}, or {@code --worker} followed by the
+     *             port and optionally the address to listen on
+     * @throws IOException if the manifest cannot be read in batch mode, the settings file cannot be
+     *                     written when tuning, or the port cannot be opened by a worker
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--tune")) {
+            SettingsTuner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--worker")) {
+            SolverWorker.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0) {
+            BatchSolver.main(args);
+            return;
+        }
+
         new MainFrame(new GroupingModel());
     }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package nl.esn.groningen.groupmaker.controller.actions;
+
+import nl.esn.groningen.groupmaker.view.ParetoFrontDialog;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+
+/**
+ * The {@code CancelSolutionAction} class represents an action that closes a
+ * {@link ParetoFrontDialog} without committing any of its solutions.
+ *
+ * @see AbstractAction
+ * @see ParetoFrontDialog
+ */
+public class CancelSolutionAction extends AbstractAction {
+    private final ParetoFrontDialog paretoFrontDialog;
+
+    /**
+     * Constructs a {@code CancelSolutionAction} with the specified dialog.
+     *
+     * <p>This constructor initializes the action with the name "Cancel" and associates
+     * it with the provided {@link ParetoFrontDialog}.</p>
+     *
+     * @param paretoFrontDialog the {@link ParetoFrontDialog} to be disposed of when the action is performed
+     */
+    public CancelSolutionAction(ParetoFrontDialog paretoFrontDialog) {
+        super("Cancel");
+        this.paretoFrontDialog = paretoFrontDialog;
+    }
+
+    /**
+     * Performs the action of disposing of the dialog.
+     *
+     * <p>This method is called when the action is triggered. It closes the associated
+     * {@link ParetoFrontDialog}, leaving the groups of the grouping model unchanged.</p>
+     *
+     * @param e the {@link ActionEvent} that triggered the action
+     */
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        paretoFrontDialog.dispose();
+    }
+}
\ No newline at end of file
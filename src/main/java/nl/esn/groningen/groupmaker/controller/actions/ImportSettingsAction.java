@@ -0,0 +1,55 @@
+package nl.esn.groningen.groupmaker.controller.actions;
+
+import nl.esn.groningen.groupmaker.util.DialogHandler;
+import nl.esn.groningen.groupmaker.view.SettingsDialog;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.io.File;
+
+/**
+ * The {@code ImportSettingsAction} class represents an action that allows users to
+ * import a settings file into a {@link SettingsDialog}. This action is typically
+ * associated with a button in the settings dialog for loading settings, including
+ * the scoring weights, that were stored earlier.
+ *
+ * <p>This class extends {@link AbstractAction} and implements the logic to prompt the
+ * user for a file selection, showing the imported settings in the settings dialog.</p>
+ *
+ * @see AbstractAction
+ * @see SettingsDialog
+ * @see DialogHandler
+ */
+public class ImportSettingsAction extends AbstractAction {
+    private final SettingsDialog settingsDialog;
+
+    /**
+     * Constructs an {@code ImportSettingsAction} with the specified settings dialog.
+     *
+     * <p>This constructor initializes the action with the name "Import", allowing it
+     * to be associated with a button in the settings dialog.</p>
+     *
+     * @param settingsDialog the {@link SettingsDialog} into which the settings will be imported
+     */
+    public ImportSettingsAction(SettingsDialog settingsDialog) {
+        super("Import");
+        this.settingsDialog = settingsDialog;
+    }
+
+    /**
+     * Performs the action of importing settings from a selected file.
+     *
+     * <p>This method is called when the action is triggered (e.g., when the import
+     * button is clicked). It prompts the user to select a settings file and, if a file
+     * is selected, invokes {@link SettingsDialog#importSettings(File)}.</p>
+     *
+     * @param e the {@link ActionEvent} that triggered the action
+     */
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        File selectedFile = DialogHandler.showOpenSettingsFileDialog();
+        if (selectedFile != null) {
+            settingsDialog.importSettings(selectedFile);
+        }
+    }
+}
\ No newline at end of file
@@ -1,7 +1,10 @@
 package nl.esn.groningen.groupmaker.controller.actions;
 
 import nl.esn.groningen.groupmaker.model.GroupingModel;
+import nl.esn.groningen.groupmaker.model.GroupingProblem;
 import nl.esn.groningen.groupmaker.util.GroupingAlgorithm;
+import nl.esn.groningen.groupmaker.util.ParetoSearch;
+import nl.esn.groningen.groupmaker.view.ParetoFrontDialog;
 
 import javax.swing.*;
 import java.awt.event.ActionEvent;
@@ -41,12 +44,19 @@ public class RunAction extends AbstractAction {
      *
      * <p>This method is called when the action is triggered (e.g., when the run
      * button is clicked). It utilizes the {@link GroupingAlgorithm} to form
-     * groups based on the data in the grouping model.</p>
+     * groups based on the data in the grouping model. In multi-objective mode, the
+     * {@link ParetoSearch} computes several alternative solutions instead, and the user
+     * picks one of them in a {@link ParetoFrontDialog}.</p>
      *
      * @param e the {@link ActionEvent} that triggered the action
      */
     @Override
     public void actionPerformed(ActionEvent e) {
-        GroupingAlgorithm.formGroups(groupingModel);
+        if (groupingModel.getSettings().isMultiObjective()) {
+            GroupingProblem problem = groupingModel.getProblem();
+            new ParetoFrontDialog(groupingModel, problem, ParetoSearch.explore(problem));
+        } else {
+            GroupingAlgorithm.formGroups(groupingModel);
+        }
     }
 }
\ No newline at end of file
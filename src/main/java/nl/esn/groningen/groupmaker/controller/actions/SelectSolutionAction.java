@@ -0,0 +1,44 @@
+package nl.esn.groningen.groupmaker.controller.actions;
+
+import nl.esn.groningen.groupmaker.view.ParetoFrontDialog;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+
+/**
+ * The {@code SelectSolutionAction} class represents an action that commits the solution
+ * selected in a {@link ParetoFrontDialog} to the grouping model, and then closes the dialog.
+ *
+ * @see AbstractAction
+ * @see ParetoFrontDialog
+ */
+public class SelectSolutionAction extends AbstractAction {
+    private final ParetoFrontDialog paretoFrontDialog;
+
+    /**
+     * Constructs a {@code SelectSolutionAction} with the specified dialog.
+     *
+     * <p>This constructor initializes the action with the name "Select" and associates
+     * it with the provided {@link ParetoFrontDialog}.</p>
+     *
+     * @param paretoFrontDialog the {@link ParetoFrontDialog} holding the solutions to choose from
+     */
+    public SelectSolutionAction(ParetoFrontDialog paretoFrontDialog) {
+        super("Select");
+        this.paretoFrontDialog = paretoFrontDialog;
+    }
+
+    /**
+     * Performs the action of committing the selected solution.
+     *
+     * <p>This method is called when the action is triggered. It commits the solution
+     * selected in the associated {@link ParetoFrontDialog} and then disposes of the dialog.</p>
+     *
+     * @param e the {@link ActionEvent} that triggered the action
+     */
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        paretoFrontDialog.commitSelection();
+        paretoFrontDialog.dispose();
+    }
+}
\ No newline at end of file
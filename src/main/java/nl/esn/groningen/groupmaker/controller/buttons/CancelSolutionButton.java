@@ -0,0 +1,26 @@
+package nl.esn.groningen.groupmaker.controller.buttons;
+
+import nl.esn.groningen.groupmaker.controller.actions.CancelSolutionAction;
+import nl.esn.groningen.groupmaker.view.ParetoFrontDialog;
+
+/**
+ * The {@code CancelSolutionButton} class represents a button that closes a
+ * {@link ParetoFrontDialog} without committing a solution, by performing the
+ * {@link CancelSolutionAction}.
+ *
+ * @see Button
+ * @see CancelSolutionAction
+ * @see ParetoFrontDialog
+ */
+public class CancelSolutionButton extends Button {
+
+    /**
+     * Constructs a {@code CancelSolutionButton} with the specified dialog and tooltip.
+     *
+     * @param paretoFrontDialog the {@link ParetoFrontDialog} associated with this button
+     * @param tooltip a string representing the tooltip text for this button
+     */
+    public CancelSolutionButton(ParetoFrontDialog paretoFrontDialog, String tooltip) {
+        super(new CancelSolutionAction(paretoFrontDialog), tooltip);
+    }
+}
\ No newline at end of file
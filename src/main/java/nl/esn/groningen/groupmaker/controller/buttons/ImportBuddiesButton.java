@@ -0,0 +1,32 @@
+package nl.esn.groningen.groupmaker.controller.buttons;
+
+import nl.esn.groningen.groupmaker.controller.actions.ImportBuddiesAction;
+import nl.esn.groningen.groupmaker.model.GroupingModel;
+
+/**
+ * The {@code ImportBuddiesButton} class represents a button that triggers the import
+ * of buddy requests when clicked. This button is associated with a {@link GroupingModel}
+ * and performs an action defined by the {@link ImportBuddiesAction}.
+ *
+ * <p>This class extends the {@link Button} class and provides a specific implementation for
+ * importing buddy requests into the application. The button is initialized with a tooltip
+ * and is linked to a {@link GroupingModel} which manages the data related to grouping.</p>
+ *
+ * @see Button
+ * @see ImportBuddiesAction
+ * @see GroupingModel
+ */
+public class ImportBuddiesButton extends Button {
+
+    /**
+     * Constructs an {@code ImportBuddiesButton} with the specified grouping model
+     * and tooltip.
+     *
+     * @param groupingModel the {@link GroupingModel} associated with this button, which manages
+     *                      the data for groupings
+     * @param tooltip a string representing the tooltip text for this button
+     */
+    public ImportBuddiesButton(GroupingModel groupingModel, String tooltip) {
+        super(new ImportBuddiesAction(groupingModel), tooltip);
+    }
+}
\ No newline at end of file
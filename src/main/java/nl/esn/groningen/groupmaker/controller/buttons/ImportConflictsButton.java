@@ -0,0 +1,32 @@
+package nl.esn.groningen.groupmaker.controller.buttons;
+
+import nl.esn.groningen.groupmaker.controller.actions.ImportConflictsAction;
+import nl.esn.groningen.groupmaker.model.GroupingModel;
+
+/**
+ * The {@code ImportConflictsButton} class represents a button that triggers the import
+ * of conflicts when clicked. This button is associated with a {@link GroupingModel}
+ * and performs an action defined by the {@link ImportConflictsAction}.
+ *
+ * <p>This class extends the {@link Button} class and provides a specific implementation for
+ * importing conflicts into the application. The button is initialized with a tooltip
+ * and is linked to a {@link GroupingModel} which manages the data related to grouping.</p>
+ *
+ * @see Button
+ * @see ImportConflictsAction
+ * @see GroupingModel
+ */
+public class ImportConflictsButton extends Button {
+
+    /**
+     * Constructs an {@code ImportConflictsButton} with the specified grouping model
+     * and tooltip.
+     *
+     * @param groupingModel the {@link GroupingModel} associated with this button, which manages
+     *                      the data for groupings
+     * @param tooltip a string representing the tooltip text for this button
+     */
+    public ImportConflictsButton(GroupingModel groupingModel, String tooltip) {
+        super(new ImportConflictsAction(groupingModel), tooltip);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package nl.esn.groningen.groupmaker.controller.buttons;
+
+import nl.esn.groningen.groupmaker.controller.actions.ImportSettingsAction;
+import nl.esn.groningen.groupmaker.view.SettingsDialog;
+
+/**
+ * The {@code ImportSettingsButton} class represents a button that imports a settings file when clicked.
+ * This button is associated with a {@link SettingsDialog} and performs an action defined by
+ * the {@link ImportSettingsAction}.
+ *
+ * <p>This class extends the {@link Button} class and provides a specific implementation for
+ * importing settings in the application. The button is initialized with a tooltip and is
+ * linked to a {@link SettingsDialog} where the settings can be modified.</p>
+ *
+ * @see Button
+ * @see ImportSettingsAction
+ * @see SettingsDialog
+ */
+public class ImportSettingsButton extends Button {
+
+    /**
+     * Constructs an {@code ImportSettingsButton} with the specified settings dialog and tooltip.
+     *
+     * @param settingsDialog the {@link SettingsDialog} associated with this button
+     * @param tooltip a string representing the tooltip text for this button
+     */
+    public ImportSettingsButton(SettingsDialog settingsDialog, String tooltip) {
+        super(new ImportSettingsAction(settingsDialog), tooltip);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package nl.esn.groningen.groupmaker.controller.buttons;
+
+import nl.esn.groningen.groupmaker.controller.actions.SelectSolutionAction;
+import nl.esn.groningen.groupmaker.view.ParetoFrontDialog;
+
+/**
+ * The {@code SelectSolutionButton} class represents a button that commits the solution selected
+ * in a {@link ParetoFrontDialog} when clicked, by performing the {@link SelectSolutionAction}.
+ *
+ * <p>This class extends the {@link Button} class and provides a specific implementation for
+ * choosing one of the alternative solutions found in multi-objective mode.</p>
+ *
+ * @see Button
+ * @see SelectSolutionAction
+ * @see ParetoFrontDialog
+ */
+public class SelectSolutionButton extends Button {
+
+    /**
+     * Constructs a {@code SelectSolutionButton} with the specified dialog and tooltip.
+     *
+     * @param paretoFrontDialog the {@link ParetoFrontDialog} associated with this button
+     * @param tooltip a string representing the tooltip text for this button
+     */
+    public SelectSolutionButton(ParetoFrontDialog paretoFrontDialog, String tooltip) {
+        super(new SelectSolutionAction(paretoFrontDialog), tooltip);
+    }
+}
\ No newline at end of file
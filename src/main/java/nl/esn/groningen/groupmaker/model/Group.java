@@ -99,16 +99,16 @@ public class Group {
     public String getUniversityType() {
         if (participants == null || participants.isEmpty()) return null; // Return null if no participants
 
-        String university = participants.get(0).getUniversity(); // Get the university of the first participant
+        long first = participants.get(0).getEncoded(); // Get the encoded first participant
 
         // Check if all participants belong to the same university
         for (Participant participant : participants) {
-            if (!participant.getUniversity().equals(university)) {
+            if (!ParticipantEncoding.matches(participant.getEncoded(), first, ParticipantEncoding.UNIVERSITY_MASK)) {
                 return "Mixed"; // Return "Mixed" if universities differ
             }
         }
 
-        return university; // Return the university type
+        return participants.get(0).getUniversity(); // Return the university type
     }
 
     /**
@@ -120,16 +120,16 @@ public class Group {
     public String getStudyDurationType() {
         if (participants == null || participants.isEmpty()) return null; // Return null if no participants
 
-        String studyDuration = participants.get(0).getStudyDuration(); // Get study duration of the first participant
+        long first = participants.get(0).getEncoded(); // Get the encoded first participant
 
         // Check if all participants have the same study duration
         for (Participant participant : participants) {
-            if (!participant.getStudyDuration().equals(studyDuration)) {
+            if (!ParticipantEncoding.matches(participant.getEncoded(), first, ParticipantEncoding.STUDY_DURATION_MASK)) {
                 return "Mixed"; // Return "Mixed" if study durations differ
             }
         }
 
-        return studyDuration; // Return study duration type
+        return participants.get(0).getStudyDuration(); // Return study duration type
     }
 
     /**
@@ -141,16 +141,16 @@ public class Group {
     public String getAlcoholType() {
         if (participants == null || participants.isEmpty()) return null; // Return null if no participants
 
-        String alcoholType = participants.get(0).getAlcoholFree(); // Get alcohol preference of the first participant
+        long first = participants.get(0).getEncoded(); // Get the encoded first participant
 
         // Check if all participants have the same alcohol preference
         for (Participant participant : participants) {
-            if (!participant.getAlcoholFree().equals(alcoholType)) {
+            if (!ParticipantEncoding.matches(participant.getEncoded(), first, ParticipantEncoding.ALCOHOL_FREE_MASK)) {
                 return "Mixed"; // Return "Mixed" if preferences differ
             }
         }
 
-        return alcoholType; // Return alcohol preference type
+        return participants.get(0).getAlcoholFree(); // Return alcohol preference type
     }
 
     /**
@@ -163,7 +163,25 @@ public class Group {
 
         int number = 0;
         for (Participant participant : participants) {
-            if (!participant.getDiet().equals("None")) {
+            if (ParticipantEncoding.isPlantBased(participant.getEncoded())) {
+                number++;
+            }
+        }
+
+        return number;
+    }
+
+    /**
+     * Counts the number of participants who are willing to become a Group Leader.
+     *
+     * @return the number of potential Group Leaders
+     */
+    public int getNumberOfGroupLeaders() {
+        if (participants == null) return 0;
+
+        int number = 0;
+        for (Participant participant : participants) {
+            if (ParticipantEncoding.canGuide(participant.getEncoded())) {
                 number++;
             }
         }
@@ -181,11 +199,11 @@ public class Group {
 
         int male = 0, female = 0, other = 0;
         for (Participant participant : participants) {
-            switch (participant.getGender()) {
-                case "Male":
+            switch (ParticipantEncoding.gender(participant.getEncoded())) {
+                case ParticipantEncoding.GENDER_MALE:
                     male++;
                     break;
-                case "Female":
+                case ParticipantEncoding.GENDER_FEMALE:
                     female++;
                     break;
                 default:
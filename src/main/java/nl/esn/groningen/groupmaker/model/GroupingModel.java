@@ -15,7 +15,7 @@ import java.util.*;
  * to allow observers to receive updates when the state changes.
  *
  * <p>This class handles the storage of various settings, guide clusters, participant lists,
- * group configurations, and themes. It provides methods to load data from files and
+ * group configurations, themes, buddy requests, and conflicts. It provides methods to load data from files and
  * perform checks to ensure the validity of the groupings and themes based on the
  * given settings.</p>
  *
@@ -28,12 +28,19 @@ public class GroupingModel extends Observable implements Observer {
     private Settings settings;
     private List<GuideCluster> guideClusters;
     private List<Participant> participants;
+    private ParticipantStore participantStore;
     private List<Group> groups;
+    private Solution solution;
     private String[] themes;
+    private int[] themeInterests;
+    private List<String[]> buddies;
+    private List<String[]> conflicts;
     private File emailTemplate;
     private String guidesFilePath;
     private String participantsFilePath;
     private String themesFilePath;
+    private String buddiesFilePath;
+    private String conflictsFilePath;
     private String outputFolderPath;
     private boolean solved = false;
 
@@ -70,18 +77,8 @@ public class GroupingModel extends Observable implements Observer {
             return;
         }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            List<Guide> guides = new ArrayList<>();
-            br.readLine(); // Read header (not used)
-            String line = br.readLine();
-
-            // Read all lines and create Guide objects
-            while (line != null) {
-                Guide guide = new Guide(line);
-                guides.add(guide);
-                line = br.readLine();
-            }
-
+        try {
+            List<Guide> guides = readGuides(file);
             this.guidesFilePath = file.getAbsolutePath();
             this.guideClusters = separateGuidesIntoClusters(guides);
             checkGuideClustersQuantity();
@@ -98,6 +95,30 @@ public class GroupingModel extends Observable implements Observer {
         }
     }
 
+    /**
+     * Reads the guides from the specified file.
+     *
+     * @param file the file containing guide information
+     * @return a list holding a {@link Guide} for every line after the header
+     * @throws IOException if the file cannot be read
+     */
+    private static List<Guide> readGuides(File file) throws IOException {
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            List<Guide> guides = new ArrayList<>();
+            br.readLine(); // Read header (not used)
+            String line = br.readLine();
+
+            // Read all lines and create Guide objects
+            while (line != null) {
+                Guide guide = new Guide(line);
+                guides.add(guide);
+                line = br.readLine();
+            }
+
+            return guides;
+        }
+    }
+
     /**
      * Separates a list of guides into clusters based on their cluster numbers.
      *
@@ -136,20 +157,11 @@ public class GroupingModel extends Observable implements Observer {
             return; // Exit if user cancels overwrite
         }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            List<Participant> participants = new ArrayList<>();
-            br.readLine(); // Read header (not used)
-            String line = br.readLine();
-
-            // Read all lines and create Participant objects
-            while (line != null) {
-                Participant participant = new Participant(line);
-                participants.add(participant);
-                line = br.readLine();
-            }
-
+        try {
+            List<Participant> participants = readParticipants(file);
             this.participantsFilePath = file.getAbsolutePath();
             this.participants = participants;
+            this.participantStore = new ParticipantStore(participants);
             checkGuideClustersQuantity();
             checkThemesQuantity();
         } catch (IOException ex) {
@@ -164,6 +176,30 @@ public class GroupingModel extends Observable implements Observer {
         }
     }
 
+    /**
+     * Reads the participants from the specified file.
+     *
+     * @param file the file containing participant information
+     * @return a list holding a {@link Participant} for every line after the header
+     * @throws IOException if the file cannot be read
+     */
+    private static List<Participant> readParticipants(File file) throws IOException {
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            List<Participant> participants = new ArrayList<>();
+            br.readLine(); // Read header (not used)
+            String line = br.readLine();
+
+            // Read all lines and create Participant objects
+            while (line != null) {
+                Participant participant = new Participant(line);
+                participants.add(participant);
+                line = br.readLine();
+            }
+
+            return participants;
+        }
+    }
+
     /**
      * Sets the participants for this model directly from a provided list.
      *
@@ -171,6 +207,7 @@ public class GroupingModel extends Observable implements Observer {
      */
     public void setParticipants(List<Participant> participants) {
         this.participants = participants;
+        this.participantStore = participants != null ? new ParticipantStore(participants) : null;
     }
 
     /**
@@ -185,15 +222,120 @@ public class GroupingModel extends Observable implements Observer {
             return; // Exit if user cancels overwrite
         }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line = br.readLine();
-            String[] themes = line.split(","); // Split line into themes
+        try {
+            String[] themes = readThemes(file);
+            int[] themeInterests = separateThemeInterests(themes);
             this.themesFilePath = file.getAbsolutePath();
             this.themes = themes;
+            this.themeInterests = themeInterests;
             checkThemesQuantity();
         } catch (IOException ex) {
             this.themesFilePath = null;
             this.themes = null;
+            this.themeInterests = null;
+            DialogHandler.showImportError();
+        } finally {
+            solved = false;
+            setChanged();
+            notifyObservers();
+        }
+    }
+
+    /**
+     * Reads the themes from the first line of the specified file.
+     *
+     * @param file the file containing the themes
+     * @return the themes, possibly still tagged with an interest
+     * @throws IOException if the file cannot be read
+     */
+    private static String[] readThemes(File file) throws IOException {
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line = br.readLine();
+            if (line == null) throw new IOException("The themes file is empty");
+            return line.split(","); // Split line into themes
+        }
+    }
+
+    /**
+     * Removes the interest tags from the themes, and returns the encoded interest of every theme.
+     *
+     * @param themes the themes, which may be tagged with an interest, e.g. "Pirates:Party"
+     * @return the encoded interest of every theme; {@link ParticipantEncoding#INTEREST_OTHER} for untagged themes
+     */
+    private static int[] separateThemeInterests(String[] themes) {
+        int[] themeInterests = new int[themes.length];
+        for (int i = 0; i < themes.length; i++) {
+            // A theme may be tagged with an interest, e.g. "Pirates:Party"
+            int separator = themes[i].lastIndexOf(':');
+            if (separator >= 0) {
+                themeInterests[i] = ParticipantEncoding.parseInterest(themes[i].substring(separator + 1));
+                themes[i] = themes[i].substring(0, separator);
+            } else {
+                themeInterests[i] = ParticipantEncoding.INTEREST_OTHER;
+            }
+        }
+        return themeInterests;
+    }
+
+    /**
+     * Loads all input files of an event at once, without asking or warning the user.
+     *
+     * <p>This method is used in batch mode (see {@link nl.esn.groningen.groupmaker.util.BatchSolver}),
+     * where no user is present to answer dialogs. Files that are {@code null} are skipped. Nothing is
+     * changed if any of the files cannot be read.</p>
+     *
+     * @param settings the {@link Settings} to be applied to this model
+     * @param participantsFile the file containing participant information
+     * @param guidesFile the file containing guide information, or {@code null}
+     * @param themesFile the file containing the themes, or {@code null}
+     * @param buddiesFile the file containing the buddy requests, or {@code null}
+     * @param conflictsFile the file containing the conflicts, or {@code null}
+     * @throws IOException if any of the files cannot be read
+     */
+    public void load(Settings settings, File participantsFile, File guidesFile, File themesFile,
+                     File buddiesFile, File conflictsFile) throws IOException {
+        List<Participant> participants = readParticipants(participantsFile);
+        List<Guide> guides = guidesFile != null ? readGuides(guidesFile) : null;
+        String[] themes = themesFile != null ? readThemes(themesFile) : null;
+        List<String[]> buddies = buddiesFile != null ? readEmailLists(buddiesFile) : null;
+        List<String[]> conflicts = conflictsFile != null ? readEmailLists(conflictsFile) : null;
+
+        this.settings = settings;
+        this.participantsFilePath = participantsFile.getAbsolutePath();
+        setParticipants(participants);
+        this.guidesFilePath = guidesFile != null ? guidesFile.getAbsolutePath() : null;
+        this.guideClusters = guides != null ? separateGuidesIntoClusters(guides) : null;
+        this.themesFilePath = themesFile != null ? themesFile.getAbsolutePath() : null;
+        this.themeInterests = themes != null ? separateThemeInterests(themes) : null;
+        this.themes = themes;
+        this.buddiesFilePath = buddiesFile != null ? buddiesFile.getAbsolutePath() : null;
+        this.buddies = buddies;
+        this.conflictsFilePath = conflictsFile != null ? conflictsFile.getAbsolutePath() : null;
+        this.conflicts = conflicts;
+        this.solved = false;
+    }
+
+    /**
+     * Loads buddy requests from the specified file.
+     *
+     * <p>Every line after the header holds the email addresses of participants that asked to be
+     * placed in the same group. If a buddies file is already loaded, the user will be prompted to
+     * confirm overwriting.</p>
+     *
+     * @param file the file containing the buddy requests
+     */
+    public void setBuddies(File file) {
+        if (buddiesFilePath != null && !DialogHandler.confirmOverwriteWarning()) {
+            return; // Exit if user cancels overwrite
+        }
+
+        try {
+            this.buddies = readEmailLists(file);
+            this.buddiesFilePath = file.getAbsolutePath();
+        } catch (IOException ex) {
+            // Reset values on error
+            this.buddiesFilePath = null;
+            this.buddies = null;
             DialogHandler.showImportError();
         } finally {
             solved = false;
@@ -202,6 +344,62 @@ public class GroupingModel extends Observable implements Observer {
         }
     }
 
+    /**
+     * Loads conflicts from the specified file.
+     *
+     * <p>Every line after the header holds the email addresses of participants that must not be
+     * placed in the same group. If a conflicts file is already loaded, the user will be prompted to
+     * confirm overwriting.</p>
+     *
+     * @param file the file containing the conflicts
+     */
+    public void setConflicts(File file) {
+        if (conflictsFilePath != null && !DialogHandler.confirmOverwriteWarning()) {
+            return; // Exit if user cancels overwrite
+        }
+
+        try {
+            this.conflicts = readEmailLists(file);
+            this.conflictsFilePath = file.getAbsolutePath();
+        } catch (IOException ex) {
+            // Reset values on error
+            this.conflictsFilePath = null;
+            this.conflicts = null;
+            DialogHandler.showImportError();
+        } finally {
+            solved = false;
+            setChanged();
+            notifyObservers();
+        }
+    }
+
+    /**
+     * Reads a file in which every line after the header holds a list of email addresses.
+     *
+     * @param file the file to read
+     * @return a list holding the email addresses of every line
+     * @throws IOException if the file cannot be read
+     */
+    private static List<String[]> readEmailLists(File file) throws IOException {
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            List<String[]> lists = new ArrayList<>();
+            br.readLine(); // Read header (not used)
+            String line = br.readLine();
+
+            // Read all lines and collect the email addresses of every line
+            while (line != null) {
+                String[] emails = line.split(",", -1);
+                for (int i = 0; i < emails.length; i++) {
+                    emails[i] = emails[i].replaceAll("^\"|\"$", "").trim();
+                }
+                lists.add(emails);
+                line = br.readLine();
+            }
+
+            return lists;
+        }
+    }
+
     /**
      * Sets the email template file for this model.
      *
@@ -228,6 +426,21 @@ public class GroupingModel extends Observable implements Observer {
         this.groups = groups;
     }
 
+    /**
+     * Commits a solution of the given problem to this model.
+     *
+     * <p>This updates the group numbers of the participants and guide clusters, replaces the groups
+     * of this model and marks the model as solved.</p>
+     *
+     * @param problem the {@link GroupingProblem} the solution was computed for
+     * @param solution the {@link Solution} to commit
+     */
+    public void commit(GroupingProblem problem, Solution solution) {
+        this.groups = solution.commit(problem);
+        this.solution = solution;
+        setSolved(true);
+    }
+
     /**
      * Sets the output folder path for this model.
      *
@@ -274,6 +487,65 @@ public class GroupingModel extends Observable implements Observer {
         return groups;
     }
 
+    /**
+     * Returns the solution that was last committed to this model.
+     *
+     * @return the committed {@link Solution}, or {@code null} if no solution was committed
+     */
+    public Solution getSolution() {
+        return solution;
+    }
+
+    /**
+     * Returns a snapshot of the current input data that can be passed to the grouping algorithm.
+     * The settings, the list of guide clusters and the theme arrays are copied, so changing the model
+     * or its settings afterwards does not affect the problem; the participant store is never changed
+     * once it is built, so it is shared.
+     *
+     * @return a new {@link GroupingProblem} for the current participants, guide clusters, themes and settings
+     */
+    public GroupingProblem getProblem() {
+        return new GroupingProblem(participantStore,
+                guideClusters != null ? Collections.unmodifiableList(new ArrayList<>(guideClusters)) : null,
+                themes != null ? themes.clone() : null, themeInterests != null ? themeInterests.clone() : null,
+                resolvePairs(buddies), resolvePairs(conflicts), new Settings(settings));
+    }
+
+    /**
+     * Translates lists of email addresses (buddy requests or conflicts) into pairs of participant
+     * indices. The first participant of every list is paired with each of the others. Email
+     * addresses that do not belong to an imported participant are ignored.
+     *
+     * @param emailLists the lists of email addresses
+     * @return the pairs as consecutive participant indices, or {@code null} if no lists were imported
+     */
+    private int[] resolvePairs(List<String[]> emailLists) {
+        if (emailLists == null || participants == null) return null;
+
+        Map<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < participants.size(); i++) {
+            indices.put(participants.get(i).getEmail().toLowerCase(), i);
+        }
+
+        // Pair the first participant of every list with each of the others
+        List<Integer> pairs = new ArrayList<>();
+        for (String[] emails : emailLists) {
+            Integer first = null;
+            for (String email : emails) {
+                Integer index = indices.get(email.toLowerCase());
+                if (index == null || index.equals(first)) continue;
+                if (first == null) {
+                    first = index;
+                } else {
+                    pairs.add(first);
+                    pairs.add(index);
+                }
+            }
+        }
+
+        return pairs.stream().mapToInt(Integer::intValue).toArray();
+    }
+
     /**
      * Returns the list of guide clusters.
      *
@@ -292,6 +564,15 @@ public class GroupingModel extends Observable implements Observer {
         return participants;
     }
 
+    /**
+     * Returns the columnar store of the participants, built when the participants were imported.
+     *
+     * @return the {@link ParticipantStore}, or {@code null} if no participants have been imported
+     */
+    public ParticipantStore getParticipantStore() {
+        return participantStore;
+    }
+
     /**
      * Returns the themes associated with this model.
      *
@@ -319,6 +600,24 @@ public class GroupingModel extends Observable implements Observer {
         return participantsFilePath;
     }
 
+    /**
+     * Returns the file path of the buddies file.
+     *
+     * @return the buddies file path as a string
+     */
+    public String getBuddiesFilePath() {
+        return buddiesFilePath;
+    }
+
+    /**
+     * Returns the file path of the conflicts file.
+     *
+     * @return the conflicts file path as a string
+     */
+    public String getConflictsFilePath() {
+        return conflictsFilePath;
+    }
+
     /**
      * Returns the file path of the themes file.
      *
@@ -0,0 +1,118 @@
+package nl.esn.groningen.groupmaker.model;
+
+import java.util.List;
+
+/**
+ * The {@code GroupingProblem} class is an immutable snapshot of everything the grouping
+ * algorithm needs to form groups: the participants, the guide clusters, the themes, the buddy and
+ * conflict pairs, and the settings.
+ *
+ * <p>A problem is taken from the {@link GroupingModel} right before solving, which copies its settings,
+ * guide cluster list and themes into the problem (see {@link GroupingModel#getProblem()}), so changes
+ * to the model do not reach a problem that is being solved. The arrays returned by the problem must not
+ * be modified. Because the solver only reads from the problem and writes its results into a separate
+ * {@link Solution}, several solutions for the same problem can be computed (also in parallel) without
+ * affecting each other.</p>
+ *
+ * @see GroupingModel
+ * @see Solution
+ */
+public class GroupingProblem {
+    private final ParticipantStore participantStore;
+    private final List<GuideCluster> guideClusters;
+    private final String[] themes;
+    private final int[] themeInterests;
+    private final int[] buddyPairs;
+    private final int[] conflictPairs;
+    private final Settings settings;
+
+    /**
+     * Constructs a {@code GroupingProblem} with the given input data.
+     *
+     * @param participantStore the columnar store of the participants to be grouped
+     * @param guideClusters the guide clusters to assign to groups, or {@code null} if none were imported
+     * @param themes the themes to assign to groups, or {@code null} if none were imported
+     * @param themeInterests the encoded interest of every theme, or {@code null} if no themes were imported
+     * @param buddyPairs the participants that asked to be placed together, as consecutive pairs of
+     *                   participant indices, or {@code null} if no buddies were imported
+     * @param conflictPairs the participants that must be kept apart, as consecutive pairs of
+     *                      participant indices, or {@code null} if no conflicts were imported
+     * @param settings the settings used for forming groups
+     */
+    public GroupingProblem(ParticipantStore participantStore, List<GuideCluster> guideClusters, String[] themes,
+                           int[] themeInterests, int[] buddyPairs, int[] conflictPairs, Settings settings) {
+        this.participantStore = participantStore;
+        this.guideClusters = guideClusters;
+        this.themes = themes;
+        this.themeInterests = themeInterests;
+        this.buddyPairs = buddyPairs;
+        this.conflictPairs = conflictPairs;
+        this.settings = settings;
+    }
+
+    /**
+     * Returns the columnar store of the participants.
+     *
+     * @return the {@link ParticipantStore}
+     */
+    public ParticipantStore getParticipantStore() {
+        return participantStore;
+    }
+
+    /**
+     * Returns the guide clusters.
+     *
+     * @return a list of {@link GuideCluster} objects, or {@code null} if none were imported
+     */
+    public List<GuideCluster> getGuideClusters() {
+        return guideClusters;
+    }
+
+    /**
+     * Returns the themes.
+     *
+     * @return an array of theme strings, or {@code null} if none were imported
+     */
+    public String[] getThemes() {
+        return themes;
+    }
+
+    /**
+     * Returns the encoded interest of every theme. Themes that were not tagged with an interest
+     * have the value {@link ParticipantEncoding#INTEREST_OTHER}.
+     *
+     * @return an array of interest values, or {@code null} if no themes were imported
+     */
+    public int[] getThemeInterests() {
+        return themeInterests;
+    }
+
+    /**
+     * Returns the participants that asked to be placed together. The participants of pair {@code i}
+     * are found at indices {@code 2i} and {@code 2i + 1}.
+     *
+     * @return an array of participant indices, or {@code null} if no buddies were imported
+     */
+    public int[] getBuddyPairs() {
+        return buddyPairs;
+    }
+
+    /**
+     * Returns the participants that must not be placed in the same group. The participants of pair
+     * {@code i} are found at indices {@code 2i} and {@code 2i + 1}.
+     *
+     * @return an array of participant indices, or {@code null} if no conflicts were imported
+     */
+    public int[] getConflictPairs() {
+        return conflictPairs;
+    }
+
+    /**
+     * Returns the settings.
+     *
+     * @return the {@link Settings} used for forming groups
+     */
+    public Settings getSettings() {
+        return settings;
+    }
+}
\ No newline at end of file
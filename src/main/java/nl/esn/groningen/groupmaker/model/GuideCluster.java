@@ -29,12 +29,15 @@ public class GuideCluster {
     }
 
     /**
-     * Sets the group number associated with this guide cluster.
+     * Sets the group number associated with this guide cluster and all of its guides.
      *
      * @param groupNumber the unique identifier for the group to which this guide cluster belongs
      */
     public void setGroupNumber(int groupNumber) {
         this.groupNumber = groupNumber;
+        for (Guide guide : guides) {
+            guide.setGroupNumber(groupNumber);
+        }
     }
 
     /**
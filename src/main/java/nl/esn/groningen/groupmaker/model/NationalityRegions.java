@@ -0,0 +1,96 @@
+package nl.esn.groningen.groupmaker.model;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The {@code NationalityRegions} class maps nationalities to the regions of the world they belong to,
+ * so the grouping algorithm can spread participants over regions as well as over nationalities.
+ *
+ * <p>Nationalities are looked up by the English name of their country, ignoring case and surrounding
+ * spaces, as they appear in the participants file. Nationalities that are not in the table belong to
+ * no region. The table is only consulted while the participants are imported (see
+ * {@link ParticipantStore}); afterwards, every participant carries the id of its region.</p>
+ */
+public class NationalityRegions {
+
+    /**
+     * Region id used for participants whose nationality is unknown or not in the table.
+     */
+    public static final int UNKNOWN_REGION = -1;
+
+    private static final String[] REGIONS = {
+            "Western Europe", "Northern Europe", "Southern Europe", "Central and Eastern Europe",
+            "North America", "Latin America", "Middle East and North Africa", "Sub-Saharan Africa",
+            "Central and South Asia", "East Asia", "Southeast Asia", "Oceania"
+    };
+
+    private static final String[][] COUNTRIES = {
+            {"Austria", "Belgium", "France", "Germany", "Ireland", "Liechtenstein", "Luxembourg", "Monaco",
+                    "Netherlands", "The Netherlands", "Switzerland", "United Kingdom", "UK"},
+            {"Denmark", "Estonia", "Finland", "Iceland", "Latvia", "Lithuania", "Norway", "Sweden"},
+            {"Andorra", "Cyprus", "Greece", "Italy", "Malta", "Portugal", "San Marino", "Spain"},
+            {"Albania", "Armenia", "Azerbaijan", "Belarus", "Bosnia and Herzegovina", "Bulgaria", "Croatia",
+                    "Czech Republic", "Czechia", "Georgia", "Hungary", "Kosovo", "Moldova", "Montenegro",
+                    "North Macedonia", "Poland", "Romania", "Russia", "Serbia", "Slovakia", "Slovenia", "Ukraine"},
+            {"Canada", "United States", "United States of America", "USA"},
+            {"Argentina", "Bolivia", "Brazil", "Chile", "Colombia", "Costa Rica", "Cuba", "Dominican Republic",
+                    "Ecuador", "El Salvador", "Guatemala", "Honduras", "Jamaica", "Mexico", "Nicaragua", "Panama",
+                    "Paraguay", "Peru", "Suriname", "Trinidad and Tobago", "Uruguay", "Venezuela"},
+            {"Algeria", "Bahrain", "Egypt", "Iran", "Iraq", "Israel", "Jordan", "Kuwait", "Lebanon", "Libya",
+                    "Morocco", "Oman", "Palestine", "Qatar", "Saudi Arabia", "Syria", "Tunisia", "Turkey",
+                    "T\u00fcrkiye", "United Arab Emirates", "Yemen"},
+            {"Angola", "Benin", "Botswana", "Burkina Faso", "Burundi", "Cameroon", "Congo", "Ethiopia", "Ghana",
+                    "Ivory Coast", "Kenya", "Madagascar", "Malawi", "Mali", "Mozambique", "Namibia", "Niger",
+                    "Nigeria", "Rwanda", "Senegal", "Sierra Leone", "Somalia", "South Africa", "Sudan", "Tanzania",
+                    "Uganda", "Zambia", "Zimbabwe"},
+            {"Afghanistan", "Bangladesh", "India", "Kazakhstan", "Kyrgyzstan", "Nepal", "Pakistan", "Sri Lanka",
+                    "Tajikistan", "Turkmenistan", "Uzbekistan"},
+            {"China", "Hong Kong", "Japan", "Macau", "Mongolia", "North Korea", "South Korea", "Korea", "Taiwan"},
+            {"Brunei", "Cambodia", "Indonesia", "Laos", "Malaysia", "Myanmar", "Philippines", "Singapore",
+                    "Thailand", "Vietnam"},
+            {"Australia", "Fiji", "New Zealand", "Papua New Guinea"}
+    };
+
+    private static final Map<String, Integer> REGION_BY_COUNTRY = new HashMap<>();
+
+    static {
+        for (int region = 0; region < COUNTRIES.length; region++) {
+            for (String country : COUNTRIES[region]) {
+                REGION_BY_COUNTRY.put(country.toLowerCase(Locale.ROOT), region);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of regions.
+     *
+     * @return The number of region ids.
+     */
+    public static int getRegionCount() {
+        return REGIONS.length;
+    }
+
+    /**
+     * Returns the name of a region.
+     *
+     * @param region The region id.
+     * @return The name of the region, or {@code null} for {@link #UNKNOWN_REGION}.
+     */
+    public static String getRegionName(int region) {
+        return region == UNKNOWN_REGION ? null : REGIONS[region];
+    }
+
+    /**
+     * Looks up the region of a nationality.
+     *
+     * @param nationality The nationality, as the English name of a country.
+     * @return The region id, or {@link #UNKNOWN_REGION} if the nationality is not in the table.
+     */
+    public static int getRegion(String nationality) {
+        if (nationality == null) return UNKNOWN_REGION;
+        Integer region = REGION_BY_COUNTRY.get(nationality.trim().toLowerCase(Locale.ROOT));
+        return region != null ? region : UNKNOWN_REGION;
+    }
+}
\ No newline at end of file
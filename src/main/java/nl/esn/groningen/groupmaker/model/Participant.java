@@ -1,5 +1,8 @@
 package nl.esn.groningen.groupmaker.model;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
 /**
  * The {@code Participant} class represents a participant in the GroupMaker application.
  *
@@ -9,8 +12,14 @@ package nl.esn.groningen.groupmaker.model;
  */
 public class Participant {
 
+    /**
+     * Value of {@link #getBirthDay()} for participants whose date of birth is missing or invalid.
+     */
+    public static final int UNKNOWN_BIRTH_DAY = Integer.MIN_VALUE;
+
     /**
      * Enum representing the gender of the participant.
+     * The declaration order defines the encoded value (see {@link ParticipantEncoding}).
      */
     private enum Gender {
         MALE, FEMALE, OTHER
@@ -18,6 +27,7 @@ public class Participant {
 
     /**
      * Enum representing the dietary preference of the participant.
+     * The declaration order defines the encoded value (see {@link ParticipantEncoding}).
      */
     private enum Diet {
         NONE, PESCATARIAN, VEGETARIAN, VEGAN
@@ -25,6 +35,7 @@ public class Participant {
 
     /**
      * Enum representing the university the participant is associated with.
+     * The declaration order defines the encoded value (see {@link ParticipantEncoding}).
      */
     private enum University {
         UG, HANZE, OTHER
@@ -32,11 +43,20 @@ public class Participant {
 
     /**
      * Enum representing the duration of the participant's study.
+     * The declaration order defines the encoded value (see {@link ParticipantEncoding}).
      */
     private enum StudyDuration {
         PHD, FULL_MASTER, EXCHANGE_MA, FULL_BACHELOR, EXCHANGE_1, EXCHANGE_2, OTHER
     }
 
+    /**
+     * Enum representing the main Introduction Week interest of the participant.
+     * The declaration order defines the encoded value (see {@link ParticipantEncoding}).
+     */
+    private enum Interest {
+        PARTY, SPORTS, TRAVEL, CULTURE, OTHER
+    }
+
     // Participant attributes
     private final String phoneNumber;
     private final String email;
@@ -45,6 +65,7 @@ public class Participant {
     private final Gender gender;
     private final String nationality;
     private final String birthDate;
+    private final int birthDay;
     private final University university;
     private final StudyDuration studyDuration;
     private final Diet diet;
@@ -52,6 +73,8 @@ public class Participant {
     private final boolean alcoholFree;
     private final boolean requestsGuide;
     private final boolean canGuide;
+    private final Interest interest;
+    private final long encoded;
     private int groupNumber;
 
     /**
@@ -74,6 +97,7 @@ public class Participant {
                 (characteristics[4].equals("female") ? Gender.FEMALE : Gender.OTHER);
         this.nationality = characteristics[6].replaceAll("^\"|\"$", "");
         this.birthDate = characteristics[5];
+        this.birthDay = parseBirthDay(characteristics[5]);
         this.university = characteristics[8].equals("university_of_groningen") ? University.UG :
                 (characteristics[8].equals("hanze_university") ? University.HANZE : University.OTHER);
         this.studyDuration = characteristics[10].equals("phd") ? StudyDuration.PHD :
@@ -94,6 +118,29 @@ public class Participant {
         this.alcoholFree = !characteristics[21].isEmpty() && characteristics[21].charAt(0) == 'Y';
         this.requestsGuide = !characteristics[23].isEmpty() && characteristics[23].charAt(0) == 'Y';
         this.canGuide = !characteristics[24].isEmpty() && characteristics[24].charAt(0) == 'Y';
+        this.interest = characteristics[22].startsWith("Party") ? Interest.PARTY :
+                (characteristics[22].startsWith("Sport") ? Interest.SPORTS :
+                        (characteristics[22].startsWith("Travel") ? Interest.TRAVEL :
+                                (characteristics[22].startsWith("Culture") ? Interest.CULTURE : Interest.OTHER)));
+
+        // Pack the categorical attributes into a single word for fast comparisons
+        this.encoded = ParticipantEncoding.encode(gender.ordinal(), university.ordinal(), studyDuration.ordinal(),
+                diet.ordinal(), alcoholFree, requestsGuide, canGuide, interest.ordinal());
+    }
+
+    /**
+     * Parses a date of birth in the format YYYY-MM-DD.
+     *
+     * @param birthDate The date of birth as written in the participants file.
+     * @return The date of birth as a number of days since 1970-01-01, or {@link #UNKNOWN_BIRTH_DAY}
+     *         if the date is missing or invalid.
+     */
+    private static int parseBirthDay(String birthDate) {
+        try {
+            return (int) LocalDate.parse(birthDate.replaceAll("^\"|\"$", "").trim()).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return UNKNOWN_BIRTH_DAY;
+        }
     }
 
     /**
@@ -169,6 +216,16 @@ public class Participant {
         return birthDate;
     }
 
+    /**
+     * Returns the birthdate of the participant as parsed at import.
+     *
+     * @return The participant's birthdate as a number of days since 1970-01-01, or
+     *         {@link #UNKNOWN_BIRTH_DAY} if it is missing or invalid.
+     */
+    public int getBirthDay() {
+        return birthDay;
+    }
+
     /**
      * Returns the university the participant is associated with as a string.
      *
@@ -237,6 +294,26 @@ public class Participant {
         return alcoholFree ? "Yes" : "No";
     }
 
+    /**
+     * Returns the main Introduction Week interest of the participant as a string.
+     *
+     * @return The participant's interest ("Party", "Sports", "Travel", "Culture", or "Other").
+     */
+    public String getInterest() {
+        String interestString = interest.toString();
+        return interestString.substring(0, 1).toUpperCase() + interestString.substring(1).toLowerCase();
+    }
+
+    /**
+     * Returns the encoded form of the participant's categorical attributes.
+     *
+     * @return The participant's attributes packed into a single {@code long}.
+     * @see ParticipantEncoding
+     */
+    public long getEncoded() {
+        return encoded;
+    }
+
     /**
      * Returns the group number assigned to the participant.
      *
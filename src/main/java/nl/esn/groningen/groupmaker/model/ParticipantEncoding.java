@@ -0,0 +1,213 @@
+package nl.esn.groningen.groupmaker.model;
+
+/**
+ * The {@code ParticipantEncoding} class defines the compact encoded form of a {@link Participant}.
+ *
+ * <p>All categorical attributes that are used for scoring (gender, university, study duration,
+ * diet, alcohol preference, the two Group Leader related flags and the Introduction Week interest)
+ * are packed into a single {@code long}. Two participants can then be compared on any combination
+ * of attributes with a single mask-and-compare operation, without creating or comparing any strings.</p>
+ *
+ * <p>The numeric values of the categories correspond to the declaration order of the enums in
+ * {@link Participant}.</p>
+ *
+ * @see Participant
+ */
+public final class ParticipantEncoding {
+
+    // Gender values (bits 0-1)
+    public static final int GENDER_MALE = 0;
+    public static final int GENDER_FEMALE = 1;
+    public static final int GENDER_OTHER = 2;
+    public static final int GENDER_COUNT = 3;
+
+    // University values (bits 2-3)
+    public static final int UNIVERSITY_UG = 0;
+    public static final int UNIVERSITY_HANZE = 1;
+    public static final int UNIVERSITY_OTHER = 2;
+    public static final int UNIVERSITY_COUNT = 3;
+
+    // Study duration values (bits 4-6)
+    public static final int STUDY_DURATION_OTHER = 6;
+    public static final int STUDY_DURATION_COUNT = 7;
+
+    // Diet values (bits 7-8)
+    public static final int DIET_NONE = 0;
+    public static final int DIET_COUNT = 4;
+
+    // Interest values (bits 12-14)
+    public static final int INTEREST_PARTY = 0;
+    public static final int INTEREST_SPORTS = 1;
+    public static final int INTEREST_TRAVEL = 2;
+    public static final int INTEREST_CULTURE = 3;
+    public static final int INTEREST_OTHER = 4;
+    public static final int INTEREST_COUNT = 5;
+
+    // Bit offsets of the attributes
+    private static final int GENDER_SHIFT = 0;
+    private static final int UNIVERSITY_SHIFT = 2;
+    private static final int STUDY_DURATION_SHIFT = 4;
+    private static final int DIET_SHIFT = 7;
+    private static final int ALCOHOL_FREE_SHIFT = 9;
+    private static final int REQUESTS_GUIDE_SHIFT = 10;
+    private static final int CAN_GUIDE_SHIFT = 11;
+    private static final int INTEREST_SHIFT = 12;
+
+    // Masks selecting the bits of a single attribute
+    public static final long GENDER_MASK = 0b11L << GENDER_SHIFT;
+    public static final long UNIVERSITY_MASK = 0b11L << UNIVERSITY_SHIFT;
+    public static final long STUDY_DURATION_MASK = 0b111L << STUDY_DURATION_SHIFT;
+    public static final long DIET_MASK = 0b11L << DIET_SHIFT;
+    public static final long ALCOHOL_FREE_MASK = 1L << ALCOHOL_FREE_SHIFT;
+    public static final long REQUESTS_GUIDE_MASK = 1L << REQUESTS_GUIDE_SHIFT;
+    public static final long CAN_GUIDE_MASK = 1L << CAN_GUIDE_SHIFT;
+    public static final long INTEREST_MASK = 0b111L << INTEREST_SHIFT;
+
+    /**
+     * Prevents instantiation of this constants and helper class.
+     */
+    private ParticipantEncoding() {
+    }
+
+    /**
+     * Packs the categorical attributes of a participant into a single {@code long}.
+     *
+     * @param gender the gender value
+     * @param university the university value
+     * @param studyDuration the study duration value
+     * @param diet the diet value
+     * @param alcoholFree whether the participant prefers an alcohol-free group
+     * @param requestsGuide whether the participant requests an Introduction Guide
+     * @param canGuide whether the participant is willing to become a Group Leader
+     * @param interest the interest value
+     * @return the encoded participant
+     */
+    public static long encode(int gender, int university, int studyDuration, int diet,
+                              boolean alcoholFree, boolean requestsGuide, boolean canGuide, int interest) {
+        return ((long) gender << GENDER_SHIFT)
+                | ((long) university << UNIVERSITY_SHIFT)
+                | ((long) studyDuration << STUDY_DURATION_SHIFT)
+                | ((long) diet << DIET_SHIFT)
+                | (alcoholFree ? ALCOHOL_FREE_MASK : 0L)
+                | (requestsGuide ? REQUESTS_GUIDE_MASK : 0L)
+                | (canGuide ? CAN_GUIDE_MASK : 0L)
+                | ((long) interest << INTEREST_SHIFT);
+    }
+
+    /**
+     * Checks whether two encoded participants share all attributes selected by the mask.
+     *
+     * @param code1 the first encoded participant
+     * @param code2 the second encoded participant
+     * @param mask the attribute mask, e.g. {@link #UNIVERSITY_MASK}
+     * @return {@code true} if the selected attributes are equal
+     */
+    public static boolean matches(long code1, long code2, long mask) {
+        return ((code1 ^ code2) & mask) == 0;
+    }
+
+    /**
+     * Returns the gender value of an encoded participant.
+     *
+     * @param code the encoded participant
+     * @return the gender value
+     */
+    public static int gender(long code) {
+        return (int) ((code & GENDER_MASK) >>> GENDER_SHIFT);
+    }
+
+    /**
+     * Returns the university value of an encoded participant.
+     *
+     * @param code the encoded participant
+     * @return the university value
+     */
+    public static int university(long code) {
+        return (int) ((code & UNIVERSITY_MASK) >>> UNIVERSITY_SHIFT);
+    }
+
+    /**
+     * Returns the study duration value of an encoded participant.
+     *
+     * @param code the encoded participant
+     * @return the study duration value
+     */
+    public static int studyDuration(long code) {
+        return (int) ((code & STUDY_DURATION_MASK) >>> STUDY_DURATION_SHIFT);
+    }
+
+    /**
+     * Returns the diet value of an encoded participant.
+     *
+     * @param code the encoded participant
+     * @return the diet value
+     */
+    public static int diet(long code) {
+        return (int) ((code & DIET_MASK) >>> DIET_SHIFT);
+    }
+
+    /**
+     * Returns the interest value of an encoded participant.
+     *
+     * @param code the encoded participant
+     * @return the interest value
+     */
+    public static int interest(long code) {
+        return (int) ((code & INTEREST_MASK) >>> INTEREST_SHIFT);
+    }
+
+    /**
+     * Translates the name of an interest into its encoded value. Both "Sport" and "Sports" are accepted.
+     *
+     * @param name the name of the interest, e.g. "Party"
+     * @return the interest value, or {@link #INTEREST_OTHER} if the name is not recognized
+     */
+    public static int parseInterest(String name) {
+        String trimmed = name.trim();
+        if (trimmed.equalsIgnoreCase("Party")) return INTEREST_PARTY;
+        if (trimmed.equalsIgnoreCase("Sport") || trimmed.equalsIgnoreCase("Sports")) return INTEREST_SPORTS;
+        if (trimmed.equalsIgnoreCase("Travel")) return INTEREST_TRAVEL;
+        if (trimmed.equalsIgnoreCase("Culture")) return INTEREST_CULTURE;
+        return INTEREST_OTHER;
+    }
+
+    /**
+     * Checks whether an encoded participant eats plant-based (any diet other than "None").
+     *
+     * @param code the encoded participant
+     * @return {@code true} if the participant eats plant-based
+     */
+    public static boolean isPlantBased(long code) {
+        return (code & DIET_MASK) != 0;
+    }
+
+    /**
+     * Checks whether an encoded participant prefers an alcohol-free group.
+     *
+     * @param code the encoded participant
+     * @return {@code true} if the participant is alcohol-free
+     */
+    public static boolean isAlcoholFree(long code) {
+        return (code & ALCOHOL_FREE_MASK) != 0;
+    }
+
+    /**
+     * Checks whether an encoded participant requests an Introduction Guide.
+     *
+     * @param code the encoded participant
+     * @return {@code true} if the participant requests an Introduction Guide
+     */
+    public static boolean requestsGuide(long code) {
+        return (code & REQUESTS_GUIDE_MASK) != 0;
+    }
+
+    /**
+     * Checks whether an encoded participant is willing to become a Group Leader.
+     *
+     * @param code the encoded participant
+     * @return {@code true} if the participant can guide
+     */
+    public static boolean canGuide(long code) {
+        return (code & CAN_GUIDE_MASK) != 0;
+    }
+}
\ No newline at end of file
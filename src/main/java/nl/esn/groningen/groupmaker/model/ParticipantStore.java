@@ -0,0 +1,293 @@
+package nl.esn.groningen.groupmaker.model;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code ParticipantStore} class holds the scoring attributes of all imported participants
+ * in a columnar (struct-of-arrays) layout.
+ *
+ * <p>Every attribute is stored in its own primitive array, indexed by the position of the
+ * participant in the imported list. Nationalities are replaced by dictionary ids, so the
+ * grouping algorithm can compare participants without touching any {@link String} or
+ * {@link Participant} object. Dates of birth are likewise replaced by ages in whole years on the
+ * day of the import, and every nationality is looked up once in {@link NationalityRegions}. The
+ * store is built once per import and is read-only afterwards.</p>
+ *
+ * @see Participant
+ * @see ParticipantEncoding
+ */
+public class ParticipantStore {
+
+    /**
+     * Dictionary id used for participants without a known nationality.
+     */
+    public static final int UNKNOWN_NATIONALITY = -1;
+
+    /**
+     * Age used for participants without a known (or plausible) date of birth.
+     */
+    public static final int UNKNOWN_AGE = -1;
+
+    /**
+     * Largest plausible age; ages above it are typing errors in the date of birth, and are treated as unknown.
+     */
+    public static final int MAXIMUM_AGE = 100;
+
+    private final List<Participant> participants;
+    private final long[] codes;
+    private final byte[] genders;
+    private final byte[] universities;
+    private final byte[] studyDurations;
+    private final byte[] diets;
+    private final int[] nationalities;
+    private final int[] ages;
+    private final String[] nationalityNames;
+    private final int[] nationalityRegions;
+
+    /**
+     * Constructs a {@code ParticipantStore} from the given list of participants.
+     *
+     * @param participants the imported participants; their order defines the participant indices
+     */
+    public ParticipantStore(List<Participant> participants) {
+        int size = participants.size();
+        this.participants = participants;
+        this.codes = new long[size];
+        this.genders = new byte[size];
+        this.universities = new byte[size];
+        this.studyDurations = new byte[size];
+        this.diets = new byte[size];
+        this.nationalities = new int[size];
+        this.ages = new int[size];
+        LocalDate today = LocalDate.now();
+
+        // Assign a dictionary id to every distinct nationality in order of appearance
+        Map<String, Integer> dictionary = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Participant participant = participants.get(i);
+            long code = participant.getEncoded();
+
+            codes[i] = code;
+            genders[i] = (byte) ParticipantEncoding.gender(code);
+            universities[i] = (byte) ParticipantEncoding.university(code);
+            studyDurations[i] = (byte) ParticipantEncoding.studyDuration(code);
+            diets[i] = (byte) ParticipantEncoding.diet(code);
+            ages[i] = calculateAge(participant.getBirthDay(), today);
+
+            String nationality = participant.getNationality();
+            if (nationality == null || nationality.isEmpty()) {
+                nationalities[i] = UNKNOWN_NATIONALITY;
+            } else {
+                Integer id = dictionary.get(nationality);
+                if (id == null) {
+                    id = dictionary.size();
+                    dictionary.put(nationality, id);
+                }
+                nationalities[i] = id;
+            }
+        }
+
+        // Invert the dictionary so ids can be translated back to names
+        this.nationalityNames = new String[dictionary.size()];
+        for (Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+            nationalityNames[entry.getValue()] = entry.getKey();
+        }
+
+        // Look up the region of every distinct nationality once
+        this.nationalityRegions = new int[nationalityNames.length];
+        for (int id = 0; id < nationalityNames.length; id++) {
+            nationalityRegions[id] = NationalityRegions.getRegion(nationalityNames[id]);
+        }
+    }
+
+    /**
+     * Constructs a {@code ParticipantStore} from already encoded participants, for example when a
+     * problem is received by a solver in another process.
+     *
+     * <p>A store constructed this way holds no {@link Participant} objects, and its nationalities
+     * have no names; it can be used for solving, but not for committing a solution.</p>
+     *
+     * @param codes the encoded participants
+     * @param nationalities the nationality id of every participant, or {@link #UNKNOWN_NATIONALITY}
+     * @param nationalityRegions the region id of every nationality id, or {@link NationalityRegions#UNKNOWN_REGION}
+     * @param ages the age of every participant, or {@link #UNKNOWN_AGE}
+     */
+    public ParticipantStore(long[] codes, int[] nationalities, int[] nationalityRegions, int[] ages) {
+        int size = codes.length;
+        this.participants = new ArrayList<>();
+        this.codes = codes.clone();
+        this.genders = new byte[size];
+        this.universities = new byte[size];
+        this.studyDurations = new byte[size];
+        this.diets = new byte[size];
+        this.nationalities = nationalities.clone();
+        this.ages = ages.clone();
+        this.nationalityNames = new String[nationalityRegions.length];
+        this.nationalityRegions = nationalityRegions.clone();
+
+        for (int i = 0; i < size; i++) {
+            genders[i] = (byte) ParticipantEncoding.gender(codes[i]);
+            universities[i] = (byte) ParticipantEncoding.university(codes[i]);
+            studyDurations[i] = (byte) ParticipantEncoding.studyDuration(codes[i]);
+            diets[i] = (byte) ParticipantEncoding.diet(codes[i]);
+        }
+    }
+
+    /**
+     * Returns the number of participants in this store.
+     *
+     * @return the number of participants
+     */
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * Returns the participant at the given index.
+     *
+     * @param index the participant index
+     * @return the {@link Participant} object
+     */
+    public Participant getParticipant(int index) {
+        return participants.get(index);
+    }
+
+    /**
+     * Returns the list of participants this store was built from.
+     *
+     * @return a list of {@link Participant} objects
+     */
+    public List<Participant> getParticipants() {
+        return participants;
+    }
+
+    /**
+     * Returns the encoded categorical attributes of a participant.
+     *
+     * @param index the participant index
+     * @return the encoded participant
+     * @see ParticipantEncoding
+     */
+    public long getCode(int index) {
+        return codes[index];
+    }
+
+    /**
+     * Returns the gender value of a participant.
+     *
+     * @param index the participant index
+     * @return the gender value
+     */
+    public int getGender(int index) {
+        return genders[index];
+    }
+
+    /**
+     * Returns the university value of a participant.
+     *
+     * @param index the participant index
+     * @return the university value
+     */
+    public int getUniversity(int index) {
+        return universities[index];
+    }
+
+    /**
+     * Returns the study duration value of a participant.
+     *
+     * @param index the participant index
+     * @return the study duration value
+     */
+    public int getStudyDuration(int index) {
+        return studyDurations[index];
+    }
+
+    /**
+     * Returns the diet value of a participant.
+     *
+     * @param index the participant index
+     * @return the diet value
+     */
+    public int getDiet(int index) {
+        return diets[index];
+    }
+
+    /**
+     * Returns the nationality dictionary id of a participant.
+     *
+     * @param index the participant index
+     * @return the nationality id, or {@link #UNKNOWN_NATIONALITY} if the nationality is unknown
+     */
+    public int getNationality(int index) {
+        return nationalities[index];
+    }
+
+    /**
+     * Returns the region id of the nationality of a participant.
+     *
+     * @param index the participant index
+     * @return the region id, or {@link NationalityRegions#UNKNOWN_REGION} if the nationality is unknown
+     *         or not in the table of regions
+     */
+    public int getRegion(int index) {
+        int nationality = nationalities[index];
+        return nationality == UNKNOWN_NATIONALITY ? NationalityRegions.UNKNOWN_REGION : nationalityRegions[nationality];
+    }
+
+    /**
+     * Returns the region id of a nationality.
+     *
+     * @param nationality the nationality id
+     * @return the region id, or {@link NationalityRegions#UNKNOWN_REGION} if the nationality is not in the table
+     */
+    public int getNationalityRegion(int nationality) {
+        return nationalityRegions[nationality];
+    }
+
+    /**
+     * Returns the age of a participant in whole years.
+     *
+     * @param index the participant index
+     * @return the age, or {@link #UNKNOWN_AGE} if the date of birth is unknown
+     */
+    public int getAge(int index) {
+        return ages[index];
+    }
+
+    /**
+     * Returns the number of distinct nationalities in the dictionary.
+     *
+     * @return the number of nationality ids
+     */
+    public int getNationalityCount() {
+        return nationalityNames.length;
+    }
+
+    /**
+     * Returns the name of the nationality with the given dictionary id.
+     *
+     * @param nationality the nationality id
+     * @return the nationality name, or {@code null} for {@link #UNKNOWN_NATIONALITY}
+     */
+    public String getNationalityName(int nationality) {
+        return nationality == UNKNOWN_NATIONALITY ? null : nationalityNames[nationality];
+    }
+
+    /**
+     * Calculates the age of a participant on a given day.
+     *
+     * @param birthDay the date of birth as a number of days since 1970-01-01, or {@link Participant#UNKNOWN_BIRTH_DAY}
+     * @param today the day on which the age is calculated
+     * @return the age in whole years, or {@link #UNKNOWN_AGE} if the date of birth is unknown or implausible
+     */
+    private static int calculateAge(int birthDay, LocalDate today) {
+        if (birthDay == Participant.UNKNOWN_BIRTH_DAY) return UNKNOWN_AGE;
+        int age = Period.between(LocalDate.ofEpochDay(birthDay), today).getYears();
+        return age > 0 && age <= MAXIMUM_AGE ? age : UNKNOWN_AGE;
+    }
+}
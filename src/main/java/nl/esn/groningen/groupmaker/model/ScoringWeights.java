@@ -0,0 +1,113 @@
+package nl.esn.groningen.groupmaker.model;
+
+/**
+ * The {@code ScoringWeights} class holds the weights with which the grouping algorithm scores
+ * a pair of participants: the similarity weights reward attributes that make a group cohesive, and
+ * the dissimilarity weights reward (or, when negative, punish) attributes that make a group diverse.
+ * The age spread and region weights apply to a participant and a group as a whole: they punish
+ * participants whose age is far from the ages in the group, or whose region is already common in it.
+ *
+ * <p>Every weight is identified by one of the constants of this class, and has a key under which it
+ * is stored in a settings file (see {@link Settings#read(java.io.File)}). The defaults are listed at
+ * {@link #ScoringWeights()}. Weights must lie between {@link #MINIMUM} and {@link #MAXIMUM}, which,
+ * together with the largest group size ({@link Settings#MAXIMUM_GROUP_SIZE}), sets the width of the
+ * diversity tier of the lexicographic scores.</p>
+ */
+public class ScoringWeights {
+    public static final int UNIVERSITY_SAME = 0;
+    public static final int UNIVERSITY_OTHER = 1;
+    public static final int ALCOHOL_SAME = 2;
+    public static final int STUDY_DURATION_SAME = 3;
+    public static final int STUDY_DURATION_OTHER = 4;
+    public static final int NATIONALITY_DIFFERENT = 5;
+    public static final int DIET_BOTH_PLANT_BASED = 6;
+    public static final int DIET_NEITHER_PLANT_BASED = 7;
+    public static final int AGE_SPREAD = 8;
+    public static final int REGION_SAME = 9;
+    public static final int COUNT = 10;
+
+    // The bounds of every weight
+    public static final int MINIMUM = -1000;
+    public static final int MAXIMUM = 1000;
+
+    private static final String[] KEYS = {
+            "similarity.university.same",
+            "similarity.university.other",
+            "similarity.alcohol.same",
+            "similarity.studyDuration.same",
+            "similarity.studyDuration.other",
+            "dissimilarity.nationality.different",
+            "dissimilarity.diet.bothPlantBased",
+            "dissimilarity.diet.neitherPlantBased",
+            "similarity.age.spread",
+            "dissimilarity.region.same"
+    };
+    private static final int[] DEFAULTS = {300, 2, 200, 100, 1, 1, -3, -1, 1, -1};
+
+    private final int[] weights;
+
+    /**
+     * Constructs a {@code ScoringWeights} object with the default weights.
+     *
+     * <p>Defaults:</p>
+     * <ul>
+     *   <li>Same university: 300</li>
+     *   <li>Either university is "Other": 2</li>
+     *   <li>Same alcohol preference: 200</li>
+     *   <li>Same study duration: 100</li>
+     *   <li>Either study duration is "Other": 1</li>
+     *   <li>Different nationalities, both known: 1</li>
+     *   <li>Both plant-based: -3</li>
+     *   <li>Neither plant-based: -1</li>
+     *   <li>Age spread: 1 point less for every squared year the participant adds to the spread of
+     *   the ages in the group</li>
+     *   <li>Same region (see {@link NationalityRegions}): -1</li>
+     * </ul>
+     */
+    public ScoringWeights() {
+        this.weights = DEFAULTS.clone();
+    }
+
+    /**
+     * Constructs a copy of the given weights.
+     *
+     * @param other The weights to copy.
+     */
+    public ScoringWeights(ScoringWeights other) {
+        this.weights = other.weights.clone();
+    }
+
+    /**
+     * Returns the key under which a weight is stored in a settings file.
+     *
+     * @param weight The weight, one of the constants of this class.
+     * @return The key of the weight.
+     */
+    public static String getKey(int weight) {
+        return KEYS[weight];
+    }
+
+    /**
+     * Returns the value of a weight.
+     *
+     * @param weight The weight, one of the constants of this class.
+     * @return The value of the weight.
+     */
+    public int get(int weight) {
+        return weights[weight];
+    }
+
+    /**
+     * Sets the value of a weight.
+     *
+     * @param weight The weight, one of the constants of this class.
+     * @param value The new value of the weight.
+     * @throws IllegalArgumentException If the value lies outside {@link #MINIMUM} and {@link #MAXIMUM}.
+     */
+    public void set(int weight, int value) {
+        if (value < MINIMUM || value > MAXIMUM) {
+            throw new IllegalArgumentException(KEYS[weight] + " must lie between " + MINIMUM + " and " + MAXIMUM);
+        }
+        weights[weight] = value;
+    }
+}
\ No newline at end of file
@@ -1,31 +1,86 @@
 package nl.esn.groningen.groupmaker.model;
 
+import java.io.*;
+import java.util.Properties;
+
 /**
  * The {@code Settings} class encapsulates the configuration parameters used for
  * creating groups in the GroupMaker application.
  *
- * <p>This class holds settings such as the maximum group size, the maximum number
- * of participants with plant-based diets, the maximum number of participants of
- * the same nationality allowed in a group, and the percentage limit for participants
- * of the same gender within a group.</p>
+ * <p>This class holds:</p>
+ * <ul>
+ *   <li>the limits of a group: its size, and the maximum number of plant-based eaters,
+ *   participants of the same nationality and percentage of the same gender;</li>
+ *   <li>the {@link ScoringWeights} with which pairs of participants are scored;</li>
+ *   <li>how the groups are formed: lexicographic scoring, nationality spreading, forward
+ *   checking, beam search and regret insertion;</li>
+ *   <li>how the groups are improved: pairwise refinement and the concurrent swap search;</li>
+ *   <li>what is offered afterwards: themes matched to the interests of the groups, and
+ *   alternative solutions to pick from (multi-objective mode), optionally evolved on islands.</li>
+ * </ul>
+ *
+ * <p>Settings can be stored in and read from a settings file, a properties file with one
+ * line per setting, e.g. {@code groupSize=16} or {@code similarity.university.same=300}.
+ * Settings that are missing from the file keep their default value.</p>
  */
 public class Settings {
+
+    // The largest group size that can be set; the lexicographic scores are sized for it
+    public static final int MAXIMUM_GROUP_SIZE = 40;
+
     private final int groupSize;
     private final int plantBasedGroupMaximum;
     private final int sameNationalityGroupMaximum;
     private final int sameGenderPercentageLimit;
+    private boolean themeOptimization = true;
+    private boolean multiObjective = false;
+    private boolean lexicographicScoring = false;
+    private boolean nationalitySpreading = false;
+    private boolean forwardChecking = false;
+    private boolean beamSearch = false;
+    private boolean regretInsertion = false;
+    private boolean pairwiseRefinement = false;
+    private boolean concurrentSwapSearch = false;
+    private boolean islandModel = false;
+    private ScoringWeights scoringWeights = new ScoringWeights();
+
+    // Keys of the settings in a settings file
+    private static final String GROUP_SIZE = "groupSize";
+    private static final String PLANT_BASED_GROUP_MAXIMUM = "plantBasedGroupMaximum";
+    private static final String SAME_NATIONALITY_GROUP_MAXIMUM = "sameNationalityGroupMaximum";
+    private static final String SAME_GENDER_PERCENTAGE_LIMIT = "sameGenderPercentageLimit";
+    private static final String THEME_OPTIMIZATION = "themeOptimization";
+    private static final String MULTI_OBJECTIVE = "multiObjective";
+    private static final String LEXICOGRAPHIC_SCORING = "lexicographicScoring";
+    private static final String NATIONALITY_SPREADING = "nationalitySpreading";
+    private static final String FORWARD_CHECKING = "forwardChecking";
+    private static final String BEAM_SEARCH = "beamSearch";
+    private static final String REGRET_INSERTION = "regretInsertion";
+    private static final String PAIRWISE_REFINEMENT = "pairwiseRefinement";
+    private static final String CONCURRENT_SWAP_SEARCH = "concurrentSwapSearch";
+    private static final String ISLAND_MODEL = "islandModel";
 
     /**
      * Default constructor that initializes the settings with standard values.
      *
-     * <p>Defaults:
+     * <p>Defaults:</p>
      * <ul>
      *   <li>Group size: 16 participants</li>
      *   <li>Plant-based participants: Maximum of 5 per group</li>
      *   <li>Same nationality participants: Maximum of 4 per group</li>
      *   <li>Same gender percentage limit: 75%</li>
+     *   <li>Theme optimization: enabled</li>
+     *   <li>Multi-objective mode: disabled</li>
+     *   <li>Lexicographic scoring: disabled</li>
+     *   <li>Nationality spreading: disabled</li>
+     *   <li>Forward checking: disabled</li>
+     *   <li>Beam search: disabled</li>
+     *   <li>Regret insertion: disabled</li>
+     *   <li>Pairwise refinement: disabled</li>
+     *   <li>Concurrent swap search: disabled</li>
+     *   <li>Island model: disabled</li>
+     *   <li>Scoring weights: the defaults of {@link ScoringWeights#ScoringWeights()}</li>
      * </ul>
-     * </p>
      */
     public Settings() {
         this(16, 5, 4, 75);
@@ -46,6 +101,28 @@ public class Settings {
         this.sameGenderPercentageLimit = maximumAcceptedGenderRatio;
     }
 
+    /**
+     * Constructs a copy of the given settings, including a copy of its scoring weights, so that
+     * changing either afterwards does not affect the other.
+     *
+     * @param settings The settings to copy.
+     */
+    public Settings(Settings settings) {
+        this(settings.groupSize, settings.plantBasedGroupMaximum, settings.sameNationalityGroupMaximum,
+                settings.sameGenderPercentageLimit);
+        this.themeOptimization = settings.themeOptimization;
+        this.multiObjective = settings.multiObjective;
+        this.lexicographicScoring = settings.lexicographicScoring;
+        this.nationalitySpreading = settings.nationalitySpreading;
+        this.forwardChecking = settings.forwardChecking;
+        this.beamSearch = settings.beamSearch;
+        this.regretInsertion = settings.regretInsertion;
+        this.pairwiseRefinement = settings.pairwiseRefinement;
+        this.concurrentSwapSearch = settings.concurrentSwapSearch;
+        this.islandModel = settings.islandModel;
+        this.scoringWeights = new ScoringWeights(settings.scoringWeights);
+    }
+
     /**
      * Returns the maximum number of participants allowed in a group.
      *
@@ -81,4 +158,349 @@ public class Settings {
     public int getSameGenderPercentageLimit() {
         return sameGenderPercentageLimit;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns whether themes are matched to the interests of the groups instead of being assigned in order.
+     *
+     * @return {@code true} if theme optimization is enabled.
+     */
+    public boolean isThemeOptimization() {
+        return themeOptimization;
+    }
+
+    /**
+     * Sets whether themes are matched to the interests of the groups instead of being assigned in order.
+     *
+     * @param themeOptimization {@code true} to enable theme optimization.
+     */
+    public void setThemeOptimization(boolean themeOptimization) {
+        this.themeOptimization = themeOptimization;
+    }
+
+    /**
+     * Returns whether the organiser picks from a set of alternative solutions that trade cohesion
+     * and diversity off against each other, instead of receiving a single solution.
+     *
+     * @return {@code true} if multi-objective mode is enabled.
+     */
+    public boolean isMultiObjective() {
+        return multiObjective;
+    }
+
+    /**
+     * Sets whether the organiser picks from a set of alternative solutions that trade cohesion
+     * and diversity off against each other, instead of receiving a single solution.
+     *
+     * @param multiObjective {@code true} to enable multi-objective mode.
+     */
+    public void setMultiObjective(boolean multiObjective) {
+        this.multiObjective = multiObjective;
+    }
+
+    /**
+     * Returns whether participants are scored with strict priorities: the limits of these settings
+     * first, then alcohol preference, then university, then diversity.
+     *
+     * @return {@code true} if lexicographic scoring is enabled.
+     */
+    public boolean isLexicographicScoring() {
+        return lexicographicScoring;
+    }
+
+    /**
+     * Sets whether participants are scored with strict priorities: the limits of these settings
+     * first, then alcohol preference, then university, then diversity.
+     *
+     * @param lexicographicScoring {@code true} to enable lexicographic scoring.
+     */
+    public void setLexicographicScoring(boolean lexicographicScoring) {
+        this.lexicographicScoring = lexicographicScoring;
+    }
+
+    /**
+     * Returns whether the participants of large nationalities are spread evenly over the groups
+     * before the groups are filled.
+     *
+     * @return {@code true} if nationality spreading is enabled.
+     */
+    public boolean isNationalitySpreading() {
+        return nationalitySpreading;
+    }
+
+    /**
+     * Sets whether the participants of large nationalities are spread evenly over the groups
+     * before the groups are filled.
+     *
+     * @param nationalitySpreading {@code true} to enable nationality spreading.
+     */
+    public void setNationalitySpreading(boolean nationalitySpreading) {
+        this.nationalitySpreading = nationalitySpreading;
+    }
+
+    /**
+     * Returns whether the groups are filled while checking ahead that the limits can still be met
+     * by the groups that are not filled yet.
+     *
+     * @return {@code true} if forward checking is enabled.
+     */
+    public boolean isForwardChecking() {
+        return forwardChecking;
+    }
+
+    /**
+     * Sets whether the groups are filled while checking ahead that the limits can still be met
+     * by the groups that are not filled yet.
+     *
+     * @param forwardChecking {@code true} to enable forward checking.
+     */
+    public void setForwardChecking(boolean forwardChecking) {
+        this.forwardChecking = forwardChecking;
+    }
+
+    /**
+     * Returns whether several partial groups are kept while filling a group, instead of committing
+     * to the best participant at every place.
+     *
+     * @return {@code true} if beam search is enabled.
+     */
+    public boolean isBeamSearch() {
+        return beamSearch;
+    }
+
+    /**
+     * Sets whether several partial groups are kept while filling a group, instead of committing
+     * to the best participant at every place.
+     *
+     * @param beamSearch {@code true} to enable beam search.
+     */
+    public void setBeamSearch(boolean beamSearch) {
+        this.beamSearch = beamSearch;
+    }
+
+    /**
+     * Returns whether all groups are formed at once, placing the participants with the most to lose
+     * if their best group fills up first, instead of filling the groups one after another.
+     *
+     * @return {@code true} if regret insertion is enabled.
+     */
+    public boolean isRegretInsertion() {
+        return regretInsertion;
+    }
+
+    /**
+     * Sets whether all groups are formed at once, placing the participants with the most to lose
+     * if their best group fills up first, instead of filling the groups one after another.
+     *
+     * @param regretInsertion {@code true} to enable regret insertion.
+     */
+    public void setRegretInsertion(boolean regretInsertion) {
+        this.regretInsertion = regretInsertion;
+    }
+
+    /**
+     * Returns whether the groups are formed by regret insertion. Regret insertion forms all groups at
+     * once, so it is only used if it is enabled and lexicographic scoring, nationality spreading and
+     * forward checking, which rely on the groups being filled one after another, are all disabled.
+     *
+     * @return {@code true} if regret insertion is used.
+     */
+    public boolean isRegretInsertionUsed() {
+        return regretInsertion && !lexicographicScoring && !nationalitySpreading && !forwardChecking;
+    }
+
+    /**
+     * Returns whether the groups are filled with a beam search. The beam search is only used if it is
+     * enabled, regret insertion is not used, and nationality spreading and forward checking, which
+     * follow every placed participant, are both disabled.
+     *
+     * @return {@code true} if beam search is used.
+     */
+    public boolean isBeamSearchUsed() {
+        return beamSearch && !isRegretInsertionUsed() && !nationalitySpreading && !forwardChecking;
+    }
+
+    /**
+     * Returns whether the groups are refined afterwards by swapping participants between pairs of groups.
+     *
+     * @return {@code true} if pairwise refinement is enabled.
+     */
+    public boolean isPairwiseRefinement() {
+        return pairwiseRefinement;
+    }
+
+    /**
+     * Sets whether the groups are refined afterwards by swapping participants between pairs of groups.
+     *
+     * @param pairwiseRefinement {@code true} to enable pairwise refinement.
+     */
+    public void setPairwiseRefinement(boolean pairwiseRefinement) {
+        this.pairwiseRefinement = pairwiseRefinement;
+    }
+
+    /**
+     * Returns whether the groups are improved afterwards by swaps that all threads make on the same solution.
+     *
+     * @return {@code true} if the concurrent swap search is enabled.
+     */
+    public boolean isConcurrentSwapSearch() {
+        return concurrentSwapSearch;
+    }
+
+    /**
+     * Sets whether the groups are improved afterwards by swaps that all threads make on the same solution.
+     *
+     * @param concurrentSwapSearch {@code true} to enable the concurrent swap search.
+     */
+    public void setConcurrentSwapSearch(boolean concurrentSwapSearch) {
+        this.concurrentSwapSearch = concurrentSwapSearch;
+    }
+
+    /**
+     * Returns whether the alternative solutions of the multi-objective mode are evolved on islands that
+     * exchange their best solutions.
+     *
+     * @return {@code true} if the island model is enabled.
+     */
+    public boolean isIslandModel() {
+        return islandModel;
+    }
+
+    /**
+     * Sets whether the alternative solutions of the multi-objective mode are evolved on islands that
+     * exchange their best solutions.
+     *
+     * @param islandModel {@code true} to enable the island model.
+     */
+    public void setIslandModel(boolean islandModel) {
+        this.islandModel = islandModel;
+    }
+
+    /**
+     * Returns the weights with which pairs of participants are scored.
+     *
+     * @return The scoring weights.
+     */
+    public ScoringWeights getScoringWeights() {
+        return scoringWeights;
+    }
+
+    /**
+     * Sets the weights with which pairs of participants are scored.
+     *
+     * @param scoringWeights The scoring weights.
+     */
+    public void setScoringWeights(ScoringWeights scoringWeights) {
+        this.scoringWeights = scoringWeights;
+    }
+
+    /**
+     * Reads settings from a settings file. Settings that are missing from the file keep their
+     * default value.
+     *
+     * @param file The settings file.
+     * @return The settings.
+     * @throws IOException If the file cannot be read, or holds a value that is not valid.
+     */
+    public static Settings read(File file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new BufferedReader(new FileReader(file))) {
+            properties.load(reader);
+        }
+
+        Settings defaults = new Settings();
+        Settings settings = new Settings(
+                parse(properties, GROUP_SIZE, defaults.getGroupSize(), 1, MAXIMUM_GROUP_SIZE),
+                parse(properties, PLANT_BASED_GROUP_MAXIMUM, defaults.getPlantBasedGroupMaximum(), 0, Integer.MAX_VALUE),
+                parse(properties, SAME_NATIONALITY_GROUP_MAXIMUM, defaults.getSameNationalityGroupMaximum(), 0, Integer.MAX_VALUE),
+                parse(properties, SAME_GENDER_PERCENTAGE_LIMIT, defaults.getSameGenderPercentageLimit(), 0, 100));
+        settings.setThemeOptimization(parse(properties, THEME_OPTIMIZATION, defaults.isThemeOptimization()));
+        settings.setMultiObjective(parse(properties, MULTI_OBJECTIVE, defaults.isMultiObjective()));
+        settings.setLexicographicScoring(parse(properties, LEXICOGRAPHIC_SCORING, defaults.isLexicographicScoring()));
+        settings.setNationalitySpreading(parse(properties, NATIONALITY_SPREADING, defaults.isNationalitySpreading()));
+        settings.setForwardChecking(parse(properties, FORWARD_CHECKING, defaults.isForwardChecking()));
+        settings.setBeamSearch(parse(properties, BEAM_SEARCH, defaults.isBeamSearch()));
+        settings.setRegretInsertion(parse(properties, REGRET_INSERTION, defaults.isRegretInsertion()));
+        settings.setPairwiseRefinement(parse(properties, PAIRWISE_REFINEMENT, defaults.isPairwiseRefinement()));
+        settings.setConcurrentSwapSearch(parse(properties, CONCURRENT_SWAP_SEARCH, defaults.isConcurrentSwapSearch()));
+        settings.setIslandModel(parse(properties, ISLAND_MODEL, defaults.isIslandModel()));
+
+        ScoringWeights weights = new ScoringWeights();
+        for (int weight = 0; weight < ScoringWeights.COUNT; weight++) {
+            weights.set(weight, parse(properties, ScoringWeights.getKey(weight), weights.get(weight),
+                    ScoringWeights.MINIMUM, ScoringWeights.MAXIMUM));
+        }
+        settings.setScoringWeights(weights);
+        return settings;
+    }
+
+    /**
+     * Writes these settings to a settings file, which can be read again with {@link #read(File)}.
+     *
+     * @param file The settings file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(File file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(GROUP_SIZE, String.valueOf(groupSize));
+        properties.setProperty(PLANT_BASED_GROUP_MAXIMUM, String.valueOf(plantBasedGroupMaximum));
+        properties.setProperty(SAME_NATIONALITY_GROUP_MAXIMUM, String.valueOf(sameNationalityGroupMaximum));
+        properties.setProperty(SAME_GENDER_PERCENTAGE_LIMIT, String.valueOf(sameGenderPercentageLimit));
+        properties.setProperty(THEME_OPTIMIZATION, String.valueOf(themeOptimization));
+        properties.setProperty(MULTI_OBJECTIVE, String.valueOf(multiObjective));
+        properties.setProperty(LEXICOGRAPHIC_SCORING, String.valueOf(lexicographicScoring));
+        properties.setProperty(NATIONALITY_SPREADING, String.valueOf(nationalitySpreading));
+        properties.setProperty(FORWARD_CHECKING, String.valueOf(forwardChecking));
+        properties.setProperty(BEAM_SEARCH, String.valueOf(beamSearch));
+        properties.setProperty(REGRET_INSERTION, String.valueOf(regretInsertion));
+        properties.setProperty(PAIRWISE_REFINEMENT, String.valueOf(pairwiseRefinement));
+        properties.setProperty(CONCURRENT_SWAP_SEARCH, String.valueOf(concurrentSwapSearch));
+        properties.setProperty(ISLAND_MODEL, String.valueOf(islandModel));
+        for (int weight = 0; weight < ScoringWeights.COUNT; weight++) {
+            properties.setProperty(ScoringWeights.getKey(weight), String.valueOf(scoringWeights.get(weight)));
+        }
+
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            properties.store(writer, "GroupMaker settings");
+        }
+    }
+
+    /**
+     * Parses a whole number in a settings file.
+     *
+     * @param properties The contents of the settings file.
+     * @param key The key of the setting.
+     * @param defaultValue The value used if the setting is missing.
+     * @param minimum The smallest valid value.
+     * @param maximum The largest valid value.
+     * @return The number.
+     * @throws IOException If the setting is not a number between the minimum and maximum.
+     */
+    private static int parse(Properties properties, String key, int defaultValue, int minimum, int maximum) throws IOException {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) return defaultValue;
+        try {
+            int number = Integer.parseInt(value.trim());
+            if (number >= minimum && number <= maximum) return number;
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IOException("Invalid value for " + key + ": " + value);
+    }
+
+    /**
+     * Parses a switch in a settings file.
+     *
+     * @param properties The contents of the settings file.
+     * @param key The key of the setting.
+     * @param defaultValue The value used if the setting is missing.
+     * @return The value of the switch.
+     * @throws IOException If the setting is neither {@code true} nor {@code false}.
+     */
+    private static boolean parse(Properties properties, String key, boolean defaultValue) throws IOException {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) return defaultValue;
+        if (value.trim().equalsIgnoreCase("true")) return true;
+        if (value.trim().equalsIgnoreCase("false")) return false;
+        throw new IOException("Invalid value for " + key + ": " + value);
+    }
+}
@@ -0,0 +1,258 @@
+package nl.esn.groningen.groupmaker.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code Solution} class represents one way of dividing the participants of a
+ * {@link GroupingProblem} into groups.
+ *
+ * <p>A solution stores the group of every participant in a plain {@code int[]}, together with the
+ * guide cluster and theme chosen for every group. Groups, participants, guide clusters and themes are
+ * referred to by their (zero-based) index in the problem. Solutions are independent of the model:
+ * they can be copied and compared cheaply, and only change the participants and guide clusters
+ * once they are committed using {@link #commit(GroupingProblem)}.</p>
+ *
+ * @see GroupingProblem
+ * @see Group
+ */
+public class Solution {
+
+    /**
+     * Index used for participants without a group, and for groups without a guide cluster or theme.
+     */
+    public static final int UNASSIGNED = -1;
+
+    private final int[] assignment;
+    private final int[] guideClusters;
+    private final int[] themes;
+
+    /**
+     * Constructs an empty {@code Solution} in which no participant, guide cluster or theme is assigned.
+     *
+     * @param numberOfParticipants the number of participants in the problem
+     * @param numberOfGroups the number of groups to be formed
+     */
+    public Solution(int numberOfParticipants, int numberOfGroups) {
+        this.assignment = new int[numberOfParticipants];
+        this.guideClusters = new int[numberOfGroups];
+        this.themes = new int[numberOfGroups];
+        Arrays.fill(assignment, UNASSIGNED);
+        Arrays.fill(guideClusters, UNASSIGNED);
+        Arrays.fill(themes, UNASSIGNED);
+    }
+
+    /**
+     * Constructs a {@code Solution} that copies the given arrays.
+     *
+     * @param solution the solution to copy
+     */
+    private Solution(Solution solution) {
+        this.assignment = solution.assignment.clone();
+        this.guideClusters = solution.guideClusters.clone();
+        this.themes = solution.themes.clone();
+    }
+
+    /**
+     * Returns an independent copy of this solution.
+     *
+     * @return a copy of this solution
+     */
+    public Solution copy() {
+        return new Solution(this);
+    }
+
+    /**
+     * Returns the number of participants in this solution.
+     *
+     * @return the number of participants
+     */
+    public int getNumberOfParticipants() {
+        return assignment.length;
+    }
+
+    /**
+     * Returns the number of groups in this solution.
+     *
+     * @return the number of groups
+     */
+    public int getNumberOfGroups() {
+        return guideClusters.length;
+    }
+
+    /**
+     * Assigns a participant to a group.
+     *
+     * @param participant the participant index
+     * @param group the group index, or {@link #UNASSIGNED}
+     */
+    public void assign(int participant, int group) {
+        assignment[participant] = group;
+    }
+
+    /**
+     * Returns the group a participant is assigned to.
+     *
+     * @param participant the participant index
+     * @return the group index, or {@link #UNASSIGNED}
+     */
+    public int getGroup(int participant) {
+        return assignment[participant];
+    }
+
+    /**
+     * Checks whether a participant is assigned to a group.
+     *
+     * @param participant the participant index
+     * @return {@code true} if the participant is assigned
+     */
+    public boolean isAssigned(int participant) {
+        return assignment[participant] != UNASSIGNED;
+    }
+
+    /**
+     * Assigns a guide cluster to a group.
+     *
+     * @param group the group index
+     * @param guideCluster the guide cluster index, or {@link #UNASSIGNED}
+     */
+    public void setGuideCluster(int group, int guideCluster) {
+        guideClusters[group] = guideCluster;
+    }
+
+    /**
+     * Returns the guide cluster assigned to a group.
+     *
+     * @param group the group index
+     * @return the guide cluster index, or {@link #UNASSIGNED}
+     */
+    public int getGuideCluster(int group) {
+        return guideClusters[group];
+    }
+
+    /**
+     * Assigns a theme to a group.
+     *
+     * @param group the group index
+     * @param theme the theme index, or {@link #UNASSIGNED}
+     */
+    public void setTheme(int group, int theme) {
+        themes[group] = theme;
+    }
+
+    /**
+     * Returns the theme assigned to a group.
+     *
+     * @param group the group index
+     * @return the theme index, or {@link #UNASSIGNED}
+     */
+    public int getTheme(int group) {
+        return themes[group];
+    }
+
+    /**
+     * Returns the members of every group, computed in a single pass over the assignment.
+     *
+     * @return an array holding, for every group, the indices of its members in ascending order
+     */
+    public int[][] getMembers() {
+        int[] sizes = new int[getNumberOfGroups()];
+        for (int group : assignment) {
+            if (group != UNASSIGNED) sizes[group]++;
+        }
+
+        int[][] members = new int[sizes.length][];
+        for (int group = 0; group < sizes.length; group++) {
+            members[group] = new int[sizes[group]];
+            sizes[group] = 0;
+        }
+
+        for (int participant = 0; participant < assignment.length; participant++) {
+            int group = assignment[participant];
+            if (group != UNASSIGNED) members[group][sizes[group]++] = participant;
+        }
+
+        return members;
+    }
+
+    /**
+     * Commits this solution to the participants and guide clusters of the given problem.
+     *
+     * <p>This method updates the group numbers of all participants and guide clusters (resetting
+     * those that are not assigned) and creates the corresponding {@link Group} objects.</p>
+     *
+     * @param problem the problem this solution was computed for
+     * @return the list of groups described by this solution
+     */
+    public List<Group> commit(GroupingProblem problem) {
+        ParticipantStore store = problem.getParticipantStore();
+        List<GuideCluster> guideClusterList = problem.getGuideClusters();
+        String[] themeList = problem.getThemes();
+
+        // Reset the guide clusters, so clusters that are no longer used are not left behind
+        if (guideClusterList != null) {
+            for (GuideCluster guideCluster : guideClusterList) {
+                guideCluster.setGroupNumber(0);
+            }
+        }
+
+        // Create the groups and update the group numbers of the participants
+        List<Group> groups = new ArrayList<>();
+        int[][] members = getMembers();
+        for (int participant = 0; participant < assignment.length; participant++) {
+            store.getParticipant(participant).setGroupNumber(assignment[participant] + 1);
+        }
+
+        for (int group = 0; group < members.length; group++) {
+            List<Participant> participants = new ArrayList<>();
+            for (int member : members[group]) {
+                participants.add(store.getParticipant(member));
+            }
+            Group g = new Group(group + 1, participants);
+
+            // Attach the guide cluster and theme, if any
+            if (guideClusterList != null && guideClusters[group] != UNASSIGNED) {
+                GuideCluster guideCluster = guideClusterList.get(guideClusters[group]);
+                guideCluster.setGroupNumber(group + 1);
+                g.setGuideCluster(guideCluster);
+            }
+            if (themeList != null && themes[group] != UNASSIGNED) {
+                g.setTheme(themeList[themes[group]]);
+            }
+
+            groups.add(g);
+        }
+
+        return groups;
+    }
+
+    /**
+     * Checks whether this solution is equal to another object. Two solutions are equal if
+     * they assign every participant, guide cluster and theme to the same group.
+     *
+     * @param o the object to compare with
+     * @return {@code true} if the object is an equal solution
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Solution)) return false;
+        Solution solution = (Solution) o;
+        return Arrays.equals(assignment, solution.assignment)
+                && Arrays.equals(guideClusters, solution.guideClusters)
+                && Arrays.equals(themes, solution.themes);
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code of this solution
+     */
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(assignment);
+        result = 31 * result + Arrays.hashCode(guideClusters);
+        return 31 * result + Arrays.hashCode(themes);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.ParticipantStore;
+
+/**
+ * Utility class keeping track of the ages in every group while the groups are filled, so the
+ * compatibility of a participant can take the spread of ages in a group into account.
+ *
+ * <p>For every group, only the number of members with a known age and the sum of their ages are kept,
+ * and updated whenever a participant is added. From these running sums, the increase in the sum of
+ * squared deviations from the mean age that a participant would cause follows directly: for a group
+ * of {@code n} known ages with sum {@code S}, adding age {@code x} increases it by
+ * {@code (n*x - S)^2 / (n*(n+1))}. Scoring a participant therefore takes constant time, however many
+ * members the group has. Participants whose age is unknown do not count.</p>
+ *
+ * @see GroupingAlgorithm
+ */
+public class AgeSpread {
+    private final ParticipantStore store;
+    private final int weight;
+    private final int[] count;
+    private final long[] sum;
+
+    /**
+     * Constructs an {@code AgeSpread} for empty groups.
+     *
+     * @param store The columnar store of the participants.
+     * @param numberOfGroups The number of groups.
+     * @param weight The number of points subtracted for every squared year a participant adds to the spread.
+     */
+    public AgeSpread(ParticipantStore store, int numberOfGroups, int weight) {
+        this.store = store;
+        this.weight = weight;
+        this.count = new int[numberOfGroups];
+        this.sum = new long[numberOfGroups];
+    }
+
+    /**
+     * Calculates the penalty of adding a participant to a group: the weight times the increase in
+     * the sum of squared deviations of the ages in the group.
+     *
+     * @param participant The index of the participant.
+     * @param group The index of the group.
+     * @return The penalty; zero if the age of the participant is unknown or the group has no known ages.
+     */
+    public long calculatePenalty(int participant, int group) {
+        int age = store.getAge(participant);
+        int n = count[group];
+        if (age == ParticipantStore.UNKNOWN_AGE || n == 0) return 0;
+
+        long deviation = (long) n * age - sum[group];
+        return weight * deviation * deviation / ((long) n * (n + 1));
+    }
+
+    /**
+     * Counts a participant that was added to a group.
+     *
+     * @param participant The index of the participant.
+     * @param group The index of the group.
+     */
+    public void add(int participant, int group) {
+        int age = store.getAge(participant);
+        if (age == ParticipantStore.UNKNOWN_AGE) return;
+        count[group]++;
+        sum[group] += age;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,349 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.GroupingModel;
+import nl.esn.groningen.groupmaker.model.GroupingProblem;
+import nl.esn.groningen.groupmaker.model.Settings;
+import nl.esn.groningen.groupmaker.model.Solution;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Utility class forming the groups of several tracks of an introduction week (e.g. the February and
+ * September introductions, or days for Hanze students only) in a single run, without the user
+ * interface.
+ *
+ * <p>The tracks are listed in a manifest, a CSV file with a header and one line per track:</p>
+ * <pre>
+ * Track,Participants,Guides,Themes,Buddies,Conflicts,Email template,Output folder,Group size,Plant-based maximum,Same nationality maximum,Same gender percentage limit
+ * February,feb/participants.csv,feb/guides.csv,feb/themes.csv,,,template.docx,feb/output,16,5,4,75
+ * </pre>
+ * <p>Only the participants and the output folder are required; paths are relative to the folder of
+ * the manifest, and empty settings take their default value (see {@link Settings#Settings()}).</p>
+ *
+ * <p>All tracks are solved at the same time in a single {@link ForkJoinPool} with a bounded number of
+ * threads, which is also the pool the tracks search for their best participants in. Threads that
+ * finish a small track therefore help with the larger ones, so the batch takes about as long as its
+ * largest track. Every track writes the same output documents as the Export button to its own
+ * output folder. A track that fails is reported, and does not stop the other tracks.</p>
+ *
+ * <p>If the addresses of {@link SolverWorker}s are given, the tracks are solved one after another
+ * instead, each by restarts on all workers at the same time (see {@link SolverCoordinator}).</p>
+ *
+ * @see GroupingModel#load(Settings, File, File, File, File, File)
+ * @see GenerateOutputDocuments#write(GroupingModel)
+ */
+public class BatchSolver {
+
+    // Columns of the manifest
+    private static final int NAME = 0;
+    private static final int PARTICIPANTS = 1;
+    private static final int GUIDES = 2;
+    private static final int THEMES = 3;
+    private static final int BUDDIES = 4;
+    private static final int CONFLICTS = 5;
+    private static final int EMAIL_TEMPLATE = 6;
+    private static final int OUTPUT_FOLDER = 7;
+    private static final int GROUP_SIZE = 8;
+    private static final int PLANT_BASED_MAXIMUM = 9;
+    private static final int SAME_NATIONALITY_MAXIMUM = 10;
+    private static final int SAME_GENDER_PERCENTAGE_LIMIT = 11;
+
+    // The number of restarts every worker runs for a track if none is given
+    private static final int DEFAULT_RESTARTS_PER_WORKER = 8;
+
+    /**
+     * Solves all tracks of a manifest and prints a line for every track.
+     *
+     * @param args The manifest, optionally followed by the maximum number of threads; or {@code --workers},
+     *             the comma-separated addresses of the workers and the manifest, optionally followed by the
+     *             number of restarts per worker.
+     * @throws IOException If the manifest cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        boolean remote = args[0].equals("--workers");
+        List<Track> tracks = readManifest(new File(args[remote ? 2 : 0]));
+
+        long start = System.nanoTime();
+        if (remote) {
+            int restarts = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_RESTARTS_PER_WORKER;
+            solveAll(tracks, SolverCoordinator.parseAddresses(args[1]), restarts);
+        } else {
+            solveAll(tracks, args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors());
+        }
+        long milliseconds = (System.nanoTime() - start) / 1_000_000;
+
+        int failed = 0;
+        for (Track track : tracks) {
+            if (track.getError() != null) {
+                System.out.println(track.getName() + ": failed (" + track.getError().getMessage() + ")");
+                failed++;
+            } else {
+                System.out.println(track.getName() + ": " + track.getModel().getParticipants().size() + " participants in "
+                        + track.getModel().getGroups().size() + " groups, " + track.getMilliseconds() + " ms");
+            }
+        }
+        System.out.println(tracks.size() + " tracks in " + milliseconds + " ms");
+        if (failed > 0) System.exit(1);
+    }
+
+    /**
+     * Reads the tracks listed in a manifest.
+     *
+     * @param manifest The manifest file.
+     * @return The tracks, in the order of the manifest.
+     * @throws IOException If the manifest cannot be read, or a line lacks the participants or output folder.
+     */
+    public static List<Track> readManifest(File manifest) throws IOException {
+        File folder = manifest.getAbsoluteFile().getParentFile();
+        List<Track> tracks = new ArrayList<>();
+
+        try (BufferedReader br = new BufferedReader(new FileReader(manifest))) {
+            br.readLine(); // Read header (not used)
+            String line = br.readLine();
+
+            while (line != null) {
+                if (!line.trim().isEmpty()) {
+                    String[] values = line.split(",", -1);
+                    File participants = resolve(folder, values, PARTICIPANTS);
+                    File outputFolder = resolve(folder, values, OUTPUT_FOLDER);
+                    if (participants == null || outputFolder == null) {
+                        throw new IOException("Track " + values[NAME] + " needs participants and an output folder");
+                    }
+
+                    Settings defaults = new Settings();
+                    Settings settings = new Settings(
+                            parse(values, GROUP_SIZE, defaults.getGroupSize()),
+                            parse(values, PLANT_BASED_MAXIMUM, defaults.getPlantBasedGroupMaximum()),
+                            parse(values, SAME_NATIONALITY_MAXIMUM, defaults.getSameNationalityGroupMaximum()),
+                            parse(values, SAME_GENDER_PERCENTAGE_LIMIT, defaults.getSameGenderPercentageLimit()));
+                    if (settings.getGroupSize() < 1 || settings.getGroupSize() > Settings.MAXIMUM_GROUP_SIZE) {
+                        throw new IOException("The group size of track " + values[NAME] + " must lie between 1 and "
+                                + Settings.MAXIMUM_GROUP_SIZE);
+                    }
+
+                    tracks.add(new Track(values[NAME].trim(), settings, participants, resolve(folder, values, GUIDES),
+                            resolve(folder, values, THEMES), resolve(folder, values, BUDDIES),
+                            resolve(folder, values, CONFLICTS), resolve(folder, values, EMAIL_TEMPLATE), outputFolder));
+                }
+                line = br.readLine();
+            }
+        }
+
+        return tracks;
+    }
+
+    /**
+     * Solves a number of tracks at the same time, and writes the output documents of every track.
+     * Afterwards, every track holds either its solved model or the error that stopped it.
+     *
+     * @param tracks The tracks to solve.
+     * @param parallelism The maximum number of threads used for all tracks together.
+     */
+    public static void solveAll(List<Track> tracks, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<Future<?>> futures = new ArrayList<>(tracks.size());
+        for (Track track : tracks) {
+            futures.add(pool.submit(() -> solve(track, pool, null, 0)));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Errors are kept by the tracks themselves
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Solves a number of tracks one after another on workers, and writes the output documents of every
+     * track. Afterwards, every track holds either its solved model or the error that stopped it.
+     *
+     * @param tracks The tracks to solve.
+     * @param workers The addresses of the workers.
+     * @param restartsPerWorker The number of times every worker solves every track.
+     */
+    public static void solveAll(List<Track> tracks, List<InetSocketAddress> workers, int restartsPerWorker) {
+        for (Track track : tracks) {
+            solve(track, null, workers, restartsPerWorker);
+        }
+    }
+
+    /**
+     * Loads, solves and exports a single track, keeping any error in the track.
+     *
+     * @param track The track to solve.
+     * @param pool The pool shared by all tracks, or {@code null} if the track is solved on workers.
+     * @param workers The addresses of the workers, or {@code null} if the track is solved in the pool.
+     * @param restartsPerWorker The number of times every worker solves the track.
+     */
+    private static void solve(Track track, ForkJoinPool pool, List<InetSocketAddress> workers, int restartsPerWorker) {
+        long start = System.nanoTime();
+        try {
+            GroupingModel model = track.load();
+            GroupingProblem problem = model.getProblem();
+            Solution solution = workers != null
+                    ? SolverCoordinator.solve(problem, workers, restartsPerWorker, System.nanoTime())
+                    : GroupingAlgorithm.solve(problem, pool);
+            model.commit(problem, solution);
+
+            if (!track.outputFolder.isDirectory() && !track.outputFolder.mkdirs()) {
+                throw new IOException("Cannot create " + track.outputFolder);
+            }
+            model.setOutputFolderPath(track.outputFolder);
+            if (track.emailTemplateFile != null) model.setEmailTemplate(track.emailTemplateFile);
+            GenerateOutputDocuments.write(model);
+
+            track.model = model;
+        } catch (IOException | RuntimeException e) {
+            track.error = e;
+        }
+        track.milliseconds = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Resolves a path in a column of the manifest against the folder of the manifest.
+     *
+     * @param folder The folder of the manifest.
+     * @param values The values of a line of the manifest.
+     * @param column The column holding the path.
+     * @return The file, or {@code null} if the column is empty or missing.
+     */
+    private static File resolve(File folder, String[] values, int column) {
+        if (column >= values.length || values[column].trim().isEmpty()) return null;
+        File file = new File(values[column].trim());
+        return file.isAbsolute() ? file : new File(folder, file.getPath());
+    }
+
+    /**
+     * Parses a number in a column of the manifest.
+     *
+     * @param values The values of a line of the manifest.
+     * @param column The column holding the number.
+     * @param defaultValue The value used if the column is empty or missing.
+     * @return The number.
+     * @throws IOException If the column does not hold a number.
+     */
+    private static int parse(String[] values, int column, int defaultValue) throws IOException {
+        if (column >= values.length || values[column].trim().isEmpty()) return defaultValue;
+        try {
+            return Integer.parseInt(values[column].trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid number in track " + values[NAME] + ": " + values[column]);
+        }
+    }
+
+    /**
+     * This inner class holds the input files and settings of a track, and the result of solving it.
+     */
+    public static class Track {
+        private final String name;
+        private final Settings settings;
+        private final File participantsFile;
+        private final File guidesFile;
+        private final File themesFile;
+        private final File buddiesFile;
+        private final File conflictsFile;
+        private final File emailTemplateFile;
+        private final File outputFolder;
+        private volatile GroupingModel model;
+        private volatile Exception error;
+        private volatile long milliseconds;
+
+        /**
+         * Constructor for the Track.
+         *
+         * @param name The name of the track.
+         * @param settings The settings used for forming the groups of the track.
+         * @param participantsFile The file containing the participants.
+         * @param guidesFile The file containing the guides, or {@code null}.
+         * @param themesFile The file containing the themes, or {@code null}.
+         * @param buddiesFile The file containing the buddy requests, or {@code null}.
+         * @param conflictsFile The file containing the conflicts, or {@code null}.
+         * @param emailTemplateFile The email template, or {@code null}.
+         * @param outputFolder The folder the output documents are written to.
+         */
+        public Track(String name, Settings settings, File participantsFile, File guidesFile, File themesFile,
+                     File buddiesFile, File conflictsFile, File emailTemplateFile, File outputFolder) {
+            this.name = name;
+            this.settings = settings;
+            this.participantsFile = participantsFile;
+            this.guidesFile = guidesFile;
+            this.themesFile = themesFile;
+            this.buddiesFile = buddiesFile;
+            this.conflictsFile = conflictsFile;
+            this.emailTemplateFile = emailTemplateFile;
+            this.outputFolder = outputFolder;
+        }
+
+        /**
+         * Returns the name of the track.
+         *
+         * @return The name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the settings used for forming the groups of the track.
+         *
+         * @return The settings.
+         */
+        public Settings getSettings() {
+            return settings;
+        }
+
+        /**
+         * Loads the input files of the track into a new model, without solving it.
+         *
+         * @return The model.
+         * @throws IOException If any of the input files cannot be read.
+         */
+        public GroupingModel load() throws IOException {
+            GroupingModel model = new GroupingModel();
+            model.load(settings, participantsFile, guidesFile, themesFile, buddiesFile, conflictsFile);
+            return model;
+        }
+
+        /**
+         * Returns the solved model of the track.
+         *
+         * @return The model, or {@code null} if the track was not solved (yet).
+         */
+        public GroupingModel getModel() {
+            return model;
+        }
+
+        /**
+         * Returns the error that stopped the track.
+         *
+         * @return The error, or {@code null} if the track did not fail.
+         */
+        public Exception getError() {
+            return error;
+        }
+
+        /**
+         * Returns the time it took to load, solve and export the track.
+         *
+         * @return The time in milliseconds.
+         */
+        public long getMilliseconds() {
+            return milliseconds;
+        }
+    }
+}
\ No newline at end of file
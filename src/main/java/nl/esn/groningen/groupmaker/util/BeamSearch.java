@@ -0,0 +1,401 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Utility class filling a group with a beam search, instead of committing to the single best unit at
+ * every place as {@link GroupingAlgorithm} does.
+ *
+ * <p>The search keeps the {@link #BEAM_WIDTH} best partial groups. At every step, every partial group is
+ * extended with each of its best units, scored with the same compatibility as the greedy fill (see
+ * {@link GroupingAlgorithm#calculateCompatibility}), and the best extensions of all partial groups
+ * together form the next beam. Every partial group keeps its own {@link AgeSpread} and
+ * {@link RegionSpread}, so scoring a participant stays as cheap as in the greedy fill, and the partial
+ * groups are extended in parallel in the given pool. A step therefore costs about {@link #BEAM_WIDTH}
+ * times a step of the greedy fill.</p>
+ *
+ * <p>The same members can be reached in a different order from different partial groups. Every partial
+ * group therefore carries a Zobrist hash of its members: the exclusive or of a random number per
+ * participant, which does not depend on the order and is updated with a single exclusive or per added
+ * participant. Extensions with the hash of an extension already in the beam are skipped, so the beam is
+ * not filled with copies of a single group. Once no partial group can be extended, the largest and best
+ * partial group is assigned to the group.</p>
+ *
+ * <p>Partial groups are not placed in the solution until the group is filled, so the nationality quotas
+ * (see {@link NationalitySpread}) and the checks ahead (see {@link ForwardChecking}), which count every
+ * placed participant, cannot follow them; the beam search is therefore only used when both are
+ * disabled.</p>
+ *
+ * @see GroupingAlgorithm
+ */
+public class BeamSearch {
+
+    // The number of partial groups kept at every step
+    private static final int BEAM_WIDTH = 4;
+
+    // The number of units below which the units are scanned sequentially
+    private static final int THRESHOLD = 1024;
+
+    private final ParticipantStore store;
+    private final Settings settings;
+    private final ScoringTables tables;
+    private final ParticipantUnits units;
+    private final ConflictGraph conflicts;
+    private final long[] keys;
+    private final long seed;
+
+    /**
+     * Constructs a {@code BeamSearch} for the participants of a problem.
+     *
+     * @param store The columnar store of the participants.
+     * @param settings The settings holding the scoring mode and scoring weights.
+     * @param tables The compiled scoring weights.
+     * @param units The units the participants are divided into.
+     * @param conflicts The participants that must be kept apart.
+     * @param random The source of the hashes and of the small random factor of the compatibility scores.
+     */
+    public BeamSearch(ParticipantStore store, Settings settings, ScoringTables tables, ParticipantUnits units,
+                      ConflictGraph conflicts, SplittableRandom random) {
+        this.store = store;
+        this.settings = settings;
+        this.tables = tables;
+        this.units = units;
+        this.conflicts = conflicts;
+
+        // Draw the random number of every participant for the hashes of the partial groups
+        this.keys = new long[store.size()];
+        for (int participant = 0; participant < keys.length; participant++) {
+            keys[participant] = random.nextLong();
+        }
+        this.seed = random.nextLong();
+    }
+
+    /**
+     * Fills a group with the best partial group found by the beam search, and assigns its members.
+     *
+     * @param group The index of the group being formed.
+     * @param groupSize The desired number of participants in the group.
+     * @param solution The solution in which the participants are assigned.
+     * @param ages The running sums of the ages in every group; updated for the assigned participants.
+     * @param regions The histograms of the regions in every group; updated for the assigned participants.
+     * @param pool The pool in which the partial groups are extended in parallel.
+     * @return The number of participants that were assigned to the group.
+     */
+    public int fill(int group, int groupSize, Solution solution, AgeSpread ages, RegionSpread regions, ForkJoinPool pool) {
+        List<PartialGroup> beam = new ArrayList<>();
+        beam.add(new PartialGroup(group, groupSize));
+
+        while (true) {
+            // Find the best units for every partial group in parallel
+            List<ExtensionTask> tasks = new ArrayList<>(beam.size());
+            for (PartialGroup partial : beam) {
+                tasks.add(new ExtensionTask(partial, solution, 0, units.size()));
+            }
+            pool.invoke(new ExpandBeamTask(tasks));
+
+            // Partial groups that cannot be extended are kept as they are
+            List<Extension> extensions = new ArrayList<>();
+            boolean extended = false;
+            for (int i = 0; i < beam.size(); i++) {
+                Extensions best = tasks.get(i).getRawResult();
+                PartialGroup partial = beam.get(i);
+                if (best.count == 0) {
+                    extensions.add(new Extension(partial, -1, partial.size, partial.score, partial.hash));
+                    continue;
+                }
+                extended = true;
+                for (int k = 0; k < best.count; k++) {
+                    int unit = best.units[k];
+                    extensions.add(new Extension(partial, unit, partial.size + units.getSize(unit),
+                            partial.score + best.compatibilities[k], partial.hash ^ calculateKey(unit)));
+                }
+            }
+            if (!extended) break;
+
+            // Keep the largest and best extensions, skipping the ones with the same members
+            extensions.sort((e1, e2) -> e1.size != e2.size ? Integer.compare(e2.size, e1.size)
+                    : Long.compare(e2.score, e1.score));
+            List<PartialGroup> next = new ArrayList<>(BEAM_WIDTH);
+            Set<Long> hashes = new HashSet<>();
+            for (Extension extension : extensions) {
+                if (next.size() == BEAM_WIDTH) break;
+                if (!hashes.add(extension.hash)) continue;
+                next.add(extension.unit >= 0 ? extension.partial.extend(extension.unit, extension.score) : extension.partial);
+            }
+            beam = next;
+        }
+
+        // The beam is sorted, so its first partial group is the largest and best
+        PartialGroup best = beam.get(0);
+        for (int i = 0; i < best.size; i++) {
+            int participant = best.members[i];
+            solution.assign(participant, group);
+            ages.add(participant, group);
+            regions.add(participant, group);
+        }
+        return best.size;
+    }
+
+    /**
+     * Calculates the exclusive or of the random numbers of the participants of a unit.
+     *
+     * @param unit The index of the unit.
+     * @return The key of the unit.
+     */
+    private long calculateKey(int unit) {
+        long key = 0;
+        for (int i = 0; i < units.getSize(unit); i++) {
+            key ^= keys[units.getMember(unit, i)];
+        }
+        return key;
+    }
+
+    /**
+     * This inner class holds a partial group of the beam: its members, its score and the hash of its
+     * members, together with the running sums of its ages and the histogram of its regions. The members
+     * are also kept as a set, so whether a unit is already in the partial group or conflicts with it is
+     * checked in time proportional to its conflicts, as for a group in the solution. A partial group is
+     * never changed once it is in the beam; extending it makes a new one.
+     */
+    private class PartialGroup {
+        private final int group;
+        private final int[] members;
+        private final BitSet membership;
+        private final int size;
+        private final long score;
+        private final long hash;
+        private final AgeSpread ages;
+        private final RegionSpread regions;
+
+        /**
+         * Constructs an empty {@code PartialGroup}.
+         *
+         * @param group The index of the group being formed.
+         * @param groupSize The desired number of participants in the group.
+         */
+        private PartialGroup(int group, int groupSize) {
+            this(group, new int[groupSize], 0, 0, 0);
+        }
+
+        /**
+         * Constructs a {@code PartialGroup} with the given members.
+         *
+         * @param group The index of the group being formed.
+         * @param members The members; its length is the size of the group.
+         * @param size The number of members.
+         * @param score The sum of the compatibilities with which the members were added.
+         * @param hash The exclusive or of the random numbers of the members.
+         */
+        private PartialGroup(int group, int[] members, int size, long score, long hash) {
+            this.group = group;
+            this.members = members;
+            this.size = size;
+            this.score = score;
+            this.hash = hash;
+            this.ages = new AgeSpread(store, 1, settings.getScoringWeights().get(ScoringWeights.AGE_SPREAD));
+            this.regions = new RegionSpread(store, 1, settings.getScoringWeights().get(ScoringWeights.REGION_SAME));
+            this.membership = new BitSet(store.size());
+            for (int i = 0; i < size; i++) {
+                membership.set(members[i]);
+                ages.add(members[i], 0);
+                regions.add(members[i], 0);
+            }
+        }
+
+        /**
+         * Returns a new partial group with the participants of a unit added.
+         *
+         * @param unit The index of the unit.
+         * @param score The score of the new partial group.
+         * @return The new partial group.
+         */
+        private PartialGroup extend(int unit, long score) {
+            int[] extended = members.clone();
+            int extendedSize = size;
+            for (int i = 0; i < units.getSize(unit); i++) {
+                extended[extendedSize++] = units.getMember(unit, i);
+            }
+            return new PartialGroup(group, extended, extendedSize, score, hash ^ calculateKey(unit));
+        }
+
+        /**
+         * Checks whether a unit can be added: it is not assigned to a group or in this partial group yet,
+         * fits, and has no conflicts with the members.
+         *
+         * @param unit The index of the unit.
+         * @param solution The solution holding the participants that have already been assigned to a group.
+         * @return {@code true} if the unit can be added.
+         */
+        private boolean canAdd(int unit, Solution solution) {
+            int first = units.getMember(unit, 0);
+            if (units.getSize(unit) > members.length - size || solution.isAssigned(first) || membership.get(first)) {
+                return false;
+            }
+            for (int i = 0; i < units.getSize(unit); i++) {
+                if (conflicts.hasConflict(units.getMember(unit, i), membership)) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Scores the participants of a unit being added, as the greedy fill does.
+         *
+         * @param unit The index of the unit.
+         * @return The sum of the compatibilities of the participants of the unit.
+         */
+        private long calculateCompatibility(int unit) {
+            long compatibility = 0;
+            for (int i = 0; i < units.getSize(unit); i++) {
+                int participant = units.getMember(unit, i);
+                compatibility += GroupingAlgorithm.calculateCompatibility(store, settings, tables, ages, regions, 0,
+                        members, size, participant, GroupingAlgorithm.calculateStochasticity(seed, group, size, participant));
+            }
+            return compatibility;
+        }
+    }
+
+    /**
+     * This inner class holds an extension of a partial group, which is only turned into a partial group
+     * once it makes it into the beam.
+     */
+    private static class Extension {
+        private final PartialGroup partial;
+        private final int unit;
+        private final int size;
+        private final long score;
+        private final long hash;
+
+        /**
+         * Constructor for the Extension.
+         *
+         * @param partial The partial group being extended.
+         * @param unit The index of the unit added, or {@code -1} if the partial group is kept as it is.
+         * @param size The number of members after the extension.
+         * @param score The score after the extension.
+         * @param hash The hash of the members after the extension.
+         */
+        private Extension(PartialGroup partial, int unit, int size, long score, long hash) {
+            this.partial = partial;
+            this.unit = unit;
+            this.size = size;
+            this.score = score;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * This inner class holds the best units for a partial group, sorted from best to worst.
+     */
+    private static class Extensions {
+        private final int[] units = new int[BEAM_WIDTH];
+        private final long[] compatibilities = new long[BEAM_WIDTH];
+        private int count;
+
+        /**
+         * Offers a unit, which is kept if it is among the best units so far.
+         *
+         * @param unit The index of the unit.
+         * @param compatibility The compatibility of the unit with the partial group.
+         */
+        private void offer(int unit, long compatibility) {
+            if (count == BEAM_WIDTH && compatibility <= compatibilities[count - 1]) return;
+            int i = count < BEAM_WIDTH ? count++ : count - 1;
+            while (i > 0 && compatibilities[i - 1] < compatibility) {
+                units[i] = units[i - 1];
+                compatibilities[i] = compatibilities[i - 1];
+                i--;
+            }
+            units[i] = unit;
+            compatibilities[i] = compatibility;
+        }
+    }
+
+    /**
+     * This inner class is a recursive task finding the best units for a partial group. Large ranges of
+     * unit indices are split in halves until they are small enough to be scanned sequentially, as in the
+     * greedy fill.
+     */
+    private class ExtensionTask extends RecursiveTask<Extensions> {
+        private final PartialGroup partial;
+        private final Solution solution;
+        private final int from;
+        private final int to;
+
+        /**
+         * Constructor for the ExtensionTask.
+         *
+         * @param partial The partial group being extended.
+         * @param solution The solution holding the participants that have already been assigned to a group.
+         * @param from The first unit index (inclusive) to consider.
+         * @param to The last unit index (exclusive) to consider.
+         */
+        private ExtensionTask(PartialGroup partial, Solution solution, int from, int to) {
+            this.partial = partial;
+            this.solution = solution;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Finds the best units in the range of this task.
+         *
+         * @return The best units, which may be none.
+         */
+        @Override
+        protected Extensions compute() {
+            if (to - from > THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                ExtensionTask left = new ExtensionTask(partial, solution, from, middle);
+                ExtensionTask right = new ExtensionTask(partial, solution, middle, to);
+                left.fork();
+                Extensions best = right.compute();
+                Extensions leftBest = left.join();
+                for (int k = 0; k < leftBest.count; k++) {
+                    best.offer(leftBest.units[k], leftBest.compatibilities[k]);
+                }
+                return best;
+            }
+
+            Extensions best = new Extensions();
+            for (int unit = from; unit < to; unit++) {
+                if (partial.canAdd(unit, solution)) best.offer(unit, partial.calculateCompatibility(unit));
+            }
+            return best;
+        }
+    }
+
+    /**
+     * This inner class is a task running the extension tasks of all partial groups of the beam at once.
+     */
+    private static class ExpandBeamTask extends RecursiveAction {
+        private final List<ExtensionTask> tasks;
+
+        /**
+         * Constructor for the ExpandBeamTask.
+         *
+         * @param tasks The extension tasks of the partial groups.
+         */
+        private ExpandBeamTask(List<ExtensionTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        /**
+         * Runs all extension tasks and waits for them.
+         */
+        @Override
+        protected void compute() {
+            ForkJoinTask.invokeAll(tasks);
+        }
+    }
+}
\ No newline at end of file
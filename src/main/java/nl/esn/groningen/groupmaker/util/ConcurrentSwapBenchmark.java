@@ -0,0 +1,52 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Utility class measuring how the {@link ConcurrentSwapSearch} scales with the number of threads.
+ *
+ * <p>The benchmark forms the groups of a participants file once, and then runs the search from that
+ * same solution with 2, 4, 8, 16 and 32 threads, printing the {@link ConcurrentSwapSearch.Statistics}
+ * of every run: the swaps tried and made, and the contention between the threads. It is run on a
+ * participants file:
+ * {@code java -cp GroupMaker.jar nl.esn.groningen.groupmaker.util.ConcurrentSwapBenchmark participants.csv}.</p>
+ *
+ * @see ConcurrentSwapSearch
+ */
+public class ConcurrentSwapBenchmark {
+
+    // The largest number of threads the search is run with
+    private static final int MAXIMUM_THREADS = 32;
+
+    /**
+     * Prints how the search scales with the number of threads on the participants of a file.
+     *
+     * @param args The participants file.
+     * @throws IOException If the participants file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        GroupingModel model = new GroupingModel();
+        model.load(new Settings(), new File(args[0]), null, null, null, null);
+        GroupingProblem problem = model.getProblem();
+        ParticipantStore store = problem.getParticipantStore();
+        Solution initial = GroupingAlgorithm.solve(problem);
+
+        int[] groupSizes = GroupingAlgorithm.calculateGroupSizes(store.size(), problem.getSettings().getGroupSize());
+        int maximumUnitSize = groupSizes.length > 0 ? groupSizes[0] : 1;
+        ConflictGraph conflicts = new ConflictGraph(store.size(), problem.getConflictPairs());
+        ParticipantUnits units = new ParticipantUnits(store.size(), problem.getBuddyPairs(), maximumUnitSize, conflicts);
+        ScoringTables tables = ScoringTables.compile(problem.getSettings().getScoringWeights());
+
+        for (int threads = 2; threads <= MAXIMUM_THREADS; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ConcurrentSwapSearch.Statistics statistics =
+                    ConcurrentSwapSearch.search(problem, initial.copy(), units, conflicts, tables, pool);
+            pool.shutdown();
+            System.out.println(statistics);
+        }
+    }
+}
\ No newline at end of file
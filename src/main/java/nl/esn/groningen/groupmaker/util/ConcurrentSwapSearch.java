@@ -0,0 +1,404 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Utility class improving the groups of a solution with a local search in which all threads of a pool
+ * propose and make swaps on the same solution at the same time.
+ *
+ * <p>Every group has its own state: its members, the number of members of every nationality, and the
+ * total score of its pairs of members (see {@link SwapScorer}). The state of every group is guarded by
+ * its own {@link StampedLock}, so two threads only get in each other's way when they touch the same group.
+ * A thread picks a random member of a random group and looks for the best participant to swap it with in
+ * another random group, reading both groups optimistically, without taking a lock. Only when the swap
+ * improves the groups are both locks converted into write locks, which succeeds if neither group changed
+ * since it was read; the limits and conflicts are checked once both locks are held, and the swap is made.
+ * Participants whose group is written by another thread only ever move between two other groups, so
+ * they never affect the conflict check.</p>
+ *
+ * <p>The search counts how often a thread found a group locked or changed under its hands; relative to
+ * the number of swaps that were tried, this contention shows how well the search scales with the number
+ * of threads (see {@link Statistics#getContention()}); {@link ConcurrentSwapBenchmark} prints it for 2
+ * to 32 threads.</p>
+ *
+ * @see SwapScorer
+ * @see PairwiseRefinement
+ */
+public class ConcurrentSwapSearch {
+
+    // The number of swaps tried for every participant, divided over all threads
+    private static final int ATTEMPTS_PER_PARTICIPANT = 50;
+
+    private final SwapScorer scorer;
+    private final ParticipantUnits units;
+    private final ConflictGraph conflicts;
+    private final Solution solution;
+    private final int[][] members;
+    private final int[][] nationalityCounts;
+    private final long[] scores;
+    private final StampedLock[] locks;
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder swaps = new LongAdder();
+    private final LongAdder lockedReads = new LongAdder();
+    private final LongAdder staleReads = new LongAdder();
+    private final LongAdder failedUpgrades = new LongAdder();
+
+    /**
+     * Constructs the state of every group of a solution.
+     *
+     * @param problem The problem holding the participants and settings.
+     * @param solution The solution in which participants are swapped.
+     * @param units The units of buddies; participants in a unit of several participants are not swapped.
+     * @param conflicts The participants that must be kept apart.
+     * @param tables The compiled scoring weights.
+     */
+    private ConcurrentSwapSearch(GroupingProblem problem, Solution solution, ParticipantUnits units,
+                                 ConflictGraph conflicts, ScoringTables tables) {
+        ParticipantStore store = problem.getParticipantStore();
+        this.scorer = new SwapScorer(store, problem.getSettings(), tables);
+        this.units = units;
+        this.conflicts = conflicts;
+        this.solution = solution;
+        this.members = solution.getMembers();
+        this.nationalityCounts = new int[members.length][store.getNationalityCount()];
+        this.scores = new long[members.length];
+        this.locks = new StampedLock[members.length];
+
+        for (int group = 0; group < members.length; group++) {
+            locks[group] = new StampedLock();
+            for (int i = 0; i < members[group].length; i++) {
+                int nationality = store.getNationality(members[group][i]);
+                if (nationality != ParticipantStore.UNKNOWN_NATIONALITY) nationalityCounts[group][nationality]++;
+                for (int j = i + 1; j < members[group].length; j++) {
+                    scores[group] += scorer.calculateScore(members[group][i], members[group][j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Improves the groups of a solution, trying a number of swaps proportional to the number of participants.
+     *
+     * @param problem The problem holding the participants and settings.
+     * @param solution The solution in which participants are swapped.
+     * @param units The units of buddies; participants in a unit of several participants are not swapped.
+     * @param conflicts The participants that must be kept apart; swaps that would place them together are skipped.
+     * @param tables The compiled scoring weights.
+     * @param pool The pool whose threads all search at the same time.
+     * @return The statistics of the search.
+     */
+    public static Statistics search(GroupingProblem problem, Solution solution, ParticipantUnits units,
+                                    ConflictGraph conflicts, ScoringTables tables, ForkJoinPool pool) {
+        long attempts = (long) ATTEMPTS_PER_PARTICIPANT * problem.getParticipantStore().size();
+        return search(problem, solution, units, conflicts, tables, pool, attempts);
+    }
+
+    /**
+     * Improves the groups of a solution, trying the given number of swaps.
+     *
+     * @param problem The problem holding the participants and settings.
+     * @param solution The solution in which participants are swapped.
+     * @param units The units of buddies; participants in a unit of several participants are not swapped.
+     * @param conflicts The participants that must be kept apart; swaps that would place them together are skipped.
+     * @param tables The compiled scoring weights.
+     * @param pool The pool whose threads all search at the same time.
+     * @param attempts The number of swaps to try, divided over the threads of the pool.
+     * @return The statistics of the search.
+     */
+    public static Statistics search(GroupingProblem problem, Solution solution, ParticipantUnits units,
+                                    ConflictGraph conflicts, ScoringTables tables, ForkJoinPool pool, long attempts) {
+        long start = System.nanoTime();
+        ConcurrentSwapSearch search = new ConcurrentSwapSearch(problem, solution, units, conflicts, tables);
+        if (search.members.length < 2) return search.getStatistics(pool.getParallelism(), start);
+
+        // Every thread of the pool runs its own share of the attempts
+        int threads = pool.getParallelism();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            long share = attempts / threads + (thread < attempts % threads ? 1 : 0);
+            tasks.add(pool.submit(() -> search.run(share)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        return search.getStatistics(threads, start);
+    }
+
+    /**
+     * Tries a number of random swaps, making every swap that improves the groups.
+     *
+     * @param attempts The number of swaps to try.
+     */
+    private void run(long attempts) {
+        Random random = ThreadLocalRandom.current();
+        for (long attempt = 0; attempt < attempts; attempt++) {
+            int group1 = random.nextInt(members.length);
+            int group2 = random.nextInt(members.length - 1);
+            if (group2 >= group1) group2++;
+            if (members[group1].length == 0) continue;
+            trySwap(group1, random.nextInt(members[group1].length), group2);
+        }
+        this.attempts.add(attempts);
+    }
+
+    /**
+     * Looks for the best participant of a group to swap a member of another group with, and makes the
+     * swap if it improves the groups and neither group changed in the meantime.
+     *
+     * @param group1 The group of the member.
+     * @param index1 The position of the member in its group.
+     * @param group2 The group to look for a participant in.
+     */
+    private void trySwap(int group1, int index1, int group2) {
+        // Read both groups without locking them; a stamp of 0 means another thread is writing the group
+        long stamp1 = locks[group1].tryOptimisticRead();
+        long stamp2 = locks[group2].tryOptimisticRead();
+        if (stamp1 == 0 || stamp2 == 0) {
+            lockedReads.increment();
+            return;
+        }
+
+        int[] members1 = members[group1];
+        int[] members2 = members[group2];
+        int participant1 = members1[index1];
+        if (units.isLocked(participant1)) return;
+
+        // The score of the member with the other members of its own group, and with the other group
+        long internal1 = 0;
+        for (int i = 0; i < members1.length; i++) {
+            if (i != index1) internal1 += scorer.calculateScore(participant1, members1[i]);
+        }
+        long external1 = 0;
+        for (int member : members2) {
+            external1 += scorer.calculateScore(participant1, member);
+        }
+
+        int bestIndex = -1;
+        long bestGain = 0;
+        long bestChange1 = 0;
+        for (int j = 0; j < members2.length; j++) {
+            int participant2 = members2[j];
+            if (units.isLocked(participant2) || !scorer.isSwappable(participant1, participant2)) continue;
+
+            long pairScore = scorer.calculateScore(participant1, participant2);
+            long external2 = 0;
+            for (int i = 0; i < members1.length; i++) {
+                if (i != index1) external2 += scorer.calculateScore(participant2, members1[i]);
+            }
+            long internal2 = 0;
+            for (int i = 0; i < members2.length; i++) {
+                if (i != j) internal2 += scorer.calculateScore(participant2, members2[i]);
+            }
+
+            long change1 = external2 - internal1;
+            long change2 = external1 - pairScore - internal2;
+            if (change1 + change2 > bestGain) {
+                bestGain = change1 + change2;
+                bestIndex = j;
+                bestChange1 = change1;
+            }
+        }
+
+        // The scores are only valid if neither group was written while they were read
+        if (!locks[group1].validate(stamp1) || !locks[group2].validate(stamp2)) {
+            staleReads.increment();
+            return;
+        }
+        if (bestIndex < 0) return;
+
+        // Lock the group with the lowest index first; converting fails if a group changed since it was read
+        boolean ordered = group1 < group2;
+        StampedLock first = locks[ordered ? group1 : group2];
+        StampedLock second = locks[ordered ? group2 : group1];
+        long writeStamp1 = first.tryConvertToWriteLock(ordered ? stamp1 : stamp2);
+        if (writeStamp1 == 0) {
+            failedUpgrades.increment();
+            return;
+        }
+        long writeStamp2 = second.tryConvertToWriteLock(ordered ? stamp2 : stamp1);
+        if (writeStamp2 == 0) {
+            first.unlockWrite(writeStamp1);
+            failedUpgrades.increment();
+            return;
+        }
+
+        try {
+            int participant2 = members2[bestIndex];
+            if (isAllowed(participant1, group1, participant2, group2)) {
+                swap(participant1, group1, index1, participant2, group2, bestIndex);
+                scores[group1] += bestChange1;
+                scores[group2] += bestGain - bestChange1;
+                swaps.increment();
+            }
+        } finally {
+            second.unlockWrite(writeStamp2);
+            first.unlockWrite(writeStamp1);
+        }
+    }
+
+    /**
+     * Checks whether two participants may be swapped: neither group exceeds its nationality limit by
+     * more than before, and neither participant would join a participant it must be kept apart from.
+     * Must be called while holding the write locks of both groups.
+     *
+     * @param participant1 The participant in the first group.
+     * @param group1 The first group.
+     * @param participant2 The participant in the second group.
+     * @param group2 The second group.
+     * @return {@code true} if the swap is allowed.
+     */
+    private boolean isAllowed(int participant1, int group1, int participant2, int group2) {
+        ParticipantStore store = scorer.getStore();
+        int nationality1 = store.getNationality(participant1);
+        int nationality2 = store.getNationality(participant2);
+        if (nationality1 != nationality2) {
+            int change = 0;
+            if (nationality1 != ParticipantStore.UNKNOWN_NATIONALITY) {
+                change += scorer.calculateExcessChange(nationalityCounts[group1][nationality1],
+                        nationalityCounts[group2][nationality1]);
+            }
+            if (nationality2 != ParticipantStore.UNKNOWN_NATIONALITY) {
+                change += scorer.calculateExcessChange(nationalityCounts[group2][nationality2],
+                        nationalityCounts[group1][nationality2]);
+            }
+            if (change > 0) return false;
+        }
+        return !conflicts.hasConflict(participant1, group2, participant2, solution)
+                && !conflicts.hasConflict(participant2, group1, participant1, solution);
+    }
+
+    /**
+     * Swaps two participants of different groups, in the solution and the state of both groups. Must be
+     * called while holding the write locks of both groups.
+     *
+     * @param participant1 The participant in the first group.
+     * @param group1 The first group.
+     * @param index1 The position of the first participant in its group.
+     * @param participant2 The participant in the second group.
+     * @param group2 The second group.
+     * @param index2 The position of the second participant in its group.
+     */
+    private void swap(int participant1, int group1, int index1, int participant2, int group2, int index2) {
+        members[group1][index1] = participant2;
+        members[group2][index2] = participant1;
+        solution.assign(participant1, group2);
+        solution.assign(participant2, group1);
+
+        ParticipantStore store = scorer.getStore();
+        int nationality1 = store.getNationality(participant1);
+        if (nationality1 != ParticipantStore.UNKNOWN_NATIONALITY) {
+            nationalityCounts[group1][nationality1]--;
+            nationalityCounts[group2][nationality1]++;
+        }
+        int nationality2 = store.getNationality(participant2);
+        if (nationality2 != ParticipantStore.UNKNOWN_NATIONALITY) {
+            nationalityCounts[group2][nationality2]--;
+            nationalityCounts[group1][nationality2]++;
+        }
+    }
+
+    /**
+     * Collects the statistics of the search once all threads have finished.
+     *
+     * @param threads The number of threads that searched.
+     * @param start The time at which the search started, from {@link System#nanoTime()}.
+     * @return The statistics.
+     */
+    private Statistics getStatistics(int threads, long start) {
+        long score = 0;
+        for (long groupScore : scores) {
+            score += groupScore;
+        }
+        return new Statistics(threads, attempts.sum(), swaps.sum(), lockedReads.sum(), staleReads.sum(),
+                failedUpgrades.sum(), score, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * This class holds the statistics of a search: how many swaps were tried and made, and how often the
+     * threads got in each other's way.
+     */
+    public static class Statistics {
+        private final int threads;
+        private final long attempts;
+        private final long swaps;
+        private final long lockedReads;
+        private final long staleReads;
+        private final long failedUpgrades;
+        private final long score;
+        private final long milliseconds;
+
+        /**
+         * Constructor for the Statistics.
+         *
+         * @param threads The number of threads that searched.
+         * @param attempts The number of swaps that were tried.
+         * @param swaps The number of swaps that were made.
+         * @param lockedReads The number of times a group was being written when a thread started reading it.
+         * @param staleReads The number of times a group was written while a thread was reading it.
+         * @param failedUpgrades The number of times a group was written before a thread could lock it.
+         * @param score The total score of the pairs of members of all groups afterwards.
+         * @param milliseconds The duration of the search.
+         */
+        public Statistics(int threads, long attempts, long swaps, long lockedReads, long staleReads,
+                          long failedUpgrades, long score, long milliseconds) {
+            this.threads = threads;
+            this.attempts = attempts;
+            this.swaps = swaps;
+            this.lockedReads = lockedReads;
+            this.staleReads = staleReads;
+            this.failedUpgrades = failedUpgrades;
+            this.score = score;
+            this.milliseconds = milliseconds;
+        }
+
+        /**
+         * Returns the number of swaps that were made.
+         *
+         * @return The number of swaps.
+         */
+        public long getSwaps() {
+            return swaps;
+        }
+
+        /**
+         * Returns the total score of the pairs of members of all groups after the search.
+         *
+         * @return The score, as calculated by the {@link SwapScorer}.
+         */
+        public long getScore() {
+            return score;
+        }
+
+        /**
+         * Returns the share of tried swaps that was lost because another thread was writing one of the
+         * groups involved: 0 if the threads never got in each other's way.
+         *
+         * @return The contention, between 0 and 1.
+         */
+        public double getContention() {
+            return attempts == 0 ? 0 : (double) (lockedReads + staleReads + failedUpgrades) / attempts;
+        }
+
+        /**
+         * Returns a summary of the statistics.
+         *
+         * @return The number of threads, the number of swaps tried and made, the contention and its causes, the score and the duration.
+         */
+        @Override
+        public String toString() {
+            return String.format("%d threads: %d swaps made of %d tried, contention %.3f%% (%d locked, %d stale, %d failed upgrades),"
+                            + " score %d, %d ms",
+                    threads, swaps, attempts, 100 * getContention(), lockedReads, staleReads, failedUpgrades, score, milliseconds);
+        }
+    }
+}
\ No newline at end of file
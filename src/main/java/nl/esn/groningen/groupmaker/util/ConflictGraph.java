@@ -0,0 +1,134 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.GroupingProblem;
+import nl.esn.groningen.groupmaker.model.Solution;
+
+import java.util.BitSet;
+
+/**
+ * Utility class holding the participants that must not be placed in the same group.
+ *
+ * <p>The conflicts form a sparse, undirected graph, stored in compressed sparse row form: the
+ * neighbours of participant {@code p} are found at {@code neighbours[start[p]]} up to
+ * {@code neighbours[start[p + 1]]}. Because the group of every participant can be looked up directly
+ * in the {@link Solution}, checking whether a participant conflicts with a group takes time
+ * proportional to the number of conflicts of that participant, instead of the size of the group.</p>
+ */
+public class ConflictGraph {
+    private final int[] start;
+    private final int[] neighbours;
+
+    /**
+     * Constructs the {@code ConflictGraph} for a number of participants and conflicting pairs.
+     *
+     * @param numberOfParticipants The number of participants.
+     * @param conflictPairs The conflicting pairs as consecutive participant indices, or {@code null} if there are none.
+     */
+    public ConflictGraph(int numberOfParticipants, int[] conflictPairs) {
+        int[] pairs = conflictPairs != null ? conflictPairs : new int[0];
+
+        // Count the degree of every participant
+        this.start = new int[numberOfParticipants + 1];
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            start[pairs[i] + 1]++;
+            start[pairs[i + 1] + 1]++;
+        }
+        for (int p = 0; p < numberOfParticipants; p++) {
+            start[p + 1] += start[p];
+        }
+
+        // Store every conflict in both directions
+        this.neighbours = new int[start[numberOfParticipants]];
+        int[] next = new int[numberOfParticipants];
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            int p1 = pairs[i];
+            int p2 = pairs[i + 1];
+            neighbours[start[p1] + next[p1]++] = p2;
+            neighbours[start[p2] + next[p2]++] = p1;
+        }
+    }
+
+    /**
+     * Checks whether a participant conflicts with any member of a group.
+     *
+     * @param participant The participant index.
+     * @param group The group index.
+     * @param solution The solution holding the current groups.
+     * @return {@code true} if a participant the given participant must be kept apart from is in the group.
+     */
+    public boolean hasConflict(int participant, int group, Solution solution) {
+        for (int i = start[participant]; i < start[participant + 1]; i++) {
+            if (solution.getGroup(neighbours[i]) == group) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a participant conflicts with any member of a group, ignoring one member that
+     * is about to leave the group.
+     *
+     * @param participant The participant index.
+     * @param group The group index.
+     * @param leaving The participant that leaves the group, and is therefore ignored.
+     * @param solution The solution holding the current groups.
+     * @return {@code true} if a participant the given participant must be kept apart from stays in the group.
+     */
+    public boolean hasConflict(int participant, int group, int leaving, Solution solution) {
+        for (int i = start[participant]; i < start[participant + 1]; i++) {
+            if (neighbours[i] != leaving && solution.getGroup(neighbours[i]) == group) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a participant conflicts with any of a set of participants that are not placed in the
+     * solution yet, such as the members of a partial group.
+     *
+     * @param participant The participant index.
+     * @param members The set of participant indices, indexed by participant.
+     * @return {@code true} if a participant the given participant must be kept apart from is among them.
+     */
+    public boolean hasConflict(int participant, BitSet members) {
+        for (int i = start[participant]; i < start[participant + 1]; i++) {
+            if (members.get(neighbours[i])) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a participant conflicts with any member of a set of a {@link UnionFind} structure,
+     * such as a unit of buddies that is being formed.
+     *
+     * @param participant The participant index.
+     * @param root The representative of the set.
+     * @param sets The union-find structure holding the set.
+     * @return {@code true} if a participant the given participant must be kept apart from is in the set.
+     */
+    public boolean hasConflict(int participant, int root, UnionFind sets) {
+        for (int i = start[participant]; i < start[participant + 1]; i++) {
+            if (sets.find(neighbours[i]) == root) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Counts the conflicting pairs of a problem whose participants are placed in the same group.
+     *
+     * @param problem The problem holding the conflicting pairs.
+     * @param solution The solution describing the groups.
+     * @return The number of violated conflicts.
+     */
+    public static int countViolatedPairs(GroupingProblem problem, Solution solution) {
+        int[] conflictPairs = problem.getConflictPairs();
+        if (conflictPairs == null) return 0;
+
+        int violated = 0;
+        for (int i = 0; i + 1 < conflictPairs.length; i += 2) {
+            int group = solution.getGroup(conflictPairs[i]);
+            if (group != Solution.UNASSIGNED && group == solution.getGroup(conflictPairs[i + 1])) {
+                violated++;
+            }
+        }
+        return violated;
+    }
+}
\ No newline at end of file
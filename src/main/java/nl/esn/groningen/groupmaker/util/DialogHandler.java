@@ -11,8 +11,8 @@ import java.io.File;
  * and displaying warnings or error messages to the user.
  *
  * <p>This class provides static methods to interact with the user through
- * file dialogs and message dialogs. It includes methods for opening CSV and DOCX
- * files, selecting folders, confirming actions, and displaying warnings or error messages.</p>
+ * file dialogs and message dialogs. It includes methods for opening CSV, DOCX and
+ * settings files, selecting folders, confirming actions, and displaying warnings or error messages.</p>
  */
 public class DialogHandler {
 
@@ -62,6 +62,29 @@ public class DialogHandler {
         }
     }
 
+    /**
+     * Displays a dialog to open a settings file.
+     *
+     * @return The selected settings file as a {@link File}, or null if the dialog was cancelled.
+     */
+    public static File showOpenSettingsFileDialog() {
+        // Create a file dialog for loading settings files, filtered to show only .properties files.
+        FileDialog fileDialog = new FileDialog(MainFrame.getInstance(), "Select Settings File", FileDialog.LOAD);
+        fileDialog.setFilenameFilter((dir, name) -> name.toLowerCase().endsWith(".properties"));
+        fileDialog.setVisible(true);
+
+        // Get the selected directory and file name from the dialog.
+        String directory = fileDialog.getDirectory();
+        String fileName = fileDialog.getFile();
+
+        // If both directory and file name are selected, return the File object. Otherwise, return null.
+        if (directory != null && fileName != null) {
+            return new File(directory, fileName);
+        } else {
+            return null;
+        }
+    }
+
     /**
      * Displays a dialog to select a folder.
      *
@@ -0,0 +1,137 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.Solution;
+
+/**
+ * Utility class keeping a bounded pool of good solutions that differ from each other, so later restarts
+ * can build on what earlier restarts found (see {@link PathRelinking}).
+ *
+ * <p>A solution only enters the pool if it is better than the worst solution in the pool, or if the
+ * pool is not full yet. A solution that is close to a solution in the pool (see
+ * {@link #calculateDistance(Solution, Solution)}) competes with that solution only, so the pool never
+ * fills up with variations of a single solution. The pool is meant for a single search, and is not
+ * thread-safe.</p>
+ *
+ * @see PathRelinking
+ * @see SolverWorker
+ */
+public class ElitePool {
+    private final Solution[] solutions;
+    private final long[] scores;
+    private final int minimumDistance;
+    private int size;
+
+    /**
+     * Constructs an empty {@code ElitePool}.
+     *
+     * @param capacity The largest number of solutions in the pool.
+     * @param minimumDistance The distance below which two solutions count as the same solution.
+     */
+    public ElitePool(int capacity, int minimumDistance) {
+        this.solutions = new Solution[capacity];
+        this.scores = new long[capacity];
+        this.minimumDistance = minimumDistance;
+    }
+
+    /**
+     * Offers a solution to the pool.
+     *
+     * @param solution The solution; the pool keeps a copy.
+     * @param score The score of the solution; lower is better.
+     * @return {@code true} if the solution entered the pool.
+     */
+    public boolean add(Solution solution, long score) {
+        // A solution close to one in the pool can only replace that one
+        int closest = -1;
+        int closestDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            int distance = calculateDistance(solution, solutions[i]);
+            if (distance < closestDistance) {
+                closestDistance = distance;
+                closest = i;
+            }
+        }
+        if (closest >= 0 && closestDistance < minimumDistance) {
+            if (score >= scores[closest]) return false;
+            set(closest, solution, score);
+            return true;
+        }
+
+        if (size < solutions.length) {
+            set(size++, solution, score);
+            return true;
+        }
+        int worst = 0;
+        for (int i = 1; i < size; i++) {
+            if (scores[i] > scores[worst]) worst = i;
+        }
+        if (score >= scores[worst]) return false;
+        set(worst, solution, score);
+        return true;
+    }
+
+    /**
+     * Returns the number of solutions in the pool.
+     *
+     * @return The number of solutions.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a solution of the pool.
+     *
+     * @param index The position of the solution, from 0 to {@link #size()}.
+     * @return The solution; must not be changed.
+     */
+    public Solution get(int index) {
+        return solutions[index];
+    }
+
+    /**
+     * Estimates how many participants would have to move to turn one solution into another: the number
+     * of participants that are not in the group of the first solution that shares the most members with
+     * their group in the second solution. Group numbers do not matter, so two solutions with the same
+     * groups in a different order have distance 0. Takes time linear in the number of participants plus
+     * the square of the number of groups.
+     *
+     * @param solution1 The first solution.
+     * @param solution2 The second solution, with the same number of participants and groups.
+     * @return The distance between the solutions.
+     */
+    public static int calculateDistance(Solution solution1, Solution solution2) {
+        int numberOfGroups = solution1.getNumberOfGroups();
+        int[] overlap = new int[numberOfGroups * numberOfGroups];
+        int assigned = 0;
+        for (int participant = 0; participant < solution1.getNumberOfParticipants(); participant++) {
+            int group1 = solution1.getGroup(participant);
+            int group2 = solution2.getGroup(participant);
+            if (group1 == Solution.UNASSIGNED || group2 == Solution.UNASSIGNED) continue;
+            overlap[group2 * numberOfGroups + group1]++;
+            assigned++;
+        }
+
+        int kept = 0;
+        for (int group2 = 0; group2 < numberOfGroups; group2++) {
+            int most = 0;
+            for (int group1 = 0; group1 < numberOfGroups; group1++) {
+                most = Math.max(most, overlap[group2 * numberOfGroups + group1]);
+            }
+            kept += most;
+        }
+        return assigned - kept;
+    }
+
+    /**
+     * Stores a copy of a solution at a position of the pool.
+     *
+     * @param index The position.
+     * @param solution The solution.
+     * @param score The score of the solution.
+     */
+    private void set(int index, Solution solution, long score) {
+        solutions[index] = solution.copy();
+        scores[index] = score;
+    }
+}
\ No newline at end of file
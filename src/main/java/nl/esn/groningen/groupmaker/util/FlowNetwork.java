@@ -0,0 +1,258 @@
+package nl.esn.groningen.groupmaker.util;
+
+import java.util.Arrays;
+
+/**
+ * Utility class representing a flow network, with a maximum flow computed by Dinic's algorithm, or a
+ * maximum flow of minimum cost computed by successive shortest paths.
+ *
+ * <p>The network is stored in flat arrays: every edge is stored together with its reverse edge,
+ * at indices {@code 2k} and {@code 2k + 1}, so the residual graph needs no separate objects. This
+ * keeps networks with many thousands of edges cheap to build and to solve.</p>
+ */
+public class FlowNetwork {
+    private final int numberOfNodes;
+    private final int[] head;
+    private int[] next;
+    private int[] to;
+    private int[] capacity;
+    private int[] cost;
+    private int numberOfEdges;
+
+    /**
+     * Constructs an empty {@code FlowNetwork} with the given number of nodes.
+     *
+     * @param numberOfNodes The number of nodes; nodes are numbered from 0.
+     */
+    public FlowNetwork(int numberOfNodes) {
+        this.numberOfNodes = numberOfNodes;
+        this.head = new int[numberOfNodes];
+        this.next = new int[16];
+        this.to = new int[16];
+        this.capacity = new int[16];
+        this.cost = new int[16];
+        Arrays.fill(head, -1);
+    }
+
+    /**
+     * Adds a directed edge to the network. Edges with a capacity of 0 are allowed.
+     *
+     * @param from The node the edge starts at.
+     * @param target The node the edge ends at.
+     * @param edgeCapacity The capacity of the edge.
+     * @return The index of the edge, which can be passed to {@link #getFlow(int)}.
+     */
+    public int addEdge(int from, int target, int edgeCapacity) {
+        return addEdge(from, target, edgeCapacity, 0);
+    }
+
+    /**
+     * Adds a directed edge with a cost per unit of flow to the network. The costs are only used by
+     * {@link #minCostFlow(int, int)}.
+     *
+     * @param from The node the edge starts at.
+     * @param target The node the edge ends at.
+     * @param edgeCapacity The capacity of the edge.
+     * @param edgeCost The cost of every unit of flow over the edge; must not be negative.
+     * @return The index of the edge, which can be passed to {@link #getFlow(int)}.
+     */
+    public int addEdge(int from, int target, int edgeCapacity, int edgeCost) {
+        if (numberOfEdges + 2 > to.length) {
+            next = Arrays.copyOf(next, 2 * to.length);
+            capacity = Arrays.copyOf(capacity, 2 * to.length);
+            cost = Arrays.copyOf(cost, 2 * to.length);
+            to = Arrays.copyOf(to, 2 * to.length);
+        }
+
+        int edge = numberOfEdges;
+        insert(from, target, edgeCapacity, edgeCost);
+        insert(target, from, 0, -edgeCost);
+        return edge;
+    }
+
+    /**
+     * Computes the maximum flow from the source to the sink. Afterwards, the flow over every edge
+     * can be read using {@link #getFlow(int)}.
+     *
+     * @param source The source node.
+     * @param sink The sink node.
+     * @return The value of the maximum flow.
+     */
+    public int maxFlow(int source, int sink) {
+        int[] level = new int[numberOfNodes];
+        int[] current = new int[numberOfNodes];
+        int[] queue = new int[numberOfNodes];
+        int flow = 0;
+
+        while (buildLevels(source, sink, level, queue, null)) {
+            System.arraycopy(head, 0, current, 0, numberOfNodes);
+            int pushed;
+            while ((pushed = push(source, sink, Integer.MAX_VALUE, level, current, null)) > 0) {
+                flow += pushed;
+            }
+        }
+
+        return flow;
+    }
+
+    /**
+     * Computes a maximum flow of minimum total cost from the source to the sink. Afterwards, the flow
+     * over every edge can be read using {@link #getFlow(int)}.
+     *
+     * <p>Every phase computes the cheapest distance from the source to every node with Dijkstra's
+     * algorithm on reduced costs, so the negative costs of reverse edges in the residual graph need no
+     * special treatment. The flow is then pushed along all cheapest paths at once, with the same
+     * blocking flows as {@link #maxFlow(int, int)} restricted to the edges on a cheapest path. The
+     * number of phases is at most the number of distinct path costs, which is small when the costs
+     * are.</p>
+     *
+     * @param source The source node.
+     * @param sink The sink node.
+     * @return The value of the flow.
+     */
+    public int minCostFlow(int source, int sink) {
+        long[] potential = new long[numberOfNodes];
+        long[] distance = new long[numberOfNodes];
+        boolean[] done = new boolean[numberOfNodes];
+        int[] level = new int[numberOfNodes];
+        int[] current = new int[numberOfNodes];
+        int[] queue = new int[numberOfNodes];
+        int flow = 0;
+
+        while (true) {
+            // Find the cheapest distances in the residual graph (dense Dijkstra; the networks are small)
+            Arrays.fill(distance, Long.MAX_VALUE);
+            Arrays.fill(done, false);
+            distance[source] = 0;
+            while (true) {
+                int node = -1;
+                for (int candidate = 0; candidate < numberOfNodes; candidate++) {
+                    if (!done[candidate] && distance[candidate] != Long.MAX_VALUE
+                            && (node < 0 || distance[candidate] < distance[node])) node = candidate;
+                }
+                if (node < 0) break;
+                done[node] = true;
+
+                for (int edge = head[node]; edge != -1; edge = next[edge]) {
+                    int target = to[edge];
+                    long reduced = distance[node] + cost[edge] + potential[node] - potential[target];
+                    if (capacity[edge] > 0 && reduced < distance[target]) distance[target] = reduced;
+                }
+            }
+            if (distance[sink] == Long.MAX_VALUE) return flow;
+
+            for (int node = 0; node < numberOfNodes; node++) {
+                if (distance[node] != Long.MAX_VALUE) potential[node] += distance[node];
+            }
+
+            // Push a blocking flow over the edges that lie on a cheapest path
+            while (buildLevels(source, sink, level, queue, potential)) {
+                System.arraycopy(head, 0, current, 0, numberOfNodes);
+                int pushed;
+                while ((pushed = push(source, sink, Integer.MAX_VALUE, level, current, potential)) > 0) {
+                    flow += pushed;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the flow over an edge, after {@link #maxFlow(int, int)} or
+     * {@link #minCostFlow(int, int)} was computed.
+     *
+     * @param edge The index of the edge, as returned by {@link #addEdge(int, int, int)}.
+     * @return The flow over the edge.
+     */
+    public int getFlow(int edge) {
+        // The flow is stored as the residual capacity of the reverse edge
+        return capacity[edge + 1];
+    }
+
+    /**
+     * Appends a single edge to the adjacency list of a node.
+     *
+     * @param from The node the edge starts at.
+     * @param target The node the edge ends at.
+     * @param edgeCapacity The capacity of the edge.
+     * @param edgeCost The cost of every unit of flow over the edge.
+     */
+    private void insert(int from, int target, int edgeCapacity, int edgeCost) {
+        to[numberOfEdges] = target;
+        capacity[numberOfEdges] = edgeCapacity;
+        cost[numberOfEdges] = edgeCost;
+        next[numberOfEdges] = head[from];
+        head[from] = numberOfEdges++;
+    }
+
+    /**
+     * Checks whether an edge can carry more flow, and lies on a cheapest path if costs are used.
+     *
+     * @param edge The index of the edge.
+     * @param from The node the edge starts at.
+     * @param potential The cheapest distance of every node from the source, or {@code null} to ignore costs.
+     * @return {@code true} if flow may be pushed over the edge.
+     */
+    private boolean isAdmissible(int edge, int from, long[] potential) {
+        return capacity[edge] > 0 && (potential == null || cost[edge] + potential[from] == potential[to[edge]]);
+    }
+
+    /**
+     * Computes the distance of every node from the source in the residual graph (breadth-first).
+     *
+     * @param source The source node.
+     * @param sink The sink node.
+     * @param level The array receiving the distances, or -1 for unreachable nodes.
+     * @param queue A work array of the size of the network.
+     * @param potential The cheapest distance of every node from the source, or {@code null} to ignore costs.
+     * @return {@code true} if the sink can still be reached.
+     */
+    private boolean buildLevels(int source, int sink, int[] level, int[] queue, long[] potential) {
+        Arrays.fill(level, -1);
+        level[source] = 0;
+        int first = 0;
+        int last = 0;
+        queue[last++] = source;
+
+        while (first < last) {
+            int node = queue[first++];
+            for (int edge = head[node]; edge != -1; edge = next[edge]) {
+                if (isAdmissible(edge, node, potential) && level[to[edge]] < 0) {
+                    level[to[edge]] = level[node] + 1;
+                    queue[last++] = to[edge];
+                }
+            }
+        }
+
+        return level[sink] >= 0;
+    }
+
+    /**
+     * Pushes flow along a shortest augmenting path (depth-first over the level graph).
+     *
+     * @param node The current node.
+     * @param sink The sink node.
+     * @param limit The maximum flow that can reach the current node.
+     * @param level The distances computed by {@link #buildLevels(int, int, int[], int[], long[])}.
+     * @param current The next edge to try for every node.
+     * @param potential The cheapest distance of every node from the source, or {@code null} to ignore costs.
+     * @return The flow that was pushed, or 0 if the sink could not be reached.
+     */
+    private int push(int node, int sink, int limit, int[] level, int[] current, long[] potential) {
+        if (node == sink) return limit;
+
+        for (; current[node] != -1; current[node] = next[current[node]]) {
+            int edge = current[node];
+            int target = to[edge];
+            if (isAdmissible(edge, node, potential) && level[target] == level[node] + 1) {
+                int pushed = push(target, sink, Math.min(limit, capacity[edge]), level, current, potential);
+                if (pushed > 0) {
+                    capacity[edge] -= pushed;
+                    capacity[edge ^ 1] += pushed;
+                    return pushed;
+                }
+            }
+        }
+
+        return 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,220 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.ParticipantEncoding;
+import nl.esn.groningen.groupmaker.model.ParticipantStore;
+import nl.esn.groningen.groupmaker.model.Settings;
+
+import java.util.Arrays;
+
+/**
+ * Utility class protecting the limits of the {@link Settings} while the groups are filled, by
+ * checking ahead whether the participants that are still unassigned can be placed in the groups
+ * that are not filled yet.
+ *
+ * <p>Every limit of the settings constrains a number of categories of participants: plant-based
+ * eaters, every gender, and every nationality. For every category, the class counts the participants
+ * that are still unassigned, and the members of the group that is being filled. The groups after it
+ * can hold at most the maximum of the category each, so when more participants of a category remain
+ * than the later groups can hold, the current group has to take the difference; a category for which
+ * this is the case is critical. The places the current group needs for critical categories are
+ * reserved: a participant outside the critical categories of a limit is only allowed while enough
+ * free places remain for them. A participant that would exceed a limit in the current group is not
+ * allowed at all. Filling the groups one after another thus never leaves the last groups with all
+ * remaining vegans, or with the rest of one nationality, as long as the settings can be met.</p>
+ *
+ * <p>The counters are brought up to date once before every pick (see {@link #prepare(int, int)}),
+ * in time linear in the number of categories, after which checking a unit only compares a few
+ * counters. When the limits cannot be met by any unit, the fill ignores the check for that place.</p>
+ *
+ * @see GroupingAlgorithm
+ * @see NationalitySpread
+ */
+public class ForwardChecking {
+
+    // The limits of the settings; the categories of a limit are disjoint
+    private static final int PLANT_BASED = 0;
+    private static final int GENDER = 1;
+    private static final int NATIONALITY = 2;
+    private static final int LIMITS = 3;
+
+    // The first category of every limit; plant-based eaters form a single category
+    private static final int FIRST_GENDER = 1;
+    private static final int FIRST_NATIONALITY = FIRST_GENDER + ParticipantEncoding.GENDER_COUNT;
+
+    private final ParticipantStore store;
+    private final ParticipantUnits units;
+    private final int[] groupSizes;
+    private final int plantBasedMaximum;
+    private final int nationalityMaximum;
+    private final int genderPercentage;
+    private final int[] laterGenderCapacity;
+    private final int[] remaining;
+    private final int[] count;
+    private final int[] needed;
+    private final int[] reserved = new int[LIMITS];
+    private int group = -1;
+
+    /**
+     * Constructs a {@code ForwardChecking} for empty groups, with all participants unassigned.
+     *
+     * @param store The columnar store of the participants.
+     * @param units The units the participants are divided into.
+     * @param groupSizes The planned size of every group.
+     * @param settings The settings holding the group limits.
+     */
+    public ForwardChecking(ParticipantStore store, ParticipantUnits units, int[] groupSizes, Settings settings) {
+        this.store = store;
+        this.units = units;
+        this.groupSizes = groupSizes;
+        this.plantBasedMaximum = settings.getPlantBasedGroupMaximum();
+        this.nationalityMaximum = settings.getSameNationalityGroupMaximum();
+        this.genderPercentage = settings.getSameGenderPercentageLimit();
+
+        int categories = FIRST_NATIONALITY + store.getNationalityCount();
+        this.remaining = new int[categories];
+        this.count = new int[categories];
+        this.needed = new int[categories];
+        for (int p = 0; p < store.size(); p++) {
+            if (ParticipantEncoding.isPlantBased(store.getCode(p))) remaining[PLANT_BASED]++;
+            remaining[FIRST_GENDER + store.getGender(p)]++;
+            if (store.getNationality(p) != ParticipantStore.UNKNOWN_NATIONALITY) {
+                remaining[FIRST_NATIONALITY + store.getNationality(p)]++;
+            }
+        }
+
+        // The number of participants of a gender that the groups after every group can hold together
+        this.laterGenderCapacity = new int[groupSizes.length];
+        for (int g = groupSizes.length - 2; g >= 0; g--) {
+            laterGenderCapacity[g] = laterGenderCapacity[g + 1] + getGenderMaximum(g + 1);
+        }
+    }
+
+    /**
+     * Brings the critical categories up to date before a unit is picked for a group. Must be called
+     * before {@link #isAllowed(int, int)} whenever the group or its members changed.
+     *
+     * @param group The index of the group being filled.
+     * @param space The number of free places in the group.
+     */
+    public void prepare(int group, int space) {
+        if (group != this.group) {
+            this.group = group;
+            Arrays.fill(count, 0);
+        }
+
+        Arrays.fill(reserved, 0);
+        int laterGroups = groupSizes.length - 1 - group;
+        for (int c = 0; c < remaining.length; c++) {
+            int maximum = getMaximum(c, group);
+            int laterCapacity = c == PLANT_BASED ? laterGroups * plantBasedMaximum
+                    : c < FIRST_NATIONALITY ? laterGenderCapacity[group] : laterGroups * nationalityMaximum;
+            needed[c] = Math.max(0, Math.min(remaining[c] - laterCapacity, maximum - count[c]));
+            reserved[getLimit(c)] += needed[c];
+        }
+        for (int limit = 0; limit < LIMITS; limit++) {
+            reserved[limit] = Math.min(reserved[limit], space);
+        }
+    }
+
+    /**
+     * Checks whether a unit may be added to the group being filled: none of its participants may
+     * exceed a limit in the group, and for every limit, the unit must either belong to a critical
+     * category or leave enough free places for the critical categories.
+     *
+     * @param unit The index of the unit.
+     * @param space The number of free places in the group.
+     * @return {@code true} if the unit may be added.
+     */
+    public boolean isAllowed(int unit, int space) {
+        int size = units.getSize(unit);
+        int critical = 0;
+        for (int i = 0; i < size; i++) {
+            int participant = units.getMember(unit, i);
+            if (ParticipantEncoding.isPlantBased(store.getCode(participant))) {
+                if (isFull(PLANT_BASED)) return false;
+                if (needed[PLANT_BASED] > 0) critical |= 1 << PLANT_BASED;
+            }
+            int gender = FIRST_GENDER + store.getGender(participant);
+            if (isFull(gender)) return false;
+            if (needed[gender] > 0) critical |= 1 << GENDER;
+            if (store.getNationality(participant) != ParticipantStore.UNKNOWN_NATIONALITY) {
+                int nationality = FIRST_NATIONALITY + store.getNationality(participant);
+                if (isFull(nationality)) return false;
+                if (needed[nationality] > 0) critical |= 1 << NATIONALITY;
+            }
+        }
+
+        // Units outside the critical categories of a limit may only take the places that are not reserved
+        for (int limit = 0; limit < LIMITS; limit++) {
+            if ((critical & 1 << limit) == 0 && size > space - reserved[limit]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Counts a participant that was added to the group being filled.
+     *
+     * @param participant The index of the participant.
+     */
+    public void place(int participant) {
+        if (ParticipantEncoding.isPlantBased(store.getCode(participant))) count(PLANT_BASED);
+        count(FIRST_GENDER + store.getGender(participant));
+        if (store.getNationality(participant) != ParticipantStore.UNKNOWN_NATIONALITY) {
+            count(FIRST_NATIONALITY + store.getNationality(participant));
+        }
+    }
+
+    /**
+     * Counts a participant of a category that was added to the group being filled.
+     *
+     * @param c The category.
+     */
+    private void count(int c) {
+        count[c]++;
+        remaining[c]--;
+    }
+
+    /**
+     * Checks whether the group being filled holds the maximum number of participants of a category.
+     *
+     * @param c The category.
+     * @return {@code true} if another participant of the category would exceed its limit.
+     */
+    private boolean isFull(int c) {
+        return count[c] >= getMaximum(c, group);
+    }
+
+    /**
+     * Returns the maximum number of participants of a category in a group.
+     *
+     * @param c The category.
+     * @param group The index of the group.
+     * @return The maximum of the limit of the category.
+     */
+    private int getMaximum(int c, int group) {
+        if (c == PLANT_BASED) return plantBasedMaximum;
+        if (c < FIRST_NATIONALITY) return getGenderMaximum(group);
+        return nationalityMaximum;
+    }
+
+    /**
+     * Returns the maximum number of participants of the same gender in a group.
+     *
+     * @param group The index of the group.
+     * @return The largest number of participants that keeps the group within the percentage limit.
+     */
+    private int getGenderMaximum(int group) {
+        return genderPercentage * groupSizes[group] / 100;
+    }
+
+    /**
+     * Returns the limit a category belongs to.
+     *
+     * @param c The category.
+     * @return The limit.
+     */
+    private static int getLimit(int c) {
+        if (c == PLANT_BASED) return PLANT_BASED;
+        return c < FIRST_NATIONALITY ? GENDER : NATIONALITY;
+    }
+}
\ No newline at end of file
@@ -31,6 +31,23 @@ public class GenerateOutputDocuments {
      * @param groupingModel The model containing the guides, participants, groups, and output settings.
      */
     public static void generate(GroupingModel groupingModel) {
+        try {
+            write(groupingModel);
+        } catch (IOException e) {
+            // Show an error dialog if an I/O error occurs during the generation process
+            DialogHandler.showExportError();
+        }
+    }
+
+    /**
+     * Writes the output documents for the given {@link GroupingModel}, like
+     * {@link #generate(GroupingModel)}, but passes errors on to the caller instead of showing a
+     * dialog. This is used in batch mode, where no user is present.
+     *
+     * @param groupingModel The model containing the guides, participants, groups, and output settings.
+     * @throws IOException If an error occurs while writing the files.
+     */
+    public static void write(GroupingModel groupingModel) throws IOException {
         List<GuideCluster> guideClusters = groupingModel.getGuideClusters();
         List<Participant> participants = groupingModel.getParticipants();
         List<Group> groups = groupingModel.getGroups();
@@ -38,21 +55,16 @@ public class GenerateOutputDocuments {
         File emailTemplate = groupingModel.getEmailTemplate();
         String outputFolderPath = groupingModel.getOutputFolderPath();
 
-        try {
-            // Generate CSV files for guides, participants, and groups
-            generateGuidesCSV(guideClusters, outputFolderPath);
-            generateParticipantsCSV(participants, outputFolderPath);
-            generateGroupsCSV(groups, outputFolderPath);
-
-            // Generate customized DOCX files for each group if an email template is provided
-            if (emailTemplate != null) {
-                for (Group group : groups) {
-                    generateMails(group, emailTemplate, outputFolderPath);
-                }
+        // Generate CSV files for guides, participants, and groups
+        generateGuidesCSV(guideClusters, outputFolderPath);
+        generateParticipantsCSV(participants, outputFolderPath);
+        generateGroupsCSV(groups, outputFolderPath);
+
+        // Generate customized DOCX files for each group if an email template is provided
+        if (emailTemplate != null) {
+            for (Group group : groups) {
+                generateMails(group, emailTemplate, outputFolderPath);
             }
-        } catch (IOException e) {
-            // Show an error dialog if an I/O error occurs during the generation process
-            DialogHandler.showExportError();
         }
     }
 
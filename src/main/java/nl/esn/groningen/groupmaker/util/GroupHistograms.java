@@ -0,0 +1,202 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.ParticipantEncoding;
+import nl.esn.groningen.groupmaker.model.ParticipantStore;
+import nl.esn.groningen.groupmaker.model.Settings;
+import nl.esn.groningen.groupmaker.model.Solution;
+
+/**
+ * Utility class counting the attributes of the members of every group, and keeping the
+ * {@link Objectives} of the groups up to date while participants move between groups.
+ *
+ * <p>For every group, the members are counted per university, study duration, gender and nationality,
+ * together with the number of plant-based members. Moving a participant only changes the counts of
+ * the two groups involved, so the objective values are updated in time proportional to the number
+ * of universities and study durations, independent of the size of the groups.</p>
+ *
+ * <p>The histograms also track by how much every group exceeds the limits of the {@link Settings},
+ * which is read in constant time by {@link #getViolation(int)}.</p>
+ *
+ * @see Objectives
+ */
+public class GroupHistograms {
+    private final ParticipantStore store;
+    private final int[] sizes;
+    private final int[][] universities;
+    private final int[][] studyDurations;
+    private final int[][] genders;
+    private final int[][] nationalities;
+    private final int[] plantBased;
+    private final int[] nationalityExcess;
+    private final Settings settings;
+    private final long[] objectives = new long[Objectives.COUNT];
+
+    /**
+     * Constructs the {@code GroupHistograms} of the groups of a solution, measuring violations
+     * against the default settings. Participants that are not assigned to a group are not counted.
+     *
+     * @param store The columnar store of the participants.
+     * @param solution The solution describing the groups.
+     */
+    public GroupHistograms(ParticipantStore store, Solution solution) {
+        this(store, solution, new Settings());
+    }
+
+    /**
+     * Constructs the {@code GroupHistograms} of the groups of a solution. Participants that are not
+     * assigned to a group are not counted.
+     *
+     * @param store The columnar store of the participants.
+     * @param solution The solution describing the groups.
+     * @param settings The settings holding the group limits that violations are measured against.
+     */
+    public GroupHistograms(ParticipantStore store, Solution solution, Settings settings) {
+        int numberOfGroups = solution.getNumberOfGroups();
+        this.store = store;
+        this.settings = settings;
+        this.sizes = new int[numberOfGroups];
+        this.universities = new int[numberOfGroups][ParticipantEncoding.UNIVERSITY_COUNT];
+        this.studyDurations = new int[numberOfGroups][ParticipantEncoding.STUDY_DURATION_COUNT];
+        this.genders = new int[numberOfGroups][ParticipantEncoding.GENDER_COUNT];
+        this.nationalities = new int[numberOfGroups][store.getNationalityCount()];
+        this.plantBased = new int[numberOfGroups];
+        this.nationalityExcess = new int[numberOfGroups];
+
+        for (int p = 0; p < store.size(); p++) {
+            if (solution.isAssigned(p)) {
+                update(p, solution.getGroup(p), 1);
+            }
+        }
+    }
+
+    /**
+     * Moves a participant from one group to another. The solution itself is not changed.
+     *
+     * @param participant The participant index.
+     * @param from The group the participant leaves.
+     * @param to The group the participant joins.
+     */
+    public void move(int participant, int from, int to) {
+        update(participant, from, -1);
+        update(participant, to, 1);
+    }
+
+    /**
+     * Returns the value of a single objective.
+     *
+     * @param objective The objective index, e.g. {@link Objectives#COHESION}.
+     * @return The current value of the objective.
+     */
+    public long getObjective(int objective) {
+        return objectives[objective];
+    }
+
+    /**
+     * Counts by how many participants a group exceeds the limits of the settings: the plant-based
+     * members above the maximum, the members above the maximum for every nationality, and the members
+     * of the most common gender above the percentage limit.
+     *
+     * @param group The group index.
+     * @return The number of participants exceeding a limit; 0 if the group keeps all limits.
+     */
+    public int getViolation(int group) {
+        int genderExcess = 100 * max(genders[group]) - settings.getSameGenderPercentageLimit() * sizes[group];
+        return Math.max(0, plantBased[group] - settings.getPlantBasedGroupMaximum())
+                + nationalityExcess[group]
+                + Math.max(0, (genderExcess + 99) / 100);
+    }
+
+    /**
+     * Checks whether a member of a group contributes to the group exceeding a limit of the settings,
+     * i.e. whether moving it out could reduce the violation of the group.
+     *
+     * @param participant The participant index.
+     * @param group The group the participant is a member of.
+     * @return {@code true} if the participant has a diet, nationality or gender the group has too many of.
+     */
+    public boolean isExceeding(int participant, int group) {
+        long code = store.getCode(participant);
+        int nationality = store.getNationality(participant);
+        int gender = ParticipantEncoding.gender(code);
+        return (ParticipantEncoding.isPlantBased(code) && plantBased[group] > settings.getPlantBasedGroupMaximum())
+                || (nationality != ParticipantStore.UNKNOWN_NATIONALITY
+                    && nationalities[group][nationality] > settings.getSameNationalityGroupMaximum())
+                || 100 * genders[group][gender] > settings.getSameGenderPercentageLimit() * sizes[group];
+    }
+
+    /**
+     * Returns the values of all objectives.
+     *
+     * @return A new array holding the current value of every objective.
+     */
+    public long[] getObjectives() {
+        return objectives.clone();
+    }
+
+    /**
+     * Adds a participant to, or removes a participant from, the counts of a group, and updates the
+     * objective values accordingly.
+     *
+     * @param participant The participant index.
+     * @param group The group index.
+     * @param delta 1 to add the participant, -1 to remove it.
+     */
+    private void update(int participant, int group, int delta) {
+        long code = store.getCode(participant);
+
+        // Remove the old contribution of the group to the objectives that are not simple sums
+        objectives[Objectives.COHESION] -= calculateCohesion(group);
+        objectives[Objectives.GENDER_BALANCE] -= Math.abs(genders[group][ParticipantEncoding.GENDER_MALE]
+                - genders[group][ParticipantEncoding.GENDER_FEMALE]);
+
+        // A participant forms a pair with every other member of the same nationality, or the same diet
+        int nationality = store.getNationality(participant);
+        if (nationality != ParticipantStore.UNKNOWN_NATIONALITY) {
+            objectives[Objectives.NATIONALITY_SPREAD] += delta > 0
+                    ? nationalities[group][nationality] : 1 - nationalities[group][nationality];
+            int maximum = settings.getSameNationalityGroupMaximum();
+            if (delta > 0 ? nationalities[group][nationality] >= maximum : nationalities[group][nationality] > maximum) {
+                nationalityExcess[group] += delta;
+            }
+            nationalities[group][nationality] += delta;
+        }
+        if (ParticipantEncoding.isPlantBased(code)) {
+            objectives[Objectives.DIET_SPREAD] += delta > 0 ? plantBased[group] : 1 - plantBased[group];
+            plantBased[group] += delta;
+        }
+
+        sizes[group] += delta;
+        universities[group][ParticipantEncoding.university(code)] += delta;
+        studyDurations[group][ParticipantEncoding.studyDuration(code)] += delta;
+        genders[group][ParticipantEncoding.gender(code)] += delta;
+
+        objectives[Objectives.COHESION] += calculateCohesion(group);
+        objectives[Objectives.GENDER_BALANCE] += Math.abs(genders[group][ParticipantEncoding.GENDER_MALE]
+                - genders[group][ParticipantEncoding.GENDER_FEMALE]);
+    }
+
+    /**
+     * Counts the members of a group outside its most common university, plus the members outside
+     * its most common study duration.
+     *
+     * @param group The group index.
+     * @return The cohesion penalty of the group.
+     */
+    private long calculateCohesion(int group) {
+        return 2L * sizes[group] - max(universities[group]) - max(studyDurations[group]);
+    }
+
+    /**
+     * Returns the largest value of an array.
+     *
+     * @param counts The array.
+     * @return The largest value.
+     */
+    private static int max(int[] counts) {
+        int max = 0;
+        for (int count : counts) {
+            max = Math.max(max, count);
+        }
+        return max;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,249 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Utility class for spreading potential Group Leaders and guide requesters over the groups.
+ *
+ * <p>After the groups are formed, every group should preferably have at least one participant who
+ * is willing to become a Group Leader, and the participants who requested an Introduction Guide
+ * should be spread evenly over the groups. Both goals are reached by swapping participants between
+ * groups. To leave the composition of the groups intact, a participant is only swapped with a
+ * participant with the same profile (university, alcohol preference, etc.). Participants that must
+ * stay with their buddies are never swapped, and no swap places participants that must be kept apart
+ * in the same group.</p>
+ *
+ * <p>Which swaps to make is decided with a maximum flow in a {@link FlowNetwork}: the source is
+ * connected to the groups with a surplus, every surplus group to the profiles of its spare
+ * participants, every profile to the groups with a deficit that have a participant of that profile
+ * to swap back, and every deficit group to the sink. Every unit of flow is one swap. The network has
+ * only O(groups &times; profiles) edges, so it is solved in milliseconds for thousands of participants.</p>
+ *
+ * @see FlowNetwork
+ * @see ParticipantEncoding
+ */
+public class GroupLeaderAssignment {
+
+    // Attributes that must be shared by two participants that are swapped
+    private static final long REQUESTER_PROFILE = ParticipantEncoding.UNIVERSITY_MASK
+            | ParticipantEncoding.ALCOHOL_FREE_MASK;
+    private static final long LEADER_PROFILE = ParticipantEncoding.UNIVERSITY_MASK
+            | ParticipantEncoding.ALCOHOL_FREE_MASK | ParticipantEncoding.REQUESTS_GUIDE_MASK;
+    private static final long RELAXED_LEADER_PROFILE = ParticipantEncoding.ALCOHOL_FREE_MASK
+            | ParticipantEncoding.REQUESTS_GUIDE_MASK;
+
+    /**
+     * Spreads the guide requesters evenly over the groups, and then gives as many groups as possible
+     * at least one potential Group Leader.
+     *
+     * @param problem The problem holding the participants.
+     * @param solution The solution in which participants are swapped.
+     * @param units The units of buddies; participants in a unit of several participants are not swapped.
+     * @param conflicts The participants that must be kept apart; swaps that would place them together are skipped.
+     * @return The number of swaps that were made.
+     */
+    public static int assign(GroupingProblem problem, Solution solution, ParticipantUnits units, ConflictGraph conflicts) {
+        ParticipantStore store = problem.getParticipantStore();
+        int numberOfGroups = solution.getNumberOfGroups();
+        int[][] members = solution.getMembers();
+        int swaps = 0;
+
+        // Spread the requesters proportionally to the group sizes
+        int requesters = 0;
+        for (int p = 0; p < store.size(); p++) {
+            if (ParticipantEncoding.requestsGuide(store.getCode(p))) requesters++;
+        }
+        int[] lower = new int[numberOfGroups];
+        int[] upper = new int[numberOfGroups];
+        for (int group = 0; group < numberOfGroups; group++) {
+            long share = (long) requesters * members[group].length;
+            lower[group] = (int) (share / store.size());
+            upper[group] = (int) ((share + store.size() - 1) / store.size());
+        }
+        swaps += balance(store, units, conflicts, solution, members, ParticipantEncoding.REQUESTS_GUIDE_MASK, lower, upper, REQUESTER_PROFILE);
+
+        // Move any remaining surplus to groups below their upper bound, and fill groups still below their lower bound
+        swaps += balance(store, units, conflicts, solution, members, ParticipantEncoding.REQUESTS_GUIDE_MASK, upper, upper, REQUESTER_PROFILE);
+        swaps += balance(store, units, conflicts, solution, members, ParticipantEncoding.REQUESTS_GUIDE_MASK, lower, lower, REQUESTER_PROFILE);
+
+        // Give every group one potential Group Leader; the requesters stay in place because the profile includes them
+        for (int group = 0; group < numberOfGroups; group++) {
+            lower[group] = 1;
+            upper[group] = 1;
+        }
+        swaps += balance(store, units, conflicts, solution, members, ParticipantEncoding.CAN_GUIDE_MASK, lower, upper, LEADER_PROFILE);
+        swaps += balance(store, units, conflicts, solution, members, ParticipantEncoding.CAN_GUIDE_MASK, lower, upper, RELAXED_LEADER_PROFILE);
+
+        return swaps;
+    }
+
+    /**
+     * Moves participants with an attribute from groups with more than {@code upper} of them to groups
+     * with fewer than {@code lower} of them, by swapping them with participants of the same profile
+     * that do not have the attribute.
+     *
+     * @param store The columnar store of the participants.
+     * @param units The units of buddies, which are not swapped.
+     * @param conflicts The participants that must be kept apart.
+     * @param solution The solution in which participants are swapped.
+     * @param members The members of every group; updated along with the solution.
+     * @param attribute The mask of the attribute to balance, e.g. {@link ParticipantEncoding#CAN_GUIDE_MASK}.
+     * @param lower The minimum number of participants with the attribute for every group.
+     * @param upper The maximum number of participants with the attribute for every group.
+     * @param profile The mask of the attributes that swapped participants must share.
+     * @return The number of swaps that were made.
+     */
+    private static int balance(ParticipantStore store, ParticipantUnits units, ConflictGraph conflicts, Solution solution,
+                               int[][] members, long attribute, int[] lower, int[] upper, long profile) {
+        int numberOfGroups = members.length;
+
+        // Assign an index to every distinct profile
+        Map<Long, Integer> profiles = new HashMap<>();
+        for (int p = 0; p < store.size(); p++) {
+            profiles.putIfAbsent(store.getCode(p) & profile, profiles.size());
+        }
+        int numberOfProfiles = profiles.size();
+
+        // Count the participants with and without the attribute per group and profile (only those without buddies can move)
+        int[] counts = new int[numberOfGroups];
+        int[][] withAttribute = new int[numberOfGroups][numberOfProfiles];
+        int[][] withoutAttribute = new int[numberOfGroups][numberOfProfiles];
+        for (int group = 0; group < numberOfGroups; group++) {
+            for (int member : members[group]) {
+                long code = store.getCode(member);
+                boolean hasAttribute = (code & attribute) != 0;
+                if (hasAttribute) counts[group]++;
+                if (units.isLocked(member)) continue;
+
+                int index = profiles.get(code & profile);
+                if (hasAttribute) {
+                    withAttribute[group][index]++;
+                } else {
+                    withoutAttribute[group][index]++;
+                }
+            }
+        }
+
+        // Build the network: source, sink, surplus groups, profiles and deficit groups
+        int source = 0;
+        int sink = 1;
+        int firstProfile = 2 + numberOfGroups;
+        int firstDeficit = firstProfile + numberOfProfiles;
+        FlowNetwork network = new FlowNetwork(firstDeficit + numberOfGroups);
+        int[][] supplyEdges = new int[numberOfGroups][];
+        int[][] demandEdges = new int[numberOfGroups][];
+        boolean surplus = false;
+        boolean deficit = false;
+
+        for (int group = 0; group < numberOfGroups; group++) {
+            if (counts[group] > upper[group]) {
+                surplus = true;
+                network.addEdge(source, 2 + group, counts[group] - upper[group]);
+                supplyEdges[group] = new int[numberOfProfiles];
+                for (int k = 0; k < numberOfProfiles; k++) {
+                    supplyEdges[group][k] = network.addEdge(2 + group, firstProfile + k, withAttribute[group][k]);
+                }
+            } else if (counts[group] < lower[group]) {
+                deficit = true;
+                network.addEdge(firstDeficit + group, sink, lower[group] - counts[group]);
+                demandEdges[group] = new int[numberOfProfiles];
+                for (int k = 0; k < numberOfProfiles; k++) {
+                    demandEdges[group][k] = network.addEdge(firstProfile + k, firstDeficit + group, withoutAttribute[group][k]);
+                }
+            }
+        }
+        if (!surplus || !deficit) return 0;
+
+        if (network.maxFlow(source, sink) == 0) return 0;
+        int swaps = 0;
+
+        // Pair the donating and receiving groups of every profile, and swap one participant per unit of flow
+        for (Map.Entry<Long, Integer> entry : profiles.entrySet()) {
+            long value = entry.getKey();
+            int k = entry.getValue();
+            int receiver = 0;
+            int received = 0;
+
+            for (int donor = 0; donor < numberOfGroups; donor++) {
+                if (supplyEdges[donor] == null) continue;
+
+                for (int f = network.getFlow(supplyEdges[donor][k]); f > 0; f--) {
+                    // Find the next receiving group with remaining flow for this profile
+                    while (demandEdges[receiver] == null || received == network.getFlow(demandEdges[receiver][k])) {
+                        receiver++;
+                        received = 0;
+                    }
+                    if (swap(store, units, conflicts, solution, members, donor, receiver, attribute, profile, value)) {
+                        swaps++;
+                    }
+                    received++;
+                }
+            }
+        }
+
+        return swaps;
+    }
+
+    /**
+     * Swaps a participant with the attribute from the donating group with a participant without the
+     * attribute from the receiving group, both of the given profile. Only pairs for which neither
+     * participant conflicts with its new group are swapped.
+     *
+     * @param store The columnar store of the participants.
+     * @param units The units of buddies, which are not swapped.
+     * @param conflicts The participants that must be kept apart.
+     * @param solution The solution in which the participants are swapped.
+     * @param members The members of every group; updated along with the solution.
+     * @param donor The group giving away a participant with the attribute.
+     * @param receiver The group receiving the participant with the attribute.
+     * @param attribute The mask of the attribute being balanced.
+     * @param profile The mask of the attributes both participants share.
+     * @param value The shared profile, i.e. the code of both participants masked by {@code profile}.
+     * @return {@code true} if a pair was swapped.
+     */
+    private static boolean swap(ParticipantStore store, ParticipantUnits units, ConflictGraph conflicts, Solution solution,
+                                int[][] members, int donor, int receiver, long attribute, long profile, long value) {
+        for (int from = 0; from < members[donor].length; from++) {
+            int participant = members[donor][from];
+            if (!isCandidate(store, units, participant, attribute, true, profile, value)) continue;
+
+            for (int to = 0; to < members[receiver].length; to++) {
+                int other = members[receiver][to];
+                if (!isCandidate(store, units, other, attribute, false, profile, value)
+                        || conflicts.hasConflict(participant, receiver, other, solution)
+                        || conflicts.hasConflict(other, donor, participant, solution)) continue;
+
+                members[donor][from] = other;
+                members[receiver][to] = participant;
+                solution.assign(participant, receiver);
+                solution.assign(other, donor);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a participant without buddies has the given profile, and does or does not have
+     * the attribute.
+     *
+     * @param store The columnar store of the participants.
+     * @param units The units of buddies, which are skipped.
+     * @param participant The participant index.
+     * @param attribute The mask of the attribute.
+     * @param hasAttribute Whether the participant should have the attribute.
+     * @param profile The mask of the profile attributes.
+     * @param value The required profile.
+     * @return {@code true} if the participant can be swapped.
+     */
+    private static boolean isCandidate(ParticipantStore store, ParticipantUnits units, int participant, long attribute,
+                                       boolean hasAttribute, long profile, long value) {
+        if (units.isLocked(participant)) return false;
+
+        long code = store.getCode(participant);
+        return (code & profile) == value && ((code & attribute) != 0) == hasAttribute;
+    }
+}
\ No newline at end of file
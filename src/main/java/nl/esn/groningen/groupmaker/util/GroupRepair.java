@@ -0,0 +1,170 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.*;
+
+/**
+ * Utility class repairing groups that exceed the limits of the {@link Settings} (plant-based eaters,
+ * same nationality and same gender), by swapping participants between groups.
+ *
+ * <p>The groups are kept in an {@link IndexedHeap} keyed by the number of participants by which they
+ * exceed the limits, so every repair starts from the currently worst group. For that group, the swap
+ * that reduces the total excess of the two groups involved the most is made, after which only the keys
+ * of those two groups change, in O(log groups) time. A group for which no improving swap exists is
+ * taken out of the heap, until a swap with another group changes it again. Every swap reduces the
+ * total excess, so the repair always ends.</p>
+ *
+ * <p>To leave the composition of the groups intact, only participants with the same university,
+ * alcohol preference, guide request and Group Leader preference are swapped. Participants with
+ * buddies are not swapped, and swaps that would place participants that must be kept apart in the
+ * same group are skipped.</p>
+ *
+ * @see IndexedHeap
+ * @see GroupHistograms
+ */
+public class GroupRepair {
+
+    // Attributes that must be shared by two participants that are swapped
+    private static final long SWAP_PROFILE = ParticipantEncoding.UNIVERSITY_MASK | ParticipantEncoding.ALCOHOL_FREE_MASK
+            | ParticipantEncoding.REQUESTS_GUIDE_MASK | ParticipantEncoding.CAN_GUIDE_MASK;
+
+    // Attributes that the limits depend on; swapping participants that share them changes nothing
+    private static final long LIMIT_PROFILE = ParticipantEncoding.GENDER_MASK | ParticipantEncoding.DIET_MASK;
+
+    /**
+     * Repairs the groups of a solution that exceed the limits of the settings, as far as possible.
+     *
+     * @param problem The problem holding the participants and settings.
+     * @param solution The solution in which participants are swapped.
+     * @param units The units of buddies; participants in a unit of several participants are not swapped.
+     * @param conflicts The participants that must be kept apart; swaps that would place them together are skipped.
+     * @return The number of swaps that were made.
+     */
+    public static int repair(GroupingProblem problem, Solution solution, ParticipantUnits units, ConflictGraph conflicts) {
+        ParticipantStore store = problem.getParticipantStore();
+        GroupHistograms histograms = new GroupHistograms(store, solution, problem.getSettings());
+        int[][] members = solution.getMembers();
+        int numberOfGroups = members.length;
+
+        IndexedHeap heap = new IndexedHeap(numberOfGroups);
+        for (int group = 0; group < numberOfGroups; group++) {
+            if (histograms.getViolation(group) > 0) heap.update(group, histograms.getViolation(group));
+        }
+
+        int swaps = 0;
+        while (!heap.isEmpty()) {
+            int worst = heap.poll();
+            Swap swap = findBestSwap(store, units, conflicts, solution, histograms, members, worst);
+            if (swap == null) continue; // Stays out of the heap until another swap changes the group
+
+            int other = solution.getGroup(swap.participant2);
+            histograms.move(swap.participant1, worst, other);
+            histograms.move(swap.participant2, other, worst);
+            members[worst][swap.index1] = swap.participant2;
+            members[other][swap.index2] = swap.participant1;
+            solution.assign(swap.participant1, other);
+            solution.assign(swap.participant2, worst);
+            swaps++;
+
+            updateKey(heap, histograms, worst);
+            updateKey(heap, histograms, other);
+        }
+
+        return swaps;
+    }
+
+    /**
+     * Finds the swap between a member of a group and a member of another group that reduces the total
+     * excess of both groups the most.
+     *
+     * @param store The columnar store of the participants.
+     * @param units The units of buddies, which are not swapped.
+     * @param conflicts The participants that must be kept apart.
+     * @param solution The solution holding the current groups.
+     * @param histograms The histograms of the current groups; unchanged afterwards.
+     * @param members The members of every group.
+     * @param group The group to repair.
+     * @return The best swap, or {@code null} if no swap reduces the excess.
+     */
+    private static Swap findBestSwap(ParticipantStore store, ParticipantUnits units, ConflictGraph conflicts,
+                                     Solution solution, GroupHistograms histograms, int[][] members, int group) {
+        Swap best = null;
+        int bestGain = 0;
+
+        for (int i = 0; i < members[group].length; i++) {
+            int participant1 = members[group][i];
+            if (units.isLocked(participant1) || !histograms.isExceeding(participant1, group)) continue;
+            long code1 = store.getCode(participant1);
+
+            for (int other = 0; other < members.length; other++) {
+                if (other == group) continue;
+                int before = histograms.getViolation(group) + histograms.getViolation(other);
+
+                for (int j = 0; j < members[other].length; j++) {
+                    int participant2 = members[other][j];
+                    long code2 = store.getCode(participant2);
+                    if (units.isLocked(participant2) || !ParticipantEncoding.matches(code1, code2, SWAP_PROFILE)
+                            || (ParticipantEncoding.matches(code1, code2, LIMIT_PROFILE)
+                                && store.getNationality(participant1) == store.getNationality(participant2))) continue;
+
+                    // Try the swap on the histograms only, and undo it right away
+                    histograms.move(participant1, group, other);
+                    histograms.move(participant2, other, group);
+                    int gain = before - histograms.getViolation(group) - histograms.getViolation(other);
+                    histograms.move(participant1, other, group);
+                    histograms.move(participant2, group, other);
+
+                    if (gain > bestGain && !conflicts.hasConflict(participant1, other, participant2, solution)
+                            && !conflicts.hasConflict(participant2, group, participant1, solution)) {
+                        bestGain = gain;
+                        best = new Swap(participant1, i, participant2, j);
+                    }
+                }
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Updates the key of a group in the heap after its members changed, removing it if it no longer
+     * exceeds any limit.
+     *
+     * @param heap The heap of groups.
+     * @param histograms The histograms of the current groups.
+     * @param group The group index.
+     */
+    private static void updateKey(IndexedHeap heap, GroupHistograms histograms, int group) {
+        int violation = histograms.getViolation(group);
+        if (violation > 0) {
+            heap.update(group, violation);
+        } else {
+            heap.remove(group);
+        }
+    }
+
+    /**
+     * This inner class holds a pair of participants to swap, together with their positions in the
+     * member lists of their groups.
+     */
+    private static class Swap {
+        private final int participant1;
+        private final int index1;
+        private final int participant2;
+        private final int index2;
+
+        /**
+         * Constructor for the Swap.
+         *
+         * @param participant1 The participant leaving the repaired group.
+         * @param index1 The position of the first participant in its group.
+         * @param participant2 The participant joining the repaired group.
+         * @param index2 The position of the second participant in its group.
+         */
+        public Swap(int participant1, int index1, int participant2, int index2) {
+            this.participant1 = participant1;
+            this.index1 = index1;
+            this.participant2 = participant2;
+            this.index2 = index2;
+        }
+    }
+}
\ No newline at end of file
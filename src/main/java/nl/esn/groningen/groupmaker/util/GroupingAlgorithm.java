@@ -2,9 +2,8 @@ package nl.esn.groningen.groupmaker.util;
 
 import nl.esn.groningen.groupmaker.model.*;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveTask;
 
@@ -17,215 +16,523 @@ import java.util.concurrent.RecursiveTask;
  * <p>This class is designed to work with a {@link GroupingModel} to automatically
  * generate groups of participants and assign guide clusters and themes. The
  * core algorithm attempts to balance group sizes and match participants with
- * similar attributes where beneficial, while also ensuring diversity.</p>
+ * similar attributes where beneficial, while also ensuring diversity. The
+ * algorithm reads its input from a {@link GroupingProblem} and writes its result
+ * into a separate {@link Solution}, so the model is only changed once a solution
+ * is committed.</p>
  *
  * @see Group
  * @see GuideCluster
  * @see GroupingModel
+ * @see GroupingProblem
+ * @see Solution
  */
 public class GroupingAlgorithm {
 
     /**
      * This is the main method responsible for forming groups of participants.
      *
-     * The method iterates through all participants and divides them into groups
-     * according to the specified group size. It handles edge cases where the total
-     * number of participants does not perfectly divide by the group size by managing
-     * leftover participants.
-     *
-     * Each group is assigned a unique number, and guide clusters and themes are
-     * assigned where applicable. After processing, the method marks the grouping
-     * model as "solved" and assigns the generated groups to it.
+     * The method takes a snapshot of the input data of the grouping model, solves it,
+     * and commits the resulting solution to the model, which marks the model as "solved".
+     * Because the solver does not depend on earlier results, the method can be run
+     * repeatedly on the same model.
      *
      * @param groupingModel The {@link GroupingModel} containing participants, guide clusters, themes, and settings.
      */
     public static void formGroups(GroupingModel groupingModel) {
-        List<Group> groups = new ArrayList<>();
-        List<GuideCluster> guideClusters = groupingModel.getGuideClusters();
-        List<Participant> participants = groupingModel.getParticipants();
-        String[] themes = groupingModel.getThemes();
-
-        int groupSize = groupingModel.getSettings().getGroupSize();
-        int leftover = groupSize - participants.size() % groupSize;
+        GroupingProblem problem = groupingModel.getProblem();
+        Solution solution = solve(problem);
+        groupingModel.commit(problem, solution);
+    }
 
-        int groupNumber = 0;
-        int assignedParticipants = 0;
+    /**
+     * This method computes a new solution for a grouping problem.
+     *
+     * The method divides the participants into groups of approximately equal size, in
+     * these stages:
+     * <ol>
+     *   <li>Forming the groups. By default the groups are filled one after another with the
+     *   most compatible participant at every place. Depending on the settings:
+     *   <ul>
+     *     <li>every group gets a quota for the large nationalities ({@link NationalitySpread});</li>
+     *     <li>places are reserved for participants that later groups cannot hold
+     *     ({@link ForwardChecking});</li>
+     *     <li>several partial groups are kept per group ({@link BeamSearch});</li>
+     *     <li>all groups are formed at once, most regret first ({@link RegretInsertion}).</li>
+     *   </ul>
+     *   The settings decide which of the last two is used (see
+     *   {@link Settings#isRegretInsertionUsed()} and {@link Settings#isBeamSearchUsed()}).</li>
+     *   <li>Spreading the guide requesters and potential Group Leaders
+     *   ({@link GroupLeaderAssignment}).</li>
+     *   <li>Repairing the groups that exceed the limits ({@link GroupRepair}).</li>
+     *   <li>If enabled, refining pairs of groups ({@link PairwiseRefinement}).</li>
+     *   <li>If enabled, the concurrent swap search ({@link ConcurrentSwapSearch}).</li>
+     *   <li>Matching the guide clusters ({@link GuideClusterAssignment}) and themes
+     *   ({@link ThemeAssignment}) to the groups.</li>
+     * </ol>
+     * The problem itself is not modified, so several solutions for the same problem can be
+     * computed independently.
+     *
+     * @param problem The {@link GroupingProblem} containing participants, guide clusters, themes, and settings.
+     * @return The computed {@link Solution}.
+     */
+    public static Solution solve(GroupingProblem problem) {
+        ForkJoinPool pool = new ForkJoinPool();
+        Solution solution = solve(problem, pool);
+        pool.shutdown();
+        return solution;
+    }
 
-        // Loop until all participants are assigned to a group.
-        while (assignedParticipants < participants.size()) {
-            groupNumber++;
+    /**
+     * This method computes a new solution for a grouping problem, searching for the best
+     * participants in the given pool.
+     *
+     * The method is used when several solutions are computed at the same time (see
+     * {@link ParetoSearch}), so they share one pool instead of each starting their own.
+     *
+     * @param problem The {@link GroupingProblem} containing participants, guide clusters, themes, and settings.
+     * @param pool The pool used to search for the best participants in parallel.
+     * @return The computed {@link Solution}.
+     */
+    public static Solution solve(GroupingProblem problem, ForkJoinPool pool) {
+        return solve(problem, pool, new SplittableRandom());
+    }
 
-            int effectiveGroupSize = groupSize;
-            if (leftover > 0) {
-                effectiveGroupSize--;  // Adjust group size for leftover participants
-                leftover--;
+    /**
+     * This method computes a new solution for a grouping problem, drawing all random choices
+     * of the construction from the given source of randomness.
+     *
+     * The method is used when a solution must be reproducible (see {@link SolverWorker}): the
+     * same problem and seed give the same groups, however the work is divided over the threads
+     * of the pool. Only the concurrent swap search depends on the timing of the threads.
+     *
+     * @param problem The {@link GroupingProblem} containing participants, guide clusters, themes, and settings.
+     * @param pool The pool used to search for the best participants in parallel.
+     * @param random The source of randomness.
+     * @return The computed {@link Solution}.
+     */
+    public static Solution solve(GroupingProblem problem, ForkJoinPool pool, SplittableRandom random) {
+        ParticipantStore store = problem.getParticipantStore();
+
+        // Compile the scoring weights into lookup tables before any participant is scored
+        ScoringTables tables = ScoringTables.compile(problem.getSettings().getScoringWeights());
+
+        int[] groupSizes = calculateGroupSizes(store.size(), problem.getSettings().getGroupSize());
+        Solution solution = new Solution(store.size(), groupSizes.length);
+
+        // Merge buddies into units that are placed as a whole; no unit may exceed the smallest group or hold
+        // participants that must be kept apart
+        int maximumUnitSize = groupSizes.length > 0 ? groupSizes[0] : 1;
+        ConflictGraph conflicts = new ConflictGraph(store.size(), problem.getConflictPairs());
+        ParticipantUnits units = new ParticipantUnits(store.size(), problem.getBuddyPairs(), maximumUnitSize, conflicts);
+
+        // Keep running sums of the ages in every group, so the spread of ages is scored in constant time
+        AgeSpread ages = new AgeSpread(store, groupSizes.length,
+                problem.getSettings().getScoringWeights().get(ScoringWeights.AGE_SPREAD));
+
+        // Keep a histogram of the regions in every group, so the diversity of regions is scored in constant time
+        RegionSpread regions = new RegionSpread(store, groupSizes.length,
+                problem.getSettings().getScoringWeights().get(ScoringWeights.REGION_SAME));
+
+        // Give every group a quota for the large nationalities, so they are spread evenly
+        NationalitySpread spread = problem.getSettings().isNationalitySpreading()
+                ? NationalitySpread.plan(problem, groupSizes, units) : null;
+
+        // Check ahead that the remaining participants can still be placed within the limits of the settings
+        ForwardChecking feasibility = problem.getSettings().isForwardChecking()
+                ? new ForwardChecking(store, units, groupSizes, problem.getSettings()) : null;
+
+        int[] sizes;
+        if (problem.getSettings().isRegretInsertionUsed()) {
+            // Place the participants with the most to lose first, in all groups at once
+            sizes = RegretInsertion.insert(store, tables, units, conflicts, groupSizes, ages, regions, solution, random);
+        } else {
+            // Keep several partial groups while filling a group, if the settings allow it
+            BeamSearch beam = problem.getSettings().isBeamSearchUsed()
+                    ? new BeamSearch(store, problem.getSettings(), tables, units, conflicts, random) : null;
+
+            // Assign participants to the groups one group at a time
+            long seed = random.nextLong();
+            sizes = new int[groupSizes.length];
+            for (int group = 0; group < groupSizes.length; group++) {
+                sizes[group] = beam != null
+                        ? beam.fill(group, groupSizes[group], solution, ages, regions, pool)
+                        : assignParticipantsToGroup(group, groupSizes[group], store, problem.getSettings(), tables, ages, regions,
+                        units, conflicts, spread, feasibility, solution, seed, pool);
             }
+        }
+        assignRemainingUnits(units, conflicts, solution, sizes);
+
+        improve(problem, solution, units, conflicts, tables, pool);
+        assignGuideClustersAndThemes(problem, solution);
+        return solution;
+    }
 
-            effectiveGroupSize = Math.min(effectiveGroupSize, groupSize);
+    /**
+     * This method improves a solution in which every participant has been placed in a group.
+     *
+     * The steps are:
+     * <ol>
+     *   <li>the guide requesters and potential Group Leaders are spread over the groups
+     *   (see {@link GroupLeaderAssignment});</li>
+     *   <li>the groups that exceed the limits of the settings are repaired, starting from the worst
+     *   (see {@link GroupRepair});</li>
+     *   <li>if enabled, the groups are refined by swaps between pairs of groups (see
+     *   {@link PairwiseRefinement});</li>
+     *   <li>if enabled, the groups are improved by swaps on all threads of the pool at once (see
+     *   {@link ConcurrentSwapSearch}).</li>
+     * </ol>
+     * The steps are shared by every way of forming the groups, including the restarts of a
+     * {@link SolverWorker} that are seeded by path relinking.
+     *
+     * @param problem The problem holding the participants and settings.
+     * @param solution The solution to improve; every participant must be assigned.
+     * @param units The units of buddies.
+     * @param conflicts The participants that must be kept apart.
+     * @param tables The compiled scoring weights.
+     * @param pool The pool in which the refinements run.
+     */
+    static void improve(GroupingProblem problem, Solution solution, ParticipantUnits units, ConflictGraph conflicts,
+                        ScoringTables tables, ForkJoinPool pool) {
+        // Spread the guide requesters and potential Group Leaders over the groups
+        GroupLeaderAssignment.assign(problem, solution, units, conflicts);
 
-            // Assign participants to the current group
-            List<Participant> groupMembers = assignParticipantsToGroup(groupNumber, effectiveGroupSize, participants);
-            Group group = new Group(groupNumber, groupMembers);
+        // Repair the groups that exceed the limits of the settings, starting from the worst
+        GroupRepair.repair(problem, solution, units, conflicts);
 
-            // Assign a guide cluster to the group if available
-            if (guideClusters != null) {
-                GuideCluster guideCluster = assignGuideClusterToGroup(group, guideClusters);
-                group.setGuideCluster(guideCluster);
-            }
+        // Refine the groups by swapping participants between pairs of groups, all pairs in parallel
+        if (problem.getSettings().isPairwiseRefinement()) {
+            PairwiseRefinement.refine(problem, solution, units, conflicts, tables, pool);
+        }
 
-            // Assign a theme to the group if available
-            if (themes != null && themes.length >= groupNumber) {
-                group.setTheme(themes[groupNumber - 1]);
-            }
+        // Improve the groups further with swaps that all threads of the pool make on the same solution
+        if (problem.getSettings().isConcurrentSwapSearch()) {
+            ConcurrentSwapSearch.search(problem, solution, units, conflicts, tables, pool);
+        }
+    }
+
+    /**
+     * This method matches the guide clusters and themes of a problem to the groups of a solution.
+     *
+     * It is called once the members of the groups are final, because both assignments depend on
+     * the composition of the groups.
+     *
+     * @param problem The {@link GroupingProblem} containing guide clusters and themes.
+     * @param solution The {@link Solution} in which the guide clusters and themes are assigned.
+     */
+    public static void assignGuideClustersAndThemes(GroupingProblem problem, Solution solution) {
+        // Match the available guide clusters to the groups
+        if (problem.getGuideClusters() != null) {
+            GuideClusterAssignment.assign(problem, solution);
+        }
 
-            groups.add(group);
-            assignedParticipants += effectiveGroupSize;
+        // Assign the available themes to the groups
+        if (problem.getThemes() != null) {
+            ThemeAssignment.assign(problem, solution);
+        }
+    }
+
+    /**
+     * This method calculates the sizes of the groups to be formed.
+     *
+     * The number of groups is the smallest number for which no group exceeds the
+     * maximum group size. The participants are then spread as evenly as possible,
+     * so that group sizes differ by at most one.
+     *
+     * @param numberOfParticipants The number of participants to divide.
+     * @param groupSize The maximum number of participants in a group.
+     * @return An array holding the size of every group.
+     */
+    public static int[] calculateGroupSizes(int numberOfParticipants, int groupSize) {
+        int numberOfGroups = (numberOfParticipants + groupSize - 1) / groupSize;
+        int[] groupSizes = new int[numberOfGroups];
+
+        // Give the last groups one extra participant where the division is not even
+        for (int group = 0; group < numberOfGroups; group++) {
+            groupSizes[group] = numberOfParticipants / numberOfGroups
+                    + (group >= numberOfGroups - numberOfParticipants % numberOfGroups ? 1 : 0);
         }
 
-        // Mark the grouping model as solved and assign the generated groups
-        groupingModel.setSolved(true);
-        groupingModel.setGroups(groups);
+        return groupSizes;
     }
 
     /**
      * This method is responsible for assigning participants to a group.
      *
      * The method uses a ForkJoinPool to parallelize the process of finding the best
-     * participant to add to a group. The selection is based on a balance between
-     * similarity and dissimilarity scores, ensuring that groups are both cohesive
-     * (shared attributes) and diverse (differences in attributes).
+     * unit of participants to add to a group. A unit is a single participant, or a set of
+     * buddies that must be placed together; only units that still fit in the group, that
+     * have no conflicts with its current members, that respect the nationality quotas of
+     * the group (see {@link NationalitySpread}), and that leave room for the participants who
+     * can no longer be placed in later groups (see {@link ForwardChecking}), are considered.
+     * The selection is based on a balance between similarity and dissimilarity scores,
+     * ensuring that groups are both cohesive (shared attributes) and diverse (differences in
+     * attributes), or on a {@link LexicographicScore} if enabled in the settings.
      *
-     * @param groupNumber The unique identifier for the group being formed.
+     * @param group The index of the group being formed.
      * @param groupSize The desired number of participants in the group.
-     * @param participants The list of available participants to choose from.
-     * @return A list of participants assigned to the group.
+     * @param store The columnar store of the participants to choose from.
+     * @param settings The settings holding the scoring mode and group limits.
+     * @param tables The compiled scoring weights.
+     * @param ages The running sums of the ages in every group; updated as participants are added.
+     * @param regions The histograms of the regions in every group; updated as participants are added.
+     * @param units The units the participants are divided into.
+     * @param conflicts The participants that must be kept apart.
+     * @param spread The quotas of the large nationalities, or {@code null} if nationalities are not spread.
+     * @param feasibility The counters of the participants that remain to be placed, or {@code null} if the limits are
+     *                    not checked ahead; updated as participants are added.
+     * @param solution The solution in which the participants are assigned.
+     * @param seed The seed of the small random factor of the compatibility scores.
+     * @param pool The pool used to search for the best participant in parallel.
+     * @return The number of participants that were assigned to the group.
      */
-    private static List<Participant> assignParticipantsToGroup(int groupNumber, int groupSize, List<Participant> participants) {
-        List<Participant> groupMembers = new ArrayList<>();
+    private static int assignParticipantsToGroup(int group, int groupSize, ParticipantStore store, Settings settings,
+                                                 ScoringTables tables, AgeSpread ages, RegionSpread regions,
+                                                 ParticipantUnits units, ConflictGraph conflicts, NationalitySpread spread,
+                                                 ForwardChecking feasibility, Solution solution, long seed,
+                                                 ForkJoinPool pool) {
+        int[] members = new int[groupSize];
+        int size = 0;
+
+        while (size < groupSize) {
+            if (feasibility != null) feasibility.prepare(group, groupSize - size);
+            BestParticipantTask task = new BestParticipantTask(store, settings, tables, ages, regions, units, conflicts, spread,
+                    feasibility, solution, seed, group, members, size, 0, units.size());
+            Candidate bestCandidate = pool.invoke(task);
+
+            // If the quotas or limits leave no unit that fits (e.g. due to conflicts), ignore them for this place
+            if (bestCandidate == null && (spread != null || feasibility != null)) {
+                task = new BestParticipantTask(store, settings, tables, ages, regions, units, conflicts, null,
+                        null, solution, seed, group, members, size, 0, units.size());
+                bestCandidate = pool.invoke(task);
+            }
 
-        ForkJoinPool pool = new ForkJoinPool();
-        while (groupMembers.size() < groupSize && !participants.isEmpty()) {
-            BestParticipantTask task = new BestParticipantTask(participants, groupMembers);
-            Participant bestParticipant = pool.invoke(task);
-
-            // If a suitable participant is found, add them to the group
-            if (bestParticipant != null) {
-                groupMembers.add(bestParticipant);
-                bestParticipant.setGroupNumber(groupNumber);
+            // Stop if no unassigned unit fits in the group
+            if (bestCandidate == null) {
+                break;
+            }
+
+            // Add all participants of the unit to the group
+            for (int i = 0; i < units.getSize(bestCandidate.unit); i++) {
+                int participant = units.getMember(bestCandidate.unit, i);
+                members[size++] = participant;
+                solution.assign(participant, group);
+                ages.add(participant, group);
+                regions.add(participant, group);
+                if (spread != null) spread.place(participant, group);
+                if (feasibility != null) feasibility.place(participant);
             }
         }
 
-        pool.shutdown();
-        return groupMembers;
+        return size;
     }
 
     /**
-     * This method assigns a guide cluster to a group, attempting to match
-     * the group's alcohol preferences with the guide cluster's.
+     * This method assigns the units that did not fit in any group during construction.
      *
-     * The method first looks for an exact match in alcohol preferences, then
-     * checks for a mixed preference cluster, and finally assigns any available
-     * cluster if no specific match is found.
+     * This can only happen when buddies are placed together or participants must be kept
+     * apart: the remaining places may be spread over groups that are each too small for the
+     * remaining units, or hold participants the remaining units conflict with. Every such
+     * unit is added to the group with the fewest participants it has no conflicts with (or
+     * the group with the fewest participants, if it conflicts with all groups), which then
+     * slightly exceeds its planned size.
      *
-     * @param group The group to which a guide cluster will be assigned.
-     * @param guideClusters The list of available guide clusters.
-     * @return The guide cluster assigned to the group, or null if none is available.
+     * @param units The units the participants are divided into.
+     * @param conflicts The participants that must be kept apart.
+     * @param solution The solution in which the participants are assigned.
+     * @param sizes The current number of participants in every group; updated as units are added.
      */
-    private static GuideCluster assignGuideClusterToGroup(Group group, List<GuideCluster> guideClusters) {
-        String groupAlcoholType = group.getAlcoholType();
-
-        GuideCluster chosenCluster = null;
-        if (!groupAlcoholType.equals("Mixed")) {
-            // Search for a guide cluster with matching alcohol preferences
-            for (GuideCluster cluster : guideClusters) {
-                if (cluster.getGroupNumber() == 0 && cluster.getAlcoholType().equals(groupAlcoholType)) {
-                    chosenCluster = cluster;
-                    break;
+    private static void assignRemainingUnits(ParticipantUnits units, ConflictGraph conflicts, Solution solution, int[] sizes) {
+        for (int unit = 0; unit < units.size(); unit++) {
+            if (solution.isAssigned(units.getMember(unit, 0))) continue;
+
+            // Find the smallest group, preferring groups without conflicts
+            int smallest = 0;
+            boolean smallestConflicts = hasConflict(units, conflicts, solution, unit, 0);
+            for (int group = 1; group < sizes.length; group++) {
+                boolean groupConflicts = hasConflict(units, conflicts, solution, unit, group);
+                if ((smallestConflicts && !groupConflicts)
+                        || (smallestConflicts == groupConflicts && sizes[group] < sizes[smallest])) {
+                    smallest = group;
+                    smallestConflicts = groupConflicts;
                 }
             }
-        }
 
-        // If no exact match is found, look for a mixed preference cluster
-        if (chosenCluster == null) {
-            for (GuideCluster cluster : guideClusters) {
-                if (cluster.getGroupNumber() == 0 && cluster.getAlcoholType().equals("Mixed")) {
-                    chosenCluster = cluster;
-                    break;
-                }
-            }
-        }
-
-        // Assign any available guide cluster if no specific match is found
-        if (chosenCluster == null) {
-            for (GuideCluster cluster : guideClusters) {
-                if (cluster.getGroupNumber() == 0) {
-                    chosenCluster = cluster;
-                    break;
-                }
+            for (int i = 0; i < units.getSize(unit); i++) {
+                solution.assign(units.getMember(unit, i), smallest);
             }
+            sizes[smallest] += units.getSize(unit);
         }
+    }
 
-        // Set the group number for the chosen guide cluster
-        if (chosenCluster != null) {
-            chosenCluster.setGroupNumber(group.getGroupNumber());
+    /**
+     * This method checks whether any participant of a unit conflicts with the members of a group.
+     *
+     * @param units The units the participants are divided into.
+     * @param conflicts The participants that must be kept apart.
+     * @param solution The solution holding the current groups.
+     * @param unit The index of the unit.
+     * @param group The index of the group.
+     * @return {@code true} if a participant of the unit must be kept apart from a member of the group.
+     */
+    private static boolean hasConflict(ParticipantUnits units, ConflictGraph conflicts, Solution solution, int unit, int group) {
+        for (int i = 0; i < units.getSize(unit); i++) {
+            if (conflicts.hasConflict(units.getMember(unit, i), group, solution)) return true;
         }
-        return chosenCluster;
+        return false;
     }
 
     /**
-     * This inner class is a recursive task used to determine the best participant
-     * to add to a group based on similarity and dissimilarity scores.
+     * This inner class is a recursive task used to determine the best unit of
+     * participants to add to a group based on similarity and dissimilarity scores.
      *
-     * The task is executed in parallel using the ForkJoinPool, and it compares
-     * each available participant to the current group members to find the most
-     * appropriate fit. The participant with the highest compatibility score is selected.
+     * The task is executed in parallel using the ForkJoinPool: large ranges of
+     * unit indices are split in halves until they are small enough to be
+     * scanned sequentially. Each available unit that fits in the group (and has no
+     * conflicts with its members) is compared to
+     * the current group members, and the unit with the highest compatibility score is
+     * selected. The score of a unit is the sum of the scores of its participants, so a
+     * unit of buddies weighs as much as its participants together.
      */
-    private static class BestParticipantTask extends RecursiveTask<Participant> {
-        private final List<Participant> participants;
-        private final List<Participant> group;
+    private static class BestParticipantTask extends RecursiveTask<Candidate> {
+        private static final int THRESHOLD = 1024;
+
+        private final ParticipantStore store;
+        private final Settings settings;
+        private final ScoringTables tables;
+        private final AgeSpread ages;
+        private final RegionSpread regions;
+        private final ParticipantUnits units;
+        private final ConflictGraph conflicts;
+        private final NationalitySpread spread;
+        private final ForwardChecking feasibility;
+        private final Solution solution;
+        private final long seed;
+        private final int group;
+        private final int[] members;
+        private final int size;
+        private final int from;
+        private final int to;
 
         /**
          * Constructor for the BestParticipantTask.
          *
-         * It takes the list of available participants and the current group members,
-         * which are used to evaluate and select the most suitable participant to add
+         * It takes the store of participants and the current group members,
+         * which are used to evaluate and select the most suitable unit to add
          * to the group.
          *
-         * @param participants The list of participants from which to choose.
-         * @param group The current group to which a participant will be added.
+         * @param store The columnar store of the participants.
+         * @param settings The settings holding the scoring mode and group limits.
+         * @param tables The compiled scoring weights.
+         * @param ages The running sums of the ages in every group.
+         * @param regions The histograms of the regions in every group.
+         * @param units The units the participants are divided into.
+         * @param conflicts The participants that must be kept apart.
+         * @param spread The quotas of the large nationalities, or {@code null} to ignore nationality quotas.
+         * @param feasibility The counters of the participants that remain to be placed, or {@code null} to ignore them.
+         * @param solution The solution holding the participants that have already been assigned to a group.
+         * @param seed The seed of the small random factor of the compatibility scores.
+         * @param group The index of the group being formed.
+         * @param members The indices of the current group members; its length is the size of the group.
+         * @param size The number of current group members.
+         * @param from The first unit index (inclusive) to consider.
+         * @param to The last unit index (exclusive) to consider.
          */
-        public BestParticipantTask(List<Participant> participants, List<Participant> group) {
-            this.participants = participants;
+        public BestParticipantTask(ParticipantStore store, Settings settings, ScoringTables tables, AgeSpread ages,
+                                   RegionSpread regions, ParticipantUnits units, ConflictGraph conflicts,
+                                   NationalitySpread spread, ForwardChecking feasibility, Solution solution, long seed,
+                                   int group, int[] members, int size, int from, int to) {
+            this.store = store;
+            this.settings = settings;
+            this.tables = tables;
+            this.ages = ages;
+            this.regions = regions;
+            this.units = units;
+            this.conflicts = conflicts;
+            this.spread = spread;
+            this.feasibility = feasibility;
+            this.solution = solution;
+            this.seed = seed;
             this.group = group;
+            this.members = members;
+            this.size = size;
+            this.from = from;
+            this.to = to;
         }
 
         /**
          * The compute method performs the actual comparison and selection of the
-         * best participant to add to the group.
+         * best unit to add to the group.
          *
-         * It iterates through all available participants, calculating a compatibility score
+         * It iterates through the range of units, calculating a compatibility score
          * for each based on their compatibility with the current group members. The
-         * participant with the highest score is selected.
+         * unit with the highest score is selected.
          *
-         * @return The participant who best fits the group, or {@code null} if no suitable participant is found.
+         * @return The unit that best fits the group, or {@code null} if no suitable unit is found.
          */
         @Override
-        protected Participant compute() {
-            double bestCompatibility = Double.MIN_VALUE;
-            Participant bestParticipant = null;
-
-            // Iterate through all participants to find the best fit for the group
-            for (Participant p : participants) {
-                if (p.getGroupNumber() == 0) {  // Ensure the participant is not already assigned to a group
-                    double compatibility = calculateCompatibility(group, p);
+        protected Candidate compute() {
+            // Split large ranges and search both halves in parallel
+            if (to - from > THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                BestParticipantTask left = new BestParticipantTask(store, settings, tables, ages, regions, units, conflicts, spread, feasibility, solution, seed, group, members, size, from, middle);
+                BestParticipantTask right = new BestParticipantTask(store, settings, tables, ages, regions, units, conflicts, spread, feasibility, solution, seed, group, members, size, middle, to);
+                left.fork();
+                Candidate rightBest = right.compute();
+                Candidate leftBest = left.join();
+
+                if (leftBest == null) return rightBest;
+                if (rightBest == null) return leftBest;
+                return leftBest.compatibility >= rightBest.compatibility ? leftBest : rightBest;
+            }
+
+            long bestCompatibility = Long.MIN_VALUE;
+            int bestUnit = -1;
+            int space = members.length - size;
+
+            // Iterate through all units to find the best fit for the group
+            for (int u = from; u < to; u++) {
+                int unitSize = units.getSize(u);
+                // Ensure the unit is not assigned yet, fits in the group, keeps to its quotas and limits,
+                // and has no conflicts with it
+                if (unitSize <= space && !solution.isAssigned(units.getMember(u, 0))
+                        && (spread == null || spread.isAllowed(u, group, space))
+                        && (feasibility == null || feasibility.isAllowed(u, space))
+                        && !hasConflict(units, conflicts, solution, u, group)) {
+                    long compatibility = 0;
+                    for (int i = 0; i < unitSize; i++) {
+                        int participant = units.getMember(u, i);
+                        compatibility += calculateCompatibility(store, settings, tables, ages, regions, group, members, size,
+                                participant, calculateStochasticity(seed, group, size, participant));
+                    }
                     if (compatibility > bestCompatibility) {
                         bestCompatibility = compatibility;
-                        bestParticipant = p;
+                        bestUnit = u;
                     }
                 }
             }
 
-            return bestParticipant;
+            return bestUnit >= 0 ? new Candidate(bestUnit, bestCompatibility) : null;
+        }
+    }
+
+    /**
+     * This inner class holds a unit index together with its compatibility score,
+     * so the results of parallel searches can be compared without recomputing scores.
+     */
+    private static class Candidate {
+        private final int unit;
+        private final long compatibility;
+
+        /**
+         * Constructor for the Candidate.
+         *
+         * @param unit The index of the unit.
+         * @param compatibility The compatibility score of the unit with the group.
+         */
+        public Candidate(int unit, long compatibility) {
+            this.unit = unit;
+            this.compatibility = compatibility;
         }
     }
 
@@ -236,113 +543,73 @@ public class GroupingAlgorithm {
      * The compatibility score is a combination of similarity (shared attributes) and
      * dissimilarity (differences) scores, with a small random factor (stochasticity)
      * added to introduce variability in the selection process. The method aims to
-     * create balanced groups by considering both cohesion and diversity.
+     * create balanced groups by considering both cohesion and diversity. Both scores
+     * are looked up in the {@link ScoringTables} compiled from the weights of the settings.
+     * Participants whose age is far from the ages already in the group are penalized
+     * (see {@link AgeSpread}), and so are participants from a region that is already
+     * common in the group (see {@link RegionSpread}).
+     *
+     * All parts of the score are whole numbers, so the score is kept as a {@code long}.
+     * If lexicographic scoring is enabled in the settings, the score is a
+     * {@link LexicographicScore} instead, which compares in the same way and includes
+     * the ages and regions in its lowest tier.
      *
-     * @param group The current group of participants.
-     * @param participant The participant being evaluated.
+     * @param store The columnar store of the participants.
+     * @param settings The settings holding the scoring mode and group limits.
+     * @param tables The compiled scoring weights.
+     * @param ages The running sums of the ages in every group.
+     * @param regions The histograms of the regions in every group.
+     * @param group The index of the group being formed.
+     * @param members The indices of the current group members; its length is the size of the group.
+     * @param size The number of current group members.
+     * @param participant The index of the participant being evaluated.
+     * @param stochasticity The small random factor, between 0 and 2 (see {@link #calculateStochasticity}).
      * @return The calculated compatibility score.
      */
-    private static double calculateCompatibility(List<Participant> group, Participant participant) {
-        double similarity = 0;
-        double dissimilarity = 0;
-
-        Random random = new Random();
-        int stochasticity = random.nextInt(3);  // Introduce a small random factor
-
-        // Calculate similarity and dissimilarity scores with each group member
-        for (Participant p : group) {
-            similarity += calculateSimilarity(p, participant);
-            dissimilarity += calculateDissimilarity(p, participant);
+    static long calculateCompatibility(ParticipantStore store, Settings settings, ScoringTables tables,
+                                               AgeSpread ages, RegionSpread regions, int group, int[] members,
+                                               int size, int participant, int stochasticity) {
+        if (settings.isLexicographicScoring()) {
+            return LexicographicScore.calculate(store, settings, tables, ages, regions, group, members, size, participant,
+                    stochasticity);
         }
 
-        return similarity + dissimilarity + stochasticity;
-    }
+        long similarity = 0;
+        long dissimilarity = 0;
 
-    /**
-     * This method calculates the similarity score between two participants based on
-     * shared attributes.
-     *
-     * The method compares the university, study duration, and alcohol preferences
-     * of the two participants, assigning higher scores for greater similarity. These
-     * attributes are considered important for group cohesion.
-     *
-     * @param p1 The first participant.
-     * @param p2 The second participant.
-     * @return A double representing the similarity score between the two participants.
-     */
-    private static double calculateSimilarity(Participant p1, Participant p2) {
-        // Constant multiplier used to give more weight to significant similarities
-        final int M = 100;
-
-        // Initialize the similarity score
-        double score = 0;
-
-        // Compare the universities of both participants
-        String uni1 = p1.getUniversity();
-        String uni2 = p2.getUniversity();
-        if (uni1.equals(uni2)) {
-            // If the universities match, assign a high similarity score
-            score += 3 * M;
-        } else if (uni1.equals("Other") || uni2.equals("Other")) {
-            // If one of the participants' university is marked as "Other", assign a lower similarity score
-            score += 2;
+        // Calculate similarity and dissimilarity scores with each group member
+        for (int i = 0; i < size; i++) {
+            similarity += tables.calculateSimilarity(store.getCode(members[i]), store.getCode(participant));
+            dissimilarity += tables.calculateDissimilarity(store, members[i], participant);
         }
 
-        // Compare the alcohol preferences of both participants.
-        if (p1.getAlcoholFree().equals(p2.getAlcoholFree())) {
-            // If the alcohol preferences match, assign a significant similarity score
-            score += 2 * M;
-        }
+        // Penalize the spread of ages the participant would add, from the running sums of the group
+        long ageSpread = ages.calculatePenalty(participant, group);
 
-        // Compare the study duration of both participants
-        String dur1 = p1.getStudyDuration();
-        String dur2 = p2.getStudyDuration();
-        if (dur1.equals(dur2)) {
-            // If the study durations match, assign a similarity score
-            score += M;
-        } else if (dur1.equals("Other") || dur2.equals("Other")) {
-            // If one of the study durations is marked as "Other", assign a minimal similarity score
-            score += 1;
-        }
+        // Score the members from the same region, from the histogram of the group
+        dissimilarity += regions.calculateScore(participant, group);
 
-        // Return the total similarity score
-        return score;
+        return similarity + dissimilarity - ageSpread + stochasticity;
     }
 
     /**
-     * This method calculates the dissimilarity score between two participants based
-     * on differing attributes.
+     * This method derives the small random factor of a compatibility score from a seed.
      *
-     * The method compares the gender, nationality, and dietary preferences of the
-     * two participants, assigning higher scores for greater dissimilarity. These
-     * attributes are considered important for ensuring diversity within the group.
+     * The factor is a hash of the seed, the group, the number of members and the participant,
+     * rather than a number drawn from a shared source of randomness. The threads that score
+     * the participants in parallel therefore do not depend on each other, and the same seed
+     * always gives the same factors, in whatever order the participants are scored.
      *
-     * @param p1 The first participant.
-     * @param p2 The second participant.
-     * @return A double representing the dissimilarity score between the two participants.
+     * @param seed The seed drawn for the construction.
+     * @param group The index of the group being formed.
+     * @param size The number of current group members.
+     * @param participant The index of the participant being evaluated.
+     * @return The random factor, between 0 and 2.
      */
-    private static double calculateDissimilarity(Participant p1, Participant p2) {
-        // Initialize the dissimilarity score
-        double score = 0;
-
-        // Compare the nationalities of both participants
-        if (p1.getNationality().equals(p2.getNationality()) && p1.getNationality() == null && p2.getNationality() == null) {
-            // If both participants have different nationalities (or either is null), increment the score slightly
-            score++;
-        }
-
-        // Compare the dietary preferences of both participants
-        String diet1 = p1.getDiet();
-        String diet2 = p2.getDiet();
-        if (!diet1.equals("None") && !diet2.equals("None")) {
-            // If neither participant's diet is "None", decrement the score significantly, promoting diversity
-            score -= 3;
-        } else if (diet1.equals("None") && diet2.equals("None")) {
-            // If both participants have "None" as their diet, decrement the score minimally
-            score -= 1;
-        }
-
-        // Return the total dissimilarity score
-        return score;
+    static int calculateStochasticity(long seed, int group, int size, int participant) {
+        long z = seed + group * 0x9E3779B97F4A7C15L + size * 0xC2B2AE3D27D4EB4FL + participant * 0x165667B19E3779F9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (int) Long.remainderUnsigned(z ^ (z >>> 31), 3);
     }
-}
\ No newline at end of file
+}
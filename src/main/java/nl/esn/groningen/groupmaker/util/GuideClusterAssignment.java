@@ -0,0 +1,169 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.*;
+
+import java.util.List;
+
+/**
+ * Utility class for assigning guide clusters to groups.
+ *
+ * <p>Instead of letting every group pick the first suitable cluster in turn (which lets early groups
+ * take the clusters later groups need), all guide clusters are matched to all groups at once. The
+ * mismatch between every group and every cluster is collected in a cost matrix, and the
+ * {@link HungarianAlgorithm} finds the assignment with the lowest total cost.</p>
+ *
+ * <p>The cost of matching a cluster to a group is built from three terms, in decreasing order of
+ * importance: the difference in alcohol preferences, the chance that a participant and a guide do not
+ * share their university, and the difference in the share of plant-based eaters. Each term is scaled
+ * to the range 0-100 before weighting.</p>
+ *
+ * @see HungarianAlgorithm
+ * @see GuideCluster
+ */
+public class GuideClusterAssignment {
+
+    // Weights of the individual terms of the mismatch cost
+    private static final int ALCOHOL_WEIGHT = 100;
+    private static final int UNIVERSITY_WEIGHT = 10;
+    private static final int DIET_WEIGHT = 1;
+
+    /**
+     * Assigns the guide clusters of the problem to the groups of the solution, minimizing the total
+     * mismatch cost. Groups for which no cluster is left are not assigned a guide cluster.
+     *
+     * @param problem The problem holding the guide clusters.
+     * @param solution The solution in which the guide clusters are assigned.
+     * @return The total mismatch cost of the assignment.
+     */
+    public static long assign(GroupingProblem problem, Solution solution) {
+        long[][] cost = calculateCostMatrix(problem, solution);
+        int[] assignment = HungarianAlgorithm.solve(cost);
+
+        for (int group = 0; group < assignment.length; group++) {
+            solution.setGuideCluster(group, assignment[group] >= 0 ? assignment[group] : Solution.UNASSIGNED);
+        }
+
+        return HungarianAlgorithm.calculateCost(cost, assignment);
+    }
+
+    /**
+     * Calculates the total mismatch cost of the guide clusters assigned in a solution.
+     *
+     * @param problem The problem holding the guide clusters.
+     * @param solution The solution holding the assigned guide clusters.
+     * @return The total mismatch cost, or 0 if no guide clusters were imported.
+     */
+    public static long calculateCost(GroupingProblem problem, Solution solution) {
+        if (problem.getGuideClusters() == null) return 0;
+
+        long[][] cost = calculateCostMatrix(problem, solution);
+        int[] assignment = new int[solution.getNumberOfGroups()];
+        for (int group = 0; group < assignment.length; group++) {
+            assignment[group] = solution.getGuideCluster(group);
+        }
+
+        return HungarianAlgorithm.calculateCost(cost, assignment);
+    }
+
+    /**
+     * Calculates the mismatch cost of every combination of a group and a guide cluster.
+     *
+     * @param problem The problem holding the participants and guide clusters.
+     * @param solution The solution describing the groups.
+     * @return The cost matrix, indexed as {@code cost[group][guideCluster]}.
+     */
+    private static long[][] calculateCostMatrix(GroupingProblem problem, Solution solution) {
+        ParticipantStore store = problem.getParticipantStore();
+        List<GuideCluster> guideClusters = problem.getGuideClusters();
+        int numberOfGroups = solution.getNumberOfGroups();
+
+        // Summarize the groups: share of alcohol-free members, plant-based eaters and each university
+        double[] groupAlcoholFree = new double[numberOfGroups];
+        double[] groupPlantBased = new double[numberOfGroups];
+        double[][] groupUniversities = new double[numberOfGroups][ParticipantEncoding.UNIVERSITY_COUNT];
+        int[] groupSizes = new int[numberOfGroups];
+        for (int p = 0; p < store.size(); p++) {
+            int group = solution.getGroup(p);
+            if (group == Solution.UNASSIGNED) continue;
+
+            long code = store.getCode(p);
+            groupSizes[group]++;
+            if (ParticipantEncoding.isAlcoholFree(code)) groupAlcoholFree[group]++;
+            if (ParticipantEncoding.isPlantBased(code)) groupPlantBased[group]++;
+            groupUniversities[group][store.getUniversity(p)]++;
+        }
+        for (int group = 0; group < numberOfGroups; group++) {
+            normalize(groupSizes[group], groupAlcoholFree, groupPlantBased, groupUniversities, group);
+        }
+
+        // Summarize the guide clusters in the same way
+        int numberOfClusters = guideClusters.size();
+        double[] clusterAlcoholFree = new double[numberOfClusters];
+        double[] clusterPlantBased = new double[numberOfClusters];
+        double[][] clusterUniversities = new double[numberOfClusters][ParticipantEncoding.UNIVERSITY_COUNT];
+        for (int c = 0; c < numberOfClusters; c++) {
+            List<Guide> guides = guideClusters.get(c).getGuides();
+            for (Guide guide : guides) {
+                if (guide.getAlcoholFree().equals("Yes")) clusterAlcoholFree[c]++;
+                if (!guide.getDiet().equals("None")) clusterPlantBased[c]++;
+                clusterUniversities[c][getUniversity(guide)]++;
+            }
+            normalize(guides.size(), clusterAlcoholFree, clusterPlantBased, clusterUniversities, c);
+        }
+
+        // Combine both summaries into the weighted mismatch cost
+        long[][] cost = new long[numberOfGroups][numberOfClusters];
+        for (int group = 0; group < numberOfGroups; group++) {
+            for (int c = 0; c < numberOfClusters; c++) {
+                double sharedUniversity = 0;
+                for (int university = 0; university < ParticipantEncoding.UNIVERSITY_COUNT; university++) {
+                    sharedUniversity += groupUniversities[group][university] * clusterUniversities[c][university];
+                }
+
+                double alcohol = Math.abs(groupAlcoholFree[group] - clusterAlcoholFree[c]);
+                double diet = Math.abs(groupPlantBased[group] - clusterPlantBased[c]);
+                cost[group][c] = ALCOHOL_WEIGHT * Math.round(100 * alcohol)
+                        + UNIVERSITY_WEIGHT * Math.round(100 * (1 - sharedUniversity))
+                        + DIET_WEIGHT * Math.round(100 * diet);
+            }
+        }
+
+        return cost;
+    }
+
+    /**
+     * Turns the counts of a group or cluster into shares of its size.
+     *
+     * @param size The number of members of the group or cluster.
+     * @param alcoholFree The counts of alcohol-free members.
+     * @param plantBased The counts of plant-based eaters.
+     * @param universities The counts of members per university.
+     * @param index The index of the group or cluster to normalize.
+     */
+    private static void normalize(int size, double[] alcoholFree, double[] plantBased, double[][] universities, int index) {
+        if (size == 0) return;
+
+        alcoholFree[index] /= size;
+        plantBased[index] /= size;
+        for (int university = 0; university < universities[index].length; university++) {
+            universities[index][university] /= size;
+        }
+    }
+
+    /**
+     * Translates the university of a guide into the encoded university value used for participants.
+     *
+     * @param guide The guide.
+     * @return The encoded university value.
+     */
+    private static int getUniversity(Guide guide) {
+        switch (guide.getUniversity()) {
+            case "UG":
+                return ParticipantEncoding.UNIVERSITY_UG;
+            case "Hanze":
+                return ParticipantEncoding.UNIVERSITY_HANZE;
+            default:
+                return ParticipantEncoding.UNIVERSITY_OTHER;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+package nl.esn.groningen.groupmaker.util;
+
+import java.util.Arrays;
+
+/**
+ * Utility class implementing the Hungarian algorithm for the (rectangular) assignment problem.
+ *
+ * <p>Given a cost matrix, the algorithm assigns every row to a distinct column such that the total
+ * cost is minimal. It runs in O(n<sup>2</sup>m) time for a matrix with n rows and m columns
+ * (n &le; m), which is fast enough for matching hundreds of groups.</p>
+ */
+public class HungarianAlgorithm {
+
+    /**
+     * Computes a minimum-cost assignment of rows to columns.
+     *
+     * <p>If there are more rows than columns, the problem is solved on the transposed matrix, and
+     * the rows that could not be assigned a column are marked with {@code -1}.</p>
+     *
+     * @param cost The cost matrix, indexed as {@code cost[row][column]}. All rows must have equal length.
+     * @return An array holding the assigned column of every row, or {@code -1} if the row is not assigned.
+     */
+    public static int[] solve(long[][] cost) {
+        int rows = cost.length;
+        int columns = rows == 0 ? 0 : cost[0].length;
+
+        // Solve the transposed problem if there are more rows than columns
+        if (rows > columns) {
+            long[][] transposed = new long[columns][rows];
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    transposed[column][row] = cost[row][column];
+                }
+            }
+
+            int[] columnToRow = solve(transposed);
+            int[] rowToColumn = new int[rows];
+            Arrays.fill(rowToColumn, -1);
+            for (int column = 0; column < columns; column++) {
+                rowToColumn[columnToRow[column]] = column;
+            }
+            return rowToColumn;
+        }
+
+        // Potentials of the rows and columns; index 0 is a sentinel
+        long[] u = new long[rows + 1];
+        long[] v = new long[columns + 1];
+        int[] match = new int[columns + 1];  // Row matched to every column (0 if none)
+        int[] way = new int[columns + 1];    // Previous column on the augmenting path
+
+        for (int row = 1; row <= rows; row++) {
+            match[0] = row;
+            int column0 = 0;
+            long[] minimum = new long[columns + 1];
+            boolean[] used = new boolean[columns + 1];
+            Arrays.fill(minimum, Long.MAX_VALUE);
+
+            // Grow the shortest augmenting path until it reaches a free column
+            do {
+                used[column0] = true;
+                int row0 = match[column0];
+                long delta = Long.MAX_VALUE;
+                int column1 = 0;
+
+                for (int column = 1; column <= columns; column++) {
+                    if (!used[column]) {
+                        long reduced = cost[row0 - 1][column - 1] - u[row0] - v[column];
+                        if (reduced < minimum[column]) {
+                            minimum[column] = reduced;
+                            way[column] = column0;
+                        }
+                        if (minimum[column] < delta) {
+                            delta = minimum[column];
+                            column1 = column;
+                        }
+                    }
+                }
+
+                // Update the potentials so the reduced costs remain non-negative
+                for (int column = 0; column <= columns; column++) {
+                    if (used[column]) {
+                        u[match[column]] += delta;
+                        v[column] -= delta;
+                    } else {
+                        minimum[column] -= delta;
+                    }
+                }
+
+                column0 = column1;
+            } while (match[column0] != 0);
+
+            // Flip the matching along the augmenting path
+            do {
+                int column1 = way[column0];
+                match[column0] = match[column1];
+                column0 = column1;
+            } while (column0 != 0);
+        }
+
+        int[] rowToColumn = new int[rows];
+        for (int column = 1; column <= columns; column++) {
+            if (match[column] != 0) {
+                rowToColumn[match[column] - 1] = column - 1;
+            }
+        }
+        return rowToColumn;
+    }
+
+    /**
+     * Calculates the total cost of an assignment.
+     *
+     * @param cost The cost matrix, indexed as {@code cost[row][column]}.
+     * @param rowToColumn The assigned column of every row, or {@code -1} if the row is not assigned.
+     * @return The sum of the costs of all assigned rows.
+     */
+    public static long calculateCost(long[][] cost, int[] rowToColumn) {
+        long total = 0;
+        for (int row = 0; row < rowToColumn.length; row++) {
+            if (rowToColumn[row] >= 0) {
+                total += cost[row][rowToColumn[row]];
+            }
+        }
+        return total;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+package nl.esn.groningen.groupmaker.util;
+
+import java.util.Arrays;
+
+/**
+ * Utility class implementing a binary max-heap over the integers 0 to n - 1, each with a key that can
+ * be changed while the element is in the heap.
+ *
+ * <p>The heap keeps track of the position of every element, so changing the key of an element,
+ * inserting it or removing it takes O(log n) time, and finding the element with the highest key takes
+ * constant time. Elements with equal keys are returned in no particular order.</p>
+ */
+public class IndexedHeap {
+    private final int[] heap;
+    private final int[] position;
+    private final long[] keys;
+    private int size;
+
+    /**
+     * Constructs an empty {@code IndexedHeap} for the given number of elements.
+     *
+     * @param numberOfElements The number of elements; elements are numbered from 0.
+     */
+    public IndexedHeap(int numberOfElements) {
+        this.heap = new int[numberOfElements];
+        this.position = new int[numberOfElements];
+        this.keys = new long[numberOfElements];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Checks whether the heap holds no elements.
+     *
+     * @return {@code true} if the heap is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether an element is in the heap.
+     *
+     * @param element The element.
+     * @return {@code true} if the element is in the heap.
+     */
+    public boolean contains(int element) {
+        return position[element] >= 0;
+    }
+
+    /**
+     * Returns the element with the highest key, without removing it.
+     *
+     * @return The element with the highest key.
+     * @throws IllegalStateException If the heap is empty.
+     */
+    public int peek() {
+        if (size == 0) throw new IllegalStateException("The heap is empty");
+        return heap[0];
+    }
+
+    /**
+     * Returns the key of an element.
+     *
+     * @param element The element.
+     * @return The key last set for the element.
+     */
+    public long getKey(int element) {
+        return keys[element];
+    }
+
+    /**
+     * Sets the key of an element, inserting the element if it is not in the heap.
+     *
+     * @param element The element.
+     * @param key The new key.
+     */
+    public void update(int element, long key) {
+        if (!contains(element)) {
+            keys[element] = key;
+            heap[size] = element;
+            position[element] = size++;
+            siftUp(position[element]);
+            return;
+        }
+
+        long oldKey = keys[element];
+        keys[element] = key;
+        if (key > oldKey) {
+            siftUp(position[element]);
+        } else {
+            siftDown(position[element]);
+        }
+    }
+
+    /**
+     * Removes the element with the highest key.
+     *
+     * @return The removed element.
+     * @throws IllegalStateException If the heap is empty.
+     */
+    public int poll() {
+        int top = peek();
+        remove(top);
+        return top;
+    }
+
+    /**
+     * Removes an element from the heap. Nothing happens if the element is not in the heap.
+     *
+     * @param element The element.
+     */
+    public void remove(int element) {
+        int index = position[element];
+        if (index < 0) return;
+
+        // Move the last element into the gap, and restore the heap order from there
+        int last = heap[--size];
+        position[element] = -1;
+        if (index == size) return;
+
+        heap[index] = last;
+        position[last] = index;
+        siftUp(index);
+        siftDown(position[last]);
+    }
+
+    /**
+     * Moves the element at a position up until its parent has a key at least as high.
+     *
+     * @param index The position in the heap.
+     */
+    private void siftUp(int index) {
+        int element = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (keys[heap[parent]] >= keys[element]) break;
+
+            heap[index] = heap[parent];
+            position[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = element;
+        position[element] = index;
+    }
+
+    /**
+     * Moves the element at a position down until both its children have a key at most as high.
+     *
+     * @param index The position in the heap.
+     */
+    private void siftDown(int index) {
+        int element = heap[index];
+        while (2 * index + 1 < size) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && keys[heap[child + 1]] > keys[heap[child]]) child++;
+            if (keys[element] >= keys[heap[child]]) break;
+
+            heap[index] = heap[child];
+            position[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = element;
+        position[element] = index;
+    }
+}
\ No newline at end of file
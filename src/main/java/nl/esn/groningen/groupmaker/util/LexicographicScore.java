@@ -0,0 +1,123 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.ParticipantEncoding;
+import nl.esn.groningen.groupmaker.model.ParticipantStore;
+import nl.esn.groningen.groupmaker.model.ScoringWeights;
+import nl.esn.groningen.groupmaker.model.Settings;
+
+/**
+ * Utility class computing a lexicographic compatibility score of a participant with a group.
+ *
+ * <p>The score consists of tiers with strict priorities: a participant that keeps the group within
+ * the limits of the {@link Settings} always wins over one that does not, regardless of the lower tiers.
+ * From most to least important, the tiers are:</p>
+ * <ol>
+ *   <li>the limits of the settings (plant-based eaters, same nationality and same gender) that are
+ *   kept when the participant joins the group;</li>
+ *   <li>the members with the same alcohol preference;</li>
+ *   <li>the members with the same university;</li>
+ *   <li>the diversity of nationalities, diets and regions, minus the spread of ages (see {@link AgeSpread}
+ *   and {@link RegionSpread}), plus a small random factor.</li>
+ * </ol>
+ *
+ * <p>Every tier is stored in its own bits of a single {@code long}, with the most important tier in
+ * the highest bits, so comparing two scores is a single comparison of {@code long}s that is decided by
+ * the first tier in which they differ. The tiers are sized for the largest group the settings allow
+ * ({@link Settings#MAXIMUM_GROUP_SIZE}), the largest weights ({@link ScoringWeights#MAXIMUM}) and the
+ * largest age ({@link ParticipantStore#MAXIMUM_AGE}): the dissimilarity with a single member lies between
+ * minus and plus twice the largest weight, the score of the regions between minus and plus the largest
+ * weight per member, and the penalty for the spread of ages between minus and plus the largest weight
+ * times the square of the largest age. The diversity is offset by the sum of these bounds, so it is never
+ * negative. Every tier is wide enough
+ * to hold the sum over a unit of buddies as large as a group, so the scores of the participants in a
+ * unit can be added without one tier overflowing into the next.</p>
+ */
+public class LexicographicScore {
+    private static final int LIMITS = 3;
+
+    // Added to the diversity of every participant, which loses at most twice the largest weight per member
+    // for the dissimilarity, the largest weight per member for the regions, and the largest weight times
+    // the square of the largest age for the spread of ages
+    private static final long DIVERSITY_OFFSET = (long) ScoringWeights.MAXIMUM
+            * (3L * (Settings.MAXIMUM_GROUP_SIZE - 1) + (long) ParticipantStore.MAXIMUM_AGE * ParticipantStore.MAXIMUM_AGE);
+
+    // The bits of the counting tiers and of the diversity, for the sums over a unit as large as a group
+    private static final int COUNT_BITS =
+            calculateBits((long) Settings.MAXIMUM_GROUP_SIZE * (Settings.MAXIMUM_GROUP_SIZE - 1));
+    private static final int DIVERSITY_BITS =
+            calculateBits(Settings.MAXIMUM_GROUP_SIZE * (2 * DIVERSITY_OFFSET + 2));
+
+    /**
+     * Computes the lexicographic score of a participant with the current members of a group.
+     *
+     * @param store The columnar store of the participants.
+     * @param settings The settings holding the group limits.
+     * @param tables The compiled scoring weights, used for the diversity.
+     * @param ages The running sums of the ages in every group, used for the diversity.
+     * @param regions The histograms of the regions in every group, used for the diversity.
+     * @param group The index of the group being formed.
+     * @param members The indices of the current group members; its length is the size of the group.
+     * @param size The number of current group members.
+     * @param participant The index of the participant being evaluated.
+     * @param stochasticity The small random factor added to the diversity, between 0 and 2.
+     * @return The packed score; higher is better.
+     */
+    public static long calculate(ParticipantStore store, Settings settings, ScoringTables tables, AgeSpread ages,
+                                 RegionSpread regions, int group, int[] members, int size, int participant,
+                                 int stochasticity) {
+        long code = store.getCode(participant);
+        int nationality = store.getNationality(participant);
+        int plantBased = 0;
+        int sameNationality = 0;
+        int sameGender = 0;
+        int sameAlcohol = 0;
+        int sameUniversity = 0;
+        long diversity = DIVERSITY_OFFSET + stochasticity + regions.calculateScore(participant, group)
+                - ages.calculatePenalty(participant, group);
+
+        // Count all tiers in a single pass over the members
+        for (int i = 0; i < size; i++) {
+            long memberCode = store.getCode(members[i]);
+            if (ParticipantEncoding.isPlantBased(memberCode)) plantBased++;
+            if (nationality != ParticipantStore.UNKNOWN_NATIONALITY && store.getNationality(members[i]) == nationality) {
+                sameNationality++;
+            }
+            if (ParticipantEncoding.matches(code, memberCode, ParticipantEncoding.GENDER_MASK)) sameGender++;
+            if (ParticipantEncoding.matches(code, memberCode, ParticipantEncoding.ALCOHOL_FREE_MASK)) sameAlcohol++;
+            if (ParticipantEncoding.matches(code, memberCode, ParticipantEncoding.UNIVERSITY_MASK)) sameUniversity++;
+            diversity += tables.calculateDissimilarity(store, members[i], participant);
+        }
+
+        // Count the limits the group would exceed with the participant
+        int exceeded = 0;
+        if (ParticipantEncoding.isPlantBased(code) && plantBased + 1 > settings.getPlantBasedGroupMaximum()) exceeded++;
+        if (sameNationality + 1 > settings.getSameNationalityGroupMaximum()) exceeded++;
+        if ((sameGender + 1) * 100 > settings.getSameGenderPercentageLimit() * members.length) exceeded++;
+
+        return pack(LIMITS - exceeded, sameAlcohol, sameUniversity, diversity);
+    }
+
+    /**
+     * Packs the tiers into a single score.
+     *
+     * @param limits The number of limits kept.
+     * @param alcohol The number of members with the same alcohol preference.
+     * @param university The number of members with the same university.
+     * @param diversity The diversity, including its offset.
+     * @return The packed score.
+     */
+    private static long pack(long limits, long alcohol, long university, long diversity) {
+        return limits << (2 * COUNT_BITS + DIVERSITY_BITS) | alcohol << (COUNT_BITS + DIVERSITY_BITS)
+                | university << DIVERSITY_BITS | diversity;
+    }
+
+    /**
+     * Returns the number of bits needed to store the values of a tier.
+     *
+     * @param maximum The largest value of the tier.
+     * @return The number of bits.
+     */
+    private static int calculateBits(long maximum) {
+        return Long.SIZE - Long.numberOfLeadingZeros(maximum);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,212 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.*;
+
+/**
+ * Utility class spreading the participants of large nationalities evenly over the groups, by giving
+ * every group a quota for every large nationality before the groups are filled.
+ *
+ * <p>When hundreds of participants share a nationality, filling the groups one after another tends to
+ * leave the last groups with too many of them, which the repair afterwards can only partly undo. The
+ * quotas are therefore decided up front, as a transportation problem solved with a minimum-cost flow
+ * in a {@link FlowNetwork}: the source supplies the participants of every large nationality, every
+ * nationality is connected to every group, and every group to the sink with the size of the group as
+ * capacity. Up to the even share of a nationality a group is free; every participant above it costs
+ * more than the one before, and no group gets more than the maximum of the settings. The cheapest flow
+ * is then the most even spread that fits in the groups. The network has O(nationalities &times;
+ * groups) edges, so it is solved in milliseconds.</p>
+ *
+ * <p>While the groups are filled, a group may take one participant more than its quota of a large
+ * nationality (but never more than the maximum), so the fill keeps some freedom in where the
+ * participants go. Because the groups are filled in order, a group only has to take participants of a
+ * nationality when the groups after it could not hold all remaining participants of that nationality;
+ * once the free places of the group are needed for that, only participants of those nationalities are
+ * allowed in. Every group therefore ends up within one participant of the even spread, while the
+ * participants themselves are still chosen by the compatibility scores. These checks only compare a
+ * few counters. Participants with buddies are not counted.</p>
+ *
+ * @see FlowNetwork
+ * @see GroupingAlgorithm
+ */
+public class NationalitySpread {
+    private final ParticipantStore store;
+    private final ParticipantUnits units;
+    private final int[] largeIndex;
+    private final int[][] capacity;
+    private final int[][] laterCapacity;
+    private final int[][] count;
+    private final int[] remaining;
+
+    /**
+     * Constructs a {@code NationalitySpread} for the given quotas.
+     *
+     * @param store The columnar store of the participants.
+     * @param units The units of buddies; participants in a unit of several participants are not counted.
+     * @param largeIndex The index of every nationality among the large nationalities, or -1 if it is not large.
+     * @param quota The number of participants of every large nationality that every group gets.
+     * @param supply The number of participants without buddies of every large nationality.
+     * @param maximum The maximum number of participants of the same nationality in a group.
+     */
+    private NationalitySpread(ParticipantStore store, ParticipantUnits units, int[] largeIndex, int[][] quota,
+                              int[] supply, int maximum) {
+        this.store = store;
+        this.units = units;
+        this.largeIndex = largeIndex;
+        this.remaining = supply;
+        this.capacity = new int[quota.length][];
+        this.laterCapacity = new int[quota.length][];
+        this.count = new int[quota.length][];
+
+        for (int i = 0; i < quota.length; i++) {
+            int numberOfGroups = quota[i].length;
+            capacity[i] = new int[numberOfGroups];
+            laterCapacity[i] = new int[numberOfGroups];
+            count[i] = new int[numberOfGroups];
+            for (int group = numberOfGroups - 1; group >= 0; group--) {
+                capacity[i][group] = Math.min(quota[i][group] + 1, maximum);
+                if (group > 0) laterCapacity[i][group - 1] = laterCapacity[i][group] + capacity[i][group];
+            }
+        }
+    }
+
+    /**
+     * Computes the quotas of the large nationalities for every group.
+     *
+     * <p>A nationality counts as large when its participants without buddies, spread evenly, would
+     * take up more than half of the maximum of the settings in every group. Smaller nationalities are
+     * left to the fill, which spreads them well enough on its own.</p>
+     *
+     * @param problem The problem holding the participants and settings.
+     * @param groupSizes The planned size of every group.
+     * @param units The units of buddies; participants in a unit of several participants are not counted.
+     * @return The quotas, or {@code null} if there are no large nationalities.
+     */
+    public static NationalitySpread plan(GroupingProblem problem, int[] groupSizes, ParticipantUnits units) {
+        ParticipantStore store = problem.getParticipantStore();
+        int numberOfGroups = groupSizes.length;
+        int maximum = problem.getSettings().getSameNationalityGroupMaximum();
+        if (numberOfGroups == 0 || maximum <= 0) return null;
+
+        // Count the participants without buddies of every nationality
+        int[] supply = new int[store.getNationalityCount()];
+        for (int p = 0; p < store.size(); p++) {
+            int nationality = store.getNationality(p);
+            if (nationality != ParticipantStore.UNKNOWN_NATIONALITY && !units.isLocked(p)) supply[nationality]++;
+        }
+
+        int[] largeIndex = new int[supply.length];
+        int numberOfLarge = 0;
+        for (int nationality = 0; nationality < supply.length; nationality++) {
+            largeIndex[nationality] = 2 * supply[nationality] > numberOfGroups * maximum ? numberOfLarge++ : -1;
+        }
+        if (numberOfLarge == 0) return null;
+
+        // Nodes: source, large nationalities, groups, sink
+        int source = 0;
+        int firstGroup = 1 + numberOfLarge;
+        int sink = firstGroup + numberOfGroups;
+        FlowNetwork network = new FlowNetwork(sink + 1);
+        int[][][] edges = new int[numberOfLarge][numberOfGroups][];
+
+        for (int nationality = 0; nationality < supply.length; nationality++) {
+            int i = largeIndex[nationality];
+            if (i < 0) continue;
+            int share = Math.min(supply[nationality] / numberOfGroups, maximum);
+            network.addEdge(source, 1 + i, supply[nationality]);
+
+            // The even share is free; every participant above it costs one more than the previous one
+            for (int group = 0; group < numberOfGroups; group++) {
+                edges[i][group] = new int[maximum - share + 1];
+                edges[i][group][0] = network.addEdge(1 + i, firstGroup + group, share, 0);
+                for (int extra = 1; share + extra <= maximum; extra++) {
+                    edges[i][group][extra] = network.addEdge(1 + i, firstGroup + group, 1, extra);
+                }
+            }
+        }
+        for (int group = 0; group < numberOfGroups; group++) {
+            network.addEdge(firstGroup + group, sink, groupSizes[group]);
+        }
+        network.minCostFlow(source, sink);
+
+        int[][] quota = new int[numberOfLarge][numberOfGroups];
+        for (int i = 0; i < numberOfLarge; i++) {
+            for (int group = 0; group < numberOfGroups; group++) {
+                for (int edge : edges[i][group]) {
+                    quota[i][group] += network.getFlow(edge);
+                }
+            }
+        }
+
+        int[] largeSupply = new int[numberOfLarge];
+        for (int nationality = 0; nationality < supply.length; nationality++) {
+            if (largeIndex[nationality] >= 0) largeSupply[largeIndex[nationality]] = supply[nationality];
+        }
+        return new NationalitySpread(store, units, largeIndex, quota, largeSupply, maximum);
+    }
+
+    /**
+     * Checks whether a unit may be added to a group without breaking the quotas of the group.
+     *
+     * @param unit The index of the unit.
+     * @param group The index of the group.
+     * @param space The number of free places in the group.
+     * @return {@code true} if the unit may be added.
+     */
+    public boolean isAllowed(int unit, int group, int space) {
+        int i = getLargeIndex(units.getMember(unit, 0));
+        if (i >= 0 && count[i][group] >= capacity[i][group]) return false;
+        if (i >= 0 && getRequired(i, group) > 0) return true;
+        return units.getSize(unit) <= space - getRequired(group);
+    }
+
+    /**
+     * Counts a participant that was added to a group.
+     *
+     * @param participant The index of the participant.
+     * @param group The index of the group.
+     */
+    public void place(int participant, int group) {
+        int i = getLargeIndex(participant);
+        if (i < 0) return;
+        count[i][group]++;
+        remaining[i]--;
+    }
+
+    /**
+     * Returns the number of participants of a large nationality that a group still has to take,
+     * because the groups after it cannot hold them all.
+     *
+     * @param i The index of the nationality among the large nationalities.
+     * @param group The index of the group.
+     * @return The number of participants the group still has to take.
+     */
+    private int getRequired(int i, int group) {
+        return Math.max(0, Math.min(remaining[i] - laterCapacity[i][group], capacity[i][group] - count[i][group]));
+    }
+
+    /**
+     * Returns the number of free places of a group that are needed for the large nationalities.
+     *
+     * @param group The index of the group.
+     * @return The number of places needed.
+     */
+    private int getRequired(int group) {
+        int required = 0;
+        for (int i = 0; i < remaining.length; i++) {
+            required += getRequired(i, group);
+        }
+        return required;
+    }
+
+    /**
+     * Returns the index of the nationality of a participant among the large nationalities.
+     *
+     * @param participant The index of the participant.
+     * @return The index, or -1 if the participant has buddies or no large nationality.
+     */
+    private int getLargeIndex(int participant) {
+        int nationality = store.getNationality(participant);
+        if (nationality == ParticipantStore.UNKNOWN_NATIONALITY || units.isLocked(participant)) return -1;
+        return largeIndex[nationality];
+    }
+}
\ No newline at end of file
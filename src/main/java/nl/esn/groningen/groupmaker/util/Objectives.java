@@ -0,0 +1,42 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.GroupingProblem;
+import nl.esn.groningen.groupmaker.model.Solution;
+
+/**
+ * Utility class defining the separate objectives a solution is judged on in multi-objective mode.
+ *
+ * <p>Instead of adding similarity and dissimilarity into a single score, every aspect is measured
+ * on its own, and all objectives are minimized:</p>
+ * <ul>
+ *   <li>Cohesion: the members outside the most common university of their group, plus the members
+ *   outside the most common study duration of their group.</li>
+ *   <li>Nationality spread: the pairs of members of the same group with the same nationality.</li>
+ *   <li>Gender balance: the difference between the male and female members, summed over the groups.</li>
+ *   <li>Diet spread: the pairs of members of the same group that both have a plant-based diet.</li>
+ * </ul>
+ *
+ * @see GroupHistograms
+ * @see ParetoArchive
+ */
+public class Objectives {
+    public static final int COHESION = 0;
+    public static final int NATIONALITY_SPREAD = 1;
+    public static final int GENDER_BALANCE = 2;
+    public static final int DIET_SPREAD = 3;
+    public static final int COUNT = 4;
+
+    // Names of the objectives, in order of their indices
+    public static final String[] NAMES = {"Cohesion", "Nationality spread", "Gender balance", "Diet spread"};
+
+    /**
+     * Computes the values of all objectives for a solution in a single pass over the participants.
+     *
+     * @param problem The problem holding the participants.
+     * @param solution The solution describing the groups.
+     * @return The value of every objective; lower values are better.
+     */
+    public static long[] evaluate(GroupingProblem problem, Solution solution) {
+        return new GroupHistograms(problem.getParticipantStore(), solution).getObjectives();
+    }
+}
\ No newline at end of file
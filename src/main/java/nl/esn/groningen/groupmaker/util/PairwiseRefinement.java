@@ -0,0 +1,415 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Utility class refining the groups of a solution by swapping participants between pairs of groups, with
+ * all pairs of a round refined in parallel.
+ *
+ * <p>Every round, the groups are divided into disjoint pairs following a round-robin schedule (the
+ * "circle method"): one group stays in place while the others rotate, so after {@code groups - 1} rounds
+ * every group has been paired with every other group once. Because the pairs of a round share no group,
+ * every pair is refined by its own task without any locks: a task only moves the members of its own two
+ * groups. The only state a task reads from other groups is the group of a conflicting participant, which
+ * another task can only change between two groups that are not in its pair, so the outcome of a conflict
+ * check never depends on it. The rounds repeat until a complete schedule no longer improves the groups,
+ * or a maximum number of sweeps is reached.</p>
+ *
+ * <p>A pair is refined with passes of the Kernighan-Lin heuristic. Every participant gets the difference
+ * between its score with the other group and its score with its own group, from which the gain of
+ * swapping two participants follows directly. The swap with the highest gain is made tentatively, even
+ * if the gain is negative, after which both participants stay put for the rest of the pass, and the
+ * differences of the others are updated. At the end of the pass, only the swaps up to the highest total
+ * gain are kept, so a pass can escape a local optimum that single swaps cannot.</p>
+ *
+ * <p>Pairs of participants are scored by a {@link SwapScorer}, which also decides which participants may
+ * be swapped; a swap is only made if the nationalities of both groups exceed their limit no more than
+ * before. Participants with buddies are not swapped, and swaps that would place participants that must
+ * be kept apart in the same group are skipped.</p>
+ *
+ * @see GroupingAlgorithm
+ * @see GroupRepair
+ * @see SwapScorer
+ */
+public class PairwiseRefinement {
+
+    // The largest number of times every pair of groups is refined
+    private static final int MAXIMUM_SWEEPS = 4;
+
+    // The largest number of Kernighan-Lin passes over a single pair of groups
+    private static final int MAXIMUM_PASSES = 4;
+
+    /**
+     * Refines the groups of a solution, as far as the schedule allows.
+     *
+     * @param problem The problem holding the participants and settings.
+     * @param solution The solution in which participants are swapped.
+     * @param units The units of buddies; participants in a unit of several participants are not swapped.
+     * @param conflicts The participants that must be kept apart; swaps that would place them together are skipped.
+     * @param tables The compiled scoring weights.
+     * @param pool The pool in which the pairs of a round are refined in parallel.
+     * @return The total gain of the swaps that were made.
+     */
+    public static long refine(GroupingProblem problem, Solution solution, ParticipantUnits units,
+                              ConflictGraph conflicts, ScoringTables tables, ForkJoinPool pool) {
+        int numberOfGroups = solution.getNumberOfGroups();
+        if (numberOfGroups < 2) return 0;
+
+        SwapScorer scorer = new SwapScorer(problem.getParticipantStore(), problem.getSettings(), tables);
+        int[][] members = solution.getMembers();
+
+        // An odd number of groups gets an empty slot, whose partner sits out the round
+        int slots = numberOfGroups + numberOfGroups % 2;
+        int[] pairs = new int[slots];
+
+        long total = 0;
+        for (int sweep = 0; sweep < MAXIMUM_SWEEPS; sweep++) {
+            long gain = 0;
+            for (int round = 0; round < slots - 1; round++) {
+                schedule(round, slots, pairs);
+                gain += pool.invoke(new RefinementTask(scorer, units, conflicts, solution, members, numberOfGroups,
+                        pairs, 0, slots / 2));
+            }
+            total += gain;
+            if (gain == 0) break;
+        }
+        return total;
+    }
+
+    /**
+     * Computes the pairs of a round of the round-robin schedule. Slot 0 stays in place, and the other
+     * slots rotate by one position every round.
+     *
+     * @param round The index of the round, from 0 to {@code slots - 2}.
+     * @param slots The (even) number of slots.
+     * @param pairs Receives the two slots of pair {@code i} at positions {@code 2i} and {@code 2i + 1}.
+     */
+    private static void schedule(int round, int slots, int[] pairs) {
+        for (int i = 0; i < slots / 2; i++) {
+            pairs[2 * i] = getSlot(i, round, slots);
+            pairs[2 * i + 1] = getSlot(slots - 1 - i, round, slots);
+        }
+    }
+
+    /**
+     * Returns the slot at a position of the circle in a round.
+     *
+     * @param position The position in the circle.
+     * @param round The index of the round.
+     * @param slots The number of slots.
+     * @return The slot at the position.
+     */
+    private static int getSlot(int position, int round, int slots) {
+        return position == 0 ? 0 : 1 + (position - 1 + round) % (slots - 1);
+    }
+
+    /**
+     * This inner class refines a range of the pairs of a round. Large ranges are split in halves, so
+     * the pairs are refined in parallel by the ForkJoinPool.
+     */
+    private static class RefinementTask extends RecursiveTask<Long> {
+        private static final int THRESHOLD = 2;
+
+        private final SwapScorer scorer;
+        private final ParticipantUnits units;
+        private final ConflictGraph conflicts;
+        private final Solution solution;
+        private final int[][] members;
+        private final int numberOfGroups;
+        private final int[] pairs;
+        private final int from;
+        private final int to;
+
+        /**
+         * Constructor for the RefinementTask.
+         *
+         * @param scorer The scorer of pairs of participants.
+         * @param units The units of buddies, which are not swapped.
+         * @param conflicts The participants that must be kept apart.
+         * @param solution The solution in which participants are swapped.
+         * @param members The members of every group; the rows of the refined groups are updated.
+         * @param numberOfGroups The number of groups; a slot with a higher index is empty.
+         * @param pairs The slots of the pairs of the round.
+         * @param from The first pair (inclusive) to refine.
+         * @param to The last pair (exclusive) to refine.
+         */
+        public RefinementTask(SwapScorer scorer, ParticipantUnits units, ConflictGraph conflicts, Solution solution,
+                              int[][] members, int numberOfGroups, int[] pairs, int from, int to) {
+            this.scorer = scorer;
+            this.units = units;
+            this.conflicts = conflicts;
+            this.solution = solution;
+            this.members = members;
+            this.numberOfGroups = numberOfGroups;
+            this.pairs = pairs;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Refines the pairs in the range, and sums their gains.
+         *
+         * @return The total gain of the swaps that were made.
+         */
+        @Override
+        protected Long compute() {
+            // Split large ranges and refine both halves in parallel
+            if (to - from > THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                RefinementTask left = new RefinementTask(scorer, units, conflicts, solution, members, numberOfGroups, pairs, from, middle);
+                RefinementTask right = new RefinementTask(scorer, units, conflicts, solution, members, numberOfGroups, pairs, middle, to);
+                left.fork();
+                long rightGain = right.compute();
+                return left.join() + rightGain;
+            }
+
+            long gain = 0;
+            for (int pair = from; pair < to; pair++) {
+                int group1 = pairs[2 * pair];
+                int group2 = pairs[2 * pair + 1];
+                if (group1 < numberOfGroups && group2 < numberOfGroups) {
+                    gain += new PairRefinement(scorer, units, conflicts, solution, members, group1, group2).refine();
+                }
+            }
+            return gain;
+        }
+    }
+
+    /**
+     * This inner class refines a single pair of groups with passes of the Kernighan-Lin heuristic. The
+     * participants of both groups are numbered locally: the members of the first group come first.
+     */
+    private static class PairRefinement {
+        private final SwapScorer scorer;
+        private final ParticipantUnits units;
+        private final ConflictGraph conflicts;
+        private final Solution solution;
+        private final int[][] members;
+        private final int[] groups;
+        private final int[] participants;
+        private final long[] scores;
+        private final int[] side;
+        private final int[] position;
+        private final long[] difference;
+        private final boolean[] fixed;
+        private final int[] nationalityCounts;
+        private final int[] nationalities;
+        private final int n;
+
+        /**
+         * Constructor for the PairRefinement, which scores every pair of participants of both groups.
+         *
+         * @param scorer The scorer of pairs of participants.
+         * @param units The units of buddies, which are not swapped.
+         * @param conflicts The participants that must be kept apart.
+         * @param solution The solution in which participants are swapped.
+         * @param members The members of every group; the rows of both groups are updated.
+         * @param group1 The index of the first group.
+         * @param group2 The index of the second group.
+         */
+        public PairRefinement(SwapScorer scorer, ParticipantUnits units, ConflictGraph conflicts, Solution solution,
+                              int[][] members, int group1, int group2) {
+            this.scorer = scorer;
+            this.units = units;
+            this.conflicts = conflicts;
+            this.solution = solution;
+            this.members = members;
+            this.groups = new int[]{group1, group2};
+            this.n = members[group1].length + members[group2].length;
+            this.participants = new int[n];
+            this.side = new int[n];
+            this.position = new int[n];
+            for (int i = 0; i < n; i++) {
+                side[i] = i < members[group1].length ? 0 : 1;
+                position[i] = side[i] == 0 ? i : i - members[group1].length;
+                participants[i] = members[groups[side[i]]][position[i]];
+            }
+
+            this.scores = new long[n * n];
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    scores[i * n + j] = scores[j * n + i] = scorer.calculateScore(participants[i], participants[j]);
+                }
+            }
+
+            // Count the nationalities of both groups, numbered locally
+            this.nationalities = new int[n];
+            int[] ids = new int[n];
+            int distinct = 0;
+            for (int i = 0; i < n; i++) {
+                int nationality = scorer.getStore().getNationality(participants[i]);
+                int local = -1;
+                if (nationality != ParticipantStore.UNKNOWN_NATIONALITY) {
+                    for (int k = 0; k < distinct && local < 0; k++) {
+                        if (ids[k] == nationality) local = k;
+                    }
+                    if (local < 0) {
+                        ids[distinct] = nationality;
+                        local = distinct++;
+                    }
+                }
+                nationalities[i] = local;
+            }
+            this.nationalityCounts = new int[2 * Math.max(distinct, 1)];
+            for (int i = 0; i < n; i++) {
+                if (nationalities[i] >= 0) nationalityCounts[2 * nationalities[i] + side[i]]++;
+            }
+
+            this.difference = new long[n];
+            this.fixed = new boolean[n];
+        }
+
+        /**
+         * Refines the pair with passes of the Kernighan-Lin heuristic, until a pass finds no improvement.
+         *
+         * @return The total gain of the swaps that were kept.
+         */
+        public long refine() {
+            long total = 0;
+            for (int pass = 0; pass < MAXIMUM_PASSES; pass++) {
+                long gain = runPass();
+                if (gain <= 0) break;
+                total += gain;
+            }
+            return total;
+        }
+
+        /**
+         * Runs a single pass: makes the best swap between unfixed participants until none is allowed,
+         * and keeps the swaps up to the highest total gain.
+         *
+         * @return The gain of the swaps that were kept; 0 if all swaps were undone.
+         */
+        private long runPass() {
+            for (int i = 0; i < n; i++) {
+                fixed[i] = units.isLocked(participants[i]);
+                difference[i] = 0;
+                for (int j = 0; j < n; j++) {
+                    if (j != i) difference[i] += side[j] != side[i] ? scores[i * n + j] : -scores[i * n + j];
+                }
+            }
+
+            int[] swapped = new int[n];
+            int steps = 0;
+            long gain = 0;
+            long bestGain = 0;
+            int bestSteps = 0;
+            while (true) {
+                int best1 = -1;
+                int best2 = -1;
+                long bestSwap = Long.MIN_VALUE;
+                for (int i = 0; i < n; i++) {
+                    if (fixed[i] || side[i] != 0) continue;
+                    for (int j = 0; j < n; j++) {
+                        if (fixed[j] || side[j] != 1) continue;
+                        long swap = difference[i] + difference[j] - 2 * scores[i * n + j];
+                        if (swap > bestSwap && isAllowed(i, j)) {
+                            bestSwap = swap;
+                            best1 = i;
+                            best2 = j;
+                        }
+                    }
+                }
+                if (best1 < 0) break;
+
+                swap(best1, best2);
+                fixed[best1] = fixed[best2] = true;
+                swapped[steps++] = best1;
+                swapped[steps++] = best2;
+                gain += bestSwap;
+                if (gain > bestGain) {
+                    bestGain = gain;
+                    bestSteps = steps;
+                }
+
+                // Participant best1 now sits in the second group, and participant best2 in the first
+                for (int k = 0; k < n; k++) {
+                    if (fixed[k]) continue;
+                    long change = 2 * (scores[k * n + best1] - scores[k * n + best2]);
+                    difference[k] += side[k] == 1 ? -change : change;
+                }
+            }
+
+            // Undo the swaps after the highest total gain, last first
+            while (steps > bestSteps) {
+                int j = swapped[--steps];
+                int i = swapped[--steps];
+                swap(i, j);
+            }
+            return bestGain;
+        }
+
+        /**
+         * Checks whether two participants of different groups may be swapped: they share the swap
+         * profile, neither group exceeds its nationality limit by more than before, and neither
+         * participant would join a participant it must be kept apart from.
+         *
+         * @param i The local index of the participant in the first group.
+         * @param j The local index of the participant in the second group.
+         * @return {@code true} if the swap is allowed.
+         */
+        private boolean isAllowed(int i, int j) {
+            int p1 = participants[i];
+            int p2 = participants[j];
+            if (!scorer.isSwappable(p1, p2)) return false;
+            if (nationalities[i] != nationalities[j] && getExcessChange(i, j) > 0) return false;
+            return !conflicts.hasConflict(p1, groups[side[j]], p2, solution)
+                    && !conflicts.hasConflict(p2, groups[side[i]], p1, solution);
+        }
+
+        /**
+         * Calculates by how much swapping two participants of different nationalities changes the
+         * number of participants by which both groups exceed the nationality limit.
+         *
+         * @param i The local index of the participant in the first group.
+         * @param j The local index of the participant in the second group.
+         * @return The change of the excess; positive if the groups exceed the limit more.
+         */
+        private int getExcessChange(int i, int j) {
+            int change = 0;
+            if (nationalities[i] >= 0) {
+                int leaving = nationalityCounts[2 * nationalities[i] + side[i]];
+                int joining = nationalityCounts[2 * nationalities[i] + side[j]];
+                change += scorer.calculateExcessChange(leaving, joining);
+            }
+            if (nationalities[j] >= 0) {
+                int leaving = nationalityCounts[2 * nationalities[j] + side[j]];
+                int joining = nationalityCounts[2 * nationalities[j] + side[i]];
+                change += scorer.calculateExcessChange(leaving, joining);
+            }
+            return change;
+        }
+
+        /**
+         * Swaps two participants of different groups, in the solution, the member lists and the local counts.
+         *
+         * @param i The local index of the first participant.
+         * @param j The local index of the second participant.
+         */
+        private void swap(int i, int j) {
+            int side1 = side[i];
+            int side2 = side[j];
+            members[groups[side1]][position[i]] = participants[j];
+            members[groups[side2]][position[j]] = participants[i];
+            solution.assign(participants[i], groups[side2]);
+            solution.assign(participants[j], groups[side1]);
+            if (nationalities[i] >= 0) {
+                nationalityCounts[2 * nationalities[i] + side1]--;
+                nationalityCounts[2 * nationalities[i] + side2]++;
+            }
+            if (nationalities[j] >= 0) {
+                nationalityCounts[2 * nationalities[j] + side2]--;
+                nationalityCounts[2 * nationalities[j] + side1]++;
+            }
+
+            int swappedPosition = position[i];
+            position[i] = position[j];
+            position[j] = swappedPosition;
+            side[i] = side2;
+            side[j] = side1;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,453 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.Solution;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class holding the solutions that are not dominated by any other solution found so far
+ * (the Pareto front), for objectives that are all minimized.
+ *
+ * <p>The archive is stored as an ND-tree: every node knows the best (ideal) and worst (nadir) value
+ * of every objective over the solutions below it. A new solution that is dominated by the nadir of a
+ * node is dominated by all solutions of that node, and a new solution that dominates the ideal of a
+ * node dominates all of them, so whole subtrees are accepted or removed at once. Subtrees whose region
+ * cannot be compared with the new solution are skipped. Leaves that grow too large are split into
+ * children around solutions far apart, so an insertion typically visits only a small part of the
+ * archive.</p>
+ *
+ * <p>All methods are synchronized, so parallel searches can share a single archive.</p>
+ *
+ * @see Objectives
+ */
+public class ParetoArchive {
+    private static final int MAXIMUM_LEAF_SIZE = 20;
+    private static final int NUMBER_OF_CHILDREN = Objectives.COUNT + 1;
+
+    private Node root;
+    private int size;
+
+    /**
+     * Checks whether a solution with the given objective values would be added to the archive,
+     * without adding it. This avoids copying solutions that would be rejected anyway.
+     *
+     * @param objectives The objective values.
+     * @return {@code true} if no archived solution is at least as good in every objective.
+     */
+    public synchronized boolean isAccepted(long[] objectives) {
+        return root == null || !isCovered(root, objectives);
+    }
+
+    /**
+     * Adds a solution to the archive, unless an archived solution is at least as good in every
+     * objective. Archived solutions dominated by the new solution are removed.
+     *
+     * @param objectives The objective values of the solution.
+     * @param solution The solution; it is stored as is, so it should not be changed afterwards.
+     * @return {@code true} if the solution was added.
+     */
+    public synchronized boolean add(long[] objectives, Solution solution) {
+        if (root != null && !update(root, objectives)) return false;
+
+        Entry entry = new Entry(objectives, solution);
+        if (root == null || root.isEmpty()) {
+            root = new Node(entry);
+        } else {
+            insert(root, entry);
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Returns the number of solutions in the archive.
+     *
+     * @return The size of the Pareto front.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns all solutions in the archive.
+     *
+     * @return A new list holding the entries of the Pareto front.
+     */
+    public synchronized List<Entry> getEntries() {
+        List<Entry> entries = new ArrayList<>(size);
+        if (root != null) collect(root, entries);
+        return entries;
+    }
+
+    /**
+     * Checks whether a node holds a solution that is at least as good as the given values in every
+     * objective.
+     *
+     * @param node The node to search.
+     * @param objectives The objective values.
+     * @return {@code true} if the values are weakly dominated by a solution in the node.
+     */
+    private static boolean isCovered(Node node, long[] objectives) {
+        if (weaklyDominates(node.nadir, objectives)) return true;
+        if (!weaklyDominates(node.ideal, objectives)) return false;
+
+        if (node.entries != null) {
+            for (Entry entry : node.entries) {
+                if (weaklyDominates(entry.objectives, objectives)) return true;
+            }
+        } else {
+            for (Node child : node.children) {
+                if (isCovered(child, objectives)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the solutions of a node that are dominated by the given values, unless the values are
+     * themselves weakly dominated by a solution of the node.
+     *
+     * @param node The node to update.
+     * @param objectives The objective values of the new solution.
+     * @return {@code false} if the new solution is weakly dominated and must be rejected.
+     */
+    private boolean update(Node node, long[] objectives) {
+        if (weaklyDominates(node.nadir, objectives)) return false;
+
+        // The new solution dominates every solution of the node
+        if (dominates(objectives, node.ideal)) {
+            size -= count(node);
+            node.clear();
+            return true;
+        }
+
+        // Skip nodes whose region cannot be compared with the new solution
+        if (!weaklyDominates(node.ideal, objectives) && !weaklyDominates(objectives, node.nadir)) return true;
+
+        if (node.entries != null) {
+            for (Entry entry : node.entries) {
+                if (weaklyDominates(entry.objectives, objectives)) return false;
+            }
+            int before = node.entries.size();
+            node.entries.removeIf(entry -> dominates(objectives, entry.objectives));
+            size -= before - node.entries.size();
+        } else {
+            for (Node child : node.children) {
+                if (!update(child, objectives)) return false;
+            }
+            node.children.removeIf(Node::isEmpty);
+        }
+        node.recalculateBounds();
+        return true;
+    }
+
+    /**
+     * Inserts a solution below a node, descending to the child whose region is closest.
+     *
+     * @param node The node to insert the solution in.
+     * @param entry The solution and its objective values.
+     */
+    private static void insert(Node node, Entry entry) {
+        node.extendBounds(entry.objectives);
+
+        if (node.entries != null) {
+            node.entries.add(entry);
+            if (node.entries.size() > MAXIMUM_LEAF_SIZE) split(node);
+            return;
+        }
+
+        Node closest = null;
+        double closestDistance = Double.POSITIVE_INFINITY;
+        for (Node child : node.children) {
+            double distance = child.distanceToMiddle(entry.objectives);
+            if (distance < closestDistance) {
+                closestDistance = distance;
+                closest = child;
+            }
+        }
+        insert(closest, entry);
+    }
+
+    /**
+     * Splits a leaf into children. The first child starts with the solution that is furthest from
+     * the others on average, every next child with the solution furthest from the children so far,
+     * and every remaining solution joins the child it is closest to.
+     *
+     * @param leaf The leaf to split.
+     */
+    private static void split(Node leaf) {
+        List<Entry> entries = leaf.entries;
+        int n = entries.size();
+
+        int first = 0;
+        double furthest = -1;
+        for (int i = 0; i < n; i++) {
+            double total = 0;
+            for (int j = 0; j < n; j++) {
+                total += distance(entries.get(i).objectives, entries.get(j).objectives);
+            }
+            if (total > furthest) {
+                furthest = total;
+                first = i;
+            }
+        }
+
+        // Distance of every solution to its closest seed
+        double[] closest = new double[n];
+        List<Node> children = new ArrayList<>(NUMBER_OF_CHILDREN);
+        List<Entry> seeds = new ArrayList<>(NUMBER_OF_CHILDREN);
+        int seed = first;
+        while (seed >= 0) {
+            seeds.add(entries.get(seed));
+            children.add(new Node(entries.get(seed)));
+
+            int next = -1;
+            double nextDistance = 0;
+            for (int i = 0; i < n; i++) {
+                double distance = distance(entries.get(i).objectives, entries.get(seed).objectives);
+                closest[i] = seeds.size() == 1 ? distance : Math.min(closest[i], distance);
+                if (children.size() < NUMBER_OF_CHILDREN && closest[i] > nextDistance) {
+                    nextDistance = closest[i];
+                    next = i;
+                }
+            }
+            seed = next;
+        }
+
+        for (Entry entry : entries) {
+            if (seeds.contains(entry)) continue;
+
+            int best = 0;
+            for (int k = 1; k < seeds.size(); k++) {
+                if (distance(entry.objectives, seeds.get(k).objectives)
+                        < distance(entry.objectives, seeds.get(best).objectives)) {
+                    best = k;
+                }
+            }
+            children.get(best).entries.add(entry);
+            children.get(best).extendBounds(entry.objectives);
+        }
+
+        leaf.entries = null;
+        leaf.children = children;
+    }
+
+    /**
+     * Counts the solutions below a node.
+     *
+     * @param node The node.
+     * @return The number of solutions.
+     */
+    private static int count(Node node) {
+        if (node.entries != null) return node.entries.size();
+
+        int count = 0;
+        for (Node child : node.children) {
+            count += count(child);
+        }
+        return count;
+    }
+
+    /**
+     * Adds the solutions below a node to a list.
+     *
+     * @param node The node.
+     * @param entries The list receiving the solutions.
+     */
+    private static void collect(Node node, List<Entry> entries) {
+        if (node.entries != null) {
+            entries.addAll(node.entries);
+        } else {
+            for (Node child : node.children) {
+                collect(child, entries);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the first values are at most the second values in every objective.
+     *
+     * @param a The first objective values.
+     * @param b The second objective values.
+     * @return {@code true} if {@code a} weakly dominates {@code b}.
+     */
+    private static boolean weaklyDominates(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] > b[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the first values are at most the second values in every objective, and lower
+     * in at least one.
+     *
+     * @param a The first objective values.
+     * @param b The second objective values.
+     * @return {@code true} if {@code a} dominates {@code b}.
+     */
+    private static boolean dominates(long[] a, long[] b) {
+        boolean better = false;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] > b[i]) return false;
+            if (a[i] < b[i]) better = true;
+        }
+        return better;
+    }
+
+    /**
+     * Computes the squared Euclidean distance between two vectors of objective values.
+     *
+     * @param a The first objective values.
+     * @param b The second objective values.
+     * @return The squared distance.
+     */
+    private static double distance(long[] a, long[] b) {
+        double distance = 0;
+        for (int i = 0; i < a.length; i++) {
+            double difference = a[i] - b[i];
+            distance += difference * difference;
+        }
+        return distance;
+    }
+
+    /**
+     * This inner class holds an archived solution together with its objective values.
+     */
+    public static class Entry {
+        private final long[] objectives;
+        private final Solution solution;
+
+        /**
+         * Constructor for the Entry.
+         *
+         * @param objectives The objective values of the solution.
+         * @param solution The solution.
+         */
+        public Entry(long[] objectives, Solution solution) {
+            this.objectives = objectives;
+            this.solution = solution;
+        }
+
+        /**
+         * Returns the value of an objective.
+         *
+         * @param objective The objective index, e.g. {@link Objectives#COHESION}.
+         * @return The value of the objective.
+         */
+        public long getObjective(int objective) {
+            return objectives[objective];
+        }
+
+        /**
+         * Returns the archived solution.
+         *
+         * @return The solution.
+         */
+        public Solution getSolution() {
+            return solution;
+        }
+    }
+
+    /**
+     * This inner class is a node of the ND-tree: a leaf holding solutions, or an internal node holding
+     * children, together with the ideal and nadir values of everything below it.
+     */
+    private static class Node {
+        private List<Entry> entries;
+        private List<Node> children;
+        private long[] ideal;
+        private long[] nadir;
+
+        /**
+         * Constructor for a leaf holding a single solution.
+         *
+         * @param entry The solution and its objective values.
+         */
+        public Node(Entry entry) {
+            this.entries = new ArrayList<>();
+            this.entries.add(entry);
+            this.ideal = entry.objectives.clone();
+            this.nadir = entry.objectives.clone();
+        }
+
+        /**
+         * Checks whether the node holds no solutions.
+         *
+         * @return {@code true} if the node is empty.
+         */
+        public boolean isEmpty() {
+            return entries != null ? entries.isEmpty() : children.isEmpty();
+        }
+
+        /**
+         * Removes all solutions below the node, leaving an empty leaf.
+         */
+        public void clear() {
+            entries = new ArrayList<>();
+            children = null;
+        }
+
+        /**
+         * Widens the ideal and nadir values to include a solution.
+         *
+         * @param objectives The objective values of the solution.
+         */
+        public void extendBounds(long[] objectives) {
+            for (int i = 0; i < objectives.length; i++) {
+                ideal[i] = Math.min(ideal[i], objectives[i]);
+                nadir[i] = Math.max(nadir[i], objectives[i]);
+            }
+        }
+
+        /**
+         * Recomputes the ideal and nadir values from the solutions or children, after some were removed.
+         */
+        public void recalculateBounds() {
+            if (isEmpty()) return;
+
+            boolean first = true;
+            if (entries != null) {
+                for (Entry entry : entries) {
+                    first = include(entry.objectives, entry.objectives, first);
+                }
+            } else {
+                for (Node child : children) {
+                    first = include(child.ideal, child.nadir, first);
+                }
+            }
+        }
+
+        /**
+         * Includes a region in the ideal and nadir values while recomputing them.
+         *
+         * @param lower The lowest values of the region.
+         * @param upper The highest values of the region.
+         * @param first Whether this is the first region, which replaces the current values.
+         * @return {@code false}, so the caller can pass it as {@code first} for the next region.
+         */
+        private boolean include(long[] lower, long[] upper, boolean first) {
+            for (int i = 0; i < lower.length; i++) {
+                ideal[i] = first ? lower[i] : Math.min(ideal[i], lower[i]);
+                nadir[i] = first ? upper[i] : Math.max(nadir[i], upper[i]);
+            }
+            return false;
+        }
+
+        /**
+         * Computes the squared distance between a solution and the middle of the region of the node.
+         *
+         * @param objectives The objective values of the solution.
+         * @return The squared distance.
+         */
+        public double distanceToMiddle(long[] objectives) {
+            double distance = 0;
+            for (int i = 0; i < objectives.length; i++) {
+                double difference = objectives[i] - (ideal[i] + nadir[i]) / 2.0;
+                distance += difference * difference;
+            }
+            return distance;
+        }
+    }
+}
\ No newline at end of file
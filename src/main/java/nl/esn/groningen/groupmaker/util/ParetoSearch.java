@@ -0,0 +1,353 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Utility class searching for a set of alternative solutions that trade the {@link Objectives} off
+ * against each other, so organisers can pick the trade-off they prefer.
+ *
+ * <p>Several candidates are explored in parallel. Every candidate starts from a solution of the
+ * {@link GroupingAlgorithm}, and then swaps random pairs of participants between groups, keeping a
+ * swap if it does not worsen a weighted sum of the objectives. The weights are drawn at random for
+ * every candidate, so the candidates improve the solution in different directions. Every improved
+ * solution that is not dominated is offered to a shared {@link ParetoArchive}.</p>
+ *
+ * <p>If the island model is enabled in the settings, every candidate becomes an island that evolves a
+ * small population of its own, towards its own weights. Every few generations, the best assignment of an
+ * island migrates to the next island over a lock-free queue, where it replaces the worst candidate if it
+ * is better on the weights of that island. The islands keep their own direction, so the front stays
+ * diverse, while good groups found by one island spread to the others; since sending and receiving never
+ * blocks, the islands run at their own pace, without waiting for each other after every generation.</p>
+ *
+ * <p>Only participants with the same alcohol preference, guide request and Group Leader preference
+ * are swapped, so the groups stay alcohol-free or not and keep their guide requesters and potential
+ * Group Leaders. Participants with buddies are not swapped, and swaps that would place participants
+ * that must be kept apart in the same group are skipped.</p>
+ *
+ * @see ParetoArchive
+ * @see GroupHistograms
+ */
+public class ParetoSearch {
+    private static final int MINIMUM_CANDIDATES = 8;
+    private static final int ITERATIONS_PER_PARTICIPANT = 50;
+
+    // The island model: the candidates of every island, its generations, and the generations between migrations
+    private static final int ISLAND_POPULATION = 4;
+    private static final int GENERATIONS = 40;
+    private static final int MIGRATION_INTERVAL = 5;
+
+    // Attributes that must be shared by two participants that are swapped
+    private static final long SWAP_PROFILE = ParticipantEncoding.ALCOHOL_FREE_MASK
+            | ParticipantEncoding.REQUESTS_GUIDE_MASK | ParticipantEncoding.CAN_GUIDE_MASK;
+
+    /**
+     * Explores candidate solutions in parallel and returns the Pareto front found.
+     *
+     * <p>The guide clusters and themes of the returned solutions are not final; call
+     * {@link GroupingAlgorithm#assignGuideClustersAndThemes(GroupingProblem, Solution)} on the
+     * solution that is picked.</p>
+     *
+     * @param problem The problem to solve.
+     * @return The non-dominated solutions, ordered from the most to the least cohesive.
+     */
+    public static List<ParetoArchive.Entry> explore(GroupingProblem problem) {
+        int candidates = Math.max(MINIMUM_CANDIDATES, Runtime.getRuntime().availableProcessors());
+        ParetoArchive archive = new ParetoArchive();
+
+        // Explore the candidates in the same pool that the construction of each candidate uses
+        ForkJoinPool pool = new ForkJoinPool();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(candidates);
+        if (problem.getSettings().isIslandModel()) {
+            // Every island sends its migrants to the next, in a ring
+            List<Queue<int[]>> queues = new ArrayList<>(candidates);
+            for (int island = 0; island < candidates; island++) {
+                queues.add(new ConcurrentLinkedQueue<>());
+            }
+            for (int island = 0; island < candidates; island++) {
+                Queue<int[]> inbox = queues.get(island);
+                Queue<int[]> outbox = queues.get((island + 1) % candidates);
+                tasks.add(pool.submit(() -> evolve(problem, pool, archive, inbox, outbox)));
+            }
+        } else {
+            for (int candidate = 0; candidate < candidates; candidate++) {
+                tasks.add(pool.submit(() -> search(problem, pool, archive)));
+            }
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        pool.shutdown();
+
+        List<ParetoArchive.Entry> front = archive.getEntries();
+        front.sort(Comparator.comparingLong(entry -> entry.getObjective(Objectives.COHESION)));
+        return front;
+    }
+
+    /**
+     * Constructs a single candidate and improves it with random swaps towards randomly weighted
+     * objectives, offering every improvement to the archive.
+     *
+     * @param problem The problem to solve.
+     * @param pool The pool used to construct the candidate.
+     * @param archive The archive shared by all candidates.
+     */
+    private static void search(GroupingProblem problem, ForkJoinPool pool, ParetoArchive archive) {
+        ParticipantStore store = problem.getParticipantStore();
+        Solution solution = GroupingAlgorithm.solve(problem, pool);
+        long[] objectives = new GroupHistograms(store, solution).getObjectives();
+        archive.add(objectives, solution.copy());
+        if (solution.getNumberOfGroups() < 2) return;
+
+        Neighbourhood neighbourhood = new Neighbourhood(problem, archive, drawWeights(objectives));
+        Candidate candidate = new Candidate(neighbourhood, solution);
+        candidate.improve(ITERATIONS_PER_PARTICIPANT * store.size());
+    }
+
+    /**
+     * Evolves a single island: a small population of candidates that is improved with random swaps
+     * towards the randomly weighted objectives of the island, offering every improvement to the archive.
+     *
+     * <p>After every generation, the worst candidate of the island is replaced by a copy of the best.
+     * Every few generations, the island sends a copy of the assignment of its best candidate to the next
+     * island, and takes in the assignments other islands sent it; an assignment that beats the worst
+     * candidate of the island on its own weights replaces it. The queues never block, so the islands
+     * never wait for each other.</p>
+     *
+     * @param problem The problem to solve.
+     * @param pool The pool used to construct the first candidate.
+     * @param archive The archive shared by all islands.
+     * @param inbox The queue of the assignments other islands sent to this island.
+     * @param outbox The queue of the next island.
+     */
+    private static void evolve(GroupingProblem problem, ForkJoinPool pool, ParetoArchive archive,
+                               Queue<int[]> inbox, Queue<int[]> outbox) {
+        ParticipantStore store = problem.getParticipantStore();
+        Solution solution = GroupingAlgorithm.solve(problem, pool);
+        long[] objectives = new GroupHistograms(store, solution).getObjectives();
+        archive.add(objectives, solution.copy());
+        if (solution.getNumberOfGroups() < 2) return;
+
+        // The population starts as copies of a single solution, which drift apart through different swaps
+        Neighbourhood neighbourhood = new Neighbourhood(problem, archive, drawWeights(objectives));
+        Candidate[] population = new Candidate[ISLAND_POPULATION];
+        for (int i = 0; i < ISLAND_POPULATION; i++) {
+            population[i] = new Candidate(neighbourhood, solution.copy());
+        }
+
+        // Every island spends as many swaps as a single candidate would
+        int iterations = Math.max(1, ITERATIONS_PER_PARTICIPANT * store.size() / (GENERATIONS * ISLAND_POPULATION));
+        for (int generation = 1; generation <= GENERATIONS; generation++) {
+            for (Candidate candidate : population) {
+                candidate.improve(iterations);
+            }
+            int best = findBest(population);
+            int worst = findWorst(population);
+            if (best != worst) {
+                population[worst] = new Candidate(neighbourhood, population[best].solution.copy());
+            }
+
+            if (generation % MIGRATION_INTERVAL == 0) {
+                outbox.offer(population[best].getAssignment());
+                for (int[] assignment = inbox.poll(); assignment != null; assignment = inbox.poll()) {
+                    Candidate immigrant = new Candidate(neighbourhood, toSolution(assignment, solution.getNumberOfGroups()));
+                    worst = findWorst(population);
+                    if (immigrant.score < population[worst].score) {
+                        population[worst] = immigrant;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws random weights for the objectives, scaled by their initial values so every objective counts.
+     *
+     * @param objectives The initial values of the objectives.
+     * @return The weight of every objective.
+     */
+    private static double[] drawWeights(long[] objectives) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double[] weights = new double[Objectives.COUNT];
+        for (int i = 0; i < Objectives.COUNT; i++) {
+            weights[i] = random.nextDouble() / Math.max(1, objectives[i]);
+        }
+        return weights;
+    }
+
+    /**
+     * Returns the position of the candidate with the lowest weighted sum.
+     *
+     * @param population The candidates.
+     * @return The position of the best candidate.
+     */
+    private static int findBest(Candidate[] population) {
+        int best = 0;
+        for (int i = 1; i < population.length; i++) {
+            if (population[i].score < population[best].score) best = i;
+        }
+        return best;
+    }
+
+    /**
+     * Returns the position of the candidate with the highest weighted sum.
+     *
+     * @param population The candidates.
+     * @return The position of the worst candidate.
+     */
+    private static int findWorst(Candidate[] population) {
+        int worst = 0;
+        for (int i = 1; i < population.length; i++) {
+            if (population[i].score > population[worst].score) worst = i;
+        }
+        return worst;
+    }
+
+    /**
+     * Builds the solution of an assignment that migrated from another island.
+     *
+     * @param assignment The group of every participant.
+     * @param numberOfGroups The number of groups.
+     * @return The solution.
+     */
+    private static Solution toSolution(int[] assignment, int numberOfGroups) {
+        Solution solution = new Solution(assignment.length, numberOfGroups);
+        for (int participant = 0; participant < assignment.length; participant++) {
+            if (assignment[participant] != Solution.UNASSIGNED) solution.assign(participant, assignment[participant]);
+        }
+        return solution;
+    }
+
+    /**
+     * Computes the weighted sum of the objectives.
+     *
+     * @param histograms The histograms holding the current objective values.
+     * @param weights The weight of every objective.
+     * @return The weighted sum.
+     */
+    private static double calculateWeightedSum(GroupHistograms histograms, double[] weights) {
+        double sum = 0;
+        for (int i = 0; i < Objectives.COUNT; i++) {
+            sum += weights[i] * histograms.getObjective(i);
+        }
+        return sum;
+    }
+
+    /**
+     * This inner class holds what the candidates of a search or island share: the problem, the units and
+     * conflicts that restrict the swaps, the archive, and the weights of the objectives.
+     */
+    private static class Neighbourhood {
+        private final ParticipantStore store;
+        private final ParticipantUnits units;
+        private final ConflictGraph conflicts;
+        private final ParetoArchive archive;
+        private final double[] weights;
+
+        /**
+         * Constructor for the Neighbourhood, which rebuilds the units and conflicts used during construction.
+         *
+         * @param problem The problem to solve.
+         * @param archive The archive that improvements are offered to.
+         * @param weights The weight of every objective.
+         */
+        public Neighbourhood(GroupingProblem problem, ParetoArchive archive, double[] weights) {
+            this.store = problem.getParticipantStore();
+            int[] groupSizes = GroupingAlgorithm.calculateGroupSizes(store.size(), problem.getSettings().getGroupSize());
+            this.conflicts = new ConflictGraph(store.size(), problem.getConflictPairs());
+            this.units = new ParticipantUnits(store.size(), problem.getBuddyPairs(), groupSizes[0], conflicts);
+            this.archive = archive;
+            this.weights = weights;
+        }
+    }
+
+    /**
+     * This inner class holds a candidate solution together with its histograms and weighted sum, and
+     * improves it with random swaps.
+     */
+    private static class Candidate {
+        private final Neighbourhood neighbourhood;
+        private final Solution solution;
+        private final GroupHistograms histograms;
+        private double score;
+
+        /**
+         * Constructor for the Candidate.
+         *
+         * @param neighbourhood The restrictions, archive and weights of the search.
+         * @param solution The solution of the candidate; changed by {@link #improve(int)}.
+         */
+        public Candidate(Neighbourhood neighbourhood, Solution solution) {
+            this.neighbourhood = neighbourhood;
+            this.solution = solution;
+            this.histograms = new GroupHistograms(neighbourhood.store, solution);
+            this.score = calculateWeightedSum(histograms, neighbourhood.weights);
+        }
+
+        /**
+         * Swaps random pairs of participants between groups, keeping every swap that does not make the
+         * weighted sum worse, and offers every improvement to the archive.
+         *
+         * @param iterations The number of swaps to try.
+         */
+        public void improve(int iterations) {
+            ParticipantStore store = neighbourhood.store;
+            ParticipantUnits units = neighbourhood.units;
+            ConflictGraph conflicts = neighbourhood.conflicts;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                int p1 = random.nextInt(store.size());
+                int p2 = random.nextInt(store.size());
+                int group1 = solution.getGroup(p1);
+                int group2 = solution.getGroup(p2);
+                if (group1 == group2 || units.isLocked(p1) || units.isLocked(p2)
+                        || !ParticipantEncoding.matches(store.getCode(p1), store.getCode(p2), SWAP_PROFILE)
+                        || conflicts.hasConflict(p1, group2, p2, solution)
+                        || conflicts.hasConflict(p2, group1, p1, solution)) continue;
+
+                histograms.move(p1, group1, group2);
+                histograms.move(p2, group2, group1);
+                double newScore = calculateWeightedSum(histograms, neighbourhood.weights);
+
+                // Undo swaps that make the candidate worse
+                if (newScore > score) {
+                    histograms.move(p1, group2, group1);
+                    histograms.move(p2, group1, group2);
+                    continue;
+                }
+
+                solution.assign(p1, group2);
+                solution.assign(p2, group1);
+                if (newScore < score) {
+                    long[] values = histograms.getObjectives();
+                    if (neighbourhood.archive.isAccepted(values)) {
+                        neighbourhood.archive.add(values, solution.copy());
+                    }
+                }
+                score = newScore;
+            }
+        }
+
+        /**
+         * Returns a copy of the group of every participant, to migrate to another island.
+         *
+         * @return The assignment of the candidate.
+         */
+        public int[] getAssignment() {
+            int[] assignment = new int[solution.getNumberOfParticipants()];
+            for (int participant = 0; participant < assignment.length; participant++) {
+                assignment[participant] = solution.getGroup(participant);
+            }
+            return assignment;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,186 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.GroupingProblem;
+import nl.esn.groningen.groupmaker.model.Solution;
+
+/**
+ * Utility class dividing the participants into units that must be placed in the same group.
+ *
+ * <p>Participants that asked to be placed together (buddies) are merged into a single unit with a
+ * {@link UnionFind} structure, so chains of requests (A with B, B with C) end up in one unit. All
+ * other participants form a unit of their own. The units are stored in a compact layout: the members
+ * of unit {@code u} are found at {@code members[start[u]]} up to {@code members[start[u + 1]]}.</p>
+ *
+ * <p>Units never grow beyond the given maximum size (the size of the smallest group), and never hold
+ * two participants that must be kept apart (see {@link ConflictGraph}); requests that would make a unit
+ * larger or place conflicting participants together are not honoured. The members of every set of the
+ * union-find structure are linked in a ring while the units are formed, so checking a request for
+ * conflicts takes time proportional to the conflicts of the members of one of its sets.</p>
+ *
+ * @see UnionFind
+ */
+public class ParticipantUnits {
+    private final int[] start;
+    private final int[] members;
+    private final int[] unitOf;
+
+    /**
+     * Constructs the {@code ParticipantUnits} for a number of participants and buddy pairs.
+     *
+     * @param numberOfParticipants The number of participants.
+     * @param buddyPairs The buddy pairs as consecutive participant indices, or {@code null} if there are none.
+     * @param maximumSize The maximum number of participants in a unit.
+     * @param conflicts The participants that must be kept apart.
+     */
+    public ParticipantUnits(int numberOfParticipants, int[] buddyPairs, int maximumSize, ConflictGraph conflicts) {
+        UnionFind unionFind = new UnionFind(numberOfParticipants);
+        int[] ring = new int[numberOfParticipants];
+        for (int p = 0; p < numberOfParticipants; p++) {
+            ring[p] = p;
+        }
+        if (buddyPairs != null) {
+            for (int i = 0; i + 1 < buddyPairs.length; i += 2) {
+                int p1 = buddyPairs[i];
+                int p2 = buddyPairs[i + 1];
+                if (unionFind.find(p1) == unionFind.find(p2) || hasConflict(p1, p2, unionFind, conflicts, ring)) continue;
+                if (unionFind.union(p1, p2, maximumSize)) {
+                    // Splice both rings into one
+                    int next = ring[p1];
+                    ring[p1] = ring[p2];
+                    ring[p2] = next;
+                }
+            }
+        }
+
+        // Number the units in order of their first member, and count their sizes
+        int[] unitOfRoot = new int[numberOfParticipants];
+        int[] sizes = new int[numberOfParticipants];
+        int numberOfUnits = 0;
+        this.unitOf = new int[numberOfParticipants];
+        for (int p = 0; p < numberOfParticipants; p++) {
+            int root = unionFind.find(p);
+            if (unitOfRoot[root] == 0) unitOfRoot[root] = ++numberOfUnits; // Stored off by one, 0 means unnumbered
+            unitOf[p] = unitOfRoot[root] - 1;
+            sizes[unitOf[p]]++;
+        }
+
+        // Lay the members out unit after unit
+        this.start = new int[numberOfUnits + 1];
+        for (int u = 0; u < numberOfUnits; u++) {
+            start[u + 1] = start[u] + sizes[u];
+        }
+        this.members = new int[numberOfParticipants];
+        int[] next = new int[numberOfUnits];
+        for (int p = 0; p < numberOfParticipants; p++) {
+            int u = unitOf[p];
+            members[start[u] + next[u]++] = p;
+        }
+    }
+
+    /**
+     * Checks whether any member of the set of one participant conflicts with a member of the set of another.
+     *
+     * @param p1 The first participant.
+     * @param p2 The second participant, in another set.
+     * @param unionFind The sets formed so far.
+     * @param conflicts The participants that must be kept apart.
+     * @param ring The next member of the set of every participant.
+     * @return {@code true} if merging both sets would place conflicting participants together.
+     */
+    private static boolean hasConflict(int p1, int p2, UnionFind unionFind, ConflictGraph conflicts, int[] ring) {
+        int root = unionFind.find(p2);
+        int member = p1;
+        do {
+            if (conflicts.hasConflict(member, root, unionFind)) return true;
+            member = ring[member];
+        } while (member != p1);
+        return false;
+    }
+
+    /**
+     * Returns the number of units.
+     *
+     * @return The number of units.
+     */
+    public int size() {
+        return start.length - 1;
+    }
+
+    /**
+     * Returns the number of participants in a unit.
+     *
+     * @param unit The unit index.
+     * @return The number of participants in the unit.
+     */
+    public int getSize(int unit) {
+        return start[unit + 1] - start[unit];
+    }
+
+    /**
+     * Returns a participant of a unit.
+     *
+     * @param unit The unit index.
+     * @param index The position of the participant within the unit.
+     * @return The participant index.
+     */
+    public int getMember(int unit, int index) {
+        return members[start[unit] + index];
+    }
+
+    /**
+     * Checks whether a participant shares its unit with other participants, which means it cannot be
+     * moved to another group on its own.
+     *
+     * @param participant The participant index.
+     * @return {@code true} if the participant has buddies in its unit.
+     */
+    public boolean isLocked(int participant) {
+        return getSize(unitOf[participant]) > 1;
+    }
+
+    /**
+     * Counts the buddy pairs of a problem whose participants are not placed in the same group.
+     *
+     * @param problem The problem holding the buddy pairs.
+     * @param solution The solution describing the groups.
+     * @return The number of separated buddy pairs.
+     */
+    public static int countSeparatedPairs(GroupingProblem problem, Solution solution) {
+        int[] buddyPairs = problem.getBuddyPairs();
+        if (buddyPairs == null) return 0;
+
+        int separated = 0;
+        for (int i = 0; i + 1 < buddyPairs.length; i += 2) {
+            if (solution.getGroup(buddyPairs[i]) != solution.getGroup(buddyPairs[i + 1])) {
+                separated++;
+            }
+        }
+        return separated;
+    }
+
+    /**
+     * Counts the buddy pairs of a problem whose participants are not placed in the same group because
+     * honouring the request would place participants that must be kept apart in the same unit. The
+     * units are formed again without a maximum size, so only conflicts keep buddies apart.
+     *
+     * @param problem The problem holding the buddy pairs and conflicts.
+     * @param solution The solution describing the groups.
+     * @return The number of buddy pairs separated because of a conflict.
+     */
+    public static int countConflictingPairs(GroupingProblem problem, Solution solution) {
+        int[] buddyPairs = problem.getBuddyPairs();
+        if (buddyPairs == null) return 0;
+
+        int numberOfParticipants = problem.getParticipantStore().size();
+        ParticipantUnits units = new ParticipantUnits(numberOfParticipants, buddyPairs, numberOfParticipants,
+                new ConflictGraph(numberOfParticipants, problem.getConflictPairs()));
+        int conflicting = 0;
+        for (int i = 0; i + 1 < buddyPairs.length; i += 2) {
+            if (solution.getGroup(buddyPairs[i]) != solution.getGroup(buddyPairs[i + 1])
+                    && units.unitOf[buddyPairs[i]] != units.unitOf[buddyPairs[i + 1]]) {
+                conflicting++;
+            }
+        }
+        return conflicting;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,219 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.*;
+
+import java.util.SplittableRandom;
+
+/**
+ * Utility class combining two good solutions by path relinking: walking from one solution towards the
+ * other with swaps, and returning the best solution met on the way.
+ *
+ * <p>Group numbers are arbitrary, so the groups of the guiding solution are first matched to the groups
+ * of the initiating solution that share the most members with them, using the
+ * {@link HungarianAlgorithm}. Every participant whose group differs from the matched group of the
+ * guiding solution is then moved there, by swapping it with a member of that group that also has to
+ * move, preferably one that has to move to the group the participant leaves. Every swap brings at least
+ * one participant to its place, so the path takes at most as many swaps as there are participants to
+ * move. Every step of the path makes the best swap among a few random participants that still have to
+ * move, so the path passes through good solutions without trying every participant at every step.</p>
+ *
+ * <p>The solutions along the path are scored with {@link GroupHistograms}, which are updated for the two
+ * groups of every swap, so every solution on the path is scored in constant time, however many
+ * participants and groups there are. The score is the one used to compare restarts (see
+ * {@link WorkerProtocol#calculateScore(GroupingProblem, Solution)}). Participants with buddies are not
+ * moved, and swaps that would place participants that must be kept apart in the same group are skipped,
+ * so the path may end before it reaches the guiding solution.</p>
+ *
+ * @see ElitePool
+ * @see SolverWorker
+ */
+public class PathRelinking {
+
+    // The number of participants that have to move from which every swap of the path is chosen
+    private static final int SAMPLES = 8;
+
+    /**
+     * Walks from one solution towards another, and returns the best solution strictly between them.
+     *
+     * @param problem The problem holding the participants and settings.
+     * @param initiating The solution the path starts from; not changed.
+     * @param guiding The solution the path walks towards; not changed.
+     * @param units The units of buddies; participants in a unit of several participants are not moved.
+     * @param conflicts The participants that must be kept apart; swaps that would place them together are skipped.
+     * @param random The source of the participants from which every swap is chosen.
+     * @return The best solution on the path, without guide clusters or themes, or {@code null} if the
+     *         path has no solutions strictly between both ends.
+     */
+    public static Solution relink(GroupingProblem problem, Solution initiating, Solution guiding,
+                                  ParticipantUnits units, ConflictGraph conflicts, SplittableRandom random) {
+        ParticipantStore store = problem.getParticipantStore();
+        int[] target = alignGroups(initiating, guiding);
+        Solution solution = initiating.copy();
+        GroupHistograms histograms = new GroupHistograms(store, solution, problem.getSettings());
+        int[][] members = solution.getMembers();
+
+        // The participants that have to move, and where every member sits in its group
+        int[] position = new int[store.size()];
+        int[] moving = new int[store.size()];
+        int count = 0;
+        for (int[] group : members) {
+            for (int i = 0; i < group.length; i++) {
+                position[group[i]] = i;
+            }
+        }
+        for (int participant = 0; participant < store.size(); participant++) {
+            if (isMisplaced(solution, target, units, participant)) moving[count++] = participant;
+        }
+
+        long violation = 0;
+        for (int group = 0; group < members.length; group++) {
+            violation += histograms.getViolation(group);
+        }
+
+        int[] path = new int[2 * count];
+        long[] scores = new long[count];
+        int swaps = 0;
+        while (count > 0) {
+            // Make the best swap among a few participants that still have to move
+            int bestParticipant = -1;
+            int bestPartner = -1;
+            long bestViolation = 0;
+            long bestScore = Long.MAX_VALUE;
+            for (int sample = 0; sample < SAMPLES && count > 0; sample++) {
+                int k = random.nextInt(count);
+                int participant = moving[k];
+                int from = solution.getGroup(participant);
+                int to = target[participant];
+                int partner = isMisplaced(solution, target, units, participant)
+                        ? findPartner(solution, target, units, conflicts, members[to], participant, from) : -1;
+                if (partner < 0) {
+                    moving[k] = moving[--count];
+                    continue;
+                }
+
+                // Score the swap from the histograms of the two groups, and undo it right away
+                long before = histograms.getViolation(from) + histograms.getViolation(to);
+                histograms.move(participant, from, to);
+                histograms.move(partner, to, from);
+                long newViolation = violation - before + histograms.getViolation(from) + histograms.getViolation(to);
+                long score = (newViolation << 32) + histograms.getObjective(Objectives.COHESION);
+                histograms.move(participant, to, from);
+                histograms.move(partner, from, to);
+                if (score < bestScore) {
+                    bestScore = score;
+                    bestViolation = newViolation;
+                    bestParticipant = participant;
+                    bestPartner = partner;
+                }
+            }
+            if (bestParticipant < 0) continue;
+
+            swap(solution, histograms, members, position, bestParticipant, bestPartner);
+            violation = bestViolation;
+            path[2 * swaps] = bestParticipant;
+            path[2 * swaps + 1] = bestPartner;
+            scores[swaps++] = bestScore;
+        }
+
+        // Only the solutions strictly between both ends count; step back to the best of them
+        if (swaps < 2) return null;
+        int best = 0;
+        for (int step = 1; step < swaps - 1; step++) {
+            if (scores[step] < scores[best]) best = step;
+        }
+        for (int step = swaps - 1; step > best; step--) {
+            swap(solution, histograms, members, position, path[2 * step + 1], path[2 * step]);
+        }
+        return solution;
+    }
+
+    /**
+     * Matches every group of the guiding solution to the group of the initiating solution that shares the
+     * most members with it, and returns the matched group of every participant.
+     *
+     * @param initiating The solution the path starts from.
+     * @param guiding The solution the path walks towards.
+     * @return The group of the initiating solution every participant has to move to.
+     */
+    private static int[] alignGroups(Solution initiating, Solution guiding) {
+        int numberOfGroups = initiating.getNumberOfGroups();
+        long[][] cost = new long[numberOfGroups][numberOfGroups];
+        for (int participant = 0; participant < initiating.getNumberOfParticipants(); participant++) {
+            if (initiating.isAssigned(participant) && guiding.isAssigned(participant)) {
+                cost[guiding.getGroup(participant)][initiating.getGroup(participant)]--;
+            }
+        }
+        int[] match = HungarianAlgorithm.solve(cost);
+
+        int[] target = new int[initiating.getNumberOfParticipants()];
+        for (int participant = 0; participant < target.length; participant++) {
+            target[participant] = guiding.isAssigned(participant) ? match[guiding.getGroup(participant)] : Solution.UNASSIGNED;
+        }
+        return target;
+    }
+
+    /**
+     * Checks whether a participant still has to move to reach the guiding solution.
+     *
+     * @param solution The current solution on the path.
+     * @param target The group every participant has to move to.
+     * @param units The units of buddies, which are not moved.
+     * @param participant The participant index.
+     * @return {@code true} if the participant can and has to move.
+     */
+    private static boolean isMisplaced(Solution solution, int[] target, ParticipantUnits units, int participant) {
+        return solution.isAssigned(participant) && target[participant] != Solution.UNASSIGNED
+                && solution.getGroup(participant) != target[participant] && !units.isLocked(participant);
+    }
+
+    /**
+     * Finds the member of a group to swap with a participant that has to move into the group: a member
+     * that has to move to the group of the participant, or else any member that has to move.
+     *
+     * @param solution The current solution on the path.
+     * @param target The group every participant has to move to.
+     * @param units The units of buddies, which are not moved.
+     * @param conflicts The participants that must be kept apart.
+     * @param group The members of the group the participant has to move to.
+     * @param participant The participant index.
+     * @param from The group of the participant.
+     * @return The member to swap with, or {@code -1} if no member can be swapped.
+     */
+    private static int findPartner(Solution solution, int[] target, ParticipantUnits units, ConflictGraph conflicts,
+                                   int[] group, int participant, int from) {
+        int fallback = -1;
+        for (int member : group) {
+            if (!isMisplaced(solution, target, units, member)
+                    || conflicts.hasConflict(participant, target[participant], member, solution)
+                    || conflicts.hasConflict(member, from, participant, solution)) continue;
+            if (target[member] == from) return member;
+            if (fallback < 0) fallback = member;
+        }
+        return fallback;
+    }
+
+    /**
+     * Swaps two participants of different groups, in the solution, the histograms and the member lists.
+     *
+     * @param solution The solution.
+     * @param histograms The histograms of the groups.
+     * @param members The members of every group.
+     * @param position The position of every participant in its group.
+     * @param participant1 The first participant.
+     * @param participant2 The second participant.
+     */
+    private static void swap(Solution solution, GroupHistograms histograms, int[][] members, int[] position,
+                             int participant1, int participant2) {
+        int group1 = solution.getGroup(participant1);
+        int group2 = solution.getGroup(participant2);
+        histograms.move(participant1, group1, group2);
+        histograms.move(participant2, group2, group1);
+        members[group1][position[participant1]] = participant2;
+        members[group2][position[participant2]] = participant1;
+        int swapped = position[participant1];
+        position[participant1] = position[participant2];
+        position[participant2] = swapped;
+        solution.assign(participant1, group2);
+        solution.assign(participant2, group1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.NationalityRegions;
+import nl.esn.groningen.groupmaker.model.ParticipantStore;
+
+/**
+ * Utility class keeping a histogram of the regions of the nationalities in every group while the
+ * groups are filled, so the compatibility of a participant can take the diversity of regions into
+ * account (see {@link NationalityRegions}).
+ *
+ * <p>Comparing the region of a participant with every member of a group gives the same score as
+ * multiplying the weight of a shared region by the number of members from the region of the
+ * participant. That number is kept per group and per region, and updated whenever a participant is
+ * added, so scoring a participant takes a single lookup, however many members the group has.
+ * Participants without a known region do not count.</p>
+ *
+ * @see GroupingAlgorithm
+ */
+public class RegionSpread {
+    private final ParticipantStore store;
+    private final int weight;
+    private final int regionCount;
+    private final int[] count;
+
+    /**
+     * Constructs a {@code RegionSpread} for empty groups.
+     *
+     * @param store The columnar store of the participants.
+     * @param numberOfGroups The number of groups.
+     * @param weight The score of every member from the same region as the participant.
+     */
+    public RegionSpread(ParticipantStore store, int numberOfGroups, int weight) {
+        this.store = store;
+        this.weight = weight;
+        this.regionCount = NationalityRegions.getRegionCount();
+        this.count = new int[numberOfGroups * regionCount];
+    }
+
+    /**
+     * Calculates the score of adding a participant to a group: the weight times the number of
+     * members from the region of the participant.
+     *
+     * @param participant The index of the participant.
+     * @param group The index of the group.
+     * @return The score; zero if the region of the participant is unknown.
+     */
+    public long calculateScore(int participant, int group) {
+        int region = store.getRegion(participant);
+        if (region == NationalityRegions.UNKNOWN_REGION) return 0;
+        return (long) weight * count[group * regionCount + region];
+    }
+
+    /**
+     * Counts a participant that was added to a group.
+     *
+     * @param participant The index of the participant.
+     * @param group The index of the group.
+     */
+    public void add(int participant, int group) {
+        int region = store.getRegion(participant);
+        if (region == NationalityRegions.UNKNOWN_REGION) return;
+        count[group * regionCount + region]++;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,309 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.*;
+
+import java.util.SplittableRandom;
+
+/**
+ * Utility class forming all groups at once by regret insertion, instead of filling the groups one after
+ * another as {@link GroupingAlgorithm} does.
+ *
+ * <p>For every unit that is not placed yet, the fit with every group is the compatibility the greedy fill
+ * would give it (see {@link GroupingAlgorithm#calculateCompatibility}), and the class keeps the best and
+ * second-best group of every unit. The regret of a unit is the difference between both fits: what is lost
+ * if its best group is no longer available. The unit with the highest regret is placed in its best group
+ * first, so units that fit well in a single group get that group, and units that fit equally well
+ * anywhere are left for last. A unit that fits in a single group has the highest regret of all.</p>
+ *
+ * <p>The units are kept in an {@link IndexedHeap} keyed by their regret, and the units that are not placed
+ * yet in an array with the position of every unit, so a placed unit is removed in constant time. Placing
+ * a unit only changes the fits with the group it is placed in, so only that group is rescored for every
+ * unit that is not placed yet, each in time proportional to the size of the placed unit: the sum of the
+ * scores with the members is kept per unit and group, and the spread of ages and regions follows from
+ * the running sums of {@link AgeSpread} and {@link RegionSpread}. The best and second-best group of a
+ * unit, and its key in the heap, are only updated if the fit with that group changes them. Scores can be
+ * negative, so a fit can also get worse; the fits with all groups are compared again when the fit with
+ * the best group drops below that with the second-best group, when the fit with the second-best group
+ * drops, or when either group no longer fits. Every placement still rescores all units that are not
+ * placed yet, since the placed members add to the fit of every one of them, so placing all units takes
+ * O(units<sup>2</sup>) time plus O(log units) for every changed key and O(groups) for every unit that is
+ * ranked again.</p>
+ *
+ * <p>Fits are only ever lost, never gained: a group that is too full for a unit or holds a participant the
+ * unit conflicts with stays so. A unit without any group that fits is left for the greedy fallback of
+ * {@link GroupingAlgorithm}. The nationality quotas (see {@link NationalitySpread}) and the checks ahead
+ * (see {@link ForwardChecking}) rely on the groups being filled in order, and lexicographic scores cannot
+ * be kept as sums per group, so regret insertion is only used when all three are disabled.</p>
+ *
+ * @see IndexedHeap
+ * @see GroupingAlgorithm
+ */
+public class RegretInsertion {
+
+    // The fit of a unit with a group it cannot be placed in
+    private static final long NO_FIT = Long.MIN_VALUE;
+
+    // The regret of a unit that fits in a single group, so it is placed before that group fills up
+    private static final long ONLY_GROUP = Long.MAX_VALUE;
+
+    private final ParticipantStore store;
+    private final ScoringTables tables;
+    private final ParticipantUnits units;
+    private final ConflictGraph conflicts;
+    private final int[] groupSizes;
+    private final AgeSpread ages;
+    private final RegionSpread regions;
+    private final Solution solution;
+    private final int numberOfGroups;
+    private final long seed;
+
+    private final int[] sizes;
+    private final long[] pairScores;
+    private final int[] best;
+    private final int[] second;
+    private final long[] bestFit;
+    private final long[] secondFit;
+    private final IndexedHeap heap;
+    private final int[] open;
+    private final int[] openPosition;
+    private int openCount;
+
+    /**
+     * Constructs a {@code RegretInsertion} for empty groups.
+     *
+     * @param store The columnar store of the participants.
+     * @param tables The compiled scoring weights.
+     * @param units The units the participants are divided into.
+     * @param conflicts The participants that must be kept apart.
+     * @param groupSizes The desired number of participants in every group.
+     * @param ages The running sums of the ages in every group.
+     * @param regions The histograms of the regions in every group.
+     * @param solution The solution in which the participants are assigned.
+     * @param seed The seed of the small random factor of the fits.
+     */
+    private RegretInsertion(ParticipantStore store, ScoringTables tables, ParticipantUnits units,
+                            ConflictGraph conflicts, int[] groupSizes, AgeSpread ages, RegionSpread regions,
+                            Solution solution, long seed) {
+        this.store = store;
+        this.tables = tables;
+        this.units = units;
+        this.conflicts = conflicts;
+        this.groupSizes = groupSizes;
+        this.ages = ages;
+        this.regions = regions;
+        this.solution = solution;
+        this.numberOfGroups = groupSizes.length;
+        this.seed = seed;
+
+        this.sizes = new int[numberOfGroups];
+        this.pairScores = new long[units.size() * numberOfGroups];
+        this.best = new int[units.size()];
+        this.second = new int[units.size()];
+        this.bestFit = new long[units.size()];
+        this.secondFit = new long[units.size()];
+        this.heap = new IndexedHeap(units.size());
+        this.open = new int[units.size()];
+        this.openPosition = new int[units.size()];
+    }
+
+    /**
+     * Places the units in the groups by regret insertion, as far as they fit.
+     *
+     * @param store The columnar store of the participants.
+     * @param tables The compiled scoring weights.
+     * @param units The units the participants are divided into.
+     * @param conflicts The participants that must be kept apart.
+     * @param groupSizes The desired number of participants in every group.
+     * @param ages The running sums of the ages in every group; updated as participants are added.
+     * @param regions The histograms of the regions in every group; updated as participants are added.
+     * @param solution The solution in which the participants are assigned.
+     * @param random The source of the small random factor of the fits.
+     * @return The number of participants that were assigned to every group.
+     */
+    public static int[] insert(ParticipantStore store, ScoringTables tables, ParticipantUnits units,
+                               ConflictGraph conflicts, int[] groupSizes, AgeSpread ages, RegionSpread regions,
+                               Solution solution, SplittableRandom random) {
+        RegretInsertion insertion = new RegretInsertion(store, tables, units, conflicts, groupSizes, ages, regions,
+                solution, random.nextLong());
+        insertion.run();
+        return insertion.sizes;
+    }
+
+    /**
+     * Ranks the groups for every unit, and then places the unit with the highest regret until no unit fits.
+     */
+    private void run() {
+        for (int unit = 0; unit < units.size(); unit++) {
+            rankGroups(unit);
+            if (best[unit] >= 0) {
+                openPosition[unit] = openCount;
+                open[openCount++] = unit;
+                heap.update(unit, calculateRegret(unit));
+            }
+        }
+
+        while (!heap.isEmpty()) {
+            int unit = heap.poll();
+            removeOpen(unit);
+            int group = best[unit];
+            for (int i = 0; i < units.getSize(unit); i++) {
+                int participant = units.getMember(unit, i);
+                solution.assign(participant, group);
+                ages.add(participant, group);
+                regions.add(participant, group);
+            }
+            sizes[group] += units.getSize(unit);
+            updateFits(unit, group);
+        }
+    }
+
+    /**
+     * Rescores the group a unit was placed in for every unit that is not placed yet, and updates the best
+     * and second-best groups and the keys in the heap of the units for which they change.
+     *
+     * @param placed The unit that was placed.
+     * @param group The group it was placed in.
+     */
+    private void updateFits(int placed, int group) {
+        // Walk backwards, so units without any fitting group can be removed on the way; the unit moved
+        // into the place of a removed unit has been rescored already
+        for (int k = openCount - 1; k >= 0; k--) {
+            int unit = open[k];
+            int index = unit * numberOfGroups + group;
+            for (int i = 0; i < units.getSize(placed); i++) {
+                pairScores[index] += calculatePairScore(unit, units.getMember(placed, i));
+            }
+
+            long fit = calculateFit(unit, group);
+            if (group == best[unit]) {
+                if (fit != NO_FIT && fit >= secondFit[unit]) bestFit[unit] = fit;
+                else rankGroups(unit);
+            } else if (group == second[unit]) {
+                if (fit > bestFit[unit]) {
+                    second[unit] = best[unit];
+                    secondFit[unit] = bestFit[unit];
+                    best[unit] = group;
+                    bestFit[unit] = fit;
+                } else if (fit == NO_FIT || fit < secondFit[unit]) {
+                    rankGroups(unit); // Another group may fit better now
+                } else {
+                    secondFit[unit] = fit;
+                }
+            } else if (fit > secondFit[unit]) {
+                if (fit > bestFit[unit]) {
+                    second[unit] = best[unit];
+                    secondFit[unit] = bestFit[unit];
+                    best[unit] = group;
+                    bestFit[unit] = fit;
+                } else {
+                    second[unit] = group;
+                    secondFit[unit] = fit;
+                }
+            } else {
+                continue; // Neither the best groups nor the regret changed
+            }
+
+            if (best[unit] < 0) {
+                heap.remove(unit);
+                removeOpen(unit);
+            } else {
+                heap.update(unit, calculateRegret(unit));
+            }
+        }
+    }
+
+    /**
+     * Finds the best and second-best group of a unit by comparing its fits with all groups.
+     *
+     * @param unit The index of the unit.
+     */
+    private void rankGroups(int unit) {
+        best[unit] = -1;
+        second[unit] = -1;
+        bestFit[unit] = NO_FIT;
+        secondFit[unit] = NO_FIT;
+        for (int group = 0; group < numberOfGroups; group++) {
+            long fit = calculateFit(unit, group);
+            if (fit == NO_FIT) continue;
+            if (fit > bestFit[unit]) {
+                second[unit] = best[unit];
+                secondFit[unit] = bestFit[unit];
+                best[unit] = group;
+                bestFit[unit] = fit;
+            } else if (fit > secondFit[unit]) {
+                second[unit] = group;
+                secondFit[unit] = fit;
+            }
+        }
+    }
+
+    /**
+     * Calculates the regret of a unit: the difference between the fits with its best and second-best group.
+     *
+     * @param unit The index of the unit.
+     * @return The regret, or {@link #ONLY_GROUP} if the unit fits in a single group.
+     */
+    private long calculateRegret(int unit) {
+        return second[unit] < 0 ? ONLY_GROUP : bestFit[unit] - secondFit[unit];
+    }
+
+    /**
+     * Calculates the fit of a unit with a group, in the same way as the compatibility of the greedy fill.
+     *
+     * @param unit The index of the unit.
+     * @param group The index of the group.
+     * @return The fit, or {@link #NO_FIT} if the unit does not fit in the group or conflicts with its members.
+     */
+    private long calculateFit(int unit, int group) {
+        if (units.getSize(unit) > groupSizes[group] - sizes[group]) return NO_FIT;
+
+        long fit = pairScores[unit * numberOfGroups + group] + calculateStochasticity(unit, group);
+        for (int i = 0; i < units.getSize(unit); i++) {
+            int participant = units.getMember(unit, i);
+            if (conflicts.hasConflict(participant, group, solution)) return NO_FIT;
+            fit += regions.calculateScore(participant, group) - ages.calculatePenalty(participant, group);
+        }
+        return fit;
+    }
+
+    /**
+     * Calculates the similarity and dissimilarity of the participants of a unit with a single participant.
+     *
+     * @param unit The index of the unit.
+     * @param member The index of the participant.
+     * @return The sum of the scores.
+     */
+    private long calculatePairScore(int unit, int member) {
+        long score = 0;
+        for (int i = 0; i < units.getSize(unit); i++) {
+            int participant = units.getMember(unit, i);
+            score += tables.calculateSimilarity(store.getCode(member), store.getCode(participant))
+                    + tables.calculateDissimilarity(store, member, participant);
+        }
+        return score;
+    }
+
+    /**
+     * Returns the small random factor of a unit and a group, between 0 and 2 like that of the greedy fill.
+     * The factor is derived from the seed of this run and does not depend on the size of the group, so the
+     * fit of a unit with a group does not change every time it is calculated.
+     *
+     * @param unit The index of the unit.
+     * @param group The index of the group.
+     * @return The random factor.
+     */
+    private long calculateStochasticity(int unit, int group) {
+        return GroupingAlgorithm.calculateStochasticity(seed, group, 0, units.getMember(unit, 0));
+    }
+
+    /**
+     * Removes a unit from the units that are not placed yet, by moving the last of them to its position.
+     *
+     * @param unit The index of the unit.
+     */
+    private void removeOpen(int unit) {
+        int last = open[--openCount];
+        open[openPosition[unit]] = last;
+        openPosition[last] = openPosition[unit];
+    }
+}
\ No newline at end of file
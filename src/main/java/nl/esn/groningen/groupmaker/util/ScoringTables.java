@@ -0,0 +1,180 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.ParticipantEncoding;
+import nl.esn.groningen.groupmaker.model.ParticipantStore;
+import nl.esn.groningen.groupmaker.model.ScoringWeights;
+
+import java.util.Arrays;
+
+/**
+ * Utility class holding the {@link ScoringWeights} of a run compiled into lookup tables, so scoring a
+ * pair of participants takes a few array reads instead of a chain of comparisons.
+ *
+ * <p>Every scored attribute gets a dense table with one entry for every pair of encoded values (see
+ * {@link ParticipantEncoding}): the entry of two universities, for example, already holds the weight of
+ * "same university" or "either is Other" that applies to them. The tables are compiled once at the start
+ * of a run, and are small enough to stay in the cache of every thread that scores participants. Every
+ * entry is checked after compiling, so the solver never starts with a table that was not (completely)
+ * built.</p>
+ *
+ * @see GroupingAlgorithm
+ * @see LexicographicScore
+ */
+public class ScoringTables {
+    // Marks an entry of a table that was not built
+    private static final int UNSET = Integer.MIN_VALUE;
+
+    private final int[] university = newTable(ParticipantEncoding.UNIVERSITY_COUNT);
+    private final int[] alcohol = newTable(2);
+    private final int[] studyDuration = newTable(ParticipantEncoding.STUDY_DURATION_COUNT);
+    private final int[] diet = newTable(ParticipantEncoding.DIET_COUNT);
+    private final int nationalityDifferent;
+
+    /**
+     * Constructs the tables of the given weights.
+     *
+     * @param weights The weights to compile.
+     */
+    private ScoringTables(ScoringWeights weights) {
+        for (int u1 = 0; u1 < ParticipantEncoding.UNIVERSITY_COUNT; u1++) {
+            for (int u2 = 0; u2 < ParticipantEncoding.UNIVERSITY_COUNT; u2++) {
+                int score = 0;
+                if (u1 == u2) {
+                    score = weights.get(ScoringWeights.UNIVERSITY_SAME);
+                } else if (u1 == ParticipantEncoding.UNIVERSITY_OTHER || u2 == ParticipantEncoding.UNIVERSITY_OTHER) {
+                    score = weights.get(ScoringWeights.UNIVERSITY_OTHER);
+                }
+                university[u1 * ParticipantEncoding.UNIVERSITY_COUNT + u2] = score;
+            }
+        }
+
+        for (int a1 = 0; a1 < 2; a1++) {
+            for (int a2 = 0; a2 < 2; a2++) {
+                alcohol[a1 * 2 + a2] = a1 == a2 ? weights.get(ScoringWeights.ALCOHOL_SAME) : 0;
+            }
+        }
+
+        for (int d1 = 0; d1 < ParticipantEncoding.STUDY_DURATION_COUNT; d1++) {
+            for (int d2 = 0; d2 < ParticipantEncoding.STUDY_DURATION_COUNT; d2++) {
+                int score = 0;
+                if (d1 == d2) {
+                    score = weights.get(ScoringWeights.STUDY_DURATION_SAME);
+                } else if (d1 == ParticipantEncoding.STUDY_DURATION_OTHER || d2 == ParticipantEncoding.STUDY_DURATION_OTHER) {
+                    score = weights.get(ScoringWeights.STUDY_DURATION_OTHER);
+                }
+                studyDuration[d1 * ParticipantEncoding.STUDY_DURATION_COUNT + d2] = score;
+            }
+        }
+
+        for (int d1 = 0; d1 < ParticipantEncoding.DIET_COUNT; d1++) {
+            for (int d2 = 0; d2 < ParticipantEncoding.DIET_COUNT; d2++) {
+                boolean plantBased1 = d1 != ParticipantEncoding.DIET_NONE;
+                boolean plantBased2 = d2 != ParticipantEncoding.DIET_NONE;
+                int score = 0;
+                if (plantBased1 && plantBased2) {
+                    score = weights.get(ScoringWeights.DIET_BOTH_PLANT_BASED);
+                } else if (!plantBased1 && !plantBased2) {
+                    score = weights.get(ScoringWeights.DIET_NEITHER_PLANT_BASED);
+                }
+                diet[d1 * ParticipantEncoding.DIET_COUNT + d2] = score;
+            }
+        }
+
+        this.nationalityDifferent = weights.get(ScoringWeights.NATIONALITY_DIFFERENT);
+    }
+
+    /**
+     * Compiles the tables of the given weights, and checks that every entry was built.
+     *
+     * @param weights The weights to compile.
+     * @return The compiled tables.
+     * @throws IllegalStateException If an entry of a table was not built.
+     */
+    public static ScoringTables compile(ScoringWeights weights) {
+        ScoringTables tables = new ScoringTables(weights);
+        tables.validate();
+        return tables;
+    }
+
+    /**
+     * Calculates the similarity score between two participants based on shared attributes: their
+     * university, study duration and alcohol preference.
+     *
+     * @param code1 The encoded first participant.
+     * @param code2 The encoded second participant.
+     * @return The similarity score between the two participants.
+     */
+    public long calculateSimilarity(long code1, long code2) {
+        return university[ParticipantEncoding.university(code1) * ParticipantEncoding.UNIVERSITY_COUNT + ParticipantEncoding.university(code2)]
+                + alcohol[(ParticipantEncoding.isAlcoholFree(code1) ? 2 : 0) + (ParticipantEncoding.isAlcoholFree(code2) ? 1 : 0)]
+                + studyDuration[ParticipantEncoding.studyDuration(code1) * ParticipantEncoding.STUDY_DURATION_COUNT
+                        + ParticipantEncoding.studyDuration(code2)];
+    }
+
+    /**
+     * Calculates the dissimilarity score between two participants based on differing attributes:
+     * their nationality and diet.
+     *
+     * @param store The columnar store of the participants.
+     * @param p1 The index of the first participant.
+     * @param p2 The index of the second participant.
+     * @return The dissimilarity score between the two participants.
+     */
+    public long calculateDissimilarity(ParticipantStore store, int p1, int p2) {
+        long score = diet[ParticipantEncoding.diet(store.getCode(p1)) * ParticipantEncoding.DIET_COUNT
+                + ParticipantEncoding.diet(store.getCode(p2))];
+
+        // Participants of different, known nationalities add to the diversity; an unknown nationality adds nothing
+        int nationality1 = store.getNationality(p1);
+        int nationality2 = store.getNationality(p2);
+        if (nationality1 != nationality2 && nationality1 != ParticipantStore.UNKNOWN_NATIONALITY
+                && nationality2 != ParticipantStore.UNKNOWN_NATIONALITY) {
+            score += nationalityDifferent;
+        }
+        return score;
+    }
+
+    /**
+     * Checks that every entry of every table was built.
+     *
+     * @throws IllegalStateException If an entry of a table was not built.
+     */
+    private void validate() {
+        check("university", university, ParticipantEncoding.UNIVERSITY_COUNT);
+        check("alcohol", alcohol, 2);
+        check("study duration", studyDuration, ParticipantEncoding.STUDY_DURATION_COUNT);
+        check("diet", diet, ParticipantEncoding.DIET_COUNT);
+    }
+
+    /**
+     * Checks that a table has an entry for every pair of values, and that every entry was built.
+     *
+     * @param name The name of the attribute of the table.
+     * @param table The table.
+     * @param values The number of values of the attribute.
+     * @throws IllegalStateException If an entry of the table was not built.
+     */
+    private static void check(String name, int[] table, int values) {
+        if (table.length != values * values) {
+            throw new IllegalStateException("The " + name + " table has " + table.length + " entries instead of " + values * values);
+        }
+        for (int index = 0; index < table.length; index++) {
+            if (table[index] == UNSET) {
+                throw new IllegalStateException("The " + name + " table has no entry for values "
+                        + index / values + " and " + index % values);
+            }
+        }
+    }
+
+    /**
+     * Creates a table for every pair of values of an attribute, with all entries unset.
+     *
+     * @param values The number of values of the attribute.
+     * @return The table.
+     */
+    private static int[] newTable(int values) {
+        int[] table = new int[values * values];
+        Arrays.fill(table, UNSET);
+        return table;
+    }
+}
\ No newline at end of file
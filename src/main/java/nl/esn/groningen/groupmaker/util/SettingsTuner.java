@@ -0,0 +1,317 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.GroupingProblem;
+import nl.esn.groningen.groupmaker.model.ScoringWeights;
+import nl.esn.groningen.groupmaker.model.Settings;
+import nl.esn.groningen.groupmaker.model.Solution;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Utility class tuning the settings of the grouping algorithm offline, by racing a number of
+ * configurations over a corpus of earlier (or made-up) introduction weeks, and writing the winner to a
+ * settings file that can be imported in the settings dialog (see {@link Settings#read(File)}).
+ *
+ * <p>The corpus is a manifest of tracks, in the format of the {@link BatchSolver}; only the input files
+ * and the limits of every track are used, and no output documents are written. A configuration holds
+ * the switches of the algorithm (lexicographic scoring, nationality spreading, forward checking, beam
+ * search, regret insertion, pairwise refinement and the concurrent swap search) and the
+ * {@link ScoringWeights}. The first configuration is the default one; the others switch every switch
+ * at random, except the constructions the other switches rule out, and multiply every weight by a
+ * random factor between a half and two.</p>
+ *
+ * <p>The race solves the tracks one by one, several times each, since the algorithm is randomised. All
+ * remaining configurations solve a track at the same time in a single {@link ForkJoinPool}. The groups
+ * are always judged by the limits and weights of the track, not those of the configuration: first by
+ * the number of participants by which the groups exceed the limits, and then by the compatibility of
+ * all pairs of members of the same group, including the regions and the spread of ages (see
+ * {@link SwapScorer#calculateScore(int, int)}). Weights that form better groups therefore win, not
+ * weights that merely score their own groups higher. After every track the configurations are
+ * ranked per track, and a configuration whose sum of ranks is clearly worse than that of the best
+ * configuration (a Friedman test with the critical difference at the 95% level) drops out. The race
+ * ends when a single configuration remains or every track has been solved the given number of times;
+ * the configuration with the lowest sum of ranks wins.</p>
+ *
+ * @see BatchSolver
+ * @see Settings#write(File)
+ */
+public class SettingsTuner {
+
+    // The number of configurations raced if none is given
+    private static final int DEFAULT_CONFIGURATIONS = 24;
+
+    // The number of times every track of the corpus is solved
+    private static final int REPETITIONS = 3;
+
+    // The number of solved tracks before configurations can drop out
+    private static final int MINIMUM_BLOCKS = 3;
+
+    // The critical value of the normal distribution at the 95% level
+    private static final double CRITICAL_VALUE = 1.96;
+
+    // The seed of the random configurations, so a race can be repeated
+    private static final long SEED = 16;
+
+    /**
+     * Races configurations over the tracks of a manifest, prints the progress of the race, and writes the
+     * winning configuration to a settings file, with the limits of the first track.
+     *
+     * @param args The manifest and the settings file, optionally followed by the number of configurations
+     *             and the maximum number of threads.
+     * @throws IOException If the manifest or a track cannot be read, or the settings file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        List<BatchSolver.Track> tracks = BatchSolver.readManifest(new File(args[0]));
+        File settingsFile = new File(args[1]);
+        int configurations = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CONFIGURATIONS;
+        int parallelism = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        if (tracks.isEmpty()) throw new IOException("The manifest holds no tracks");
+
+        List<GroupingProblem> problems = new ArrayList<>(tracks.size());
+        for (BatchSolver.Track track : tracks) {
+            problems.add(track.load().getProblem());
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Settings winner = race(problems, createConfigurations(configurations, new Random(SEED)), pool);
+            Settings settings = apply(winner, tracks.get(0).getSettings());
+            settings.write(settingsFile);
+            System.out.println("Winner written to " + settingsFile);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Creates the configurations to race: the default configuration, followed by random ones.
+     *
+     * @param count The number of configurations.
+     * @param random The source of randomness.
+     * @return The configurations, as settings with the default limits.
+     */
+    public static List<Settings> createConfigurations(int count, Random random) {
+        List<Settings> configurations = new ArrayList<>(count);
+        configurations.add(new Settings());
+        while (configurations.size() < count) {
+            Settings configuration = new Settings();
+            configuration.setLexicographicScoring(random.nextBoolean());
+            configuration.setNationalitySpreading(random.nextBoolean());
+            configuration.setForwardChecking(random.nextBoolean());
+            configuration.setBeamSearch(random.nextBoolean());
+            configuration.setRegretInsertion(random.nextBoolean());
+            configuration.setPairwiseRefinement(random.nextBoolean());
+            configuration.setConcurrentSwapSearch(random.nextBoolean());
+
+            // Switch off the constructions the other switches rule out, so no configuration holds an unused switch
+            configuration.setRegretInsertion(configuration.isRegretInsertionUsed());
+            configuration.setBeamSearch(configuration.isBeamSearchUsed());
+
+            // Multiply every weight by a factor between a half and two, evenly spread on a log scale
+            ScoringWeights weights = new ScoringWeights();
+            for (int weight = 0; weight < ScoringWeights.COUNT; weight++) {
+                double factor = Math.pow(2, 2 * random.nextDouble() - 1);
+                long value = Math.round(weights.get(weight) * factor);
+                weights.set(weight, (int) Math.max(ScoringWeights.MINIMUM, Math.min(ScoringWeights.MAXIMUM, value)));
+            }
+            configuration.setScoringWeights(weights);
+            configurations.add(configuration);
+        }
+        return configurations;
+    }
+
+    /**
+     * Races configurations over a corpus of problems, and returns the winner.
+     *
+     * @param problems The problems of the corpus, with the settings by which their groups are judged.
+     * @param configurations The configurations to race.
+     * @param pool The pool in which the configurations solve the problems.
+     * @return The winning configuration.
+     */
+    public static Settings race(List<GroupingProblem> problems, List<Settings> configurations, ForkJoinPool pool) {
+        int blocks = problems.size() * REPETITIONS;
+        long[][] violations = new long[configurations.size()][blocks];
+        long[][] scores = new long[configurations.size()][blocks];
+        boolean[] alive = new boolean[configurations.size()];
+        Arrays.fill(alive, true);
+        int remaining = configurations.size();
+        int solved = 0;
+
+        for (int block = 0; block < blocks && remaining > 1; block++) {
+            GroupingProblem problem = problems.get(block % problems.size());
+            solveBlock(problem, configurations, alive, violations, scores, block, pool);
+            solved++;
+
+            if (solved >= MINIMUM_BLOCKS) {
+                double[] rankSums = calculateRankSums(violations, scores, alive, solved);
+                int best = findBest(rankSums, alive);
+                double criticalDifference = CRITICAL_VALUE * Math.sqrt(solved * remaining * (remaining + 1) / 6.0);
+                for (int configuration = 0; configuration < alive.length; configuration++) {
+                    if (alive[configuration] && rankSums[configuration] - rankSums[best] > criticalDifference) {
+                        alive[configuration] = false;
+                        remaining--;
+                    }
+                }
+            }
+            System.out.println("Block " + solved + " of " + blocks + ", configurations left: " + remaining);
+        }
+
+        int winner = findBest(calculateRankSums(violations, scores, alive, solved), alive);
+        return configurations.get(winner);
+    }
+
+    /**
+     * Solves a problem with every remaining configuration at the same time, and stores how the groups
+     * are judged.
+     *
+     * @param problem The problem, with the settings by which its groups are judged.
+     * @param configurations The configurations.
+     * @param alive Which configurations remain in the race.
+     * @param violations The violations of every configuration in every block; lower is better.
+     * @param scores The scores of every configuration in every block, breaking ties between equal
+     *               violations; lower is better.
+     * @param block The block the violations and scores are stored in.
+     * @param pool The pool in which the configurations solve the problem.
+     */
+    private static void solveBlock(GroupingProblem problem, List<Settings> configurations, boolean[] alive,
+                                   long[][] violations, long[][] scores, int block, ForkJoinPool pool) {
+        SwapScorer judge = new SwapScorer(problem.getParticipantStore(), problem.getSettings(),
+                ScoringTables.compile(problem.getSettings().getScoringWeights()));
+        List<Future<?>> futures = new ArrayList<>();
+        for (int configuration = 0; configuration < alive.length; configuration++) {
+            if (!alive[configuration]) continue;
+            int index = configuration;
+            GroupingProblem configured = new GroupingProblem(problem.getParticipantStore(), problem.getGuideClusters(),
+                    problem.getThemes(), problem.getThemeInterests(), problem.getBuddyPairs(),
+                    problem.getConflictPairs(), apply(configurations.get(index), problem.getSettings()));
+            futures.add(pool.submit(() -> {
+                Solution solution = GroupingAlgorithm.solve(configured, pool);
+                violations[index][block] = calculateViolation(problem, solution);
+                scores[index][block] = -calculateCompatibility(judge, solution);
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The race was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A configuration failed", e.getCause());
+        }
+    }
+
+    /**
+     * Calculates the number of participants by which the groups of a solution exceed the limits of a problem.
+     *
+     * @param problem The problem holding the participants and limits.
+     * @param solution The solution.
+     * @return The violation; lower is better.
+     */
+    private static long calculateViolation(GroupingProblem problem, Solution solution) {
+        GroupHistograms histograms = new GroupHistograms(problem.getParticipantStore(), solution, problem.getSettings());
+        long violation = 0;
+        for (int group = 0; group < solution.getNumberOfGroups(); group++) {
+            violation += histograms.getViolation(group);
+        }
+        return violation;
+    }
+
+    /**
+     * Calculates the compatibility of a solution: the sum of the scores of all pairs of members of the
+     * same group.
+     *
+     * @param judge The scorer holding the weights by which the groups are judged.
+     * @param solution The solution.
+     * @return The compatibility; higher is better.
+     */
+    private static long calculateCompatibility(SwapScorer judge, Solution solution) {
+        long compatibility = 0;
+        for (int[] members : solution.getMembers()) {
+            for (int i = 0; i < members.length; i++) {
+                for (int j = i + 1; j < members.length; j++) {
+                    compatibility += judge.calculateScore(members[i], members[j]);
+                }
+            }
+        }
+        return compatibility;
+    }
+
+    /**
+     * Ranks the remaining configurations within every block, and sums the ranks of every configuration.
+     * Configurations are ranked by their violations, and then by their scores; configurations that are
+     * equal in both share the average of their ranks.
+     *
+     * @param violations The violations of every configuration in every block; lower is better.
+     * @param scores The scores of every configuration in every block; lower is better.
+     * @param alive Which configurations remain in the race.
+     * @param blocks The number of blocks solved.
+     * @return The sum of the ranks of every remaining configuration, from 1 for the best.
+     */
+    private static double[] calculateRankSums(long[][] violations, long[][] scores, boolean[] alive, int blocks) {
+        double[] rankSums = new double[alive.length];
+        for (int block = 0; block < blocks; block++) {
+            for (int configuration = 0; configuration < alive.length; configuration++) {
+                if (!alive[configuration]) continue;
+                int better = 0;
+                int equal = 0;
+                for (int other = 0; other < alive.length; other++) {
+                    if (!alive[other]) continue;
+                    int order = Long.compare(violations[other][block], violations[configuration][block]);
+                    if (order == 0) order = Long.compare(scores[other][block], scores[configuration][block]);
+                    if (order < 0) better++;
+                    else if (order == 0) equal++;
+                }
+                rankSums[configuration] += better + (equal + 1) / 2.0;
+            }
+        }
+        return rankSums;
+    }
+
+    /**
+     * Returns the remaining configuration with the lowest sum of ranks; of equal sums, the first.
+     *
+     * @param rankSums The sum of the ranks of every configuration.
+     * @param alive Which configurations remain in the race.
+     * @return The index of the best configuration.
+     */
+    private static int findBest(double[] rankSums, boolean[] alive) {
+        int best = -1;
+        for (int configuration = 0; configuration < alive.length; configuration++) {
+            if (alive[configuration] && (best < 0 || rankSums[configuration] < rankSums[best])) best = configuration;
+        }
+        return best;
+    }
+
+    /**
+     * Combines the switches and weights of a configuration with the limits of a track.
+     *
+     * @param configuration The configuration.
+     * @param limits The settings holding the limits.
+     * @return New settings with the limits and the switches and weights of the configuration.
+     */
+    private static Settings apply(Settings configuration, Settings limits) {
+        Settings settings = new Settings(limits.getGroupSize(), limits.getPlantBasedGroupMaximum(),
+                limits.getSameNationalityGroupMaximum(), limits.getSameGenderPercentageLimit());
+        settings.setThemeOptimization(limits.isThemeOptimization());
+        settings.setLexicographicScoring(configuration.isLexicographicScoring());
+        settings.setNationalitySpreading(configuration.isNationalitySpreading());
+        settings.setForwardChecking(configuration.isForwardChecking());
+        settings.setBeamSearch(configuration.isBeamSearch());
+        settings.setRegretInsertion(configuration.isRegretInsertion());
+        settings.setPairwiseRefinement(configuration.isPairwiseRefinement());
+        settings.setConcurrentSwapSearch(configuration.isConcurrentSwapSearch());
+        settings.setScoringWeights(new ScoringWeights(configuration.getScoringWeights()));
+        return settings;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,164 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.GroupingProblem;
+import nl.esn.groningen.groupmaker.model.Solution;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Utility class farming out restarts of the grouping algorithm to {@link SolverWorker}s, and keeping
+ * the best solution any of them finds.
+ *
+ * <p>Every worker receives the encoded problem, its own seed and a number of restarts (see
+ * {@link WorkerProtocol}). The seeds of the workers are drawn from a single generator seeded by the seed
+ * of the solve, so no two workers run the same restarts. Every worker streams back its improving solutions while it runs. All workers are
+ * contacted at the same time, so the restarts run in parallel over all worker JVMs. Workers that
+ * cannot be reached or fail are skipped, as long as at least one worker returns a solution. The score a
+ * worker sends with a solution is checked against the score of the solution itself, so a worker that
+ * runs another version of the algorithm cannot win with a score it did not reach. The guide clusters
+ * and themes are assigned to the best solution by the coordinator, so they never need to be sent to the
+ * workers.</p>
+ *
+ * <p>The batch mode of the {@link BatchSolver} solves its tracks on workers when it is given their
+ * addresses, and {@link WorkerRoundTrip} checks a worker in the same JVM.</p>
+ *
+ * @see SolverWorker
+ * @see WorkerProtocol
+ */
+public class SolverCoordinator {
+    private static final int CONNECT_TIMEOUT_MILLISECONDS = 5000;
+
+    /**
+     * Solves a problem on a number of workers and returns the best solution found.
+     *
+     * @param problem The problem to solve.
+     * @param workers The addresses of the workers, e.g. {@code localhost:7070}.
+     * @param restartsPerWorker The number of times every worker solves the problem.
+     * @param seed The seed from which the seeds of the workers are drawn.
+     * @return The best solution, with guide clusters and themes assigned.
+     * @throws IOException If no worker returned a solution.
+     */
+    public static Solution solve(GroupingProblem problem, List<InetSocketAddress> workers, int restartsPerWorker,
+                                 long seed) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, workers.size()));
+        List<Future<Result>> futures = new ArrayList<>(workers.size());
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for (int i = 0; i < workers.size(); i++) {
+            InetSocketAddress address = workers.get(i);
+            long workerSeed = seeds.nextLong();
+            futures.add(executor.submit(() -> collect(problem, address, workerSeed, restartsPerWorker)));
+        }
+
+        Result best = null;
+        IOException failure = null;
+        try {
+            for (Future<Result> future : futures) {
+                try {
+                    Result result = future.get();
+                    if (best == null || result.score < best.score) best = result;
+                } catch (ExecutionException e) {
+                    failure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the workers");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (best == null) {
+            throw failure != null ? failure : new IOException("No workers were given");
+        }
+        GroupingAlgorithm.assignGuideClustersAndThemes(problem, best.solution);
+        return best.solution;
+    }
+
+    /**
+     * Parses a comma-separated list of worker addresses.
+     *
+     * @param addresses The addresses, e.g. {@code localhost:7070,10.0.0.2:7070}.
+     * @return The addresses of the workers.
+     * @throws IllegalArgumentException If an address lacks a host or a valid port.
+     */
+    public static List<InetSocketAddress> parseAddresses(String addresses) {
+        List<InetSocketAddress> workers = new ArrayList<>();
+        for (String address : addresses.split(",")) {
+            int colon = address.lastIndexOf(':');
+            if (colon <= 0) throw new IllegalArgumentException("Invalid worker address: " + address);
+            try {
+                workers.add(new InetSocketAddress(address.substring(0, colon).trim(),
+                        Integer.parseInt(address.substring(colon + 1).trim())));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid worker address: " + address);
+            }
+        }
+        return workers;
+    }
+
+    /**
+     * Sends the problem to a single worker, and reads its solutions until it is done.
+     *
+     * @param problem The problem to solve.
+     * @param address The address of the worker.
+     * @param seed The seed of the worker.
+     * @param restarts The number of times the worker solves the problem.
+     * @return The best solution of the worker, with its score.
+     * @throws IOException If the worker cannot be reached, fails, returns a solution with a wrong score,
+     *                     or returns no solution.
+     */
+    private static Result collect(GroupingProblem problem, InetSocketAddress address, long seed, int restarts) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(address, CONNECT_TIMEOUT_MILLISECONDS);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            WorkerProtocol.writeRequest(out, problem, seed, restarts);
+
+            Result best = null;
+            while (true) {
+                byte type = in.readByte();
+                if (type == WorkerProtocol.DONE) break;
+                if (type == WorkerProtocol.ERROR) throw new IOException("Worker " + address + " failed: " + in.readUTF());
+                if (type != WorkerProtocol.SOLUTION) throw new IOException("Unexpected message from worker " + address);
+
+                long score = in.readLong();
+                Solution solution = WorkerProtocol.readSolution(in);
+                if (score != WorkerProtocol.calculateScore(problem, solution)) {
+                    throw new IOException("Worker " + address + " returned a solution with a wrong score");
+                }
+                if (best == null || score < best.score) best = new Result(score, solution);
+            }
+
+            if (best == null) throw new IOException("Worker " + address + " returned no solution");
+            return best;
+        }
+    }
+
+    /**
+     * This inner class holds a solution returned by a worker together with its score.
+     */
+    private static class Result {
+        private final long score;
+        private final Solution solution;
+
+        /**
+         * Constructor for the Result.
+         *
+         * @param score The score of the solution; lower is better.
+         * @param solution The solution.
+         */
+        public Result(long score, Solution solution) {
+            this.score = score;
+            this.solution = solution;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,228 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.GroupingProblem;
+import nl.esn.groningen.groupmaker.model.ParticipantStore;
+import nl.esn.groningen.groupmaker.model.Solution;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Utility class that solves grouping problems on behalf of a {@link SolverCoordinator}, in the same
+ * JVM, in another JVM on the same machine, or on another machine.
+ *
+ * <p>The worker listens on a socket. For every connection, it reads a request (see
+ * {@link WorkerProtocol}), solves the problem the requested number of times with
+ * {@link GroupingAlgorithm#solve(GroupingProblem, ForkJoinPool, SplittableRandom)}, and streams back every
+ * solution that is better than the best solution it sent on that connection so far. Every restart draws
+ * its random choices from its own generator, split in turn from a generator seeded by the seed of the
+ * request, so a request can be repeated and no two restarts share their random choices. Connections are
+ * handled concurrently, and all restarts share a single pool.</p>
+ *
+ * <p>The restarts of a request learn from each other: the best solutions that differ enough from each
+ * other are kept in an {@link ElitePool}. Once the pool holds two solutions, every other restart is
+ * seeded by {@link PathRelinking} between two random solutions of the pool instead of starting from
+ * scratch, after which it is improved by the same steps as a restart from scratch (see
+ * {@link GroupingAlgorithm#improve}).</p>
+ *
+ * <p>The worker does not authenticate its coordinators, so by default it only listens on the loopback
+ * address; to accept coordinators on other machines, it must be given the address of a trusted network
+ * interface explicitly. Every request is checked against the limits of the {@link WorkerProtocol}
+ * before it is solved. A worker JVM is started with the port to listen on, optionally followed by the
+ * address: {@code java -cp GroupMaker.jar nl.esn.groningen.groupmaker.util.SolverWorker 7070 10.0.0.2}.</p>
+ *
+ * @see SolverCoordinator
+ * @see WorkerProtocol
+ */
+public class SolverWorker implements Closeable {
+
+    // The elite pool of a request: its size, and the share of participants by which its solutions must differ
+    private static final int ELITE_POOL_SIZE = 8;
+    private static final int ELITE_DISTANCE_DIVISOR = 20;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "solver-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ForkJoinPool pool = new ForkJoinPool();
+
+    /**
+     * Constructs a {@code SolverWorker} listening on the given port of the loopback address. Call
+     * {@link #start()} to accept connections.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be opened.
+     */
+    public SolverWorker(int port) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Constructs a {@code SolverWorker} listening on the given address and port. Call {@link #start()}
+     * to accept connections.
+     *
+     * @param address The address of the network interface to listen on.
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be opened.
+     */
+    public SolverWorker(InetAddress address, int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 0, address);
+    }
+
+    /**
+     * Starts a worker JVM that listens until it is stopped.
+     *
+     * @param args The port to listen on, optionally followed by the address to listen on; the loopback
+     *             address if none is given.
+     * @throws IOException If the address is unknown or the port cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(args[0]);
+        InetAddress address = args.length > 1 ? InetAddress.getByName(args[1]) : InetAddress.getLoopbackAddress();
+        SolverWorker worker = new SolverWorker(address, port);
+        System.out.println("Solver worker listening on " + address.getHostAddress() + ":" + worker.getPort());
+        worker.accept();
+    }
+
+    /**
+     * Returns the port the worker listens on.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Starts accepting connections in a background thread.
+     */
+    public void start() {
+        connections.execute(this::accept);
+    }
+
+    /**
+     * Stops accepting connections and releases the port. Requests that are being solved are stopped
+     * when their connection fails.
+     *
+     * @throws IOException If closing the socket fails.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    /**
+     * Accepts connections until the worker is closed, handling each in its own thread.
+     */
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> handle(socket));
+            } catch (IOException e) {
+                // The socket was closed, or the connection failed before it was accepted
+            }
+        }
+    }
+
+    /**
+     * Solves the request received on a connection and streams back the improving solutions.
+     *
+     * @param socket The connection to a coordinator.
+     */
+    private void handle(Socket socket) {
+        try (Socket connection = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()))) {
+            try {
+                WorkerProtocol.Request request = WorkerProtocol.readRequest(in);
+                GroupingProblem problem = request.getProblem();
+                Restarts restarts = new Restarts(problem, request.getSeed());
+                long bestScore = Long.MAX_VALUE;
+
+                for (int restart = 0; restart < request.getRestarts(); restart++) {
+                    Solution solution = restarts.next(restart);
+                    long score = WorkerProtocol.calculateScore(problem, solution);
+                    restarts.elites.add(solution, score);
+                    if (score < bestScore) {
+                        bestScore = score;
+                        WorkerProtocol.writeSolution(out, score, solution);
+                    }
+                }
+                out.writeByte(WorkerProtocol.DONE);
+            } catch (IOException | RuntimeException e) {
+                out.writeByte(WorkerProtocol.ERROR);
+                out.writeUTF(String.valueOf(e.getMessage()));
+            }
+            out.flush();
+        } catch (IOException e) {
+            // The coordinator went away; there is nobody left to report to
+        }
+    }
+
+    /**
+     * This inner class produces the solutions of the restarts of a single request, alternating between
+     * restarts from scratch and restarts seeded by relinking solutions of its elite pool.
+     */
+    private class Restarts {
+        private final GroupingProblem problem;
+        private final ParticipantUnits units;
+        private final ConflictGraph conflicts;
+        private final ScoringTables tables;
+        private final ElitePool elites;
+        private final SplittableRandom seeds;
+
+        /**
+         * Constructor for the Restarts, which rebuilds the units, conflicts and scoring tables used during
+         * construction.
+         *
+         * @param problem The problem of the request.
+         * @param seed The seed of the request.
+         */
+        public Restarts(GroupingProblem problem, long seed) {
+            ParticipantStore store = problem.getParticipantStore();
+            int[] groupSizes = GroupingAlgorithm.calculateGroupSizes(store.size(), problem.getSettings().getGroupSize());
+            this.problem = problem;
+            this.conflicts = new ConflictGraph(store.size(), problem.getConflictPairs());
+            this.units = new ParticipantUnits(store.size(), problem.getBuddyPairs(), groupSizes.length > 0 ? groupSizes[0] : 1,
+                    conflicts);
+            this.tables = ScoringTables.compile(problem.getSettings().getScoringWeights());
+            this.elites = new ElitePool(ELITE_POOL_SIZE, Math.max(1, store.size() / ELITE_DISTANCE_DIVISOR));
+            this.seeds = new SplittableRandom(seed);
+        }
+
+        /**
+         * Computes the solution of a restart. The restarts must be computed in order, since every restart
+         * splits its generator from the generator of the request.
+         *
+         * @param restart The number of the restart.
+         * @return The solution, without guide clusters or themes if it was seeded by relinking.
+         */
+        public Solution next(int restart) {
+            SplittableRandom random = seeds.split();
+            if (restart % 2 == 1 && elites.size() >= 2) {
+                int initiating = random.nextInt(elites.size());
+                int guiding = random.nextInt(elites.size() - 1);
+                if (guiding >= initiating) guiding++;
+
+                Solution solution = PathRelinking.relink(problem, elites.get(initiating), elites.get(guiding), units, conflicts,
+                        random);
+                if (solution != null) {
+                    GroupingAlgorithm.improve(problem, solution, units, conflicts, tables, pool);
+                    return solution;
+                }
+            }
+            return GroupingAlgorithm.solve(problem, pool, random);
+        }
+    }
+}
\ No newline at end of file
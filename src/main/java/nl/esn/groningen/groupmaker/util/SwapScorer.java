@@ -0,0 +1,108 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.*;
+
+/**
+ * Utility class scoring pairs of participants for the local searches that swap participants between
+ * groups after the groups have been formed.
+ *
+ * <p>The score of two participants is their similarity and dissimilarity (see {@link ScoringTables}),
+ * the score of sharing a region, and the penalty for the difference between their ages; summed over all
+ * pairs of members, the last equals the spread of ages in the group. All scores are multiplied by the
+ * group size of the settings, so the age penalty, which is divided by the group size, stays a whole
+ * number.</p>
+ *
+ * <p>To leave the limits of the settings and the spread of Group Leaders intact, only participants with
+ * the same gender, diet, guide request and Group Leader preference may be swapped; the nationality limit
+ * is checked with {@link #calculateExcessChange(int, int)}.</p>
+ *
+ * @see PairwiseRefinement
+ * @see ConcurrentSwapSearch
+ */
+public class SwapScorer {
+
+    // Attributes that must be shared by two participants that are swapped
+    private static final long SWAP_PROFILE = ParticipantEncoding.GENDER_MASK | ParticipantEncoding.DIET_MASK
+            | ParticipantEncoding.REQUESTS_GUIDE_MASK | ParticipantEncoding.CAN_GUIDE_MASK;
+
+    private final ParticipantStore store;
+    private final ScoringTables tables;
+    private final int scale;
+    private final int ageWeight;
+    private final int regionWeight;
+    private final int nationalityMaximum;
+
+    /**
+     * Constructs a {@code SwapScorer}.
+     *
+     * @param store The columnar store of the participants.
+     * @param settings The settings holding the scoring weights and group limits.
+     * @param tables The compiled scoring weights.
+     */
+    public SwapScorer(ParticipantStore store, Settings settings, ScoringTables tables) {
+        this.store = store;
+        this.tables = tables;
+        this.scale = settings.getGroupSize();
+        this.ageWeight = settings.getScoringWeights().get(ScoringWeights.AGE_SPREAD);
+        this.regionWeight = settings.getScoringWeights().get(ScoringWeights.REGION_SAME);
+        this.nationalityMaximum = settings.getSameNationalityGroupMaximum();
+    }
+
+    /**
+     * Returns the columnar store of the participants.
+     *
+     * @return The store.
+     */
+    public ParticipantStore getStore() {
+        return store;
+    }
+
+    /**
+     * Scores two participants being in the same group.
+     *
+     * @param p1 The index of the first participant.
+     * @param p2 The index of the second participant.
+     * @return The score, multiplied by the group size.
+     */
+    public long calculateScore(int p1, int p2) {
+        long score = tables.calculateSimilarity(store.getCode(p1), store.getCode(p2))
+                + tables.calculateDissimilarity(store, p1, p2);
+
+        int region = store.getRegion(p1);
+        if (region != NationalityRegions.UNKNOWN_REGION && region == store.getRegion(p2)) {
+            score += regionWeight;
+        }
+        score *= scale;
+
+        int age1 = store.getAge(p1);
+        int age2 = store.getAge(p2);
+        if (age1 != ParticipantStore.UNKNOWN_AGE && age2 != ParticipantStore.UNKNOWN_AGE) {
+            score -= (long) ageWeight * (age1 - age2) * (age1 - age2);
+        }
+        return score;
+    }
+
+    /**
+     * Checks whether two participants share the attributes that swapped participants must share.
+     *
+     * @param p1 The index of the first participant.
+     * @param p2 The index of the second participant.
+     * @return {@code true} if the participants may be swapped as far as their attributes are concerned.
+     */
+    public boolean isSwappable(int p1, int p2) {
+        return ParticipantEncoding.matches(store.getCode(p1), store.getCode(p2), SWAP_PROFILE);
+    }
+
+    /**
+     * Calculates by how much moving a participant of a known nationality changes the number of participants
+     * by which the two groups involved exceed the nationality limit.
+     *
+     * @param leaving The number of participants of the nationality in the group the participant leaves,
+     *                including the participant.
+     * @param joining The number of participants of the nationality in the group the participant joins.
+     * @return The change of the excess: -1, 0 or 1.
+     */
+    public int calculateExcessChange(int leaving, int joining) {
+        return (joining >= nationalityMaximum ? 1 : 0) - (leaving > nationalityMaximum ? 1 : 0);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.*;
+
+/**
+ * Utility class for assigning themes to groups.
+ *
+ * <p>Themes can be tagged with an Introduction Week interest (for example {@code Pirates:Party}).
+ * The members of every group are counted per interest in a single pass over the participants, which
+ * gives the affinity of every group with every theme: the share of its members sharing the interest
+ * of the theme. The {@link HungarianAlgorithm} then finds the assignment of themes to groups with the
+ * highest total affinity.</p>
+ *
+ * <p>If no theme is tagged with an interest, or theme optimization is disabled in the
+ * {@link Settings}, the themes are assigned in the order in which they were imported.</p>
+ *
+ * @see HungarianAlgorithm
+ * @see ParticipantEncoding
+ */
+public class ThemeAssignment {
+
+    /**
+     * Assigns the themes of the problem to the groups of the solution. Groups for which no theme
+     * is left are not assigned a theme.
+     *
+     * @param problem The problem holding the themes and settings.
+     * @param solution The solution in which the themes are assigned.
+     */
+    public static void assign(GroupingProblem problem, Solution solution) {
+        int numberOfGroups = solution.getNumberOfGroups();
+        int numberOfThemes = problem.getThemes().length;
+
+        // Fall back to assigning the themes in order if there is nothing to optimize
+        if (!problem.getSettings().isThemeOptimization() || !hasInterests(problem.getThemeInterests())) {
+            for (int group = 0; group < Math.min(numberOfThemes, numberOfGroups); group++) {
+                solution.setTheme(group, group);
+            }
+            return;
+        }
+
+        long[][] cost = calculateCostMatrix(problem, solution);
+        int[] assignment = HungarianAlgorithm.solve(cost);
+        for (int group = 0; group < assignment.length; group++) {
+            solution.setTheme(group, assignment[group] >= 0 ? assignment[group] : Solution.UNASSIGNED);
+        }
+    }
+
+    /**
+     * Counts the participants that share the interest of the theme assigned to their group.
+     *
+     * @param problem The problem holding the participants and themes.
+     * @param solution The solution holding the assigned themes.
+     * @return The number of participants whose interest matches the theme of their group.
+     */
+    public static int countMatchingInterests(GroupingProblem problem, Solution solution) {
+        if (problem.getThemes() == null) return 0;
+
+        ParticipantStore store = problem.getParticipantStore();
+        int[] themeInterests = problem.getThemeInterests();
+        int matching = 0;
+        for (int p = 0; p < store.size(); p++) {
+            int group = solution.getGroup(p);
+            if (group == Solution.UNASSIGNED || solution.getTheme(group) == Solution.UNASSIGNED) continue;
+
+            int interest = themeInterests[solution.getTheme(group)];
+            if (interest != ParticipantEncoding.INTEREST_OTHER
+                    && interest == ParticipantEncoding.interest(store.getCode(p))) {
+                matching++;
+            }
+        }
+
+        return matching;
+    }
+
+    /**
+     * Checks whether at least one theme is tagged with an interest.
+     *
+     * @param themeInterests The encoded interest of every theme.
+     * @return {@code true} if any theme has an interest other than "Other".
+     */
+    private static boolean hasInterests(int[] themeInterests) {
+        for (int interest : themeInterests) {
+            if (interest != ParticipantEncoding.INTEREST_OTHER) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Calculates the cost of every combination of a group and a theme. The cost is the share of
+     * members of the group (in percent) that do not share the interest of the theme.
+     *
+     * @param problem The problem holding the participants and themes.
+     * @param solution The solution describing the groups.
+     * @return The cost matrix, indexed as {@code cost[group][theme]}.
+     */
+    private static long[][] calculateCostMatrix(GroupingProblem problem, Solution solution) {
+        ParticipantStore store = problem.getParticipantStore();
+        int[] themeInterests = problem.getThemeInterests();
+        int numberOfGroups = solution.getNumberOfGroups();
+
+        // Count the members of every group per interest in a single pass
+        int[][] interests = new int[numberOfGroups][ParticipantEncoding.INTEREST_COUNT];
+        int[] groupSizes = new int[numberOfGroups];
+        for (int p = 0; p < store.size(); p++) {
+            int group = solution.getGroup(p);
+            if (group == Solution.UNASSIGNED) continue;
+
+            groupSizes[group]++;
+            interests[group][ParticipantEncoding.interest(store.getCode(p))]++;
+        }
+
+        // Themes without an interest match nobody
+        long[][] cost = new long[numberOfGroups][themeInterests.length];
+        for (int group = 0; group < numberOfGroups; group++) {
+            if (groupSizes[group] == 0) continue;
+
+            for (int theme = 0; theme < themeInterests.length; theme++) {
+                int interest = themeInterests[theme];
+                int matching = interest == ParticipantEncoding.INTEREST_OTHER ? 0 : interests[group][interest];
+                cost[group][theme] = Math.round(100.0 * (groupSizes[group] - matching) / groupSizes[group]);
+            }
+        }
+
+        return cost;
+    }
+}
\ No newline at end of file
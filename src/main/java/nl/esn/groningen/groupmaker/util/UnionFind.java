@@ -0,0 +1,76 @@
+package nl.esn.groningen.groupmaker.util;
+
+/**
+ * Utility class implementing a union-find (disjoint-set) structure over the integers 0 to n - 1.
+ *
+ * <p>Sets are merged by size and paths are halved while searching, so any sequence of operations
+ * runs in nearly linear time. The size of every set is tracked, so merges can be refused when the
+ * merged set would become too large.</p>
+ */
+public class UnionFind {
+    private final int[] parent;
+    private final int[] size;
+
+    /**
+     * Constructs a {@code UnionFind} in which every element forms its own set.
+     *
+     * @param numberOfElements The number of elements.
+     */
+    public UnionFind(int numberOfElements) {
+        this.parent = new int[numberOfElements];
+        this.size = new int[numberOfElements];
+        for (int i = 0; i < numberOfElements; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+    }
+
+    /**
+     * Returns the representative of the set containing an element.
+     *
+     * @param element The element.
+     * @return The representative of its set.
+     */
+    public int find(int element) {
+        while (parent[element] != element) {
+            parent[element] = parent[parent[element]];
+            element = parent[element];
+        }
+        return element;
+    }
+
+    /**
+     * Returns the size of the set containing an element.
+     *
+     * @param element The element.
+     * @return The number of elements in its set.
+     */
+    public int size(int element) {
+        return size[find(element)];
+    }
+
+    /**
+     * Merges the sets containing two elements, unless the merged set would exceed the maximum size.
+     *
+     * @param element1 The first element.
+     * @param element2 The second element.
+     * @param maximumSize The maximum size of the merged set.
+     * @return {@code true} if both elements are in the same set afterwards.
+     */
+    public boolean union(int element1, int element2, int maximumSize) {
+        int root1 = find(element1);
+        int root2 = find(element2);
+        if (root1 == root2) return true;
+        if (size[root1] + size[root2] > maximumSize) return false;
+
+        // Attach the smaller set below the larger one
+        if (size[root1] < size[root2]) {
+            int swap = root1;
+            root1 = root2;
+            root2 = swap;
+        }
+        parent[root2] = root1;
+        size[root1] += size[root2];
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,297 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.*;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Utility class defining the messages exchanged between a {@link SolverCoordinator} and its
+ * {@link SolverWorker}s over a socket.
+ *
+ * <p>The coordinator opens a connection and sends a single request: the protocol version, a seed,
+ * the number of restarts, and the encoded problem (the encoded participants, their nationality ids,
+ * regions and ages, the buddy and conflict pairs and the settings, including the scoring weights).
+ * Names, e-mail addresses, dates of birth and other personal data are never sent. The worker then
+ * streams back a message for every restart that improved on its best solution so far, followed by a
+ * final message. Guide clusters and themes are left to the coordinator, which assigns them to the
+ * best solution only.</p>
+ *
+ * <p>All values are written with {@link DataOutputStream}, so workers can run in any JVM. A worker
+ * checks every count and index it reads against the limits below before it allocates anything, so a
+ * malformed request is rejected instead of making the worker allocate arbitrarily large arrays.</p>
+ */
+public class WorkerProtocol {
+    // Raised whenever the layout of a message changes, so a coordinator and worker of different versions refuse each other
+    public static final int VERSION = 1;
+
+    // The largest requests a worker accepts
+    public static final int MAXIMUM_PARTICIPANTS = 100000;
+    public static final int MAXIMUM_PAIRS = 1000000;
+    public static final int MAXIMUM_RESTARTS = 100000;
+
+    // Types of the messages sent by a worker
+    public static final byte SOLUTION = 1;
+    public static final byte DONE = 2;
+    public static final byte ERROR = 3;
+
+    /**
+     * Writes a request to solve a problem.
+     *
+     * @param out The stream to write to.
+     * @param problem The problem to solve.
+     * @param seed The seed identifying the restarts of this worker.
+     * @param restarts The number of times the worker solves the problem.
+     * @throws IOException If writing fails.
+     */
+    public static void writeRequest(DataOutputStream out, GroupingProblem problem, long seed, int restarts) throws IOException {
+        ParticipantStore store = problem.getParticipantStore();
+        Settings settings = problem.getSettings();
+
+        out.writeInt(VERSION);
+        out.writeLong(seed);
+        out.writeInt(restarts);
+
+        out.writeInt(store.size());
+        out.writeInt(store.getNationalityCount());
+        for (int nationality = 0; nationality < store.getNationalityCount(); nationality++) {
+            out.writeInt(store.getNationalityRegion(nationality));
+        }
+        for (int p = 0; p < store.size(); p++) {
+            out.writeLong(store.getCode(p));
+            out.writeInt(store.getNationality(p));
+            out.writeInt(store.getAge(p));
+        }
+        writePairs(out, problem.getBuddyPairs());
+        writePairs(out, problem.getConflictPairs());
+
+        out.writeInt(settings.getGroupSize());
+        out.writeInt(settings.getPlantBasedGroupMaximum());
+        out.writeInt(settings.getSameNationalityGroupMaximum());
+        out.writeInt(settings.getSameGenderPercentageLimit());
+        out.writeBoolean(settings.isLexicographicScoring());
+        out.writeBoolean(settings.isNationalitySpreading());
+        out.writeBoolean(settings.isForwardChecking());
+        out.writeBoolean(settings.isBeamSearch());
+        out.writeBoolean(settings.isRegretInsertion());
+        out.writeBoolean(settings.isPairwiseRefinement());
+        out.writeBoolean(settings.isConcurrentSwapSearch());
+        out.writeBoolean(settings.isIslandModel());
+        for (int weight = 0; weight < ScoringWeights.COUNT; weight++) {
+            out.writeInt(settings.getScoringWeights().get(weight));
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a request written by {@link #writeRequest(DataOutputStream, GroupingProblem, long, int)}.
+     *
+     * @param in The stream to read from.
+     * @return The request.
+     * @throws IOException If reading fails, the request was written with another protocol version, or one
+     *                     of its counts, indices, ages or its group size is out of range.
+     */
+    public static Request readRequest(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != VERSION) throw new IOException("Unsupported protocol version " + version);
+        long seed = in.readLong();
+        int restarts = checkRange("number of restarts", in.readInt(), 0, MAXIMUM_RESTARTS);
+
+        int size = checkRange("number of participants", in.readInt(), 0, MAXIMUM_PARTICIPANTS);
+        int[] nationalityRegions = new int[checkRange("number of nationalities", in.readInt(), 0, size)];
+        for (int nationality = 0; nationality < nationalityRegions.length; nationality++) {
+            nationalityRegions[nationality] = checkRange("region", in.readInt(), NationalityRegions.UNKNOWN_REGION,
+                    NationalityRegions.getRegionCount() - 1);
+        }
+        long[] codes = new long[size];
+        int[] nationalities = new int[size];
+        int[] ages = new int[size];
+        for (int p = 0; p < size; p++) {
+            codes[p] = in.readLong();
+            nationalities[p] = checkRange("nationality", in.readInt(), ParticipantStore.UNKNOWN_NATIONALITY,
+                    nationalityRegions.length - 1);
+            ages[p] = in.readInt();
+            if (ages[p] != ParticipantStore.UNKNOWN_AGE) checkRange("age", ages[p], 1, ParticipantStore.MAXIMUM_AGE);
+        }
+        int[] buddyPairs = readPairs(in, size);
+        int[] conflictPairs = readPairs(in, size);
+
+        Settings settings = new Settings(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+        if (settings.getGroupSize() < 1 || settings.getGroupSize() > Settings.MAXIMUM_GROUP_SIZE) {
+            throw new IOException("Invalid group size " + settings.getGroupSize());
+        }
+        settings.setLexicographicScoring(in.readBoolean());
+        settings.setNationalitySpreading(in.readBoolean());
+        settings.setForwardChecking(in.readBoolean());
+        settings.setBeamSearch(in.readBoolean());
+        settings.setRegretInsertion(in.readBoolean());
+        settings.setPairwiseRefinement(in.readBoolean());
+        settings.setConcurrentSwapSearch(in.readBoolean());
+        settings.setIslandModel(in.readBoolean());
+        ScoringWeights weights = new ScoringWeights();
+        for (int weight = 0; weight < ScoringWeights.COUNT; weight++) {
+            weights.set(weight, in.readInt());
+        }
+        settings.setScoringWeights(weights);
+
+        ParticipantStore store = new ParticipantStore(codes, nationalities, nationalityRegions, ages);
+        GroupingProblem problem = new GroupingProblem(store, null, null, null, buddyPairs, conflictPairs, settings);
+        return new Request(problem, seed, restarts);
+    }
+
+    /**
+     * Writes a solution found by a worker.
+     *
+     * @param out The stream to write to.
+     * @param score The score of the solution; lower is better.
+     * @param solution The solution.
+     * @throws IOException If writing fails.
+     */
+    public static void writeSolution(DataOutputStream out, long score, Solution solution) throws IOException {
+        out.writeByte(SOLUTION);
+        out.writeLong(score);
+        out.writeInt(solution.getNumberOfGroups());
+        out.writeInt(solution.getNumberOfParticipants());
+        for (int p = 0; p < solution.getNumberOfParticipants(); p++) {
+            out.writeInt(solution.getGroup(p));
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads the groups of a solution written by {@link #writeSolution(DataOutputStream, long, Solution)},
+     * after its type and score were read.
+     *
+     * @param in The stream to read from.
+     * @return The solution, without guide clusters or themes.
+     * @throws IOException If reading fails.
+     */
+    public static Solution readSolution(DataInputStream in) throws IOException {
+        int numberOfGroups = in.readInt();
+        int numberOfParticipants = in.readInt();
+        Solution solution = new Solution(numberOfParticipants, numberOfGroups);
+        for (int p = 0; p < numberOfParticipants; p++) {
+            int group = in.readInt();
+            if (group != Solution.UNASSIGNED) solution.assign(p, group);
+        }
+        return solution;
+    }
+
+    /**
+     * Computes the score used to compare solutions: the number of participants by which the groups
+     * exceed the limits of the settings, with the cohesion objective breaking ties.
+     *
+     * @param problem The problem holding the participants and settings.
+     * @param solution The solution to score.
+     * @return The score; lower is better.
+     */
+    public static long calculateScore(GroupingProblem problem, Solution solution) {
+        GroupHistograms histograms = new GroupHistograms(problem.getParticipantStore(), solution, problem.getSettings());
+        long violation = 0;
+        for (int group = 0; group < solution.getNumberOfGroups(); group++) {
+            violation += histograms.getViolation(group);
+        }
+        return (violation << 32) + histograms.getObjective(Objectives.COHESION);
+    }
+
+    /**
+     * Writes an array of participant pairs, which may be {@code null}.
+     *
+     * @param out The stream to write to.
+     * @param pairs The pairs, or {@code null}.
+     * @throws IOException If writing fails.
+     */
+    private static void writePairs(DataOutputStream out, int[] pairs) throws IOException {
+        out.writeInt(pairs != null ? pairs.length : -1);
+        if (pairs == null) return;
+        for (int value : pairs) {
+            out.writeInt(value);
+        }
+    }
+
+    /**
+     * Reads an array of participant pairs written by {@link #writePairs(DataOutputStream, int[])}.
+     *
+     * @param in The stream to read from.
+     * @param size The number of participants.
+     * @return The pairs, or {@code null}.
+     * @throws IOException If reading fails, or the number of pairs or a participant index is out of range.
+     */
+    private static int[] readPairs(DataInputStream in, int size) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        if (length % 2 != 0) throw new IOException("Odd number of pair values " + length);
+        int[] pairs = new int[checkRange("number of pair values", length, 0, 2 * MAXIMUM_PAIRS)];
+        for (int i = 0; i < length; i++) {
+            pairs[i] = checkRange("participant", in.readInt(), 0, size - 1);
+        }
+        return pairs;
+    }
+
+    /**
+     * Checks that a value read from a request lies within its range.
+     *
+     * @param name The name of the value, for the message of the exception.
+     * @param value The value.
+     * @param minimum The smallest allowed value.
+     * @param maximum The largest allowed value.
+     * @return The value.
+     * @throws IOException If the value lies outside the range.
+     */
+    private static int checkRange(String name, int value, int minimum, int maximum) throws IOException {
+        if (value < minimum || value > maximum) {
+            throw new IOException("Invalid " + name + " " + value + ", expected " + minimum + " to " + maximum);
+        }
+        return value;
+    }
+
+    /**
+     * This inner class holds a request received by a worker.
+     */
+    public static class Request {
+        private final GroupingProblem problem;
+        private final long seed;
+        private final int restarts;
+
+        /**
+         * Constructor for the Request.
+         *
+         * @param problem The problem to solve.
+         * @param seed The seed identifying the restarts of the worker.
+         * @param restarts The number of times to solve the problem.
+         */
+        public Request(GroupingProblem problem, long seed, int restarts) {
+            this.problem = problem;
+            this.seed = seed;
+            this.restarts = restarts;
+        }
+
+        /**
+         * Returns the problem to solve.
+         *
+         * @return The problem.
+         */
+        public GroupingProblem getProblem() {
+            return problem;
+        }
+
+        /**
+         * Returns the seed identifying the restarts of the worker.
+         *
+         * @return The seed.
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * Returns the number of times to solve the problem.
+         *
+         * @return The number of restarts.
+         */
+        public int getRestarts() {
+            return restarts;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.GroupingModel;
+import nl.esn.groningen.groupmaker.model.GroupingProblem;
+import nl.esn.groningen.groupmaker.model.Settings;
+import nl.esn.groningen.groupmaker.model.Solution;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Utility class checking the round trip between a {@link SolverCoordinator} and a {@link SolverWorker} in
+ * a single JVM, without starting a worker process.
+ *
+ * <p>The check starts a worker on a free port, and lets the coordinator solve a problem on it twice with
+ * the same seed. The coordinator already rejects a solution whose score does not match the score the
+ * worker sent with it (see {@link WorkerProtocol#calculateScore(GroupingProblem, Solution)}); the check
+ * also requires every participant to be assigned to a group, and the second request to reach the same
+ * score as the first, since the restarts of a worker are derived from the seed. The concurrent swap
+ * search depends on the timing of the threads, so it is disabled for the check.</p>
+ *
+ * <p>The check is run on a participants file:
+ * {@code java -cp GroupMaker.jar nl.esn.groningen.groupmaker.util.WorkerRoundTrip participants.csv}.</p>
+ *
+ * @see SolverCoordinator
+ * @see SolverWorker
+ */
+public class WorkerRoundTrip {
+
+    // The number of restarts the worker runs for every request if none is given
+    private static final int DEFAULT_RESTARTS = 4;
+
+    // The seed of both requests
+    private static final long SEED = 16;
+
+    /**
+     * Runs the round trip on the participants of a file, prints its result, and exits with status 1 if it
+     * fails.
+     *
+     * @param args The participants file, optionally followed by the number of restarts.
+     * @throws IOException If the participants file cannot be read, or the worker fails.
+     */
+    public static void main(String[] args) throws IOException {
+        Settings settings = new Settings();
+        settings.setConcurrentSwapSearch(false);
+        GroupingModel model = new GroupingModel();
+        model.load(settings, new File(args[0]), null, null, null, null);
+        int restarts = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_RESTARTS;
+
+        String failure = check(model.getProblem(), restarts);
+        System.out.println(failure == null ? "Round trip succeeded" : "Round trip failed: " + failure);
+        if (failure != null) System.exit(1);
+    }
+
+    /**
+     * Solves a problem twice with the same seed on a worker in this JVM, and checks the solutions.
+     *
+     * @param problem The problem to solve; the concurrent swap search should be disabled in its settings.
+     * @param restarts The number of restarts the worker runs for every request.
+     * @return {@code null} if the round trip succeeded, or a description of what went wrong.
+     * @throws IOException If the worker cannot be started or fails.
+     */
+    public static String check(GroupingProblem problem, int restarts) throws IOException {
+        try (SolverWorker worker = new SolverWorker(0)) {
+            worker.start();
+            List<InetSocketAddress> workers = Collections.singletonList(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), worker.getPort()));
+
+            Solution first = SolverCoordinator.solve(problem, workers, restarts, SEED);
+            for (int participant = 0; participant < problem.getParticipantStore().size(); participant++) {
+                if (!first.isAssigned(participant)) return "participant " + participant + " is not assigned";
+            }
+
+            Solution second = SolverCoordinator.solve(problem, workers, restarts, SEED);
+            long score = WorkerProtocol.calculateScore(problem, first);
+            long repeated = WorkerProtocol.calculateScore(problem, second);
+            if (score != repeated) return "the same seed gave scores " + score + " and " + repeated;
+            return null;
+        }
+    }
+}
\ No newline at end of file
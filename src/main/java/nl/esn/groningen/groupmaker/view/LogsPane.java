@@ -2,7 +2,13 @@ package nl.esn.groningen.groupmaker.view;
 
 import nl.esn.groningen.groupmaker.model.Group;
 import nl.esn.groningen.groupmaker.model.GroupingModel;
+import nl.esn.groningen.groupmaker.model.GroupingProblem;
 import nl.esn.groningen.groupmaker.model.Settings;
+import nl.esn.groningen.groupmaker.model.Solution;
+import nl.esn.groningen.groupmaker.util.ConflictGraph;
+import nl.esn.groningen.groupmaker.util.GuideClusterAssignment;
+import nl.esn.groningen.groupmaker.util.ParticipantUnits;
+import nl.esn.groningen.groupmaker.util.ThemeAssignment;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -13,9 +19,12 @@ import javax.swing.border.EmptyBorder;
  * presents log messages in an HTML format, allowing for rich text display
  * of warnings and information regarding group configurations.
  *
- * <p>The logs include warnings about dietary restrictions, nationality
- * distribution, and gender balance within groups. It aims to provide users
- * with insights into the group composition and any potential issues.</p>
+ * <p>The logs include the mismatch cost of the assigned guide clusters, the
+ * number of participants sharing the interest of their group's theme, the
+ * number of separated buddies and violated conflicts, and warnings about
+ * dietary restrictions, nationality distribution, gender balance and missing
+ * Group Leaders within groups. It aims to provide users with insights into
+ * the group composition and any potential issues.</p>
  *
  * @see GroupingModel
  * @see Group
@@ -56,7 +65,8 @@ public class LogsPane extends JEditorPane {
      *
      * <p>This method analyzes the groups in the grouping model to check
      * for warnings regarding dietary restrictions, nationality distribution,
-     * and gender balance. It constructs a summary of any warnings found.</p>
+     * gender balance, and groups without a potential Group Leader. It
+     * constructs a summary of any warnings found.</p>
      *
      * @param groupingModel the {@link GroupingModel} used to gather
      *                      information about the groups.
@@ -67,13 +77,57 @@ public class LogsPane extends JEditorPane {
         boolean dietWarnings = false;
         boolean nationalityWarnings = false;
         boolean genderWarnings = false;
+        boolean leaderWarnings = false;
 
         // Initialize logs with a success message
         StringBuilder logs = new StringBuilder("<b>Run successful!</b>");
         Settings settings = groupingModel.getSettings();
 
-        // Check for diet warnings
+        // Build the snapshot of the problem once, and check the solution against it
+        Solution solution = groupingModel.getSolution();
+        if (solution != null) {
+            GroupingProblem problem = groupingModel.getProblem();
+
+            // Report how well the guide clusters match their groups
+            if (groupingModel.getGuideClusters() != null) {
+                long cost = GuideClusterAssignment.calculateCost(problem, solution);
+                logs.append("<br><br>Introduction Guide clusters were matched to the groups with a total mismatch cost of ")
+                        .append(cost).append(".");
+            }
+
+            // Report how well the themes match the interests of their groups
+            if (groupingModel.getThemes() != null) {
+                int matching = ThemeAssignment.countMatchingInterests(problem, solution);
+                logs.append("<br><br>").append(matching)
+                        .append(" participants share the interest of the theme of their group.");
+            }
+
+            // Report buddy requests that could not be honoured
+            int separated = ParticipantUnits.countSeparatedPairs(problem, solution);
+            int conflicting = ParticipantUnits.countConflictingPairs(problem, solution);
+            if (separated > conflicting) {
+                logs.append("<br><br>").append(separated - conflicting)
+                        .append(" pairs of buddies could not be placed in the same group, because their group would be too large.");
+            }
+            if (conflicting > 0) {
+                logs.append("<br><br>").append(conflicting)
+                        .append(" pairs of buddies could not be placed in the same group, because they or their other buddies")
+                        .append(" must be kept apart.");
+            }
+
+            // Report conflicts that could not be respected
+            int violated = ConflictGraph.countViolatedPairs(problem, solution);
+            if (violated > 0) {
+                logs.append("<br><br>").append(violated)
+                        .append(" pairs of participants that should be kept apart were placed in the same group.");
+            }
+        }
+
+        // Check every group for diet, nationality, gender and Group Leader warnings in a single pass
         StringBuilder dietWarningsText = new StringBuilder();
+        StringBuilder nationalitiesWarningsText = new StringBuilder();
+        StringBuilder genderWarningsText = new StringBuilder();
+        StringBuilder leaderWarningsText = new StringBuilder();
         for (Group group : groupingModel.getGroups()) {
             int plantBasedEaters = group.getNumberOfPlantBasedEaters();
             if (plantBasedEaters > settings.getPlantBasedGroupMaximum()) {
@@ -81,11 +135,7 @@ public class LogsPane extends JEditorPane {
                         .append(group.getGroupNumber()).append(" eat plant-based");
                 dietWarnings = true;
             }
-        }
 
-        // Check for nationality warnings
-        StringBuilder nationalitiesWarningsText = new StringBuilder();
-        for (Group group : groupingModel.getGroups()) {
             int maxSameNationalities = group.getMaxSameNationality();
             if (maxSameNationalities > settings.getSameNationalityGroupMaximum()) {
                 nationalitiesWarningsText.append("<br>").append(maxSameNationalities).append(" participants in Group ")
@@ -93,21 +143,23 @@ public class LogsPane extends JEditorPane {
                         .append(group.getMostCommonNationality());
                 nationalityWarnings = true;
             }
-        }
 
-        // Check for gender warnings
-        StringBuilder genderWarningsText = new StringBuilder();
-        for (Group group : groupingModel.getGroups()) {
             int genderRatio = group.getMaxSameGenderPercentage();
             if (genderRatio > settings.getSameGenderPercentageLimit()) {
                 genderWarningsText.append("<br>").append(genderRatio).append("% of participants in Group ")
                         .append(group.getGroupNumber()).append(" are of the same gender");
                 genderWarnings = true;
             }
+
+            if (group.getNumberOfGroupLeaders() == 0) {
+                leaderWarningsText.append("<br>Group ").append(group.getGroupNumber())
+                        .append(" has no participant willing to become a Group Leader");
+                leaderWarnings = true;
+            }
         }
 
         // Append warning summaries to logs
-        if (!dietWarnings && !nationalityWarnings && !genderWarnings) {
+        if (!dietWarnings && !nationalityWarnings && !genderWarnings && !leaderWarnings) {
             logs.append("<br><br>There were no warnings.");
         } else {
             logs.append("<br><br>There are warnings that you should take note of.");
@@ -126,6 +178,11 @@ public class LogsPane extends JEditorPane {
                 logs.append("<br><br><b>Warnings about gender imbalances in groups:</b>")
                         .append(genderWarningsText);
             }
+
+            if (leaderWarnings) {
+                logs.append("<br><br><b>Warnings about groups without a Group Leader:</b>")
+                        .append(leaderWarningsText);
+            }
         }
 
         // Return the constructed log messages as a string
@@ -20,6 +20,8 @@ import java.awt.*;
  * @see ImportIntroductionGuidesButton
  * @see ImportParticipantsButton
  * @see ImportThemesButton
+ * @see ImportBuddiesButton
+ * @see ImportConflictsButton
  * @see ImportEmailTemplateButton
  * @see SetOutputFolderButton
  * @see OpenSettingsButton
@@ -34,7 +36,7 @@ public class MainButtonBar extends JPanel {
      *
      * <p>This constructor initializes the layout of the button bar and
      * adds various action buttons, including options to import guides,
-     * participants, themes, and templates, as well as to set the output
+     * participants, themes, buddies, conflicts, and templates, as well as to set the output
      * folder, open settings, run the grouping process, export results,
      * and access help documentation.</p>
      *
@@ -63,6 +65,12 @@ public class MainButtonBar extends JPanel {
         gbc.gridx++; // Move to the next column
         add(new ImportThemesButton(groupingModel, "Import themes from a file"), gbc);
 
+        gbc.gridx++; // Move to the next column
+        add(new ImportBuddiesButton(groupingModel, "Import participants that want to be placed together from a file"), gbc);
+
+        gbc.gridx++; // Move to the next column
+        add(new ImportConflictsButton(groupingModel, "Import participants that must be kept apart from a file"), gbc);
+
         gbc.gridx++; // Move to the next column
         add(new ImportEmailTemplateButton(groupingModel, "Import an email template"), gbc);
 
@@ -14,7 +14,7 @@ import java.util.Observer;
  * The {@code MainPanel} class represents a panel in the user interface that
  * displays information and controls related to the grouping model.
  *
- * <p>This panel shows the paths for guides, participants, themes, templates,
+ * <p>This panel shows the paths for guides, participants, themes, buddies, conflicts, templates,
  * and the output folder. It also includes buttons for displaying matched participants,
  * groups, and logs, updating dynamically based on the state of the grouping model.</p>
  *
@@ -28,6 +28,8 @@ public class MainPanel extends JPanel implements Observer {
     private final JLabel guidesLabel;
     private final JLabel participantsLabel;
     private final JLabel themesLabel;
+    private final JLabel buddiesLabel;
+    private final JLabel conflictsLabel;
     private final JLabel templateLabel;
     private final JLabel outputLabel;
     private final JLabel summaryLabel;
@@ -60,6 +62,8 @@ public class MainPanel extends JPanel implements Observer {
         guidesLabel = new JLabel();
         participantsLabel = new JLabel();
         themesLabel = new JLabel();
+        buddiesLabel = new JLabel();
+        conflictsLabel = new JLabel();
         templateLabel = new JLabel();
         outputLabel = new JLabel();
         summaryLabel = new JLabel("(Total: 0 guides, 0 guide clusters, 0 participants, 0 groups, 0 themes)");
@@ -97,6 +101,22 @@ public class MainPanel extends JPanel implements Observer {
         gbc.gridwidth = 3;
         add(themesLabel, gbc); // Add the themes file path label
 
+        gbc.gridy++; // Move to the next column
+        gbc.gridx = 0;
+        gbc.gridwidth = 1;
+        add(new JLabel("Buddies:"), gbc); // Add label for buddies
+        gbc.gridx++;
+        gbc.gridwidth = 3;
+        add(buddiesLabel, gbc); // Add the buddies file path label
+
+        gbc.gridy++; // Move to the next column
+        gbc.gridx = 0;
+        gbc.gridwidth = 1;
+        add(new JLabel("Conflicts:"), gbc); // Add label for conflicts
+        gbc.gridx++;
+        gbc.gridwidth = 3;
+        add(conflictsLabel, gbc); // Add the conflicts file path label
+
         gbc.gridy++; // Move to the next column
         gbc.gridx = 0;
         gbc.gridwidth = 1;
@@ -159,6 +179,8 @@ public class MainPanel extends JPanel implements Observer {
         String guidesText = truncateFilePath(groupingModel.getGuidesFilePath(), maxFilePathLength);
         String participantsText = truncateFilePath(groupingModel.getParticipantsFilePath(), maxFilePathLength);
         String themesText = truncateFilePath(groupingModel.getThemesFilePath(), maxFilePathLength);
+        String buddiesText = truncateFilePath(groupingModel.getBuddiesFilePath(), maxFilePathLength);
+        String conflictsText = truncateFilePath(groupingModel.getConflictsFilePath(), maxFilePathLength);
         String templateText = null;
         if (groupingModel.getEmailTemplate() != null) templateText = truncateFilePath(groupingModel.getEmailTemplate().getAbsolutePath(), maxFilePathLength);
         String outputText = truncateFilePath(groupingModel.getOutputFolderPath(), maxFilePathLength);
@@ -167,6 +189,8 @@ public class MainPanel extends JPanel implements Observer {
         guidesLabel.setText(guidesText);
         participantsLabel.setText(participantsText);
         themesLabel.setText(themesText);
+        buddiesLabel.setText(buddiesText);
+        conflictsLabel.setText(conflictsText);
         templateLabel.setText(templateText);
         outputLabel.setText(outputText);
 
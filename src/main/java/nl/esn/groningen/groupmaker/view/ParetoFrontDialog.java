@@ -0,0 +1,119 @@
+package nl.esn.groningen.groupmaker.view;
+
+import nl.esn.groningen.groupmaker.controller.buttons.CancelSolutionButton;
+import nl.esn.groningen.groupmaker.controller.buttons.SelectSolutionButton;
+import nl.esn.groningen.groupmaker.model.GroupingModel;
+import nl.esn.groningen.groupmaker.model.GroupingProblem;
+import nl.esn.groningen.groupmaker.model.Solution;
+import nl.esn.groningen.groupmaker.util.GroupingAlgorithm;
+import nl.esn.groningen.groupmaker.util.Objectives;
+import nl.esn.groningen.groupmaker.util.ParetoArchive;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * The {@code ParetoFrontDialog} class represents a modal dialog that lets
+ * users pick one of several alternative solutions found in multi-objective mode.
+ *
+ * <p>Every row of the table is a solution on the Pareto front: no other
+ * solution is better in all objectives at once. The columns show the value of
+ * every objective, where lower values are better. The selected solution is
+ * committed to the grouping model.</p>
+ *
+ * @see GroupingModel
+ * @see ParetoArchive
+ * @see Objectives
+ */
+public class ParetoFrontDialog extends JDialog {
+    private final GroupingModel groupingModel;  // Model receiving the selected solution
+    private final GroupingProblem problem;      // Problem the solutions were computed for
+    private final List<ParetoArchive.Entry> front;
+    private final JTable table;
+
+    /**
+     * Constructs a {@code ParetoFrontDialog} for the specified solutions.
+     *
+     * <p>This constructor fills the table with the objective values of the
+     * solutions, selects the first solution, adds a button bar and displays
+     * the dialog modally.</p>
+     *
+     * @param groupingModel The grouping model to commit the selected solution to.
+     * @param problem The problem the solutions were computed for.
+     * @param front The solutions to choose from.
+     */
+    public ParetoFrontDialog(GroupingModel groupingModel, GroupingProblem problem, List<ParetoArchive.Entry> front) {
+        super(null, "Choose a solution", Dialog.ModalityType.APPLICATION_MODAL);
+
+        this.groupingModel = groupingModel;
+        this.problem = problem;
+        this.front = front;
+        this.table = new JTable(generateTableModel(front));
+        table.getTableHeader().setFont(getFont().deriveFont(Font.BOLD));
+        table.setGridColor(Color.LIGHT_GRAY);
+        table.setShowVerticalLines(false);
+        table.setDefaultEditor(Object.class, null);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        if (!front.isEmpty()) table.setRowSelectionInterval(0, 0);
+
+        // Add the buttons to select a solution or cancel
+        JPanel buttonBar = new JPanel(new GridLayout(1, 2, 5, 0));
+        buttonBar.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        buttonBar.add(new SelectSolutionButton(this, "Use the selected solution"));
+        buttonBar.add(new CancelSolutionButton(this, "Close dialog without changing the groups"));
+
+        // Add components to the dialog
+        add(new JLabel("  Lower values are better. No solution is better than another in all columns."), BorderLayout.PAGE_START);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(buttonBar, BorderLayout.PAGE_END);
+
+        // Configure dialog appearance and behavior
+        setPreferredSize(new Dimension(600, 400));
+        pack();
+        setLocationRelativeTo(MainFrame.getInstance());
+        setVisible(true);
+    }
+
+    /**
+     * Commits the selected solution to the grouping model.
+     *
+     * <p>The guide clusters and themes are matched to the groups of the
+     * selected solution before it is committed.</p>
+     */
+    public void commitSelection() {
+        int row = table.getSelectedRow();
+        if (row < 0) return;
+
+        Solution solution = front.get(row).getSolution().copy();
+        GroupingAlgorithm.assignGuideClustersAndThemes(problem, solution);
+        groupingModel.commit(problem, solution);
+    }
+
+    /**
+     * Generates a table model holding the objective values of the solutions.
+     *
+     * @param front The solutions to display.
+     * @return a {@link DefaultTableModel} with one row per solution
+     */
+    private static DefaultTableModel generateTableModel(List<ParetoArchive.Entry> front) {
+        // Set the header row and initialize the table
+        String[] columnNames = new String[Objectives.COUNT + 1];
+        columnNames[0] = "Solution";
+        System.arraycopy(Objectives.NAMES, 0, columnNames, 1, Objectives.COUNT);
+        DefaultTableModel tableModel = new DefaultTableModel(columnNames, 0);
+
+        // Populate the table model with the objective values
+        for (int i = 0; i < front.size(); i++) {
+            Object[] row = new Object[Objectives.COUNT + 1];
+            row[0] = "Solution " + (i + 1);
+            for (int objective = 0; objective < Objectives.COUNT; objective++) {
+                row[objective + 1] = front.get(i).getObjective(objective);
+            }
+            tableModel.addRow(row);
+        }
+
+        return tableModel;
+    }
+}
\ No newline at end of file
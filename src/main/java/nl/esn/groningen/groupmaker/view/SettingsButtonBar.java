@@ -2,6 +2,7 @@ package nl.esn.groningen.groupmaker.view;
 
 import nl.esn.groningen.groupmaker.controller.buttons.ApplySettingsButton;
 import nl.esn.groningen.groupmaker.controller.buttons.CancelSettingsButton;
+import nl.esn.groningen.groupmaker.controller.buttons.ImportSettingsButton;
 import nl.esn.groningen.groupmaker.controller.buttons.RestoreSettingsButton;
 
 import javax.swing.*;
@@ -9,7 +10,7 @@ import java.awt.*;
 
 /**
  * The {@code SettingsButtonBar} class represents a panel that contains
- * buttons for applying, restoring, and canceling settings changes
+ * buttons for applying, restoring, importing, and canceling settings changes
  * within a settings dialog.
  *
  * <p>This panel is typically used in conjunction with a settings dialog
@@ -20,6 +21,7 @@ import java.awt.*;
  * @see SettingsDialog
  * @see ApplySettingsButton
  * @see RestoreSettingsButton
+ * @see ImportSettingsButton
  * @see CancelSettingsButton
  */
 public class SettingsButtonBar extends JPanel {
@@ -28,8 +30,8 @@ public class SettingsButtonBar extends JPanel {
      * Constructs a {@code SettingsButtonBar} with the specified settings dialog.
      *
      * <p>This constructor sets up the layout of the button bar and adds
-     * buttons for applying settings, restoring default settings, and
-     * canceling any changes.</p>
+     * buttons for applying settings, restoring default settings, importing
+     * a settings file, and canceling any changes.</p>
      *
      * @param settingsDialog The settings dialog associated with this button bar.
      */
@@ -54,6 +56,10 @@ public class SettingsButtonBar extends JPanel {
         gbc.insets = new Insets(5, -2, 5, -3); // Set margins
         add(new RestoreSettingsButton(settingsDialog, "Restore settings to saved values"), gbc);
 
+        // Add the Import button
+        gbc.gridx++; // Move to the next column
+        add(new ImportSettingsButton(settingsDialog, "Import settings and scoring weights from a file"), gbc);
+
         // Add the Cancel button
         gbc.gridx++; // Move to the next column
         gbc.insets = new Insets(5, -2, 5, 5); // Set margins
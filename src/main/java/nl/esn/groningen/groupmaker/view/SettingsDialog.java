@@ -2,9 +2,12 @@ package nl.esn.groningen.groupmaker.view;
 
 import nl.esn.groningen.groupmaker.model.GroupingModel;
 import nl.esn.groningen.groupmaker.model.Settings;
+import nl.esn.groningen.groupmaker.util.DialogHandler;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.File;
+import java.io.IOException;
 
 /**
  * The {@code SettingsDialog} class represents a modal dialog that allows
@@ -12,7 +15,7 @@ import java.awt.*;
  *
  * <p>This dialog contains a settings panel for adjusting parameters
  * such as group size and dietary preferences, along with buttons
- * to apply, restore, or cancel settings changes.</p>
+ * to apply, restore, import, or cancel settings changes.</p>
  *
  * @see GroupingModel
  * @see Settings
@@ -71,4 +74,21 @@ public class SettingsDialog extends JDialog {
         Settings settings = groupingModel.getSettings();
         settingsPanel.setSettingFields(settings);
     }
-}
\ No newline at end of file
+
+    /**
+     * Shows the settings of a settings file in the settings panel.
+     *
+     * <p>The imported settings, including their scoring weights, are only
+     * applied to the grouping model once the user applies them. If the file
+     * cannot be read, an error is shown and the panel is left unchanged.</p>
+     *
+     * @param file The settings file to import.
+     */
+    public void importSettings(File file) {
+        try {
+            settingsPanel.setSettingFields(Settings.read(file));
+        } catch (IOException | IllegalArgumentException ex) {
+            DialogHandler.showImportError();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package nl.esn.groningen.groupmaker.view;
 
+import nl.esn.groningen.groupmaker.model.ScoringWeights;
 import nl.esn.groningen.groupmaker.model.Settings;
 
 import javax.swing.*;
@@ -13,7 +14,11 @@ import java.awt.*;
  * <p>This panel provides options to set the maximum group size,
  * the maximum number of plant-based eaters, the maximum number of
  * individuals from the same nationality, and the maximum percentage
- * of the same gender within a group.</p>
+ * of the same gender within a group. Check boxes control whether themes
+ * are matched to the interests of the groups, whether the organiser picks
+ * from several alternative solutions, and whether the limits above take strict
+ * priority when participants are scored. The scoring weights have no fields of
+ * their own; they are kept as they are, or replaced by importing a settings file.</p>
  *
  * @see JPanel
  * @see Settings
@@ -23,6 +28,17 @@ public class SettingsPanel extends JPanel {
     private final JSpinner dietSpinner;
     private final JSpinner nationalitySpinner;
     private final JSpinner genderProportionSpinner;
+    private final JCheckBox themeOptimizationCheckBox;
+    private final JCheckBox multiObjectiveCheckBox;
+    private final JCheckBox islandModelCheckBox;
+    private final JCheckBox lexicographicScoringCheckBox;
+    private final JCheckBox nationalitySpreadingCheckBox;
+    private final JCheckBox forwardCheckingCheckBox;
+    private final JCheckBox beamSearchCheckBox;
+    private final JCheckBox regretInsertionCheckBox;
+    private final JCheckBox pairwiseRefinementCheckBox;
+    private final JCheckBox concurrentSwapSearchCheckBox;
+    private ScoringWeights scoringWeights;
 
     /**
      * Constructs a {@code SettingsPanel} with the specified settings.
@@ -36,7 +52,7 @@ public class SettingsPanel extends JPanel {
      */
     public SettingsPanel(Settings settings) {
         // Create a SpinnerNumberModel for each of the settings
-        SpinnerNumberModel model1 = new SpinnerNumberModel(settings.getGroupSize(), 1, 40, 1);
+        SpinnerNumberModel model1 = new SpinnerNumberModel(settings.getGroupSize(), 1, Settings.MAXIMUM_GROUP_SIZE, 1);
         SpinnerNumberModel model2 = new SpinnerNumberModel(settings.getPlantBasedGroupMaximum(), 1, 40, 1);
         SpinnerNumberModel model3 = new SpinnerNumberModel(settings.getSameNationalityGroupMaximum(), 1, 40, 1);
         SpinnerNumberModel model4 = new SpinnerNumberModel(settings.getSameGenderPercentageLimit(), 50, 100, 1);
@@ -46,6 +62,34 @@ public class SettingsPanel extends JPanel {
         dietSpinner = new JSpinner(model2);
         nationalitySpinner = new JSpinner(model3);
         genderProportionSpinner = new JSpinner(model4);
+        themeOptimizationCheckBox = new JCheckBox();
+        themeOptimizationCheckBox.setSelected(settings.isThemeOptimization());
+        multiObjectiveCheckBox = new JCheckBox();
+        multiObjectiveCheckBox.setSelected(settings.isMultiObjective());
+        islandModelCheckBox = new JCheckBox();
+        islandModelCheckBox.setSelected(settings.isIslandModel());
+        lexicographicScoringCheckBox = new JCheckBox();
+        lexicographicScoringCheckBox.setSelected(settings.isLexicographicScoring());
+        nationalitySpreadingCheckBox = new JCheckBox();
+        nationalitySpreadingCheckBox.setSelected(settings.isNationalitySpreading());
+        forwardCheckingCheckBox = new JCheckBox();
+        forwardCheckingCheckBox.setSelected(settings.isForwardChecking());
+        beamSearchCheckBox = new JCheckBox();
+        beamSearchCheckBox.setSelected(settings.isBeamSearch());
+        regretInsertionCheckBox = new JCheckBox();
+        regretInsertionCheckBox.setSelected(settings.isRegretInsertion());
+        pairwiseRefinementCheckBox = new JCheckBox();
+        pairwiseRefinementCheckBox.setSelected(settings.isPairwiseRefinement());
+        concurrentSwapSearchCheckBox = new JCheckBox();
+        concurrentSwapSearchCheckBox.setSelected(settings.isConcurrentSwapSearch());
+        scoringWeights = settings.getScoringWeights();
+
+        // Disable the constructions that the other switches rule out whenever one of them changes
+        lexicographicScoringCheckBox.addItemListener(e -> updateConstructionCheckBoxes());
+        nationalitySpreadingCheckBox.addItemListener(e -> updateConstructionCheckBoxes());
+        forwardCheckingCheckBox.addItemListener(e -> updateConstructionCheckBoxes());
+        regretInsertionCheckBox.addItemListener(e -> updateConstructionCheckBoxes());
+        updateConstructionCheckBoxes();
 
         // Change the JSpinners to not be editable with a keyboard
         ((JSpinner.DefaultEditor) groupSizeSpinner.getEditor()).getTextField().setEditable(false);
@@ -89,6 +133,66 @@ public class SettingsPanel extends JPanel {
         add(new JLabel("Maximum percentage of same gender per group:"), gbc);
         gbc.gridx++;
         add(genderProportionSpinner, gbc);
+
+        gbc.gridy++; // Move to the next row
+        gbc.gridx = 0;
+        add(new JLabel("Match themes to the interests of groups:"), gbc);
+        gbc.gridx++;
+        add(themeOptimizationCheckBox, gbc);
+
+        gbc.gridy++; // Move to the next row
+        gbc.gridx = 0;
+        add(new JLabel("Choose from alternative solutions after running:"), gbc);
+        gbc.gridx++;
+        add(multiObjectiveCheckBox, gbc);
+
+        gbc.gridy++; // Move to the next row
+        gbc.gridx = 0;
+        add(new JLabel("Let the alternative solutions exchange their best groups:"), gbc);
+        gbc.gridx++;
+        add(islandModelCheckBox, gbc);
+
+        gbc.gridy++; // Move to the next row
+        gbc.gridx = 0;
+        add(new JLabel("Give the limits above strict priority:"), gbc);
+        gbc.gridx++;
+        add(lexicographicScoringCheckBox, gbc);
+
+        gbc.gridy++; // Move to the next row
+        gbc.gridx = 0;
+        add(new JLabel("Spread large nationalities evenly over the groups:"), gbc);
+        gbc.gridx++;
+        add(nationalitySpreadingCheckBox, gbc);
+
+        gbc.gridy++; // Move to the next row
+        gbc.gridx = 0;
+        add(new JLabel("Check ahead that the limits can still be met:"), gbc);
+        gbc.gridx++;
+        add(forwardCheckingCheckBox, gbc);
+
+        gbc.gridy++; // Move to the next row
+        gbc.gridx = 0;
+        add(new JLabel("Consider several partial groups while filling a group:"), gbc);
+        gbc.gridx++;
+        add(beamSearchCheckBox, gbc);
+
+        gbc.gridy++; // Move to the next row
+        gbc.gridx = 0;
+        add(new JLabel("Place the participants with the most to lose first:"), gbc);
+        gbc.gridx++;
+        add(regretInsertionCheckBox, gbc);
+
+        gbc.gridy++; // Move to the next row
+        gbc.gridx = 0;
+        add(new JLabel("Refine the groups by swapping between pairs of groups:"), gbc);
+        gbc.gridx++;
+        add(pairwiseRefinementCheckBox, gbc);
+
+        gbc.gridy++; // Move to the next row
+        gbc.gridx = 0;
+        add(new JLabel("Improve the groups with swaps on all processor cores:"), gbc);
+        gbc.gridx++;
+        add(concurrentSwapSearchCheckBox, gbc);
     }
 
     /**
@@ -98,12 +202,24 @@ public class SettingsPanel extends JPanel {
      * @return The settings object containing the current values of the spinners.
      */
     public Settings readSettings() {
-        return new Settings(
+        Settings settings = new Settings(
                 (Integer) groupSizeSpinner.getValue(),
                 (Integer) dietSpinner.getValue(),
                 (Integer) nationalitySpinner.getValue(),
                 (Integer) genderProportionSpinner.getValue()
         );
+        settings.setThemeOptimization(themeOptimizationCheckBox.isSelected());
+        settings.setMultiObjective(multiObjectiveCheckBox.isSelected());
+        settings.setIslandModel(islandModelCheckBox.isSelected());
+        settings.setLexicographicScoring(lexicographicScoringCheckBox.isSelected());
+        settings.setNationalitySpreading(nationalitySpreadingCheckBox.isSelected());
+        settings.setForwardChecking(forwardCheckingCheckBox.isSelected());
+        settings.setBeamSearch(beamSearchCheckBox.isSelected() && beamSearchCheckBox.isEnabled());
+        settings.setRegretInsertion(regretInsertionCheckBox.isSelected() && regretInsertionCheckBox.isEnabled());
+        settings.setPairwiseRefinement(pairwiseRefinementCheckBox.isSelected());
+        settings.setConcurrentSwapSearch(concurrentSwapSearchCheckBox.isSelected());
+        settings.setScoringWeights(scoringWeights);
+        return settings;
     }
 
     /**
@@ -116,5 +232,27 @@ public class SettingsPanel extends JPanel {
         dietSpinner.setValue(settings.getPlantBasedGroupMaximum());
         nationalitySpinner.setValue(settings.getSameNationalityGroupMaximum());
         genderProportionSpinner.setValue(settings.getSameGenderPercentageLimit());
+        themeOptimizationCheckBox.setSelected(settings.isThemeOptimization());
+        multiObjectiveCheckBox.setSelected(settings.isMultiObjective());
+        islandModelCheckBox.setSelected(settings.isIslandModel());
+        lexicographicScoringCheckBox.setSelected(settings.isLexicographicScoring());
+        nationalitySpreadingCheckBox.setSelected(settings.isNationalitySpreading());
+        forwardCheckingCheckBox.setSelected(settings.isForwardChecking());
+        beamSearchCheckBox.setSelected(settings.isBeamSearch());
+        regretInsertionCheckBox.setSelected(settings.isRegretInsertion());
+        pairwiseRefinementCheckBox.setSelected(settings.isPairwiseRefinement());
+        concurrentSwapSearchCheckBox.setSelected(settings.isConcurrentSwapSearch());
+        scoringWeights = settings.getScoringWeights();
+    }
+
+    /**
+     * Enables the check boxes of regret insertion and beam search only if the other check boxes do not
+     * rule them out (see {@link Settings#isRegretInsertionUsed()} and {@link Settings#isBeamSearchUsed()}).
+     */
+    private void updateConstructionCheckBoxes() {
+        boolean sequential = nationalitySpreadingCheckBox.isSelected() || forwardCheckingCheckBox.isSelected();
+        regretInsertionCheckBox.setEnabled(!sequential && !lexicographicScoringCheckBox.isSelected());
+        beamSearchCheckBox.setEnabled(!sequential
+                && !(regretInsertionCheckBox.isSelected() && regretInsertionCheckBox.isEnabled()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,220 @@
+package nl.esn.groningen.groupmaker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link FlowNetwork}, comparing its flows with the values found by trying all cuts, or
+ * all flows, of small random networks.
+ */
+class FlowNetworkTest {
+    private static final int INSTANCES = 500;
+    private static final int MAXIMUM_NODES = 8;
+    private static final int MAXIMUM_EDGES = 20;
+    private static final int MAXIMUM_CAPACITY = 10;
+
+    // The networks of the minimum cost flows, small enough to try every flow over every edge
+    private static final int MAXIMUM_COST_NODES = 5;
+    private static final int MAXIMUM_COST_EDGES = 7;
+    private static final int MAXIMUM_COST_CAPACITY = 2;
+    private static final int MAXIMUM_COST = 5;
+
+    /**
+     * Checks that the maximum flow of random networks equals the capacity of their minimum cut, and
+     * that the flow over the edges is a valid flow of that value.
+     */
+    @Test
+    void maxFlowEqualsTheMinimumCut() {
+        Random random = new Random(31);
+        for (int instance = 0; instance < INSTANCES; instance++) {
+            int nodes = 2 + random.nextInt(MAXIMUM_NODES - 1);
+            int[][] edges = createEdges(random, nodes, 1 + random.nextInt(MAXIMUM_EDGES), MAXIMUM_CAPACITY);
+            FlowNetwork network = new FlowNetwork(nodes);
+            int[] indices = addEdges(network, edges);
+
+            int flow = network.maxFlow(0, nodes - 1);
+            assertEquals(findMinimumCut(edges, nodes), flow, "Maximum flow of network " + instance);
+            assertValid(network, edges, indices, nodes, flow);
+        }
+    }
+
+    /**
+     * Checks that a sink that cannot be reached receives no flow.
+     */
+    @Test
+    void maxFlowIsZeroWithoutAPath() {
+        FlowNetwork network = new FlowNetwork(3);
+        int edge = network.addEdge(0, 1, 5);
+        network.addEdge(2, 1, 5);
+        assertEquals(0, network.maxFlow(0, 2));
+        assertEquals(0, network.getFlow(edge));
+    }
+
+    /**
+     * Checks that the minimum cost flow of random networks has the value of the maximum flow and the
+     * lowest cost of any flow of that value, and that the flow over the edges is a valid flow.
+     */
+    @Test
+    void minCostFlowFindsTheCheapestMaximumFlow() {
+        Random random = new Random(39);
+        for (int instance = 0; instance < INSTANCES; instance++) {
+            int nodes = 2 + random.nextInt(MAXIMUM_COST_NODES - 1);
+            int[][] edges = createEdges(random, nodes, 1 + random.nextInt(MAXIMUM_COST_EDGES), MAXIMUM_COST_CAPACITY);
+            int[] costs = new int[edges.length];
+            FlowNetwork network = new FlowNetwork(nodes);
+            int[] indices = new int[edges.length];
+            for (int e = 0; e < edges.length; e++) {
+                costs[e] = random.nextInt(MAXIMUM_COST + 1);
+                indices[e] = network.addEdge(edges[e][0], edges[e][1], edges[e][2], costs[e]);
+            }
+
+            int flow = network.minCostFlow(0, nodes - 1);
+            assertValid(network, edges, indices, nodes, flow);
+            long cost = 0;
+            for (int e = 0; e < edges.length; e++) {
+                cost += (long) costs[e] * network.getFlow(indices[e]);
+            }
+
+            long[] best = findCheapestMaximumFlow(edges, costs, nodes, 0, new int[edges.length]);
+            assertEquals(best[0], flow, "Value of the minimum cost flow of network " + instance);
+            assertEquals(best[1], cost, "Cost of the minimum cost flow of network " + instance);
+        }
+    }
+
+    /**
+     * Checks that the flow takes the cheaper of two parallel paths when the capacity allows only one.
+     */
+    @Test
+    void minCostFlowPrefersTheCheaperPath() {
+        FlowNetwork network = new FlowNetwork(4);
+        network.addEdge(0, 1, 1);
+        int expensive = network.addEdge(1, 2, 1, 5);
+        int cheap = network.addEdge(1, 2, 1, 2);
+        network.addEdge(2, 3, 1);
+        assertEquals(1, network.minCostFlow(0, 3));
+        assertEquals(0, network.getFlow(expensive));
+        assertEquals(1, network.getFlow(cheap));
+    }
+
+    /**
+     * Creates random edges between distinct nodes.
+     *
+     * @param random The source of randomness.
+     * @param nodes The number of nodes.
+     * @param count The number of edges.
+     * @param maximumCapacity The highest capacity of an edge.
+     * @return The edges, as {@code {from, to, capacity}}.
+     */
+    private static int[][] createEdges(Random random, int nodes, int count, int maximumCapacity) {
+        int[][] edges = new int[count][];
+        for (int e = 0; e < count; e++) {
+            int from = random.nextInt(nodes);
+            int target = random.nextInt(nodes - 1);
+            if (target >= from) target++;
+            edges[e] = new int[]{from, target, random.nextInt(maximumCapacity + 1)};
+        }
+        return edges;
+    }
+
+    /**
+     * Adds edges to a network.
+     *
+     * @param network The network.
+     * @param edges The edges, as {@code {from, to, capacity}}.
+     * @return The index of every edge in the network.
+     */
+    private static int[] addEdges(FlowNetwork network, int[][] edges) {
+        int[] indices = new int[edges.length];
+        for (int e = 0; e < edges.length; e++) {
+            indices[e] = network.addEdge(edges[e][0], edges[e][1], edges[e][2]);
+        }
+        return indices;
+    }
+
+    /**
+     * Checks that the flow over every edge lies within its capacity, that every node other than the
+     * source and the sink keeps as much flow as it receives, and that the source sends the given value.
+     *
+     * @param network The network after computing a flow.
+     * @param edges The edges, as {@code {from, to, capacity}}.
+     * @param indices The index of every edge in the network.
+     * @param nodes The number of nodes; the source is node 0 and the sink the last node.
+     * @param value The value of the flow.
+     */
+    private static void assertValid(FlowNetwork network, int[][] edges, int[] indices, int nodes, int value) {
+        int[] balance = new int[nodes];
+        for (int e = 0; e < edges.length; e++) {
+            int flow = network.getFlow(indices[e]);
+            assertTrue(flow >= 0 && flow <= edges[e][2], "Flow " + flow + " exceeds capacity " + edges[e][2]);
+            balance[edges[e][0]] -= flow;
+            balance[edges[e][1]] += flow;
+        }
+        for (int node = 1; node < nodes - 1; node++) {
+            assertEquals(0, balance[node], "Flow is not conserved at node " + node);
+        }
+        assertEquals(-value, balance[0]);
+        assertEquals(value, balance[nodes - 1]);
+    }
+
+    /**
+     * Finds the capacity of the minimum cut by trying every set of nodes containing the source but not
+     * the sink.
+     *
+     * @param edges The edges, as {@code {from, to, capacity}}.
+     * @param nodes The number of nodes; the source is node 0 and the sink the last node.
+     * @return The lowest total capacity of the edges leaving such a set.
+     */
+    private static int findMinimumCut(int[][] edges, int nodes) {
+        int minimum = Integer.MAX_VALUE;
+        for (int subset = 0; subset < 1 << (nodes - 2); subset++) {
+            long side = 1L | (long) subset << 1; // Node 0 always on the source side, the sink never
+            int cut = 0;
+            for (int[] edge : edges) {
+                if ((side >> edge[0] & 1) == 1 && (side >> edge[1] & 1) == 0) cut += edge[2];
+            }
+            minimum = Math.min(minimum, cut);
+        }
+        return minimum;
+    }
+
+    /**
+     * Finds the value of the maximum flow and the lowest cost of a flow of that value, by trying every
+     * flow over every remaining edge.
+     *
+     * @param edges The edges, as {@code {from, to, capacity}}.
+     * @param costs The cost of every unit of flow over every edge.
+     * @param nodes The number of nodes; the source is node 0 and the sink the last node.
+     * @param edge The first edge without a flow yet.
+     * @param flows The flow over every edge before the given edge.
+     * @return The highest value and the lowest cost at that value, or {@code null} if no valid flow
+     *         remains.
+     */
+    private static long[] findCheapestMaximumFlow(int[][] edges, int[] costs, int nodes, int edge, int[] flows) {
+        if (edge == edges.length) {
+            int[] balance = new int[nodes];
+            long cost = 0;
+            for (int e = 0; e < edges.length; e++) {
+                balance[edges[e][0]] -= flows[e];
+                balance[edges[e][1]] += flows[e];
+                cost += (long) costs[e] * flows[e];
+            }
+            for (int node = 1; node < nodes - 1; node++) {
+                if (balance[node] != 0) return null;
+            }
+            return new long[]{balance[nodes - 1], cost};
+        }
+
+        long[] best = null;
+        for (int flow = 0; flow <= edges[edge][2]; flow++) {
+            flows[edge] = flow;
+            long[] result = findCheapestMaximumFlow(edges, costs, nodes, edge + 1, flows);
+            if (result != null && (best == null || result[0] > best[0] || result[0] == best[0] && result[1] < best[1])) {
+                best = result;
+            }
+        }
+        return best;
+    }
+}
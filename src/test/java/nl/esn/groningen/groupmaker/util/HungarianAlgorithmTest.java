@@ -0,0 +1,122 @@
+package nl.esn.groningen.groupmaker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link HungarianAlgorithm}, comparing its assignments with the cheapest assignment
+ * found by trying all assignments of small cost matrices.
+ */
+class HungarianAlgorithmTest {
+    private static final int INSTANCES = 500;
+    private static final int MAXIMUM_DIMENSION = 6;
+
+    /**
+     * Checks that square, wide and tall random matrices are assigned at the minimum cost.
+     */
+    @Test
+    void solveFindsTheCheapestAssignment() {
+        Random random = new Random(29);
+        for (int instance = 0; instance < INSTANCES; instance++) {
+            int rows = 1 + random.nextInt(MAXIMUM_DIMENSION);
+            int columns = 1 + random.nextInt(MAXIMUM_DIMENSION);
+            long[][] cost = new long[rows][columns];
+            for (long[] row : cost) {
+                for (int column = 0; column < columns; column++) {
+                    row[column] = random.nextInt(201) - 100;
+                }
+            }
+
+            int[] rowToColumn = HungarianAlgorithm.solve(cost);
+            assertValid(rowToColumn, rows, columns);
+            assertEquals(findCheapestCost(cost), HungarianAlgorithm.calculateCost(cost, rowToColumn),
+                    "Cost of a " + rows + "x" + columns + " matrix");
+        }
+    }
+
+    /**
+     * Checks that equal costs, where every assignment is optimal, still give a complete assignment.
+     */
+    @Test
+    void solveAssignsEveryRowOfAConstantMatrix() {
+        long[][] cost = new long[4][4];
+        int[] rowToColumn = HungarianAlgorithm.solve(cost);
+        assertValid(rowToColumn, 4, 4);
+        assertEquals(0, HungarianAlgorithm.calculateCost(cost, rowToColumn));
+    }
+
+    /**
+     * Checks that an empty matrix gives an empty assignment.
+     */
+    @Test
+    void solveHandlesAnEmptyMatrix() {
+        assertEquals(0, HungarianAlgorithm.solve(new long[0][0]).length);
+    }
+
+    /**
+     * Checks that an assignment has an entry for every row, uses every column at most once, and assigns
+     * as many rows as there are rows or columns, whichever is fewer.
+     *
+     * @param rowToColumn The assignment.
+     * @param rows The number of rows of the matrix.
+     * @param columns The number of columns of the matrix.
+     */
+    private static void assertValid(int[] rowToColumn, int rows, int columns) {
+        assertEquals(rows, rowToColumn.length);
+        boolean[] used = new boolean[columns];
+        int assigned = 0;
+        for (int column : rowToColumn) {
+            if (column < 0) continue;
+            assertTrue(column < columns, "Column " + column + " out of range");
+            assertFalse(used[column], "Column " + column + " assigned twice");
+            used[column] = true;
+            assigned++;
+        }
+        assertEquals(Math.min(rows, columns), assigned);
+    }
+
+    /**
+     * Finds the cost of the cheapest assignment by trying every assignment of the rows (or of the
+     * columns, if there are fewer) to distinct columns (or rows).
+     *
+     * @param cost The cost matrix.
+     * @return The minimum total cost.
+     */
+    private static long findCheapestCost(long[][] cost) {
+        int rows = cost.length;
+        int columns = cost[0].length;
+        if (rows <= columns) return findCheapestRemainingCost(cost, 0, new boolean[columns]);
+
+        long[][] transposed = new long[columns][rows];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                transposed[column][row] = cost[row][column];
+            }
+        }
+        return findCheapestRemainingCost(transposed, 0, new boolean[rows]);
+    }
+
+    /**
+     * Finds the cheapest cost of assigning the remaining rows to the unused columns.
+     *
+     * @param cost The cost matrix, with no more rows than columns.
+     * @param row The first row that is not assigned yet.
+     * @param used Which columns are assigned already.
+     * @return The minimum cost of the remaining rows.
+     */
+    private static long findCheapestRemainingCost(long[][] cost, int row, boolean[] used) {
+        if (row == cost.length) return 0;
+
+        long cheapest = Long.MAX_VALUE;
+        for (int column = 0; column < used.length; column++) {
+            if (used[column]) continue;
+            used[column] = true;
+            cheapest = Math.min(cheapest, cost[row][column] + findCheapestRemainingCost(cost, row + 1, used));
+            used[column] = false;
+        }
+        return cheapest;
+    }
+}
\ No newline at end of file
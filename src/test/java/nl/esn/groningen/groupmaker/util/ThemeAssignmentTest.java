@@ -0,0 +1,207 @@
+package nl.esn.groningen.groupmaker.util;
+
+import nl.esn.groningen.groupmaker.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link ThemeAssignment}, comparing its assignments with the best assignment found by
+ * trying all assignments of themes to the groups of small problems.
+ */
+class ThemeAssignmentTest {
+    private static final int INSTANCES = 300;
+    private static final int MAXIMUM_GROUPS = 5;
+    private static final int MAXIMUM_THEMES = 6;
+    private static final int PARTICIPANTS = 24;
+
+    /**
+     * Checks that the themes are assigned with the lowest total share of members not sharing the
+     * interest of the theme of their group, with more groups than themes and the other way around.
+     */
+    @Test
+    void assignFindsTheBestAssignment() {
+        Random random = new Random(30);
+        for (int instance = 0; instance < INSTANCES; instance++) {
+            int numberOfGroups = 1 + random.nextInt(MAXIMUM_GROUPS);
+            int numberOfThemes = 1 + random.nextInt(MAXIMUM_THEMES);
+            int[] themeInterests = new int[numberOfThemes];
+            for (int theme = 0; theme < numberOfThemes; theme++) {
+                themeInterests[theme] = random.nextInt(ParticipantEncoding.INTEREST_COUNT);
+            }
+            themeInterests[0] = ParticipantEncoding.INTEREST_PARTY; // At least one theme has an interest
+
+            GroupingProblem problem = createProblem(random, themeInterests);
+            Solution solution = createSolution(random, numberOfGroups);
+            ThemeAssignment.assign(problem, solution);
+
+            int[] themes = new int[numberOfGroups];
+            for (int group = 0; group < numberOfGroups; group++) {
+                themes[group] = solution.getTheme(group);
+            }
+            assertValid(themes, numberOfThemes);
+
+            long[][] cost = calculateCost(problem, solution);
+            assertEquals(findLowestCost(cost, 0, new boolean[numberOfThemes]), calculateTotal(cost, themes),
+                    numberOfGroups + " groups and themes " + Arrays.toString(themeInterests));
+        }
+    }
+
+    /**
+     * Checks that themes without interests are assigned in the order in which they were imported.
+     */
+    @Test
+    void assignKeepsTheOrderWithoutInterests() {
+        int[] themeInterests = new int[3];
+        Arrays.fill(themeInterests, ParticipantEncoding.INTEREST_OTHER);
+        GroupingProblem problem = createProblem(new Random(30), themeInterests);
+        Solution solution = createSolution(new Random(30), 4);
+        ThemeAssignment.assign(problem, solution);
+
+        assertEquals(0, solution.getTheme(0));
+        assertEquals(1, solution.getTheme(1));
+        assertEquals(2, solution.getTheme(2));
+        assertEquals(Solution.UNASSIGNED, solution.getTheme(3));
+    }
+
+    /**
+     * Creates a problem with participants of random interests and the given themes.
+     *
+     * @param random The source of randomness.
+     * @param themeInterests The encoded interest of every theme.
+     * @return The problem.
+     */
+    private static GroupingProblem createProblem(Random random, int[] themeInterests) {
+        long[] codes = new long[PARTICIPANTS];
+        int[] nationalities = new int[PARTICIPANTS];
+        int[] ages = new int[PARTICIPANTS];
+        for (int p = 0; p < PARTICIPANTS; p++) {
+            codes[p] = ParticipantEncoding.encode(ParticipantEncoding.GENDER_MALE, ParticipantEncoding.UNIVERSITY_UG,
+                    0, ParticipantEncoding.DIET_NONE, false, false, false,
+                    random.nextInt(ParticipantEncoding.INTEREST_COUNT));
+            nationalities[p] = ParticipantStore.UNKNOWN_NATIONALITY;
+            ages[p] = ParticipantStore.UNKNOWN_AGE;
+        }
+
+        String[] themes = new String[themeInterests.length];
+        for (int theme = 0; theme < themes.length; theme++) {
+            themes[theme] = "Theme " + theme;
+        }
+        ParticipantStore store = new ParticipantStore(codes, nationalities, new int[0], ages);
+        return new GroupingProblem(store, null, themes, themeInterests, null, null, new Settings());
+    }
+
+    /**
+     * Creates a solution that places the participants in random groups, some of which may stay empty.
+     *
+     * @param random The source of randomness.
+     * @param numberOfGroups The number of groups.
+     * @return The solution.
+     */
+    private static Solution createSolution(Random random, int numberOfGroups) {
+        Solution solution = new Solution(PARTICIPANTS, numberOfGroups);
+        for (int p = 0; p < PARTICIPANTS; p++) {
+            solution.assign(p, random.nextInt(numberOfGroups));
+        }
+        return solution;
+    }
+
+    /**
+     * Checks that every group has a valid theme or none, that no theme is used twice, and that as many
+     * groups have a theme as there are groups or themes, whichever is fewer.
+     *
+     * @param themes The theme of every group.
+     * @param numberOfThemes The number of themes.
+     */
+    private static void assertValid(int[] themes, int numberOfThemes) {
+        boolean[] used = new boolean[numberOfThemes];
+        int assigned = 0;
+        for (int theme : themes) {
+            if (theme == Solution.UNASSIGNED) continue;
+            assertTrue(theme >= 0 && theme < numberOfThemes, "Theme " + theme + " out of range");
+            assertFalse(used[theme], "Theme " + theme + " assigned twice");
+            used[theme] = true;
+            assigned++;
+        }
+        assertEquals(Math.min(themes.length, numberOfThemes), assigned);
+    }
+
+    /**
+     * Calculates the cost of every group and theme: the share of members of the group, in percent,
+     * that do not share the interest of the theme, or 0 for an empty group.
+     *
+     * @param problem The problem holding the participants and themes.
+     * @param solution The solution describing the groups.
+     * @return The cost matrix, indexed as {@code cost[group][theme]}.
+     */
+    private static long[][] calculateCost(GroupingProblem problem, Solution solution) {
+        ParticipantStore store = problem.getParticipantStore();
+        int[] themeInterests = problem.getThemeInterests();
+        int[][] members = solution.getMembers();
+        long[][] cost = new long[members.length][themeInterests.length];
+        for (int group = 0; group < members.length; group++) {
+            if (members[group].length == 0) continue;
+            for (int theme = 0; theme < themeInterests.length; theme++) {
+                int matching = 0;
+                for (int member : members[group]) {
+                    int interest = ParticipantEncoding.interest(store.getCode(member));
+                    if (interest != ParticipantEncoding.INTEREST_OTHER && interest == themeInterests[theme]) matching++;
+                }
+                cost[group][theme] = Math.round(100.0 * (members[group].length - matching) / members[group].length);
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Calculates the total cost of the themes of the groups.
+     *
+     * @param cost The cost matrix.
+     * @param themes The theme of every group, or {@link Solution#UNASSIGNED}.
+     * @return The sum of the costs of the groups with a theme.
+     */
+    private static long calculateTotal(long[][] cost, int[] themes) {
+        long total = 0;
+        for (int group = 0; group < themes.length; group++) {
+            if (themes[group] != Solution.UNASSIGNED) total += cost[group][themes[group]];
+        }
+        return total;
+    }
+
+    /**
+     * Finds the lowest cost of giving the remaining groups distinct themes, by trying all of them. If
+     * there are more groups than themes, groups may also be left without a theme, as long as every
+     * theme is used.
+     *
+     * @param cost The cost matrix.
+     * @param group The first group without a theme yet.
+     * @param used Which themes are used already.
+     * @return The lowest cost of the remaining groups, or {@link Long#MAX_VALUE} if not all themes can
+     *         be used anymore.
+     */
+    private static long findLowestCost(long[][] cost, int group, boolean[] used) {
+        int groups = cost.length;
+        int unusedThemes = 0;
+        for (boolean theme : used) {
+            if (!theme) unusedThemes++;
+        }
+        if (group == groups) return 0;
+
+        long lowest = Long.MAX_VALUE;
+        // Leave the group without a theme only if the remaining groups can still use all other themes
+        if (groups - group - 1 >= unusedThemes) {
+            lowest = findLowestCost(cost, group + 1, used);
+        }
+        for (int theme = 0; theme < used.length; theme++) {
+            if (used[theme]) continue;
+            used[theme] = true;
+            long rest = findLowestCost(cost, group + 1, used);
+            if (rest != Long.MAX_VALUE) lowest = Math.min(lowest, cost[group][theme] + rest);
+            used[theme] = false;
+        }
+        return lowest;
+    }
+}
\ No newline at end of file